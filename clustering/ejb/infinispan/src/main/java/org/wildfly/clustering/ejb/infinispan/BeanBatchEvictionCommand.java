@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan;
+
+import java.util.Collection;
+
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.ee.Batch;
+import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
+
+/**
+ * Command that evicts a batch of beans.
+ * Only sent if eviction batching is enabled, since nodes of a prior version cannot execute this command.
+ */
+public class BeanBatchEvictionCommand<I> implements Command<Void, BeanEvictionContext<I>> {
+    private static final long serialVersionUID = -2710870478263398317L;
+
+    private final Collection<I> ids;
+
+    public BeanBatchEvictionCommand(Collection<I> ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Evicts all beans within a single batch.
+     * If any bean fails to evict, the batch is discarded and each bean is evicted within its own batch.
+     */
+    @Override
+    public Void execute(BeanEvictionContext<I> context) throws Exception {
+        Batch batch = context.getBatcher().createBatch();
+        boolean success = false;
+        try {
+            for (I id: this.ids) {
+                InfinispanEjbLogger.ROOT_LOGGER.tracef("Evicting stateful session bean %s", id);
+                context.getEvictor().evict(id);
+            }
+            success = true;
+        } catch (Exception e) {
+            InfinispanEjbLogger.ROOT_LOGGER.debugf(e, "Failed to evict %d stateful session beans in a single batch", this.ids.size());
+        } finally {
+            if (success) {
+                batch.close();
+            } else {
+                batch.discard();
+            }
+        }
+        if (success) return null;
+
+        Exception exception = null;
+        for (I id: this.ids) {
+            try {
+                new BeanEvictionCommand<>(id).execute(context);
+            } catch (Exception e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return null;
+    }
+}
@@ -21,9 +21,14 @@
  */
 package org.wildfly.clustering.ejb.infinispan;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
@@ -35,6 +40,10 @@ import org.wildfly.clustering.infinispan.spi.distribution.Locality;
 
 /**
  * Schedules a bean for eviction.
+ * Scheduled beans are partitioned into lock-striped segments, each ordered by schedule time.
+ * The least recently scheduled bean is the oldest among the heads of all segments.
+ * Once the number of scheduled beans exceeds the configured maximum, the excess beans are evicted asynchronously,
+ * using a single command per batch of beans if eviction batching is enabled, otherwise a single command per bean.
  *
  * @author Paul Ferraro
  *
@@ -44,16 +53,39 @@ import org.wildfly.clustering.infinispan.spi.distribution.Locality;
  */
 public class BeanEvictionScheduler<I> implements Scheduler<I>, BeanEvictionContext<I> {
 
-    private final Set<I> evictionQueue = new LinkedHashSet<>();
+    static final int MAX_BATCH_SIZE = 64;
+
+    private final Segment<I>[] segments;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
     private final Batcher<TransactionBatch> batcher;
     private final Evictor<I> evictor;
     private final CommandDispatcher<BeanEvictionContext<I>> dispatcher;
     private final PassivationConfiguration<?> config;
+    private final Runnable evictionTask = new Runnable() {
+        @Override
+        public void run() {
+            BeanEvictionScheduler.this.evict();
+        }
+    };
 
     public BeanEvictionScheduler(String name, Batcher<TransactionBatch> batcher, Evictor<I> evictor, CommandDispatcherFactory dispatcherFactory, PassivationConfiguration<?> config) {
+        this(name, batcher, evictor, dispatcherFactory, config, Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    public BeanEvictionScheduler(String name, Batcher<TransactionBatch> batcher, Evictor<I> evictor, CommandDispatcherFactory dispatcherFactory, PassivationConfiguration<?> config, int concurrency) {
         this.batcher = batcher;
         this.evictor = evictor;
         this.config = config;
+        int segments = 1;
+        while (segments < concurrency) {
+            segments <<= 1;
+        }
+        this.segments = new Segment[segments];
+        for (int i = 0; i < segments; ++i) {
+            this.segments[i] = new Segment<>();
+        }
         this.dispatcher = dispatcherFactory.<BeanEvictionContext<I>>createCommandDispatcher(name, this);
     }
 
@@ -67,21 +99,42 @@ public class BeanEvictionScheduler<I> implements Scheduler<I>, BeanEvictionConte
         return this.evictor;
     }
 
+    /**
+     * Returns the number of beans currently scheduled for eviction.
+     * @return the number of scheduled beans
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    private Segment<I> segment(I id) {
+        int hash = id.hashCode();
+        // Spread the higher bits, since the number of segments is typically small
+        hash ^= (hash >>> 16);
+        return this.segments[hash & (this.segments.length - 1)];
+    }
+
     @Override
     public void cancel(I id) {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.remove(id);
+        Segment<I> segment = this.segment(id);
+        synchronized (segment) {
+            if (segment.remove(id) != null) {
+                this.size.decrementAndGet();
+            }
         }
     }
 
     @Override
     public void cancel(Locality locality) {
-        synchronized (this.evictionQueue) {
-            Iterator<I> beans = this.evictionQueue.iterator();
-            while (beans.hasNext()) {
-                I id = beans.next();
-                if (!locality.isLocal(id)) {
-                    beans.remove();
+        for (Segment<I> segment: this.segments) {
+            synchronized (segment) {
+                Iterator<I> beans = segment.keySet().iterator();
+                while (beans.hasNext()) {
+                    I id = beans.next();
+                    if (!locality.isLocal(id)) {
+                        beans.remove();
+                        this.size.decrementAndGet();
+                    }
                 }
             }
         }
@@ -89,27 +142,133 @@ public class BeanEvictionScheduler<I> implements Scheduler<I>, BeanEvictionConte
 
     @Override
     public void schedule(I id) {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.add(id);
-            // Trigger eviction of oldest bean if necessary
-            if (this.evictionQueue.size() > this.config.getConfiguration().getMaxSize()) {
-                Iterator<I> beans = this.evictionQueue.iterator();
-                I bean = beans.next();
-                try {
-                    this.dispatcher.submitOnCluster(new BeanEvictionCommand<>(bean));
-                    beans.remove();
-                } catch (Exception e) {
-                    InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBean(e, bean);
+        Segment<I> segment = this.segment(id);
+        long time = System.nanoTime();
+        synchronized (segment) {
+            // Reinsert, so that this bean moves to the tail of its segment
+            if (segment.remove(id) == null) {
+                this.size.incrementAndGet();
+            }
+            segment.put(id, time);
+        }
+        // Trigger eviction of oldest beans if necessary
+        if ((this.size.get() > this.config.getConfiguration().getMaxSize()) && this.evicting.compareAndSet(false, true)) {
+            try {
+                this.config.getExecutor().execute(this.evictionTask);
+            } catch (RejectedExecutionException e) {
+                // Scheduler was closed
+                this.evicting.set(false);
+            }
+        }
+    }
+
+    void evict() {
+        boolean evicted;
+        do {
+            evicted = false;
+            try {
+                evicted = this.evictExcess();
+            } finally {
+                this.evicting.set(false);
+            }
+            // Handle beans scheduled after the last check, but before the flag was cleared
+        } while (evicted && (this.size.get() > this.config.getConfiguration().getMaxSize()) && this.evicting.compareAndSet(false, true));
+    }
+
+    private boolean evictExcess() {
+        int excess = this.size.get() - this.config.getConfiguration().getMaxSize();
+        while (excess > 0) {
+            List<I> beans = this.poll(Math.min(excess, MAX_BATCH_SIZE));
+            if (beans.isEmpty()) break;
+            if (!this.submit(beans)) return false;
+            excess = this.size.get() - this.config.getConfiguration().getMaxSize();
+        }
+        return true;
+    }
+
+    /**
+     * Submits eviction commands for the specified beans, rescheduling those beans whose command could not be submitted.
+     * @return true, if all commands were submitted, false otherwise
+     */
+    private boolean submit(List<I> beans) {
+        if (this.config.getConfiguration().isEvictionBatching()) {
+            try {
+                this.dispatcher.submitOnCluster(new BeanBatchEvictionCommand<>(beans));
+                return true;
+            } catch (Exception e) {
+                for (I bean: beans) {
+                    this.rescheduleFailed(e, bean);
+                }
+                return false;
+            }
+        }
+        boolean submitted = true;
+        for (I bean: beans) {
+            try {
+                this.dispatcher.submitOnCluster(new BeanEvictionCommand<>(bean));
+            } catch (Exception e) {
+                this.rescheduleFailed(e, bean);
+                submitted = false;
+            }
+        }
+        return submitted;
+    }
+
+    private void rescheduleFailed(Exception e, I bean) {
+        InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBean(e, bean);
+        // Eviction will be reattempted upon the next schedule
+        this.schedule(bean);
+    }
+
+    /**
+     * Removes up to the specified number of least recently scheduled beans.
+     */
+    private List<I> poll(int count) {
+        List<I> beans = new ArrayList<>(count);
+        while (beans.size() < count) {
+            Segment<I> oldest = null;
+            long oldestTime = 0;
+            for (Segment<I> segment: this.segments) {
+                synchronized (segment) {
+                    Iterator<Map.Entry<I, Long>> entries = segment.entrySet().iterator();
+                    if (entries.hasNext()) {
+                        long time = entries.next().getValue();
+                        if ((oldest == null) || (time - oldestTime < 0)) {
+                            oldest = segment;
+                            oldestTime = time;
+                        }
+                    }
+                }
+            }
+            if (oldest == null) break;
+            synchronized (oldest) {
+                // The head may have changed since it was sampled, in which case the new head is evicted instead
+                Iterator<I> ids = oldest.keySet().iterator();
+                if (ids.hasNext()) {
+                    beans.add(ids.next());
+                    ids.remove();
+                    this.size.decrementAndGet();
                 }
             }
         }
+        return beans;
     }
 
     @Override
     public void close() {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.clear();
+        for (Segment<I> segment: this.segments) {
+            synchronized (segment) {
+                this.size.addAndGet(-segment.size());
+                segment.clear();
+            }
         }
         this.dispatcher.close();
     }
+
+    /**
+     * Scheduled beans of a segment, in schedule order, mapped to their schedule time.
+     */
+    private static class Segment<I> extends LinkedHashMap<I, Long> {
+        private static final long serialVersionUID = 5064006391457722436L;
+    }
 }
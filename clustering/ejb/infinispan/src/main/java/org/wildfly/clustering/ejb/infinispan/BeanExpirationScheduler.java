@@ -62,10 +62,15 @@ public class BeanExpirationScheduler<G, I, T> implements Scheduler<I> {
         if (value >= 0) {
             TimeUnit unit = timeout.getUnit();
             InfinispanEjbLogger.ROOT_LOGGER.tracef("Scheduling stateful session bean %s to expire in %d %s", id, value, unit);
-            Runnable task = new ExpirationTask(id);
+            ExpirationTask task = new ExpirationTask(id);
             // Make sure the expiration future map insertion happens before map removal (during task execution).
             synchronized (task) {
-                this.expirationFutures.put(id, this.expiration.getExecutor().schedule(task, value, unit));
+                task.future = this.expiration.getExecutor().schedule(task, value, unit);
+                Future<?> previous = this.expirationFutures.put(id, task.future);
+                // A bean may be rescheduled without an intervening cancel, e.g. when scheduling is driven by replicated writes
+                if (previous != null) {
+                    previous.cancel(false);
+                }
             }
         }
     }
@@ -108,6 +113,7 @@ public class BeanExpirationScheduler<G, I, T> implements Scheduler<I> {
 
     private class ExpirationTask implements Runnable {
         private final I id;
+        Future<?> future;
 
         public ExpirationTask(I id) {
             this.id = id;
@@ -133,7 +139,8 @@ public class BeanExpirationScheduler<G, I, T> implements Scheduler<I> {
                 }
             } finally {
                 synchronized (this) {
-                    BeanExpirationScheduler.this.expirationFutures.remove(this.id);
+                    // Do not remove the future of a subsequent schedule(...)
+                    BeanExpirationScheduler.this.expirationFutures.remove(this.id, this.future);
                 }
             }
         }
@@ -39,4 +39,11 @@ public interface BeanFactory<G, I, T> extends Creator<I, BeanEntry<G>, G>, Locat
     Bean<G, I, T> createBean(I id, BeanEntry<G> entry);
 
     BeanKey<I> createKey(I id);
+
+    /**
+     * Sets the last accessed time of the specified bean entry to the current time, and replicates the entry.
+     * @param id a bean identifier
+     * @param entry the entry of the bean
+     */
+    void touch(I id, BeanEntry<G> entry);
 }
@@ -24,11 +24,14 @@ package org.wildfly.clustering.ejb.infinispan;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.Cache;
 import org.infinispan.affinity.KeyAffinityService;
 import org.infinispan.affinity.KeyGenerator;
+import org.infinispan.configuration.cache.TransactionConfiguration;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.distribution.DistributionManager;
@@ -36,12 +39,18 @@ import org.infinispan.filter.NullValueConverter;
 import org.infinispan.iteration.EntryIterable;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryActivated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryPassivated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
 import org.infinispan.notifications.cachelistener.annotation.DataRehashed;
 import org.infinispan.notifications.cachelistener.event.CacheEntryActivatedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
 import org.infinispan.notifications.cachelistener.event.CacheEntryPassivatedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
 import org.infinispan.notifications.cachelistener.event.DataRehashedEvent;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.transaction.LockingMode;
 import org.jboss.ejb.client.Affinity;
 import org.jboss.ejb.client.ClusterAffinity;
 import org.jboss.ejb.client.NodeAffinity;
@@ -96,9 +105,16 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
     private final Batcher<TransactionBatch> batcher;
     private final Invoker invoker = new RetryingInvoker(0, 10, 100);
     private final BeanKeyFilter<I> filter;
+    private final boolean ownerLocalScheduling;
+    private final SchedulingListener schedulingListener = new SchedulingListener();
+    private volatile OwnerLocalScheduler<G, I, T> ownerLocalScheduler;
+    private final AtomicLong schedulerCommandCount = new AtomicLong();
+    private final AtomicLong invocationCount = new AtomicLong();
+    private final AtomicLong invocationTime = new AtomicLong();
 
     volatile CommandDispatcher<Scheduler<I>> dispatcher;
     private volatile Scheduler<I> scheduler;
+    private volatile BeanEvictionScheduler<I> evictionScheduler;
 
     public InfinispanBeanManager(InfinispanBeanManagerConfiguration<T> configuration, final Configuration<I, BeanKey<I>, BeanEntry<G>, BeanFactory<G, I, T>> beanConfiguration, final Configuration<G, G, BeanGroupEntry<I, T>, BeanGroupFactory<G, I, T>> groupConfiguration) {
         this.beanName = configuration.getBeanName();
@@ -143,6 +159,7 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
         this.dispatcherFactory = configuration.getCommandDispatcherFactory();
         this.expiration = configuration.getExpirationConfiguration();
         this.passivation = configuration.getPassivationConfiguration();
+        this.ownerLocalScheduling = configuration.isOwnerLocalScheduling();
     }
 
     @Override
@@ -156,7 +173,8 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
             schedulers.add(new BeanExpirationScheduler<>(this.batcher, new ExpiredBeanRemover<>(this.beanFactory), this.expiration));
         }
         if (this.passivation.isEvictionAllowed()) {
-            schedulers.add(new BeanEvictionScheduler<>(this.beanName + ".eviction", this.batcher, this.beanFactory, this.dispatcherFactory, this.passivation));
+            this.evictionScheduler = new BeanEvictionScheduler<>(this.beanName + ".eviction", this.batcher, this.beanFactory, this.dispatcherFactory, this.passivation);
+            schedulers.add(this.evictionScheduler);
         }
         this.scheduler = new Scheduler<I>() {
             @Override
@@ -189,11 +207,27 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
         };
         this.dispatcher = this.dispatcherFactory.createCommandDispatcher(this.beanName + ".schedulers", this.scheduler);
         this.beanCache.addListener(this, this.filter);
+        if (this.ownerLocalScheduling) {
+            Locality locality = new Locality() {
+                @SuppressWarnings("unchecked")
+                @Override
+                public boolean isLocal(Object id) {
+                    return InfinispanBeanManager.this.isPrimaryOwner((I) id);
+                }
+            };
+            TransactionConfiguration transaction = this.beanCache.getCacheConfiguration().transaction();
+            boolean pessimistic = transaction.transactionMode().isTransactional() && (transaction.lockingMode() == LockingMode.PESSIMISTIC);
+            this.ownerLocalScheduler = new OwnerLocalScheduler<>(this.scheduler, locality, this.batcher, this.beanFactory, timeout, pessimistic);
+            this.beanCache.addListener(this.schedulingListener, this.filter);
+        }
         this.schedule(this.beanCache, new SimpleLocality(false), new ConsistentHashLocality(this.beanCache));
     }
 
     @Override
     public void stop() {
+        if (this.ownerLocalScheduling) {
+            this.beanCache.removeListener(this.schedulingListener);
+        }
         this.beanCache.removeListener(this);
         this.dispatcher.close();
         this.scheduler.close();
@@ -221,6 +255,11 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
     }
 
     void schedule(final Bean<G, I, T> bean) {
+        OwnerLocalScheduler<G, I, T> ownerLocalScheduler = this.ownerLocalScheduler;
+        if (ownerLocalScheduler != null) {
+            ownerLocalScheduler.closed(bean.getId());
+            return;
+        }
         try {
             this.executeOnPrimaryOwner(bean, new ScheduleSchedulerCommand<>(bean.getId()));
         } catch (Exception e) {
@@ -234,6 +273,9 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
             public Void call() throws Exception {
                 // This should only go remote following a failover
                 Node node = InfinispanBeanManager.this.locatePrimaryOwner(bean.getId());
+                if (!node.equals(InfinispanBeanManager.this.registry.getGroup().getLocalNode())) {
+                    InfinispanBeanManager.this.schedulerCommandCount.incrementAndGet();
+                }
                 return InfinispanBeanManager.this.dispatcher.executeOnNode(command, node).get();
             }
         };
@@ -246,6 +288,12 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
         return (address != null) ? this.nodeFactory.createNode(address) : this.registry.getGroup().getLocalNode();
     }
 
+    boolean isPrimaryOwner(I id) {
+        DistributionManager dist = this.beanCache.getAdvancedCache().getDistributionManager();
+        Address address = (dist != null) ? dist.getPrimaryLocation(id) : null;
+        return (address == null) || address.equals(this.beanCache.getCacheManager().getAddress());
+    }
+
     @Override
     public Bean<G, I, T> createBean(I id, G groupId, T bean) {
         InfinispanEjbLogger.ROOT_LOGGER.tracef("Creating bean %s associated with group %s", id, groupId);
@@ -263,8 +311,15 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
             InfinispanEjbLogger.ROOT_LOGGER.debugf("Could not find bean %s", id);
             return null;
         }
+        OwnerLocalScheduler<G, I, T> ownerLocalScheduler = this.ownerLocalScheduler;
+        if (ownerLocalScheduler != null) {
+            // Prevent expiration of this bean for the duration of its invocation
+            ownerLocalScheduler.located(id, entry);
+        }
         Bean<G, I, T> bean = this.beanFactory.createBean(id, entry);
-        this.cancel(bean);
+        if (ownerLocalScheduler == null) {
+            this.cancel(bean);
+        }
         return new SchedulableBean(bean);
     }
 
@@ -304,6 +359,33 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
         return this.passiveCount.get();
     }
 
+    @Override
+    public int getEvictionQueueSize() {
+        BeanEvictionScheduler<I> scheduler = this.evictionScheduler;
+        return (scheduler != null) ? scheduler.size() : 0;
+    }
+
+    @Override
+    public long getSchedulerCommandCount() {
+        return this.schedulerCommandCount.get();
+    }
+
+    @Override
+    public long getAccessRefreshCount() {
+        OwnerLocalScheduler<G, I, T> scheduler = this.ownerLocalScheduler;
+        return (scheduler != null) ? scheduler.getTouchCount() : 0;
+    }
+
+    @Override
+    public long getInvocationCount() {
+        return this.invocationCount.get();
+    }
+
+    @Override
+    public long getInvocationTime(TimeUnit unit) {
+        return unit.convert(this.invocationTime.get(), TimeUnit.NANOSECONDS);
+    }
+
     @CacheEntryPassivated
     public void passivated(CacheEntryPassivatedEvent<BeanKey<I>, BeanEntry<G>> event) {
         if (event.isPre()) {
@@ -363,9 +445,32 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
         }
     }
 
+    /**
+     * Notifies the {@link OwnerLocalScheduler} of beans written by other nodes, when owner-local scheduling is enabled.
+     */
+    @Listener(primaryOnly = true)
+    public class SchedulingListener {
+
+        @CacheEntryCreated
+        @CacheEntryModified
+        public void written(CacheEntryEvent<BeanKey<I>, BeanEntry<G>> event) {
+            OwnerLocalScheduler<G, I, T> scheduler = InfinispanBeanManager.this.ownerLocalScheduler;
+            if (event.isPre() || event.isOriginLocal() || (scheduler == null)) return;
+            scheduler.written(event.getKey().getId(), event.getValue());
+        }
+
+        @CacheEntryRemoved
+        public void removed(CacheEntryRemovedEvent<BeanKey<I>, BeanEntry<G>> event) {
+            OwnerLocalScheduler<G, I, T> scheduler = InfinispanBeanManager.this.ownerLocalScheduler;
+            if (event.isPre() || event.isOriginLocal() || (scheduler == null)) return;
+            scheduler.removed(event.getKey().getId());
+        }
+    }
+
     private class SchedulableBean implements Bean<G, I, T> {
 
         private final Bean<G, I, T> bean;
+        private final long start = System.nanoTime();
 
         SchedulableBean(Bean<G, I, T> bean) {
             this.bean = bean;
@@ -405,6 +510,8 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
         public void close() {
             this.bean.close();
             InfinispanBeanManager.this.schedule(this.bean);
+            InfinispanBeanManager.this.invocationTime.addAndGet(System.nanoTime() - this.start);
+            InfinispanBeanManager.this.invocationCount.incrementAndGet();
         }
     }
 }
@@ -40,4 +40,5 @@ public interface InfinispanBeanManagerConfiguration<T> {
     CommandDispatcherFactory getCommandDispatcherFactory();
     ExpirationConfiguration<T> getExpirationConfiguration();
     PassivationConfiguration<T> getPassivationConfiguration();
+    boolean isOwnerLocalScheduling();
 }
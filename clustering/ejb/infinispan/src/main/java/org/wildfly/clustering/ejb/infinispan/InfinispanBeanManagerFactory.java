@@ -84,6 +84,7 @@ public class InfinispanBeanManagerFactory<G, I, T> implements BeanManagerFactory
         final Registry<String, ?> registry = this.configuration.getRegistry();
         final KeyAffinityServiceFactory affinityFactory = this.configuration.getKeyAffinityServiceFactory();
         final CommandDispatcherFactory dispatcherFactory = this.configuration.getCommandDispatcherFactory();
+        final boolean ownerLocalScheduling = this.configuration.isOwnerLocalScheduling();
         final Time timeout = this.configuration.getBeanContext().getTimeout();
         final ScheduledExecutorService scheduler = this.configuration.getScheduler();
         final ExpirationConfiguration<T> expiration = new ExpirationConfiguration<T>() {
@@ -165,6 +166,11 @@ public class InfinispanBeanManagerFactory<G, I, T> implements BeanManagerFactory
             public PassivationConfiguration<T> getPassivationConfiguration() {
                 return passivation;
             }
+
+            @Override
+            public boolean isOwnerLocalScheduling() {
+                return ownerLocalScheduling;
+            }
         };
         return new InfinispanBeanManager<>(configuration, beanConfiguration, groupConfiguration);
     }
@@ -153,4 +153,9 @@ public class InfinispanBeanManagerFactoryBuilder<G, I, T> implements Builder<Bea
     public CommandDispatcherFactory getCommandDispatcherFactory() {
         return this.dispatcherFactory.getValue();
     }
+
+    @Override
+    public boolean isOwnerLocalScheduling() {
+        return this.configuration.isOwnerLocalScheduling();
+    }
 }
@@ -49,4 +49,5 @@ public interface InfinispanBeanManagerFactoryConfiguration {
     NodeFactory<Address> getNodeFactory();
     Registry<String, ?> getRegistry();
     CommandDispatcherFactory getCommandDispatcherFactory();
+    boolean isOwnerLocalScheduling();
 }
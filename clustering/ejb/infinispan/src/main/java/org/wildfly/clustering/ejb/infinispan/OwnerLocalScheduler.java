@@ -0,0 +1,170 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.ejb.Time;
+import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
+import org.wildfly.clustering.infinispan.spi.distribution.Locality;
+
+/**
+ * Schedules the expiration/eviction of beans on their primary owner, without sending scheduler commands between nodes.
+ * The primary owner schedules a bean when it closes the bean itself, or when it receives a replicated write of the bean entry.
+ * <p>
+ * Unlike a scheduler command, a non-owner does not cancel the scheduled expiration of a bean that it locates.
+ * Instead, a bean is prevented from expiring while in use as follows:
+ * </p>
+ * <ul>
+ * <li>If bean entries are locked for the duration of an invocation, i.e. pessimistic locking, the {@link ExpiredBeanRemover} of
+ * the primary owner waits for the lock and re-checks the last accessed time before removing the bean.</li>
+ * <li>Otherwise, a non-owner refreshes the last accessed time of a located bean within a separate batch, if more than half of
+ * its timeout has elapsed since it was last accessed. Thus a located bean remains valid for at least half of its timeout.</li>
+ * </ul>
+ * <p>
+ * Since {@link ExpiredBeanRemover} always re-checks the replicated last accessed time, a replicated write can only defer, but
+ * never hasten, the expiration of a bean. Consequently, rescheduling a bean upon a write issued by a non-owner during an
+ * invocation is harmless.
+ * </p>
+ *
+ * @param <G> the group identifier type
+ * @param <I> the bean identifier type
+ * @param <T> the bean type
+ */
+public class OwnerLocalScheduler<G, I, T> {
+
+    private final Scheduler<I> scheduler;
+    private final Locality locality;
+    private final Batcher<TransactionBatch> batcher;
+    private final BeanFactory<G, I, T> factory;
+    private final Time timeout;
+    private final boolean locking;
+    private final AtomicLong touchCount = new AtomicLong();
+
+    /**
+     * Creates an owner-local scheduler.
+     * @param scheduler the scheduler of the local node
+     * @param locality indicates whether the local node is the primary owner of a given bean identifier
+     * @param batcher a batcher
+     * @param factory a bean factory
+     * @param timeout the bean timeout, or null, if beans do not expire
+     * @param locking indicates whether bean entries remain locked for the duration of an invocation
+     */
+    public OwnerLocalScheduler(Scheduler<I> scheduler, Locality locality, Batcher<TransactionBatch> batcher, BeanFactory<G, I, T> factory, Time timeout, boolean locking) {
+        this.scheduler = scheduler;
+        this.locality = locality;
+        this.batcher = batcher;
+        this.factory = factory;
+        this.timeout = timeout;
+        this.locking = locking;
+    }
+
+    /**
+     * Invoked when a bean was located by the local node, prior to its invocation.
+     * @param id a bean identifier
+     * @param entry the located bean entry
+     */
+    public void located(I id, BeanEntry<G> entry) {
+        if (this.locality.isLocal(id)) {
+            this.scheduler.cancel(id);
+        } else if (!this.locking && this.isExpiring(entry)) {
+            this.touch(id);
+        }
+    }
+
+    /**
+     * Invoked when a bean was closed by the local node, following its invocation.
+     * Otherwise, the primary owner will schedule the bean upon receipt of the write issued by closing the bean.
+     * @param id a bean identifier
+     */
+    public void closed(I id) {
+        if (this.locality.isLocal(id)) {
+            this.scheduler.schedule(id);
+        }
+    }
+
+    /**
+     * Invoked when a bean entry was written by another node.
+     * @param id a bean identifier
+     * @param entry the written bean entry
+     */
+    public void written(I id, BeanEntry<G> entry) {
+        // A new bean is not scheduled until it was closed for the first time
+        if ((entry != null) && (entry.getLastAccessedTime() != null) && this.locality.isLocal(id)) {
+            this.scheduler.schedule(id);
+        }
+    }
+
+    /**
+     * Invoked when a bean entry was removed by another node.
+     * @param id a bean identifier
+     */
+    public void removed(I id) {
+        this.scheduler.cancel(id);
+    }
+
+    /**
+     * Returns the number of beans whose last accessed time was refreshed upon being located by this node.
+     * @return a number of beans
+     */
+    public long getTouchCount() {
+        return this.touchCount.get();
+    }
+
+    private boolean isExpiring(BeanEntry<G> entry) {
+        if (this.timeout == null) return false;
+        Date lastAccessedTime = entry.getLastAccessedTime();
+        long timeout = this.timeout.convert(TimeUnit.MILLISECONDS);
+        return (lastAccessedTime != null) && (timeout > 0) && ((System.currentTimeMillis() - lastAccessedTime.getTime()) >= (timeout / 2));
+    }
+
+    private void touch(I id) {
+        // Replicate the refreshed entry immediately, rather than upon completion of the current batch
+        TransactionBatch suspended = this.batcher.suspendBatch();
+        try {
+            TransactionBatch batch = this.batcher.createBatch();
+            boolean success = false;
+            try {
+                BeanEntry<G> entry = this.factory.findValue(id);
+                if (entry != null) {
+                    this.factory.touch(id, entry);
+                    this.touchCount.incrementAndGet();
+                }
+                success = true;
+            } catch (RuntimeException e) {
+                InfinispanEjbLogger.ROOT_LOGGER.failedToRefreshBean(e, id);
+            } finally {
+                if (success) {
+                    batch.close();
+                } else {
+                    batch.discard();
+                }
+            }
+        } finally {
+            this.batcher.resumeBatch(suspended);
+        }
+    }
+}
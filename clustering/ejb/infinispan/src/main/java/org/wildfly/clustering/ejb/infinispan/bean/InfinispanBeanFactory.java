@@ -21,6 +21,8 @@
  */
 package org.wildfly.clustering.ejb.infinispan.bean;
 
+import java.util.Date;
+
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.TransactionConfiguration;
 import org.infinispan.context.Flag;
@@ -80,6 +82,12 @@ public class InfinispanBeanFactory<G, I, T> implements BeanFactory<G, I, T> {
         return new InfinispanBean<>(id, entry, group, mutator, this, this.timeout, this.listener);
     }
 
+    @Override
+    public void touch(I id, BeanEntry<G> entry) {
+        entry.setLastAccessedTime(new Date());
+        new CacheEntryMutator<>(this.cache, this.createKey(id), entry).mutate();
+    }
+
     @Override
     public BeanEntry<G> findValue(I id) {
         TransactionConfiguration transaction = this.cache.getCacheConfiguration().transaction();
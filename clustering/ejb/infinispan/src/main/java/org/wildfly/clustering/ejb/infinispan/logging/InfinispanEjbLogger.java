@@ -69,4 +69,8 @@ public interface InfinispanEjbLogger extends BasicLogger {
 
     @Message(id = 8, value = "Stateful session bean %s refers to an invalid bean group %s")
     IllegalStateException invalidBeanGroup(Object beanId, Object groupId);
+
+    @LogMessage(level = WARN)
+    @Message(id = 9, value = "Failed to refresh the last accessed time of stateful session bean %s, which may now expire during its invocation")
+    void failedToRefreshBean(@Cause Throwable cause, Object id);
 }
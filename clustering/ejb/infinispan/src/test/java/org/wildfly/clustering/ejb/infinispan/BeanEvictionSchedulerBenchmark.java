@@ -0,0 +1,248 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.transaction.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.CommandDispatcher;
+import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.ee.BatchContext;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.Evictor;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
+import org.wildfly.clustering.ejb.PassivationListener;
+import org.wildfly.clustering.group.Group;
+import org.wildfly.clustering.group.Node;
+
+/**
+ * Measures the throughput of scheduling beans for eviction, while excess beans are evicted via a command per bean
+ * vs a single command per batch of beans.
+ * Each submitted command is serialized, as it would be when sent to the other members of a cluster, then executed locally.
+ * Not run as part of the build; run via the JMH runner, e.g.
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main BeanEvictionSchedulerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(4)
+public class BeanEvictionSchedulerBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean batching;
+
+    @Param({ "1000" })
+    private int maxSize;
+
+    private final AtomicLong commands = new AtomicLong();
+    private String[] beans;
+    private ExecutorService executor;
+    private BeanEvictionScheduler<String> scheduler;
+
+    @Setup
+    public void setup() {
+        // Twice as many beans as may remain scheduled, so that schedules continually trigger eviction
+        this.beans = new String[this.maxSize * 2];
+        for (int i = 0; i < this.beans.length; ++i) {
+            this.beans[i] = String.valueOf(i);
+        }
+        final BeanPassivationConfiguration passivationConfig = new BeanPassivationConfiguration() {
+            @Override
+            public int getMaxSize() {
+                return BeanEvictionSchedulerBenchmark.this.maxSize;
+            }
+
+            @Override
+            public void setMaxSize(int size) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean isEvictionBatching() {
+                return BeanEvictionSchedulerBenchmark.this.batching;
+            }
+        };
+        // Evicts asynchronously, like the eviction thread of a bean manager, so excess beans accumulate while an eviction is in progress
+        this.executor = Executors.newSingleThreadExecutor();
+        final Executor executor = this.executor;
+        PassivationConfiguration<Object> config = new PassivationConfiguration<Object>() {
+            @Override
+            public PassivationListener<Object> getPassivationListener() {
+                return null;
+            }
+
+            @Override
+            public boolean isEvictionAllowed() {
+                return true;
+            }
+
+            @Override
+            public boolean isPersistent() {
+                return false;
+            }
+
+            @Override
+            public BeanPassivationConfiguration getConfiguration() {
+                return passivationConfig;
+            }
+
+            @Override
+            public Executor getExecutor() {
+                return executor;
+            }
+        };
+        Evictor<String> evictor = new Evictor<String>() {
+            @Override
+            public void evict(String id) {
+                // Nothing to evict
+            }
+        };
+        this.scheduler = new BeanEvictionScheduler<>("bean", new NoOpBatcher(), evictor, new SerializingCommandDispatcherFactory(this.commands), config);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.scheduler.close();
+        this.executor.shutdownNow();
+        System.out.println(String.format("%n%d eviction commands submitted", this.commands.get()));
+    }
+
+    @Benchmark
+    public void schedule() {
+        this.scheduler.schedule(this.beans[ThreadLocalRandom.current().nextInt(this.beans.length)]);
+    }
+
+    private static class NoOpBatcher implements Batcher<TransactionBatch> {
+        private final TransactionBatch batch = new TransactionBatch() {
+            @Override
+            public boolean isActive() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void discard() {
+            }
+
+            @Override
+            public Transaction getTransaction() {
+                return null;
+            }
+        };
+
+        @Override
+        public TransactionBatch createBatch() {
+            return this.batch;
+        }
+
+        @Override
+        public BatchContext resumeBatch(TransactionBatch batch) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TransactionBatch suspendBatch() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class SerializingCommandDispatcherFactory implements CommandDispatcherFactory {
+        final AtomicLong commands;
+
+        SerializingCommandDispatcherFactory(AtomicLong commands) {
+            this.commands = commands;
+        }
+
+        @Override
+        public Group getGroup() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <C> CommandDispatcher<C> createCommandDispatcher(Object id, final C context) {
+            return new CommandDispatcher<C>() {
+                @Override
+                public <R> CommandResponse<R> executeOnNode(Command<R, C> command, Node node) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public <R> Map<Node, CommandResponse<R>> executeOnCluster(Command<R, C> command, Node... excludedNodes) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public <R> Future<R> submitOnNode(Command<R, C> command, Node node) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public <R> Map<Node, Future<R>> submitOnCluster(Command<R, C> command, Node... excludedNodes) throws Exception {
+                    SerializingCommandDispatcherFactory.this.commands.incrementAndGet();
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+                        output.writeObject(command);
+                    }
+                    command.execute(context);
+                    return Collections.emptyMap();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
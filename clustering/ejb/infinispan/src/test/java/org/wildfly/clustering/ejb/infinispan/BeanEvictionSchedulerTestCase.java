@@ -24,6 +24,8 @@ package org.wildfly.clustering.ejb.infinispan;
 import static org.mockito.Mockito.*;
 import static org.junit.Assert.*;
 
+import java.util.concurrent.Executor;
+
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.wildfly.clustering.dispatcher.Command;
@@ -55,6 +57,12 @@ public class BeanEvictionSchedulerTestCase {
         when(dispatcherFactory.createCommandDispatcher(same(name), (BeanEvictionContext<String>) capturedContext.capture())).thenReturn(dispatcher);
         when(config.getConfiguration()).thenReturn(passivationConfig);
         when(passivationConfig.getMaxSize()).thenReturn(1);
+        when(config.getExecutor()).thenReturn(new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                task.run();
+            }
+        });
 
         try (Scheduler<String> scheduler = new BeanEvictionScheduler<>(name, batcher, evictor, dispatcherFactory, config)) {
             BeanEvictionContext<String> context = capturedContext.getValue();
@@ -80,4 +88,105 @@ public class BeanEvictionSchedulerTestCase {
 
         verify(dispatcher).close();
     }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void batch() throws Exception {
+        String name = "bean";
+        CommandDispatcherFactory dispatcherFactory = mock(CommandDispatcherFactory.class);
+        CommandDispatcher<BeanEvictionContext<String>> dispatcher = mock(CommandDispatcher.class);
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        PassivationConfiguration<Bean<Object, String, Object>> config = mock(PassivationConfiguration.class);
+        BeanPassivationConfiguration passivationConfig = mock(BeanPassivationConfiguration.class);
+        Executor executor = mock(Executor.class);
+        ArgumentCaptor<Command> capturedCommand = ArgumentCaptor.forClass(Command.class);
+        ArgumentCaptor<Runnable> capturedTask = ArgumentCaptor.forClass(Runnable.class);
+
+        when(dispatcherFactory.createCommandDispatcher(same(name), (BeanEvictionContext<String>) any(BeanEvictionContext.class))).thenReturn(dispatcher);
+        when(config.getConfiguration()).thenReturn(passivationConfig);
+        when(config.getExecutor()).thenReturn(executor);
+        when(passivationConfig.getMaxSize()).thenReturn(2);
+        when(passivationConfig.isEvictionBatching()).thenReturn(true);
+        when(batcher.createBatch()).thenReturn(batch);
+
+        try (BeanEvictionScheduler<String> scheduler = new BeanEvictionScheduler<>(name, batcher, evictor, dispatcherFactory, config)) {
+            scheduler.schedule("a");
+            scheduler.schedule("b");
+            scheduler.schedule("c");
+            // Rescheduling a bean makes it the most recently used
+            scheduler.schedule("a");
+            scheduler.schedule("d");
+            scheduler.schedule("e");
+
+            assertEquals(5, scheduler.size());
+            // Eviction is triggered only once while pending
+            verify(executor).execute(capturedTask.capture());
+            verifyZeroInteractions(dispatcher);
+
+            capturedTask.getValue().run();
+
+            assertEquals(2, scheduler.size());
+            verify(dispatcher).submitOnCluster(capturedCommand.capture());
+
+            assertTrue(capturedCommand.getValue() instanceof BeanBatchEvictionCommand);
+
+            capturedCommand.getValue().execute(scheduler);
+
+            verify(evictor).evict("b");
+            verify(evictor).evict("c");
+            verify(evictor).evict("a");
+            verify(evictor, never()).evict("d");
+            verify(evictor, never()).evict("e");
+            verify(batch).close();
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void unbatched() throws Exception {
+        String name = "bean";
+        CommandDispatcherFactory dispatcherFactory = mock(CommandDispatcherFactory.class);
+        CommandDispatcher<BeanEvictionContext<String>> dispatcher = mock(CommandDispatcher.class);
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        PassivationConfiguration<Bean<Object, String, Object>> config = mock(PassivationConfiguration.class);
+        BeanPassivationConfiguration passivationConfig = mock(BeanPassivationConfiguration.class);
+        Executor executor = mock(Executor.class);
+        ArgumentCaptor<Command> capturedCommand = ArgumentCaptor.forClass(Command.class);
+        ArgumentCaptor<Runnable> capturedTask = ArgumentCaptor.forClass(Runnable.class);
+
+        when(dispatcherFactory.createCommandDispatcher(same(name), (BeanEvictionContext<String>) any(BeanEvictionContext.class))).thenReturn(dispatcher);
+        when(config.getConfiguration()).thenReturn(passivationConfig);
+        when(config.getExecutor()).thenReturn(executor);
+        when(passivationConfig.getMaxSize()).thenReturn(1);
+        when(passivationConfig.isEvictionBatching()).thenReturn(false);
+        when(batcher.createBatch()).thenReturn(batch);
+
+        try (BeanEvictionScheduler<String> scheduler = new BeanEvictionScheduler<>(name, batcher, evictor, dispatcherFactory, config)) {
+            scheduler.schedule("a");
+            scheduler.schedule("b");
+            scheduler.schedule("c");
+
+            verify(executor).execute(capturedTask.capture());
+
+            capturedTask.getValue().run();
+
+            assertEquals(1, scheduler.size());
+            // Each bean is evicted via the single bean command understood by every node
+            verify(dispatcher, times(2)).submitOnCluster(capturedCommand.capture());
+
+            for (Command command: capturedCommand.getAllValues()) {
+                assertTrue(command instanceof BeanEvictionCommand);
+                command.execute(scheduler);
+            }
+
+            verify(evictor).evict("a");
+            verify(evictor).evict("b");
+            verify(evictor, never()).evict("c");
+            verify(batch, times(2)).close();
+        }
+    }
 }
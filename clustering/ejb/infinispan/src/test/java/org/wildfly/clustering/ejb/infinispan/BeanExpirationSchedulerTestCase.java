@@ -23,6 +23,7 @@ package org.wildfly.clustering.ejb.infinispan;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -110,4 +111,38 @@ public class BeanExpirationSchedulerTestCase {
         verify(remover, never()).remove(beanId, listener);
         verify(batcher, never()).createBatch();
     }
+
+    @Test
+    public void testReschedule() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        BeanRemover<String, Object> remover = mock(BeanRemover.class);
+        ExpirationConfiguration<Object> config = mock(ExpirationConfiguration.class);
+        RemoveListener<Object> listener = mock(RemoveListener.class);
+        String beanId = "rescheduled";
+
+        when(config.getExecutor()).thenReturn(Executors.newSingleThreadScheduledExecutor());
+        when(batcher.createBatch()).thenReturn(batch);
+
+        when(config.getTimeout()).thenReturn(new Time(500, TimeUnit.MILLISECONDS));
+        when(config.getRemoveListener()).thenReturn(listener);
+
+        try (Scheduler<String> scheduler = new BeanExpirationScheduler<>(batcher, remover, config)) {
+            scheduler.schedule(beanId);
+
+            Thread.sleep(300);
+
+            // Rescheduling without an intervening cancel, e.g. upon a replicated write, must replace the previous expiration
+            scheduler.schedule(beanId);
+
+            Thread.sleep(300);
+
+            verify(remover, never()).remove(beanId, listener);
+
+            Thread.sleep(500);
+        }
+
+        verify(remover, times(1)).remove(beanId, listener);
+        verify(batch).close();
+    }
 }
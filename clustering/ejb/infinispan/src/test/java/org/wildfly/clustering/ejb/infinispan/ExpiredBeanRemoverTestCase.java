@@ -0,0 +1,75 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan;
+
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+import org.wildfly.clustering.ejb.Bean;
+import org.wildfly.clustering.ejb.RemoveListener;
+
+public class ExpiredBeanRemoverTestCase {
+
+    private final String id = "id";
+    private final BeanFactory<Integer, String, Object> factory = mock(BeanFactory.class);
+    private final RemoveListener<Object> listener = mock(RemoveListener.class);
+    private final BeanRemover<String, Object> remover = new ExpiredBeanRemover<>(this.factory);
+
+    @Test
+    public void removeExpired() {
+        BeanEntry<Integer> entry = mock(BeanEntry.class);
+        Bean<Integer, String, Object> bean = mock(Bean.class);
+
+        when(this.factory.findValue(this.id)).thenReturn(entry);
+        when(this.factory.createBean(this.id, entry)).thenReturn(bean);
+        when(bean.isExpired()).thenReturn(true);
+
+        this.remover.remove(this.id, this.listener);
+
+        verify(this.factory).remove(this.id, this.listener);
+    }
+
+    @Test
+    public void removeTouched() {
+        BeanEntry<Integer> entry = mock(BeanEntry.class);
+        Bean<Integer, String, Object> bean = mock(Bean.class);
+
+        // e.g. the bean was touched by a non-owner since its expiration was scheduled
+        when(this.factory.findValue(this.id)).thenReturn(entry);
+        when(this.factory.createBean(this.id, entry)).thenReturn(bean);
+        when(bean.isExpired()).thenReturn(false);
+
+        this.remover.remove(this.id, this.listener);
+
+        verify(this.factory, never()).remove(this.id, this.listener);
+    }
+
+    @Test
+    public void removeMissing() {
+        when(this.factory.findValue(this.id)).thenReturn(null);
+
+        this.remover.remove(this.id, this.listener);
+
+        verify(this.factory, never()).createBean(same(this.id), any(BeanEntry.class));
+        verify(this.factory, never()).remove(this.id, this.listener);
+    }
+}
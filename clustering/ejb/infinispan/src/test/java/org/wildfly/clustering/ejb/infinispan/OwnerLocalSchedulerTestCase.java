@@ -0,0 +1,164 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan;
+
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.ejb.Time;
+import org.wildfly.clustering.infinispan.spi.distribution.Locality;
+
+public class OwnerLocalSchedulerTestCase {
+
+    private final String id = "id";
+    private final Scheduler<String> scheduler = mock(Scheduler.class);
+    private final Locality locality = mock(Locality.class);
+    private final Batcher<TransactionBatch> batcher = mock(Batcher.class);
+    private final BeanFactory<Integer, String, Object> factory = mock(BeanFactory.class);
+    private final BeanEntry<Integer> entry = mock(BeanEntry.class);
+    private final Time timeout = new Time(1, TimeUnit.MINUTES);
+
+    private OwnerLocalScheduler<Integer, String, Object> createScheduler(boolean locking) {
+        return new OwnerLocalScheduler<>(this.scheduler, this.locality, this.batcher, this.factory, this.timeout, locking);
+    }
+
+    @Test
+    public void locatedByOwner() {
+        when(this.locality.isLocal(this.id)).thenReturn(true);
+
+        this.createScheduler(false).located(this.id, this.entry);
+
+        verify(this.scheduler).cancel(this.id);
+        verifyZeroInteractions(this.batcher, this.factory);
+    }
+
+    @Test
+    public void locatedByNonOwnerRecentlyAccessed() {
+        when(this.locality.isLocal(this.id)).thenReturn(false);
+        when(this.entry.getLastAccessedTime()).thenReturn(new Date());
+
+        OwnerLocalScheduler<Integer, String, Object> scheduler = this.createScheduler(false);
+        scheduler.located(this.id, this.entry);
+
+        verifyZeroInteractions(this.scheduler, this.batcher, this.factory);
+        Assert.assertEquals(0, scheduler.getTouchCount());
+    }
+
+    @Test
+    public void locatedByNonOwnerExpiring() {
+        TransactionBatch suspended = mock(TransactionBatch.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        BeanEntry<Integer> lockedEntry = mock(BeanEntry.class);
+
+        when(this.locality.isLocal(this.id)).thenReturn(false);
+        when(this.entry.getLastAccessedTime()).thenReturn(new Date(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(40)));
+        when(this.batcher.suspendBatch()).thenReturn(suspended);
+        when(this.batcher.createBatch()).thenReturn(batch);
+        when(this.factory.findValue(this.id)).thenReturn(lockedEntry);
+
+        OwnerLocalScheduler<Integer, String, Object> scheduler = this.createScheduler(false);
+        scheduler.located(this.id, this.entry);
+
+        verify(this.factory).touch(this.id, lockedEntry);
+        verify(batch).close();
+        verify(this.batcher).resumeBatch(suspended);
+        verify(this.scheduler, never()).cancel(this.id);
+        Assert.assertEquals(1, scheduler.getTouchCount());
+    }
+
+    @Test
+    public void locatedByNonOwnerTouchFailure() {
+        TransactionBatch batch = mock(TransactionBatch.class);
+
+        when(this.locality.isLocal(this.id)).thenReturn(false);
+        when(this.entry.getLastAccessedTime()).thenReturn(new Date(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(40)));
+        when(this.batcher.suspendBatch()).thenReturn(null);
+        when(this.batcher.createBatch()).thenReturn(batch);
+        when(this.factory.findValue(this.id)).thenThrow(new IllegalStateException());
+
+        OwnerLocalScheduler<Integer, String, Object> scheduler = this.createScheduler(false);
+        scheduler.located(this.id, this.entry);
+
+        verify(batch).discard();
+        verify(batch, never()).close();
+        verify(this.batcher).resumeBatch(null);
+        Assert.assertEquals(0, scheduler.getTouchCount());
+    }
+
+    @Test
+    public void locatedByNonOwnerLocking() {
+        when(this.locality.isLocal(this.id)).thenReturn(false);
+        when(this.entry.getLastAccessedTime()).thenReturn(new Date(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(40)));
+
+        this.createScheduler(true).located(this.id, this.entry);
+
+        verifyZeroInteractions(this.scheduler, this.batcher, this.factory);
+    }
+
+    @Test
+    public void closed() {
+        OwnerLocalScheduler<Integer, String, Object> scheduler = this.createScheduler(false);
+
+        when(this.locality.isLocal(this.id)).thenReturn(false);
+        scheduler.closed(this.id);
+        verify(this.scheduler, never()).schedule(this.id);
+
+        when(this.locality.isLocal(this.id)).thenReturn(true);
+        scheduler.closed(this.id);
+        verify(this.scheduler).schedule(this.id);
+    }
+
+    @Test
+    public void written() {
+        OwnerLocalScheduler<Integer, String, Object> scheduler = this.createScheduler(false);
+
+        when(this.locality.isLocal(this.id)).thenReturn(true);
+
+        // Creation of a bean by another node
+        when(this.entry.getLastAccessedTime()).thenReturn(null);
+        scheduler.written(this.id, this.entry);
+        verify(this.scheduler, never()).schedule(this.id);
+
+        when(this.entry.getLastAccessedTime()).thenReturn(new Date());
+        scheduler.written(this.id, this.entry);
+        verify(this.scheduler).schedule(this.id);
+
+        reset(this.scheduler);
+
+        when(this.locality.isLocal(this.id)).thenReturn(false);
+        scheduler.written(this.id, this.entry);
+        verify(this.scheduler, never()).schedule(this.id);
+    }
+
+    @Test
+    public void removed() {
+        this.createScheduler(false).removed(this.id);
+
+        verify(this.scheduler).cancel(this.id);
+    }
+}
@@ -30,4 +30,11 @@ public interface BeanManagerFactoryBuilderConfiguration extends BeanPassivationC
 
     String getContainerName();
     String getCacheName();
+
+    /**
+     * Indicates whether the expiration/eviction of a bean is scheduled by its primary owner based on replicated writes,
+     * rather than via scheduler commands sent to the primary owner on every invocation.
+     * @return true, if scheduling is owner-local, false otherwise
+     */
+    boolean isOwnerLocalScheduling();
 }
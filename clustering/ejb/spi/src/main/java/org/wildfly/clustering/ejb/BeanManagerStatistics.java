@@ -21,8 +21,41 @@
  */
 package org.wildfly.clustering.ejb;
 
+import java.util.concurrent.TimeUnit;
+
 public interface BeanManagerStatistics {
     int getActiveCount();
 
     int getPassiveCount();
+
+    /**
+     * Returns the number of beans tracked by the eviction scheduler of this node.
+     * @return a number of beans, or 0 if eviction is not allowed
+     */
+    int getEvictionQueueSize();
+
+    /**
+     * Returns the number of scheduler commands sent to the remote primary owner of a bean.
+     * @return a number of remote commands, always 0 if scheduling is owner-local
+     */
+    long getSchedulerCommandCount();
+
+    /**
+     * Returns the number of beans whose last accessed time was refreshed upon being located, to prevent their expiration during an invocation.
+     * @return a number of beans, always 0 unless scheduling is owner-local
+     */
+    long getAccessRefreshCount();
+
+    /**
+     * Returns the number of completed bean invocations, i.e. the number of beans closed by this bean manager.
+     * @return a number of invocations
+     */
+    long getInvocationCount();
+
+    /**
+     * Returns the cumulative time spent between locating (or creating) a bean and closing it, including any scheduling overhead.
+     * @param unit the desired time unit
+     * @return the cumulative invocation time
+     */
+    long getInvocationTime(TimeUnit unit);
 }
@@ -25,4 +25,11 @@ public interface BeanPassivationConfiguration {
     int getMaxSize();
 
     void setMaxSize(int size);
+
+    /**
+     * Indicates whether excess beans are evicted using a single command per batch of beans, rather than a command per bean.
+     * Must only be enabled once every member of the cluster supports batched eviction commands.
+     * @return true, if eviction is batched, false otherwise
+     */
+    boolean isEvictionBatching();
 }
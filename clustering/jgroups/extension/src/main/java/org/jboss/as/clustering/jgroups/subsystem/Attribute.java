@@ -32,6 +32,7 @@ public enum Attribute {
 
     CHANNEL(ModelKeys.CHANNEL),
     CLUSTER(ModelKeys.CLUSTER),
+    COMMAND_BATCHING(ModelKeys.COMMAND_BATCHING),
     @Deprecated DEFAULT_EXECUTOR(ModelKeys.DEFAULT_EXECUTOR),
     DEFAULT("default"),
     @Deprecated DEFAULT_STACK(ModelKeys.DEFAULT_STACK),
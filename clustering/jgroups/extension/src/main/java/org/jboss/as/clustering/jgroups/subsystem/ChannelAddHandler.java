@@ -35,6 +35,8 @@ import org.jboss.as.controller.registry.Resource;
 import org.jboss.dmr.ModelNode;
 import org.jboss.modules.ModuleIdentifier;
 import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.service.ValueService;
+import org.jboss.msc.value.ImmediateValue;
 import org.jgroups.Channel;
 import org.wildfly.clustering.jgroups.spi.ChannelFactory;
 import org.wildfly.clustering.jgroups.spi.service.ChannelBuilder;
@@ -90,6 +92,7 @@ public class ChannelAddHandler extends AbstractAddStepHandler {
         String stack = ModelNodes.asString(ChannelResourceDefinition.STACK.resolveModelAttribute(context, model), ProtocolStackServiceNameFactory.DEFAULT_STACK);
 
         ModuleIdentifier module = ModelNodes.asModuleIdentifier(ChannelResourceDefinition.MODULE.resolveModelAttribute(context, model));
+        boolean commandBatching = ChannelResourceDefinition.COMMAND_BATCHING.resolveModelAttribute(context, model).asBoolean();
 
         ServiceTarget target = context.getServiceTarget();
 
@@ -105,6 +108,9 @@ public class ChannelAddHandler extends AbstractAddStepHandler {
         // Install channel jndi binding
         new BinderServiceBuilder<>(JGroupsBindingFactory.createChannelBinding(name), ChannelServiceName.CHANNEL.getServiceName(name), Channel.class).build(target).install();
 
+        // Install command batching flag, consumed by the command dispatcher factory of this channel
+        target.addService(ChannelServiceName.COMMAND_BATCHING.getServiceName(name), new ValueService<>(new ImmediateValue<>(commandBatching))).install();
+
         // Install fork channel factory
         new ForkChannelFactoryBuilder(name).build(target).install();
 
@@ -62,7 +62,14 @@ public class ChannelResourceDefinition extends SimpleResourceDefinition {
             .setDefaultValue(new ModelNode("org.wildfly.clustering.server"))
             .build();
 
-    static AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { STACK, MODULE };
+    static SimpleAttributeDefinition COMMAND_BATCHING = new SimpleAttributeDefinitionBuilder(ModelKeys.COMMAND_BATCHING, ModelType.BOOLEAN, true)
+            .setXmlName(Attribute.COMMAND_BATCHING.getLocalName())
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .setDefaultValue(new ModelNode(false))
+            .build();
+
+    static AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { STACK, MODULE, COMMAND_BATCHING };
 
     static void buildTransformation(ModelVersion version, ResourceTransformationDescriptionBuilder parent) {
         // Nothing to transform yet
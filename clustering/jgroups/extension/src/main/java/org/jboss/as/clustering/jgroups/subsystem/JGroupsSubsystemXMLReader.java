@@ -148,6 +148,10 @@ public class JGroupsSubsystemXMLReader implements XMLElementReader<List<ModelNod
                     ChannelResourceDefinition.MODULE.parseAndSetParameter(value, operation, reader);
                     break;
                 }
+                case COMMAND_BATCHING: {
+                    ChannelResourceDefinition.COMMAND_BATCHING.parseAndSetParameter(value, operation, reader);
+                    break;
+                }
                 default: {
                     throw ParseUtils.unexpectedAttribute(reader, i);
                 }
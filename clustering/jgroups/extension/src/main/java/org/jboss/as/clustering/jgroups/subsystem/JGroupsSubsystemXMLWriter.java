@@ -55,6 +55,7 @@ public class JGroupsSubsystemXMLWriter implements XMLElementWriter<SubsystemMars
                     ModelNode channel = property.getValue();
                     ChannelResourceDefinition.STACK.marshallAsAttribute(channel, writer);
                     ChannelResourceDefinition.MODULE.marshallAsAttribute(channel, writer);
+                    ChannelResourceDefinition.COMMAND_BATCHING.marshallAsAttribute(channel, writer);
 
                     if (channel.hasDefined(ForkResourceDefinition.WILDCARD_PATH.getKey())) {
                         for (Property forkProperty: channel.get(ForkResourceDefinition.WILDCARD_PATH.getKey()).asPropertyList()) {
@@ -29,6 +29,7 @@ class ModelKeys {
     @Deprecated static final String ADD_PROTOCOL = "add-protocol";
     static final String CHANNEL = "channel";
     static final String CLUSTER = "cluster";
+    static final String COMMAND_BATCHING = "command-batching";
     static final String DEFAULT = "default";
     static final String DEFAULT_EXECUTOR = "default-executor";
     static final String DEFAULT_CHANNEL = "default-channel";
@@ -43,6 +43,12 @@ public enum ChannelServiceName implements ChannelServiceNameFactory {
             return CHANNEL.getServiceName(channel).append("connector");
         }
     },
+    COMMAND_BATCHING {
+        @Override
+        public ServiceName getServiceName(String channel) {
+            return CHANNEL.getServiceName(channel).append("command-batching");
+        }
+    },
     ;
 
     @Override
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Byte array output stream whose buffer is retained by the current thread between uses,
+ * so that repeated marshalling neither reallocates nor regrows its buffer.
+ * A stream is removed from its thread while acquired, so nested marshalling on the same thread uses a distinct stream.
+ */
+class PooledByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private static final int INITIAL_CAPACITY = 512;
+    // Larger buffers are not retained, to bound the memory held by idle threads
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+
+    private static final ThreadLocal<PooledByteArrayOutputStream> POOL = new ThreadLocal<>();
+
+    static PooledByteArrayOutputStream acquire() {
+        PooledByteArrayOutputStream output = POOL.get();
+        if (output == null) {
+            return new PooledByteArrayOutputStream();
+        }
+        POOL.set(null);
+        return output;
+    }
+
+    private PooledByteArrayOutputStream() {
+        super(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the internal buffer of this stream, the first {@link #size()} bytes of which are valid.
+     * @return the internal buffer
+     */
+    byte[] getBuffer() {
+        return this.buf;
+    }
+
+    /**
+     * Returns this stream to the pool of the current thread.
+     */
+    void release() {
+        if (this.buf.length <= MAX_RETAINED_CAPACITY) {
+            this.reset();
+            POOL.set(this);
+        }
+    }
+}
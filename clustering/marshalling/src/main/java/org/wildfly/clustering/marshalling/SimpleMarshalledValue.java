@@ -23,7 +23,6 @@
 package org.wildfly.clustering.marshalling;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -32,14 +31,14 @@ import java.util.Arrays;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
-import org.jboss.marshalling.SimpleDataInput;
-import org.jboss.marshalling.SimpleDataOutput;
 import org.jboss.marshalling.Unmarshaller;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * A marshalled value that is lazily serialized and deserialized on demand.
  * This implementation does not preserve the hash code of its object in serialized form.
+ * When externalized, the object is marshalled into a buffer retained by the current thread,
+ * and written from there to the target output, without allocating an intermediate byte array.
  * @author Paul Ferraro
  */
 public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingContext>, Externalizable {
@@ -48,6 +47,7 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
     private transient volatile MarshallingContext context;
     private transient volatile T object;
     private transient volatile byte[] bytes;
+    private transient volatile int size = -1;
 
     public SimpleMarshalledValue(T object, MarshallingContext context) {
         this.context = context;
@@ -67,20 +67,42 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         byte[] bytes = this.bytes;
         if (bytes != null) return bytes;
         if (this.object == null) return null;
+        PooledByteArrayOutputStream output = PooledByteArrayOutputStream.acquire();
+        try {
+            this.marshal(output);
+            return output.toByteArray();
+        } finally {
+            output.release();
+        }
+    }
+
+    /**
+     * Returns the size of the serialized form of this value, as of its most recent serialization or deserialization.
+     * @return a number of bytes, or -1 if this value was not yet serialized
+     */
+    public int getSerializedSize() {
+        byte[] bytes = this.bytes;
+        return (bytes != null) ? bytes.length : this.size;
+    }
+
+    private void marshal(PooledByteArrayOutputStream output) throws IOException {
         int version = this.context.getCurrentVersion();
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
         ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-        try (SimpleDataOutput data = new SimpleDataOutput(Marshalling.createByteOutput(output))) {
-            data.writeInt(version);
+        try {
+            // Equivalent to DataOutput.writeInt(...)
+            output.write(version >>> 24);
+            output.write(version >>> 16);
+            output.write(version >>> 8);
+            output.write(version);
             try (Marshaller marshaller = this.context.createMarshaller(version)) {
-                marshaller.start(data);
+                marshaller.start(Marshalling.createByteOutput(output));
                 marshaller.writeObject(this.object);
                 marshaller.finish();
-                return output.toByteArray();
             }
         } finally {
             setThreadContextClassLoader(loader);
         }
+        this.size = output.size();
     }
 
     /**
@@ -91,17 +113,18 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
     public synchronized T get(MarshallingContext context) throws IOException, ClassNotFoundException {
         if (this.object == null) {
             this.context = context;
-            if (this.bytes != null) {
-                ByteArrayInputStream input = new ByteArrayInputStream(this.bytes);
+            byte[] bytes = this.bytes;
+            if (bytes != null) {
+                // Equivalent to DataInput.readInt()
+                int version = ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+                ByteArrayInputStream input = new ByteArrayInputStream(bytes, 4, bytes.length - 4);
                 ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-                try (SimpleDataInput data = new SimpleDataInput(Marshalling.createByteInput(input))) {
-                    int version = data.readInt();
-                    try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
-                        unmarshaller.start(data);
-                        this.object = (T) unmarshaller.readObject();
-                        unmarshaller.finish();
-                        this.bytes = null; // Free up memory
-                    }
+                try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
+                    unmarshaller.start(Marshalling.createByteInput(input));
+                    this.object = (T) unmarshaller.readObject();
+                    unmarshaller.finish();
+                    this.size = bytes.length;
+                    this.bytes = null; // Free up memory
                 } finally {
                     setThreadContextClassLoader(loader);
                 }
@@ -147,10 +170,19 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
 
     @Override
     public void writeExternal(ObjectOutput out) throws IOException {
-        byte[] bytes = this.getBytes();
+        byte[] bytes = this.bytes;
         if (bytes != null) {
             out.writeInt(bytes.length);
             out.write(bytes);
+        } else if (this.object != null) {
+            PooledByteArrayOutputStream output = PooledByteArrayOutputStream.acquire();
+            try {
+                this.marshal(output);
+                out.writeInt(output.size());
+                out.write(output.getBuffer(), 0, output.size());
+            } finally {
+                output.release();
+            }
         } else {
             out.writeInt(0);
         }
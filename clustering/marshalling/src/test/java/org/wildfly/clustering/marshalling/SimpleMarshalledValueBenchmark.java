@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of externalizing a {@link SimpleMarshalledValue}, which marshals into a buffer retained by the current thread,
+ * with marshalling into a newly allocated byte array, as was done previously, for values of various sizes.
+ * Not run as part of the build; run via the JMH runner, e.g.
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main SimpleMarshalledValueBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(4)
+public class SimpleMarshalledValueBenchmark {
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    /** Number of entries of the marshalled map */
+    @Param({ "10", "1000" })
+    private int entries;
+
+    private MarshallingContext context;
+    private Map<String, String> object;
+    private ObjectOutputStream output;
+
+    @Setup
+    public void setup() throws IOException {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        this.context = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader());
+        this.object = new HashMap<>();
+        for (int i = 0; i < this.entries; ++i) {
+            this.object.put("key" + i, "value" + i);
+        }
+        this.output = new ObjectOutputStream(NULL_OUTPUT);
+    }
+
+    @Benchmark
+    public void pooled() throws IOException {
+        new SimpleMarshalledValue<>(this.object, this.context).writeExternal(this.output);
+        this.output.reset();
+    }
+
+    @Benchmark
+    public void allocated() throws IOException {
+        int version = this.context.getCurrentVersion();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(version >>> 24);
+        bytes.write(version >>> 16);
+        bytes.write(version >>> 8);
+        bytes.write(version);
+        try (Marshaller marshaller = this.context.createMarshaller(version)) {
+            marshaller.start(Marshalling.createByteOutput(bytes));
+            marshaller.writeObject(this.object);
+            marshaller.finish();
+        }
+        byte[] buffer = bytes.toByteArray();
+        this.output.writeInt(buffer.length);
+        this.output.write(buffer);
+        this.output.reset();
+    }
+}
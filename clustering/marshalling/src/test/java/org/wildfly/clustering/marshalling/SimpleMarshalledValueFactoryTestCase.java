@@ -28,6 +28,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Random;
 import java.util.UUID;
 
 import org.jboss.marshalling.Marshalling;
@@ -144,6 +145,29 @@ public class SimpleMarshalledValueFactoryTestCase {
         assertEquals(0, mv.hashCode());
     }
 
+    @Test
+    public void serializedSize() throws Exception {
+        byte[] payload = new byte[100 * 1024];
+        new Random().nextBytes(payload);
+        SimpleMarshalledValue<byte[]> mv = this.factory.createMarshalledValue(payload);
+        assertEquals(-1, mv.getSerializedSize());
+
+        SimpleMarshalledValue<byte[]> copy = replicate(mv);
+        assertTrue(mv.getSerializedSize() > payload.length);
+        assertEquals(mv.getSerializedSize(), copy.getSerializedSize());
+        assertArrayEquals(payload, copy.get(this.context));
+        assertEquals(mv.getSerializedSize(), copy.getSerializedSize());
+    }
+
+    @Test
+    public void nested() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        SimpleMarshalledValue<SimpleMarshalledValue<UUID>> mv = this.factory.createMarshalledValue(this.factory.createMarshalledValue(uuid));
+
+        SimpleMarshalledValue<SimpleMarshalledValue<UUID>> copy = replicate(mv);
+        assertEquals(uuid, copy.get(this.context).get(this.context));
+    }
+
     <T> void validateHashCode(T original, SimpleMarshalledValue<T> copy) {
         assertEquals(0, copy.hashCode());
     }
@@ -55,7 +55,7 @@ import org.wildfly.clustering.server.Addressable;
  */
 public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C> {
 
-    private static final RspFilter FILTER = new RspFilter() {
+    static final RspFilter FILTER = new RspFilter() {
         @Override
         public boolean isAcceptable(Object response, Address sender) {
             return !(response instanceof NoSuchService);
@@ -72,13 +72,23 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
     private final NodeFactory<Address> factory;
     private final long timeout;
     private final CommandDispatcher<C> localDispatcher;
+    private final CommandBatcher batcher;
 
     public ChannelCommandDispatcher(MessageDispatcher dispatcher, CommandMarshaller<C> marshaller, NodeFactory<Address> factory, long timeout, CommandDispatcher<C> localDispatcher) {
+        this(dispatcher, marshaller, factory, timeout, localDispatcher, null);
+    }
+
+    /**
+     * Creates a command dispatcher that coalesces commands sent to the same node via the specified batcher.
+     * @param batcher a command batcher, or null, if commands should not be batched
+     */
+    public ChannelCommandDispatcher(MessageDispatcher dispatcher, CommandMarshaller<C> marshaller, NodeFactory<Address> factory, long timeout, CommandDispatcher<C> localDispatcher, CommandBatcher batcher) {
         this.dispatcher = dispatcher;
         this.marshaller = marshaller;
         this.factory = factory;
         this.timeout = timeout;
         this.localDispatcher = localDispatcher;
+        this.batcher = batcher;
     }
 
     @Override
@@ -146,7 +156,7 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
             return this.localDispatcher.executeOnNode(command, node);
         }
         // Use sendMessageWithFuture(...) instead of sendMessage(...) since we want to differentiate between sender exceptions and receiver exceptions
-        Future<R> future = this.dispatcher.sendMessageWithFuture(this.createMessage(command, node), this.createRequestOptions());
+        Future<R> future = this.send(command, node);
         try {
             return new SimpleCommandResponse<>(future.get());
         } catch (InterruptedException e) {
@@ -162,6 +172,13 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
         if (this.isLocal(node)) {
             return this.localDispatcher.submitOnNode(command, node);
         }
+        return this.send(command, node);
+    }
+
+    private <R> Future<R> send(Command<R, C> command, Node node) throws Exception {
+        if (this.batcher != null) {
+            return this.batcher.submit(getAddress(node), this.marshaller.marshal(command));
+        }
         return this.dispatcher.sendMessageWithFuture(this.createMessage(command, node), this.createRequestOptions());
     }
 
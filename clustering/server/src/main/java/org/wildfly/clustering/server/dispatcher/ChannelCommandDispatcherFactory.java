@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -70,6 +71,7 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
     private final MessageDispatcher dispatcher;
     private final JGroupsNodeFactory nodeFactory;
     private final long timeout;
+    private final CommandBatcher batcher;
 
     public ChannelCommandDispatcherFactory(ChannelCommandDispatcherFactoryConfiguration config) {
         this.nodeFactory = config.getNodeFactory();
@@ -88,16 +90,49 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
         this.dispatcher.setRequestHandler(this);
         this.dispatcher.setMembershipListener(this);
         this.dispatcher.start();
+        this.batcher = config.isBatching() ? new CommandBatcher(this.dispatcher, this.timeout) : null;
     }
 
     @Override
     public void close() {
+        if (this.batcher != null) {
+            this.batcher.close();
+        }
         this.dispatcher.stop();
     }
 
     @Override
     public Object handle(Message message) throws Exception {
-        try (InputStream input = new ByteArrayInputStream(message.getRawBuffer(), message.getOffset(), message.getLength())) {
+        byte[] buffer = message.getRawBuffer();
+        int offset = message.getOffset();
+        int length = message.getLength();
+        if ((length > 0) && ((buffer[offset] & 0xFF) == CommandBatcher.BATCH)) {
+            return this.handleBatch(buffer, offset + 1);
+        }
+        return this.handle(buffer, offset, length);
+    }
+
+    /**
+     * Executes each command of a batch in order.
+     * The failure of a command does not prevent the execution of subsequent commands.
+     */
+    private Object handleBatch(byte[] buffer, int offset) {
+        List<ByteBuffer> commands = CommandBatcher.split(buffer, offset);
+        Object[] results = new Object[commands.size()];
+        Throwable[] exceptions = new Throwable[commands.size()];
+        for (int i = 0; i < commands.size(); ++i) {
+            ByteBuffer command = commands.get(i);
+            try {
+                results[i] = this.handle(command.array(), command.position(), command.remaining());
+            } catch (Throwable e) {
+                exceptions[i] = e;
+            }
+        }
+        return new CommandBatchResponse(results, exceptions);
+    }
+
+    private Object handle(byte[] buffer, int offset, int length) throws Exception {
+        try (InputStream input = new ByteArrayInputStream(buffer, offset, length)) {
             int version = input.read();
             try (Unmarshaller unmarshaller = this.marshallingContext.createUnmarshaller(version)) {
                 unmarshaller.start(Marshalling.createByteInput(input));
@@ -136,7 +171,7 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
         };
         this.contexts.put(id, new AtomicReference<Object>(context));
         final CommandDispatcher<C> localDispatcher = new LocalCommandDispatcher<>(this.getLocalNode(), context);
-        return new ChannelCommandDispatcher<C>(this.dispatcher, marshaller, this.nodeFactory, this.timeout, localDispatcher) {
+        return new ChannelCommandDispatcher<C>(this.dispatcher, marshaller, this.nodeFactory, this.timeout, localDispatcher, this.batcher) {
             @Override
             public void close() {
                 localDispatcher.close();
@@ -206,6 +241,9 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
         List<Address> leftMembers = View.leftMembers(oldView, view);
         if (leftMembers != null) {
             this.nodeFactory.invalidate(leftMembers);
+            if (this.batcher != null) {
+                this.batcher.remove(leftMembers);
+            }
         }
 
         for (Listener listener: this.listeners) {
@@ -65,6 +65,7 @@ public class ChannelCommandDispatcherFactoryBuilder extends CommandDispatcherFac
     private final InjectedValue<Channel> channel = new InjectedValue<>();
     private final InjectedValue<JGroupsNodeFactory> nodeFactory = new InjectedValue<>();
     private final InjectedValue<ModuleLoader> loader = new InjectedValue<>();
+    private final InjectedValue<Boolean> batching = new InjectedValue<>();
     private final ModuleIdentifier module;
     private final Map<Integer, MarshallingConfiguration> configurations = new HashMap<>();
 
@@ -84,6 +85,7 @@ public class ChannelCommandDispatcherFactoryBuilder extends CommandDispatcherFac
                 .addDependency(ChannelServiceName.CONNECTOR.getServiceName(this.group), Channel.class, this.channel)
                 .addDependency(ChannelServiceName.FACTORY.getServiceName(this.group), ChannelFactory.class, this.channelFactory)
                 .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, this.loader)
+                .addDependency(ChannelServiceName.COMMAND_BATCHING.getServiceName(this.group), Boolean.class, this.batching)
                 .setInitialMode(ServiceController.Mode.ON_DEMAND)
         ;
     }
@@ -160,6 +162,11 @@ public class ChannelCommandDispatcherFactoryBuilder extends CommandDispatcherFac
         return this.timeout;
     }
 
+    @Override
+    public boolean isBatching() {
+        return this.batching.getValue();
+    }
+
     @Override
     public ChannelFactory getChannelFactory() {
         return this.channelFactory.getValue();
@@ -36,4 +36,5 @@ public interface ChannelCommandDispatcherFactoryConfiguration {
     JGroupsNodeFactory getNodeFactory();
     MarshallingContext getMarshallingContext();
     long getTimeout();
+    boolean isBatching();
 }
@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.io.Serializable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Response to a batch of commands, containing the result or exception of each command in the order in which they were batched.
+ */
+public class CommandBatchResponse implements Serializable {
+    private static final long serialVersionUID = -5313582563563924217L;
+
+    private final Object[] results;
+    private final Throwable[] exceptions;
+
+    CommandBatchResponse(Object[] results, Throwable[] exceptions) {
+        this.results = results;
+        this.exceptions = exceptions;
+    }
+
+    /**
+     * Returns the result of the command at the specified position in the batch.
+     * @param index the position of a command within the batch
+     * @return the result of the command
+     * @throws ExecutionException if the command failed to execute
+     */
+    Object get(int index) throws ExecutionException {
+        Throwable exception = this.exceptions[index];
+        if (exception != null) {
+            throw new ExecutionException(exception);
+        }
+        return this.results[index];
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.nio.ByteBuffer;
+import java.security.AccessController;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.threads.JBossThreadFactory;
+import org.jgroups.Address;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.ResponseMode;
+import org.wildfly.security.manager.action.GetAccessControlContextAction;
+
+/**
+ * Coalesces marshalled commands destined for the same node into a single message.
+ * Batching requires no timer: the first thread to submit a command to an idle destination sends it immediately,
+ * while commands submitted in the meantime accumulate and are sent together by whichever thread sends next.
+ * Consequently, the batching window is the time required to send the preceding message.
+ * A submitting thread sends at most one batch; commands that accumulate while it does so are sent by a separate thread.
+ * Each batched command retains its own future.
+ * <p>
+ * A batch is distinguished from a single command by a leading {@link #BATCH} byte in place of the marshalling version.
+ * Nodes that predate batching reject such messages, hence batching must only be enabled once every member of the group
+ * supports it, e.g. after a rolling upgrade has completed.
+ * </p>
+ */
+public class CommandBatcher implements AutoCloseable {
+
+    /** Leading byte of a batched message, distinguishing it from the marshalling version of a single command */
+    static final int BATCH = 0xFF;
+
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private final ConcurrentMap<Address, Destination> destinations = new ConcurrentHashMap<>();
+    private final MessageDispatcher dispatcher;
+    private final RequestOptions options;
+    private final ExecutorService executor;
+
+    public CommandBatcher(MessageDispatcher dispatcher, long timeout) {
+        this(dispatcher, timeout, Executors.newSingleThreadExecutor(createThreadFactory()));
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        return new JBossThreadFactory(new ThreadGroup(CommandBatcher.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance()));
+    }
+
+    public CommandBatcher(MessageDispatcher dispatcher, long timeout, ExecutorService executor) {
+        this.dispatcher = dispatcher;
+        this.options = new RequestOptions(ResponseMode.GET_ALL, timeout, false, ChannelCommandDispatcher.FILTER, Message.Flag.DONT_BUNDLE, Message.Flag.OOB);
+        this.executor = executor;
+    }
+
+    /**
+     * Submits the specified marshalled command for execution on the specified node.
+     * @param address the address of the target node
+     * @param command a marshalled command
+     * @return the future result of the command
+     */
+    public <R> Future<R> submit(Address address, byte[] command) {
+        BatchedCommandFuture<R> future = new BatchedCommandFuture<>(command);
+        Destination destination = this.destinations.get(address);
+        if (destination == null) {
+            destination = new Destination(address);
+            Destination existing = this.destinations.putIfAbsent(address, destination);
+            if (existing != null) {
+                destination = existing;
+            }
+        }
+        destination.add(future);
+        return future;
+    }
+
+    /**
+     * Discards the state associated with the specified nodes, e.g. after they leave the cluster.
+     * @param addresses a collection of node addresses
+     */
+    public void remove(Collection<Address> addresses) {
+        for (Address address: addresses) {
+            this.destinations.remove(address);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * Splits the payload of a batched message into its marshalled commands.
+     * @param buffer the message buffer
+     * @param offset the offset of the payload following the leading {@link #BATCH} byte
+     * @return a list of buffers, one per command
+     */
+    static List<ByteBuffer> split(byte[] buffer, int offset) {
+        ByteBuffer input = ByteBuffer.wrap(buffer);
+        input.position(offset);
+        int size = input.getInt();
+        List<ByteBuffer> commands = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            int length = input.getInt();
+            commands.add(ByteBuffer.wrap(buffer, input.position(), length));
+            input.position(input.position() + length);
+        }
+        return commands;
+    }
+
+    private class Destination implements Runnable {
+        private final Address address;
+        private final Queue<BatchedCommandFuture<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean sending = new AtomicBoolean(false);
+
+        Destination(Address address) {
+            this.address = address;
+        }
+
+        void add(BatchedCommandFuture<?> future) {
+            this.queue.add(future);
+            this.run();
+        }
+
+        /**
+         * Sends at most one batch, unless another thread is already sending.
+         */
+        @Override
+        public void run() {
+            if (this.sending.compareAndSet(false, true)) {
+                try {
+                    this.send();
+                } finally {
+                    this.sending.set(false);
+                }
+                // Re-check the queue after releasing the flag, otherwise a command queued just prior could be stranded.
+                // Remaining commands are sent by the executor, so that a caller is never held up sending the commands of others.
+                if (!this.queue.isEmpty()) {
+                    try {
+                        CommandBatcher.this.executor.execute(this);
+                    } catch (RejectedExecutionException e) {
+                        BatchedCommandFuture<?> future = this.queue.poll();
+                        while (future != null) {
+                            future.failed(e);
+                            future = this.queue.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void send() {
+            List<BatchedCommandFuture<?>> batch = new ArrayList<>();
+            // Leading byte, plus command count
+            int length = 5;
+            BatchedCommandFuture<?> future = this.queue.poll();
+            while (future != null) {
+                batch.add(future);
+                length += 4 + future.command.length;
+                future = (batch.size() < MAX_BATCH_SIZE) ? this.queue.poll() : null;
+            }
+            if (batch.isEmpty()) return;
+
+            // A single command is sent as is
+            boolean batched = batch.size() > 1;
+            byte[] payload = batched ? createPayload(batch, length) : batch.get(0).command;
+            try {
+                Message message = new Message(this.address, CommandBatcher.this.dispatcher.getChannel().getAddress(), payload);
+                Future<Object> response = CommandBatcher.this.dispatcher.sendMessageWithFuture(message, CommandBatcher.this.options);
+                for (int i = 0; i < batch.size(); ++i) {
+                    batch.get(i).sent(response, batched ? i : -1);
+                }
+            } catch (Exception e) {
+                for (BatchedCommandFuture<?> failed: batch) {
+                    failed.failed(e);
+                }
+            }
+        }
+
+        private byte[] createPayload(List<BatchedCommandFuture<?>> batch, int length) {
+            ByteBuffer output = ByteBuffer.allocate(length);
+            output.put((byte) BATCH);
+            output.putInt(batch.size());
+            for (BatchedCommandFuture<?> future: batch) {
+                output.putInt(future.command.length);
+                output.put(future.command);
+            }
+            return output.array();
+        }
+    }
+
+    /**
+     * Future result of a batched command.
+     * Once its batch is sent, this future delegates to the response future of the batch,
+     * so that the timeout semantics of the {@link MessageDispatcher} are preserved.
+     */
+    private static class BatchedCommandFuture<R> implements Future<R> {
+        final byte[] command;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Future<Object> response;
+        private volatile int index;
+        private volatile Exception exception;
+
+        BatchedCommandFuture(byte[] command) {
+            this.command = command;
+        }
+
+        void sent(Future<Object> response, int index) {
+            this.index = index;
+            this.response = response;
+            this.latch.countDown();
+        }
+
+        void failed(Exception exception) {
+            this.exception = exception;
+            this.latch.countDown();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return (this.latch.getCount() == 0) && ((this.exception != null) || this.response.isDone());
+        }
+
+        @Override
+        public R get() throws InterruptedException, ExecutionException {
+            this.latch.await();
+            this.checkException();
+            return this.result(this.response.get());
+        }
+
+        @Override
+        public R get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            long start = System.nanoTime();
+            if (!this.latch.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            this.checkException();
+            long remaining = unit.toNanos(timeout) - (System.nanoTime() - start);
+            return this.result(this.response.get(Math.max(remaining, 0L), TimeUnit.NANOSECONDS));
+        }
+
+        private void checkException() throws ExecutionException {
+            Exception exception = this.exception;
+            if (exception != null) {
+                throw new ExecutionException(exception);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private R result(Object response) throws ExecutionException {
+            // A batch response is absent if filtered, or if the batch as a whole was answered by NoSuchService
+            Object result = ((this.index >= 0) && (response instanceof CommandBatchResponse)) ? ((CommandBatchResponse) response).get(this.index) : response;
+            // Like a filtered single command, a command without a corresponding service on the target node has no result
+            return (result instanceof NoSuchService) ? null : (R) result;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.Address;
+import org.jgroups.Channel;
+import org.jgroups.JChannel;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.util.NotifyingFuture;
+import org.jgroups.util.NullFuture;
+import org.jgroups.util.UUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the throughput of commands submitted to the same node by concurrent threads via a {@link CommandBatcher}
+ * vs sending each command in its own message. The dispatcher is simulated, such that each message sent incurs a fixed cost,
+ * in lieu of the marshalling and transport overhead of an actual message.
+ * Not run as part of the build; run via the JMH runner, e.g.
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main CommandBatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(8)
+public class CommandBatcherBenchmark {
+
+    private static final byte[] COMMAND = new byte[64];
+
+    /** Simulated cost of sending a single message, in JMH CPU tokens */
+    @Param({ "100", "1000" })
+    private long messageCost;
+
+    private MessageDispatcher dispatcher;
+    private CommandBatcher batcher;
+    private Address address;
+
+    @Setup
+    public void setup() throws Exception {
+        // Not connected, hence its address is null
+        final Channel localChannel = new JChannel(false);
+        final long cost = this.messageCost;
+        this.dispatcher = new MessageDispatcher() {
+            @Override
+            public Channel getChannel() {
+                return localChannel;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> NotifyingFuture<T> sendMessageWithFuture(Message message, RequestOptions options) {
+                Blackhole.consumeCPU(cost);
+                byte[] buffer = message.getBuffer();
+                if ((buffer[0] & 0xFF) != CommandBatcher.BATCH) {
+                    return new NullFuture<>(null);
+                }
+                int size = CommandBatcher.split(buffer, 1).size();
+                Object response = new CommandBatchResponse(new Object[size], new Throwable[size]);
+                return new NullFuture<>((T) response);
+            }
+        };
+        this.batcher = new CommandBatcher(this.dispatcher, TimeUnit.MINUTES.toMillis(1));
+        this.address = UUID.randomUUID();
+        // Commands must not be mistaken for batches
+        Arrays.fill(COMMAND, (byte) 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.batcher.close();
+    }
+
+    @Benchmark
+    public Object unbatched() throws Exception {
+        Message message = new Message(this.address, null, COMMAND);
+        return this.dispatcher.sendMessageWithFuture(message, RequestOptions.SYNC()).get();
+    }
+
+    @Benchmark
+    public Object batched() throws Exception {
+        return this.batcher.submit(this.address, COMMAND).get();
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.jgroups.Address;
+import org.jgroups.Channel;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.util.NotifyingFuture;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class CommandBatcherTestCase {
+
+    private final MessageDispatcher dispatcher = mock(MessageDispatcher.class);
+    private final ExecutorService executor = mock(ExecutorService.class);
+    private final Address address = mock(Address.class);
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Before
+    public void init() {
+        Channel channel = mock(Channel.class);
+        when(this.dispatcher.getChannel()).thenReturn(channel);
+        when(channel.getAddress()).thenReturn(mock(Address.class));
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                CommandBatcherTestCase.this.tasks.add((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(this.executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void single() throws Exception {
+        byte[] command = new byte[] { 1, 2, 3 };
+        NotifyingFuture<Object> response = mock(NotifyingFuture.class);
+        when(this.dispatcher.sendMessageWithFuture(any(Message.class), any(RequestOptions.class))).thenReturn(response);
+        when(response.get()).thenReturn("result");
+
+        try (CommandBatcher batcher = new CommandBatcher(this.dispatcher, 1000L, this.executor)) {
+            Future<String> future = batcher.submit(this.address, command);
+
+            ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+            ArgumentCaptor<RequestOptions> options = ArgumentCaptor.forClass(RequestOptions.class);
+            verify(this.dispatcher).sendMessageWithFuture(message.capture(), options.capture());
+
+            // A lone command is sent as is
+            assertArrayEquals(command, message.getValue().getBuffer());
+            assertSame(this.address, message.getValue().getDest());
+            assertSame(ChannelCommandDispatcher.FILTER, options.getValue().getRspFilter());
+            assertEquals("result", future.get());
+            verify(this.executor, never()).execute(any(Runnable.class));
+        }
+    }
+
+    @Test
+    public void singleNoSuchService() throws Exception {
+        NotifyingFuture<Object> response = mock(NotifyingFuture.class);
+        when(this.dispatcher.sendMessageWithFuture(any(Message.class), any(RequestOptions.class))).thenReturn(response);
+        when(response.get()).thenReturn(NoSuchService.INSTANCE);
+
+        try (CommandBatcher batcher = new CommandBatcher(this.dispatcher, 1000L, this.executor)) {
+            Future<Object> future = batcher.submit(this.address, new byte[] { 1 });
+
+            assertNull(future.get());
+        }
+    }
+
+    @Test
+    public void batch() throws Exception {
+        final byte[] first = new byte[] { 1 };
+        final byte[] second = new byte[] { 2, 2 };
+        final byte[] third = new byte[] { 3, 3, 3 };
+        final byte[] fourth = new byte[0];
+        final Exception exception = new Exception();
+        NotifyingFuture<Object> singleResponse = mock(NotifyingFuture.class);
+        NotifyingFuture<Object> batchResponse = mock(NotifyingFuture.class);
+        when(singleResponse.get()).thenReturn("first");
+        when(batchResponse.get()).thenReturn(new CommandBatchResponse(new Object[] { "second", NoSuchService.INSTANCE, null }, new Throwable[] { null, null, exception }));
+
+        try (final CommandBatcher batcher = new CommandBatcher(this.dispatcher, 1000L, this.executor)) {
+            final List<Future<Object>> futures = new ArrayList<>();
+            final ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+            when(this.dispatcher.sendMessageWithFuture(messages.capture(), any(RequestOptions.class))).thenAnswer(new Answer<NotifyingFuture<Object>>() {
+                @Override
+                public NotifyingFuture<Object> answer(InvocationOnMock invocation) {
+                    if (messages.getAllValues().size() == 1) {
+                        // Commands submitted while the first is being sent are queued
+                        futures.add(batcher.<Object>submit(CommandBatcherTestCase.this.address, second));
+                        futures.add(batcher.<Object>submit(CommandBatcherTestCase.this.address, third));
+                        futures.add(batcher.<Object>submit(CommandBatcherTestCase.this.address, fourth));
+                        return singleResponse;
+                    }
+                    return batchResponse;
+                }
+            });
+
+            Future<Object> future = batcher.submit(this.address, first);
+
+            // The submitting thread sends only its own command, the remaining commands are left to the executor
+            verify(this.dispatcher, times(1)).sendMessageWithFuture(any(Message.class), any(RequestOptions.class));
+            assertEquals(1, this.tasks.size());
+            this.tasks.remove(0).run();
+            verify(this.dispatcher, times(2)).sendMessageWithFuture(any(Message.class), any(RequestOptions.class));
+            assertEquals(0, this.tasks.size());
+
+            byte[] payload = messages.getAllValues().get(1).getBuffer();
+            assertEquals(CommandBatcher.BATCH, payload[0] & 0xFF);
+            List<ByteBuffer> commands = CommandBatcher.split(payload, 1);
+            assertEquals(3, commands.size());
+            assertArrayEquals(second, toArray(commands.get(0)));
+            assertArrayEquals(third, toArray(commands.get(1)));
+            assertArrayEquals(fourth, toArray(commands.get(2)));
+
+            assertEquals("first", future.get());
+            assertEquals("second", futures.get(0).get());
+            assertNull(futures.get(1).get());
+            try {
+                futures.get(2).get();
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(exception, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void sendFailure() throws Exception {
+        Exception exception = new Exception();
+        when(this.dispatcher.sendMessageWithFuture(any(Message.class), any(RequestOptions.class))).thenThrow(exception);
+
+        try (CommandBatcher batcher = new CommandBatcher(this.dispatcher, 1000L, this.executor)) {
+            Future<Object> future = batcher.submit(this.address, new byte[] { 1 });
+            try {
+                future.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(exception, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void rejected() throws Exception {
+        final RejectedExecutionException exception = new RejectedExecutionException();
+        doThrow(exception).when(this.executor).execute(any(Runnable.class));
+        final NotifyingFuture<Object> response = mock(NotifyingFuture.class);
+
+        try (final CommandBatcher batcher = new CommandBatcher(this.dispatcher, 1000L, this.executor)) {
+            final List<Future<Object>> futures = new ArrayList<>();
+            when(this.dispatcher.sendMessageWithFuture(any(Message.class), any(RequestOptions.class))).thenAnswer(new Answer<NotifyingFuture<Object>>() {
+                @Override
+                public NotifyingFuture<Object> answer(InvocationOnMock invocation) {
+                    if (futures.isEmpty()) {
+                        futures.add(batcher.<Object>submit(CommandBatcherTestCase.this.address, new byte[] { 2 }));
+                    }
+                    return response;
+                }
+            });
+
+            batcher.submit(this.address, new byte[] { 1 });
+
+            assertEquals(1, futures.size());
+            try {
+                futures.get(0).get();
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(exception, e.getCause());
+            }
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        return Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit());
+    }
+}
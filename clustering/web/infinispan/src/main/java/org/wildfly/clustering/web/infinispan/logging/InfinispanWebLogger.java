@@ -80,4 +80,8 @@ public interface InfinispanWebLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 10, value = "Failed to activate authentication for single sign on %s")
     void failedToActivateAuthentication(@Cause Throwable cause, String ssoId);
+
+    @LogMessage(level = WARN)
+    @Message(id = 11, value = "Failed to expire sessions")
+    void failedToExpireSessions(@Cause Throwable cause);
 }
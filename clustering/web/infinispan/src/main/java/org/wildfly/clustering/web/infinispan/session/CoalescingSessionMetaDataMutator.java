@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.web.session.SessionMetaData;
+
+/**
+ * Mutator for session meta data that coalesces replication of the last accessed time.
+ * The meta data is only replicated if its max inactive interval changed,
+ * or if its last accessed time drifted from its last replicated value by at least the specified fraction of its max inactive interval.
+ * Consequently, the replicated last accessed time of a session may lag its actual last accessed time, as known to the node that last accessed it.
+ */
+public class CoalescingSessionMetaDataMutator implements Mutator {
+
+    private final Mutator mutator;
+    private final SimpleSessionMetaData metaData;
+    private final double threshold;
+
+    /**
+     * Decorates the specified meta data mutator, if the specified threshold enables coalescing.
+     * @param mutator a meta data mutator
+     * @param metaData the meta data of a session
+     * @param threshold the fraction of the max inactive interval by which the replicated last accessed time may lag
+     * @return a mutator
+     */
+    public static Mutator decorate(Mutator mutator, SessionMetaData metaData, double threshold) {
+        return ((threshold > 0) && (metaData instanceof SimpleSessionMetaData)) ? new CoalescingSessionMetaDataMutator(mutator, (SimpleSessionMetaData) metaData, threshold) : mutator;
+    }
+
+    private CoalescingSessionMetaDataMutator(Mutator mutator, SimpleSessionMetaData metaData, double threshold) {
+        this.mutator = mutator;
+        this.metaData = metaData;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void mutate() {
+        if (this.metaData.isReplicationRequired(this.threshold)) {
+            this.mutator.mutate();
+            this.metaData.replicated();
+        }
+    }
+}
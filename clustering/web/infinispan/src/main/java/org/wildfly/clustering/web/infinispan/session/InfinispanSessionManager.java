@@ -22,11 +22,18 @@
 package org.wildfly.clustering.web.infinispan.session;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpSessionActivationListener;
@@ -40,6 +47,8 @@ import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.filter.NullValueConverter;
 import org.infinispan.iteration.EntryIterable;
 import org.infinispan.notifications.Listener;
@@ -58,6 +67,7 @@ import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.Batch;
 import org.wildfly.clustering.ee.Batcher;
 import org.wildfly.clustering.ee.Invoker;
+import org.wildfly.clustering.ee.infinispan.Remover;
 import org.wildfly.clustering.ee.infinispan.RetryingInvoker;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.group.Node;
@@ -70,10 +80,12 @@ import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.session.ImmutableHttpSessionAdapter;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 import org.wildfly.clustering.web.session.Session;
 import org.wildfly.clustering.web.session.SessionAttributes;
 import org.wildfly.clustering.web.session.SessionContext;
 import org.wildfly.clustering.web.session.SessionManager;
+import org.wildfly.clustering.web.session.SessionManagerConfiguration.ExpirationSchedulerType;
 import org.wildfly.clustering.web.session.SessionMetaData;
 
 /**
@@ -82,21 +94,30 @@ import org.wildfly.clustering.web.session.SessionMetaData;
  */
 @Listener(primaryOnly = true)
 public class InfinispanSessionManager<V, L> implements SessionManager<L, TransactionBatch> {
+    private static final int SCHEDULE_CHUNK_SIZE = 1000;
+
     private final SessionContext context;
-    private final Batcher<TransactionBatch> batcher;
+    final Batcher<TransactionBatch> batcher;
     private final Cache<String, ?> cache;
-    private final SessionFactory<V, L> factory;
+    final SessionFactory<V, L> factory;
     private final IdentifierFactory<String> identifierFactory;
     private final CommandDispatcherFactory dispatcherFactory;
     private final NodeFactory<Address> nodeFactory;
     private final int maxActiveSessions;
+    private final ExpirationSchedulerType expirationSchedulerType;
+    private final double lastAccessedTimeThreshold;
     private volatile Time defaultMaxInactiveInterval = new Time(30, TimeUnit.MINUTES);
     private final boolean persistent;
     private final Invoker invoker = new RetryingInvoker(0, 10, 100);
-    private final SessionIdentifierFilter filter = new SessionIdentifierFilter();
+    final SessionIdentifierFilter filter = new SessionIdentifierFilter();
 
     volatile CommandDispatcher<Scheduler> dispatcher;
-    private volatile Scheduler scheduler;
+    volatile Scheduler scheduler;
+    volatile Locality locality;
+    volatile ExecutorService executor;
+    // Guards against ownership transition tasks running after this session manager was stopped
+    final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+    volatile boolean started = false;
 
     public InfinispanSessionManager(SessionFactory<V, L> factory, InfinispanSessionManagerConfiguration configuration) {
         this.factory = factory;
@@ -107,6 +128,8 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
         this.dispatcherFactory = configuration.getCommandDispatcherFactory();
         this.nodeFactory = configuration.getNodeFactory();
         this.maxActiveSessions = configuration.getMaxActiveSessions();
+        this.expirationSchedulerType = configuration.getExpirationSchedulerType();
+        this.lastAccessedTimeThreshold = configuration.getLastAccessedTimeThreshold();
         Configuration config = this.cache.getCacheConfiguration();
         // If cache is clustered or configured with a write-through cache store
         // then we need to trigger any HttpSessionActivationListeners per request
@@ -118,7 +141,7 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
     public void start() {
         this.identifierFactory.start();
         final List<Scheduler> schedulers = new ArrayList<>(2);
-        schedulers.add(new SessionExpirationScheduler(this.batcher, new ExpiredSessionRemover<>(this.factory)));
+        schedulers.add(this.createExpirationScheduler());
         if (this.maxActiveSessions >= 0) {
             schedulers.add(new SessionEvictionScheduler(this.cache.getName() + ".eviction", this.factory, this.dispatcherFactory, this.maxActiveSessions));
         }
@@ -152,13 +175,38 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
             }
         };
         this.dispatcher = this.dispatcherFactory.createCommandDispatcher(this.cache.getName() + ".schedulers", this.scheduler);
+        // Ownership transitions are processed on the listener executor of the cache container, rather than on a pool per deployment
+        this.executor = this.cache.getCacheManager().getGlobalComponentRegistry().getComponent(ExecutorService.class, KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR);
+        this.started = true;
+        Locality locality = new ConsistentHashLocality(this.cache);
+        this.locality = locality;
         this.cache.addListener(this, this.filter);
-        this.schedule(this.cache, new SimpleLocality(false), new ConsistentHashLocality(this.cache));
+        new OwnershipTransitionTask(this.cache, new OwnershipTransitionLocality(new SimpleLocality(false), locality)).run();
+    }
+
+    private Scheduler createExpirationScheduler() {
+        Remover<String> remover = new ExpiredSessionRemover<>(this.factory);
+        switch (this.expirationSchedulerType) {
+            case TIMING_WHEEL: {
+                return new TimingWheelSessionExpirationScheduler(this.batcher, remover);
+            }
+            default: {
+                return new SessionExpirationScheduler(this.batcher, remover);
+            }
+        }
     }
 
     @Override
     public void stop() {
         this.cache.removeListener(this);
+        // Wait for any running ownership transition tasks, and prevent queued tasks from running
+        Lock lock = this.lifecycleLock.writeLock();
+        lock.lock();
+        try {
+            this.started = false;
+        } finally {
+            lock.unlock();
+        }
         this.dispatcher.close();
         this.scheduler.close();
         this.identifierFactory.stop();
@@ -273,6 +321,26 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
         return this.getSessions(Flag.CACHE_MODE_LOCAL);
     }
 
+    @Override
+    public long getAttributeFlushCount() {
+        return this.factory.getAttributeFlushCount();
+    }
+
+    @Override
+    public long getAttributeWriteCount() {
+        return this.factory.getAttributeWriteCount();
+    }
+
+    @Override
+    public long getDeltaReplicationCount() {
+        return this.factory.getDeltaReplicationCount();
+    }
+
+    @Override
+    public long getDeltaReplicationBytes() {
+        return this.factory.getDeltaReplicationBytes();
+    }
+
     private Set<String> getSessions(Flag... flags) {
         Set<String> result = new HashSet<>();
         try (EntryIterable<String, ?> entries = this.cache.getAdvancedCache().withFlags(flags).filterEntries(this.filter)) {
@@ -340,39 +408,181 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
     public void dataRehashed(DataRehashedEvent<String, ?> event) {
         Cache<String, ?> cache = event.getCache();
         Address localAddress = cache.getCacheManager().getAddress();
-        Locality oldLocality = new ConsistentHashLocality(localAddress, event.getConsistentHashAtStart());
-        Locality newLocality = new ConsistentHashLocality(localAddress, event.getConsistentHashAtEnd());
+        ConsistentHash oldHash = event.getConsistentHashAtStart();
+        ConsistentHash newHash = event.getConsistentHashAtEnd();
         if (event.isPre()) {
-            this.scheduler.cancel(newLocality);
+            Locality newLocality = new ConsistentHashLocality(localAddress, newHash);
+            this.locality = newLocality;
+            // Skip cancellation entirely if we are not losing ownership of any segments
+            if ((oldHash == null) || (newHash == null) || !difference(getPrimarySegments(localAddress, oldHash), getPrimarySegments(localAddress, newHash)).isEmpty()) {
+                this.scheduler.cancel(newLocality);
+            }
+        } else if ((oldHash == null) || (newHash == null)) {
+            this.executor.execute(new OwnershipTransitionTask(cache, new OwnershipTransitionLocality(new ConsistentHashLocality(localAddress, oldHash), new ConsistentHashLocality(localAddress, newHash))));
         } else {
-            this.schedule(cache, oldLocality, newLocality);
+            Set<Integer> segments = difference(getPrimarySegments(localAddress, newHash), getPrimarySegments(localAddress, oldHash));
+            // Skip iteration entirely if we did not gain ownership of any segments
+            if (!segments.isEmpty()) {
+                this.executor.execute(new OwnershipTransitionTask(cache, new SegmentLocality(newHash, segments)));
+            }
         }
     }
 
-    private void schedule(Cache<String, ?> cache, Locality oldLocality, Locality newLocality) {
-        // Iterate over sessions in memory
-        try (EntryIterable<String, ?> entries = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD).filterEntries(this.filter)) {
-            for (CacheEntry<String, ?> entry : entries.converter(NullValueConverter.getInstance())) {
-                String sessionId = entry.getKey();
-                // If we are the new primary owner of this session
-                // then schedule expiration of this session locally
-                if (!oldLocality.isLocal(sessionId) && newLocality.isLocal(sessionId)) {
-                    Batch batch = this.batcher.createBatch();
-                    try {
-                        // We need to lookup the session to obtain its meta data
-                        V value = this.factory.findValue(sessionId);
-                        if (value != null) {
-                            ImmutableSession session = this.factory.createImmutableSession(sessionId, value);
-                            this.scheduler.schedule(session);
+    private static Set<Integer> getPrimarySegments(Address address, ConsistentHash hash) {
+        return (address != null) ? hash.getPrimarySegmentsForOwner(address) : Collections.<Integer>emptySet();
+    }
+
+    private static Set<Integer> difference(Set<Integer> segments, Set<Integer> excludedSegments) {
+        Set<Integer> result = new HashSet<>(segments);
+        result.removeAll(excludedSegments);
+        return result;
+    }
+
+    /**
+     * If replication of last accessed times is coalesced, the replicated last accessed time of a session may lag its actual last accessed time
+     * by up to the configured fraction of its max inactive interval.
+     * When scheduling a session using replicated meta data, we assume the maximum lag, so that the session does not expire prematurely.
+     */
+    ImmutableSession compensate(ImmutableSession session) {
+        if (this.lastAccessedTimeThreshold <= 0) return session;
+        ImmutableSessionMetaData metaData = session.getMetaData();
+        long maxInactiveInterval = metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS);
+        Date lastAccessedTime = new Date(metaData.getLastAccessedTime().getTime() + (long) (maxInactiveInterval * this.lastAccessedTimeThreshold));
+        return new MockImmutableSession(session.getId(), new SimpleSessionMetaData(metaData.getCreationTime(), lastAccessedTime, new Time(maxInactiveInterval, TimeUnit.MILLISECONDS)));
+    }
+
+    /**
+     * Schedules all sessions, which are stored in memory and are local to the specified locality.
+     * The sessions are scheduled in chunks, each using a single batch, on the listener executor of the cache container.
+     */
+    private class OwnershipTransitionTask implements Runnable {
+        private final Cache<String, ?> cache;
+        private final Locality locality;
+
+        OwnershipTransitionTask(Cache<String, ?> cache, Locality locality) {
+            this.cache = cache;
+            this.locality = locality;
+        }
+
+        @Override
+        public void run() {
+            Lock lock = InfinispanSessionManager.this.lifecycleLock.readLock();
+            // If the lock is unavailable, then this session manager is stopping
+            if (!lock.tryLock()) return;
+            try {
+                if (!InfinispanSessionManager.this.started) return;
+                List<String> sessionIds = new ArrayList<>(SCHEDULE_CHUNK_SIZE);
+                // Iterate over sessions in memory
+                try (EntryIterable<String, ?> entries = this.cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD).filterEntries(InfinispanSessionManager.this.filter)) {
+                    for (CacheEntry<String, ?> entry : entries.converter(NullValueConverter.getInstance())) {
+                        String sessionId = entry.getKey();
+                        if (this.locality.isLocal(sessionId)) {
+                            sessionIds.add(sessionId);
+                            if (sessionIds.size() == SCHEDULE_CHUNK_SIZE) {
+                                this.schedule(sessionIds);
+                                sessionIds = new ArrayList<>(SCHEDULE_CHUNK_SIZE);
+                            }
                         }
-                    } finally {
-                        batch.discard();
                     }
                 }
+                if (!sessionIds.isEmpty()) {
+                    new ScheduleTask(sessionIds).run();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void schedule(List<String> sessionIds) {
+            ScheduleTask task = new ScheduleTask(sessionIds);
+            try {
+                InfinispanSessionManager.this.executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // Executor is saturated or shutting down, so schedule this chunk ourselves
+                task.run();
             }
         }
     }
 
+    /**
+     * Schedules the specified sessions within a single batch.
+     */
+    private class ScheduleTask implements Runnable {
+        private final List<String> sessionIds;
+
+        ScheduleTask(List<String> sessionIds) {
+            this.sessionIds = sessionIds;
+        }
+
+        @Override
+        public void run() {
+            Lock lock = InfinispanSessionManager.this.lifecycleLock.readLock();
+            // If the lock is unavailable, then this session manager is stopping
+            if (!lock.tryLock()) return;
+            try {
+                if (!InfinispanSessionManager.this.started) return;
+                Batch batch = InfinispanSessionManager.this.batcher.createBatch();
+                try {
+                    for (String sessionId: this.sessionIds) {
+                        // Skip sessions whose ownership changed again since this task was submitted
+                        if (InfinispanSessionManager.this.locality.isLocal(sessionId)) {
+                            try {
+                                // We need to lookup the session to obtain its meta data
+                                V value = InfinispanSessionManager.this.factory.findValue(sessionId);
+                                if (value != null) {
+                                    ImmutableSession session = InfinispanSessionManager.this.factory.createImmutableSession(sessionId, value);
+                                    InfinispanSessionManager.this.scheduler.schedule(InfinispanSessionManager.this.compensate(session));
+                                }
+                            } catch (RuntimeException e) {
+                                InfinispanWebLogger.ROOT_LOGGER.failedToScheduleSession(e, sessionId);
+                            }
+                        }
+                    }
+                } finally {
+                    batch.discard();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Locality of those keys that were not local to a previous locality, but are local to a current locality.
+     */
+    private static class OwnershipTransitionLocality implements Locality {
+        private final Locality oldLocality;
+        private final Locality newLocality;
+
+        OwnershipTransitionLocality(Locality oldLocality, Locality newLocality) {
+            this.oldLocality = oldLocality;
+            this.newLocality = newLocality;
+        }
+
+        @Override
+        public boolean isLocal(Object key) {
+            return !this.oldLocality.isLocal(key) && this.newLocality.isLocal(key);
+        }
+    }
+
+    /**
+     * Locality of those keys that map to a given set of segments.
+     */
+    private static class SegmentLocality implements Locality {
+        private final ConsistentHash hash;
+        private final Set<Integer> segments;
+
+        SegmentLocality(ConsistentHash hash, Set<Integer> segments) {
+            this.hash = hash;
+            this.segments = segments;
+        }
+
+        @Override
+        public boolean isLocal(Object key) {
+            return this.segments.contains(this.hash.getSegment(key));
+        }
+    }
+
     static void triggerPrePassivationEvents(ImmutableSession session) {
         List<HttpSessionActivationListener> listeners = findListeners(session);
         if (!listeners.isEmpty()) {
@@ -29,6 +29,7 @@ import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.group.NodeFactory;
 import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.session.SessionContext;
+import org.wildfly.clustering.web.session.SessionManagerConfiguration.ExpirationSchedulerType;
 
 /**
  * Configuration for an {@link InfinispanSessionManager}.
@@ -42,4 +43,6 @@ public interface InfinispanSessionManagerConfiguration {
     CommandDispatcherFactory getCommandDispatcherFactory();
     NodeFactory<Address> getNodeFactory();
     int getMaxActiveSessions();
+    ExpirationSchedulerType getExpirationSchedulerType();
+    double getLastAccessedTimeThreshold();
 }
@@ -43,6 +43,7 @@ import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.AffinityIdentifierFactory;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionCacheEntry;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionFactory;
+import org.wildfly.clustering.web.infinispan.session.coarse.MarshalledSessionAttributesMarshaller;
 import org.wildfly.clustering.web.infinispan.session.coarse.SessionAttributesCacheKey;
 import org.wildfly.clustering.web.infinispan.session.fine.FineSessionCacheEntry;
 import org.wildfly.clustering.web.infinispan.session.fine.FineSessionFactory;
@@ -50,6 +51,7 @@ import org.wildfly.clustering.web.infinispan.session.fine.SessionAttributeCacheK
 import org.wildfly.clustering.web.session.SessionContext;
 import org.wildfly.clustering.web.session.SessionManager;
 import org.wildfly.clustering.web.session.SessionManagerConfiguration;
+import org.wildfly.clustering.web.session.SessionManagerConfiguration.ExpirationSchedulerType;
 import org.wildfly.clustering.web.session.SessionManagerFactory;
 
 /**
@@ -72,6 +74,8 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
         final CommandDispatcherFactory dispatcherFactory = this.config.getCommandDispatcherFactory();
         final NodeFactory<Address> nodeFactory = this.config.getNodeFactory();
         final int maxActiveSessions = this.config.getSessionManagerConfiguration().getMaxActiveSessions();
+        final ExpirationSchedulerType expirationSchedulerType = this.config.getSessionManagerConfiguration().getExpirationSchedulerType();
+        final double lastAccessedTimeThreshold = this.config.getSessionManagerConfiguration().getLastAccessedTimeThreshold();
         InfinispanSessionManagerConfiguration config = new InfinispanSessionManagerConfiguration() {
             @Override
             public SessionContext getSessionContext() {
@@ -107,6 +111,16 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
             public int getMaxActiveSessions() {
                 return maxActiveSessions;
             }
+
+            @Override
+            public ExpirationSchedulerType getExpirationSchedulerType() {
+                return expirationSchedulerType;
+            }
+
+            @Override
+            public double getLastAccessedTimeThreshold() {
+                return lastAccessedTimeThreshold;
+            }
         };
         return new InfinispanSessionManager<>(this.getSessionFactory(context, localContextFactory), config);
     }
@@ -122,13 +136,14 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
                 Cache<String, FineSessionCacheEntry<L>> sessionCache = this.config.getCache();
                 Cache<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> attributeCache = this.config.getCache();
                 Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
-                return new FineSessionFactory<>(sessionCache, attributeCache, context, marshaller, localContextFactory);
+                return new FineSessionFactory<>(sessionCache, attributeCache, context, marshaller, localContextFactory, config.getLastAccessedTimeThreshold());
             }
             case COARSE: {
                 Cache<String, CoarseSessionCacheEntry<L>> sessionCache = this.config.getCache();
                 Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache = this.config.getCache();
-                Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
-                return new CoarseSessionFactory<>(sessionCache, attributesCache, context, marshaller, localContextFactory);
+                // Delta replication requires a distinct marshalled form, thus cannot be enabled for a rolling upgrade
+                Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller = config.isDeltaReplication() ? new MarshalledSessionAttributesMarshaller(marshallingContext) : new MarshalledValueMarshaller<Map<String, Object>, MarshallingContext>(factory, marshallingContext);
+                return new CoarseSessionFactory<>(sessionCache, attributesCache, context, marshaller, localContextFactory, config.getLastAccessedTimeThreshold());
             }
             default: {
                 // Impossible
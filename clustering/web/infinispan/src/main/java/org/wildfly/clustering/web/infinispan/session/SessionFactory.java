@@ -27,12 +27,13 @@ import org.wildfly.clustering.ee.infinispan.Locator;
 import org.wildfly.clustering.ee.infinispan.Remover;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.Session;
+import org.wildfly.clustering.web.session.SessionManagerStatistics;
 
 /**
  * Factory for creating sessions.  This represents the cache mapping strategy for sessions.
  * @author Paul Ferraro
  */
-public interface SessionFactory<V, L> extends Creator<String, V, Void>, Locator<String, V>, Remover<String>, Evictor<String> {
+public interface SessionFactory<V, L> extends Creator<String, V, Void>, Locator<String, V>, Remover<String>, Evictor<String>, SessionManagerStatistics {
     Session<L> createSession(String id, V value);
     ImmutableSession createImmutableSession(String id, V value);
 }
@@ -35,18 +35,44 @@ public class SimpleSessionMetaData implements SessionMetaData {
     private final Date creationTime;
     private volatile Date lastAccessedTime;
     private volatile Time maxInactiveInterval;
+    // Local only, i.e. not externalized
+    private volatile Date replicatedLastAccessedTime;
+    private volatile Time replicatedMaxInactiveInterval;
 
     public SimpleSessionMetaData() {
         Date now = new Date();
         this.creationTime = now;
         this.lastAccessedTime = now;
         this.maxInactiveInterval = new Time(0, TimeUnit.MILLISECONDS);
+        this.replicated();
     }
 
     public SimpleSessionMetaData(Date creationTime, Date lastAccessedTime, Time maxInactiveInterval) {
         this.creationTime = creationTime;
         this.lastAccessedTime = lastAccessedTime;
         this.maxInactiveInterval = maxInactiveInterval;
+        this.replicated();
+    }
+
+    /**
+     * Indicates whether this meta data differs sufficiently from its last replicated state to warrant replication.
+     * @param threshold the fraction of the max inactive interval by which the replicated last accessed time may lag the actual last accessed time
+     * @return true, if this meta data should be replicated, false otherwise
+     */
+    boolean isReplicationRequired(double threshold) {
+        if (!this.maxInactiveInterval.equals(this.replicatedMaxInactiveInterval)) return true;
+        long maxInactiveInterval = this.getMaxInactiveInterval(TimeUnit.MILLISECONDS);
+        // Last accessed time of an immortal session does not affect its expiration
+        if (maxInactiveInterval <= 0) return false;
+        return (this.lastAccessedTime.getTime() - this.replicatedLastAccessedTime.getTime()) >= (long) (maxInactiveInterval * threshold);
+    }
+
+    /**
+     * Records the current state of this meta data as replicated.
+     */
+    void replicated() {
+        this.replicatedLastAccessedTime = this.lastAccessedTime;
+        this.replicatedMaxInactiveInterval = this.maxInactiveInterval;
     }
 
     @Override
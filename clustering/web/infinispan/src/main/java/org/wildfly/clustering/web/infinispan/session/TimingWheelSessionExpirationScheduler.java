@@ -0,0 +1,317 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.security.AccessController;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.clustering.ee.Batch;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.Remover;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.infinispan.spi.distribution.Locality;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.security.manager.action.GetAccessControlContextAction;
+
+/**
+ * Session expiration scheduler based on hashed timing wheels, sharded by session identifier.
+ * Unlike {@link SessionExpirationScheduler}, scheduling a session does not create a task per session.
+ * Rescheduling a session that is already scheduled merely records its new expiration time,
+ * which is reconciled lazily when the wheel reaches the slot in which the session was originally placed.
+ * All sessions of a shard that expire within the same tick are removed within a single batch.
+ */
+public class TimingWheelSessionExpirationScheduler implements Scheduler {
+
+    static final long DEFAULT_TICK_DURATION = 1000L;
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    final Batcher<TransactionBatch> batcher;
+    final Remover<String> remover;
+    private final Shard[] shards;
+    private final ScheduledExecutorService executor;
+
+    public TimingWheelSessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover) {
+        this(batcher, remover, Runtime.getRuntime().availableProcessors(), DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    public TimingWheelSessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, int shards, long tickDuration, int wheelSize) {
+        this(batcher, remover, shards, tickDuration, wheelSize, createScheduledExecutor(createThreadFactory()));
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        return new JBossThreadFactory(new ThreadGroup(TimingWheelSessionExpirationScheduler.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance()));
+    }
+
+    // All shards share a single thread, since a tick of a shard rarely does more than swap a slot
+    private static ScheduledExecutorService createScheduledExecutor(ThreadFactory factory) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    public TimingWheelSessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, int shards, long tickDuration, int wheelSize, ScheduledExecutorService executor) {
+        this.batcher = batcher;
+        this.remover = remover;
+        this.executor = executor;
+        this.shards = new Shard[powerOfTwo(shards)];
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < this.shards.length; ++i) {
+            Shard shard = new Shard(start, tickDuration, powerOfTwo(wheelSize));
+            this.shards[i] = shard;
+            this.executor.scheduleWithFixedDelay(shard, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static int powerOfTwo(int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    private Shard shard(String sessionId) {
+        int hash = sessionId.hashCode();
+        // Spread the higher bits, since the number of shards is typically small
+        hash ^= (hash >>> 16);
+        return this.shards[hash & (this.shards.length - 1)];
+    }
+
+    @Override
+    public void schedule(ImmutableSession session) {
+        long timeout = session.getMetaData().getMaxInactiveInterval(TimeUnit.MILLISECONDS);
+        if (timeout > 0) {
+            long lastAccessed = session.getMetaData().getLastAccessedTime().getTime();
+            String id = session.getId();
+            InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire in %d ms", id, timeout);
+            this.shard(id).schedule(id, lastAccessed + timeout);
+        }
+    }
+
+    @Override
+    public void cancel(String sessionId) {
+        this.shard(sessionId).cancel(sessionId);
+    }
+
+    @Override
+    public void cancel(Locality locality) {
+        for (Shard shard: this.shards) {
+            shard.cancel(locality);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Shard shard: this.shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * Expires the specified sessions within a single batch.
+     * If any session fails to expire, the batch is discarded and each session is expired within its own batch.
+     */
+    void expire(List<String> sessionIds) {
+        Batch batch = null;
+        boolean success = false;
+        try {
+            batch = this.batcher.createBatch();
+            for (String id: sessionIds) {
+                InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring session %s", id);
+                this.remover.remove(id);
+            }
+            success = true;
+        } catch (Throwable e) {
+            InfinispanWebLogger.ROOT_LOGGER.debugf(e, "Failed to expire %d sessions in a single batch", sessionIds.size());
+        } finally {
+            if (batch != null) {
+                if (success) {
+                    batch.close();
+                } else {
+                    batch.discard();
+                }
+            }
+        }
+        if (!success) {
+            for (String id: sessionIds) {
+                this.expire(id);
+            }
+        }
+    }
+
+    private void expire(String id) {
+        Batch batch = null;
+        boolean success = false;
+        try {
+            batch = this.batcher.createBatch();
+            this.remover.remove(id);
+            success = true;
+        } catch (Throwable e) {
+            InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, id);
+        } finally {
+            if (batch != null) {
+                if (success) {
+                    batch.close();
+                } else {
+                    batch.discard();
+                }
+            }
+        }
+    }
+
+    /**
+     * A single timing wheel, responsible for a subset of sessions.
+     * The wheel itself is guarded by the shard's monitor, whereas the expiration times are not.
+     * Consequently, only the first schedule of a session (or one that shortens its expiration) need acquire the monitor.
+     */
+    private class Shard implements Runnable {
+        private final Map<String, Long> expirations = new ConcurrentHashMap<>();
+        private final List<Set<String>> wheel;
+        private final long start;
+        private final long tickDuration;
+        private final int mask;
+        // The next tick to be processed
+        private long tick = 0;
+
+        Shard(long start, long tickDuration, int wheelSize) {
+            this.start = start;
+            this.tickDuration = tickDuration;
+            this.mask = wheelSize - 1;
+            this.wheel = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; ++i) {
+                this.wheel.add(new HashSet<String>());
+            }
+        }
+
+        void schedule(String id, long expiration) {
+            Long previous = this.expirations.put(id, expiration);
+            // If this session was already scheduled to expire no later than this, then it is already in the wheel
+            if ((previous == null) || (expiration < previous.longValue())) {
+                synchronized (this) {
+                    this.add(id, expiration);
+                }
+            }
+        }
+
+        void cancel(String id) {
+            // Wheel entry will be purged lazily
+            this.expirations.remove(id);
+        }
+
+        void cancel(Locality locality) {
+            Iterator<String> ids = this.expirations.keySet().iterator();
+            while (ids.hasNext()) {
+                if (!locality.isLocal(ids.next())) {
+                    ids.remove();
+                }
+            }
+        }
+
+        synchronized void clear() {
+            this.expirations.clear();
+            for (Set<String> slot: this.wheel) {
+                slot.clear();
+            }
+        }
+
+        // Must be called while holding monitor
+        private void add(String id, long expiration) {
+            long tick = Math.max((expiration - this.start) / this.tickDuration, this.tick);
+            this.wheel.get((int) (tick & this.mask)).add(id);
+        }
+
+        @Override
+        public void run() {
+            // An exception escaping this method would suppress all subsequent ticks of this shard
+            try {
+                long now = System.currentTimeMillis();
+                long currentTick = (now - this.start) / this.tickDuration;
+                List<String> expired = new ArrayList<>();
+                while (true) {
+                    Set<String> slot;
+                    synchronized (this) {
+                        if (this.tick > currentTick) break;
+                        int index = (int) (this.tick & this.mask);
+                        slot = this.wheel.get(index);
+                        this.wheel.set(index, new HashSet<String>());
+                        this.tick += 1;
+                    }
+                    this.process(slot, now, expired);
+                }
+                if (!expired.isEmpty()) {
+                    TimingWheelSessionExpirationScheduler.this.expire(expired);
+                }
+            } catch (Throwable e) {
+                InfinispanWebLogger.ROOT_LOGGER.failedToExpireSessions(e);
+            }
+        }
+
+        private void process(Set<String> slot, long now, List<String> expired) {
+            List<String> pending = new ArrayList<>();
+            for (String id: slot) {
+                Long expiration = this.expirations.get(id);
+                // Skip canceled sessions
+                if (expiration != null) {
+                    if (expiration.longValue() <= now) {
+                        if (this.expirations.remove(id, expiration)) {
+                            expired.add(id);
+                        } else {
+                            // Session was rescheduled concurrently
+                            pending.add(id);
+                        }
+                    } else {
+                        pending.add(id);
+                    }
+                }
+            }
+            if (!pending.isEmpty()) {
+                synchronized (this) {
+                    for (String id: pending) {
+                        Long expiration = this.expirations.get(id);
+                        if (expiration != null) {
+                            this.add(id, expiration.longValue());
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
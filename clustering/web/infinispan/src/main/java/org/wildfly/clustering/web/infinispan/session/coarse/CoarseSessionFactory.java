@@ -23,6 +23,7 @@ package org.wildfly.clustering.web.infinispan.session.coarse;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.TransactionConfiguration;
@@ -37,6 +38,7 @@ import org.wildfly.clustering.marshalling.Marshaller;
 import org.wildfly.clustering.marshalling.MarshallingContext;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.session.CoalescingSessionMetaDataMutator;
 import org.wildfly.clustering.web.infinispan.session.InfinispanImmutableSession;
 import org.wildfly.clustering.web.infinispan.session.InfinispanSession;
 import org.wildfly.clustering.web.infinispan.session.SessionFactory;
@@ -62,13 +64,21 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
     private final Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache;
     private final Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller;
     private final LocalContextFactory<L> localContextFactory;
+    private final double lastAccessedTimeThreshold;
+    private final AtomicLong replications = new AtomicLong();
+    private final AtomicLong replicatedBytes = new AtomicLong();
 
     public CoarseSessionFactory(Cache<String, CoarseSessionCacheEntry<L>> sessionCache, Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache, SessionContext context, Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory) {
+        this(sessionCache, attributesCache, context, marshaller, localContextFactory, 0);
+    }
+
+    public CoarseSessionFactory(Cache<String, CoarseSessionCacheEntry<L>> sessionCache, Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache, SessionContext context, Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory, double lastAccessedTimeThreshold) {
         this.sessionCache = sessionCache;
         this.attributesCache = attributesCache;
         this.context = context;
         this.marshaller = marshaller;
         this.localContextFactory = localContextFactory;
+        this.lastAccessedTimeThreshold = lastAccessedTimeThreshold;
     }
 
     @Override
@@ -77,7 +87,8 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         MutableCacheEntry<Map<String, Object>> attributesEntry = entry.getMutableAttributesEntry();
         SessionMetaData metaData = sessionEntry.getValue().getMetaData();
         SessionAttributes attributes = new CoarseSessionAttributes(attributesEntry.getValue(), attributesEntry.getMutator());
-        return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getValue().getLocalContext(), this.localContextFactory, this.context, sessionEntry.getMutator(), this);
+        Mutator mutator = CoalescingSessionMetaDataMutator.decorate(sessionEntry.getMutator(), metaData, this.lastAccessedTimeThreshold);
+        return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getValue().getLocalContext(), this.localContextFactory, this.context, mutator, this);
     }
 
     @Override
@@ -107,7 +118,7 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         if (existingValue != null) {
             try {
                 Map<String, Object> existingAttributes = this.marshaller.read(existingValue);
-                MutableCacheEntry<Map<String, Object>> existingAttributesEntry = new MutableCacheEntry<>(existingAttributes, new CacheEntryMutator<>(this.attributesCache, key, existingValue));
+                MutableCacheEntry<Map<String, Object>> existingAttributesEntry = new MutableCacheEntry<>(existingAttributes, this.createMutator(key, existingValue));
                 return new CoarseSessionEntry<>(sessionEntry, existingAttributesEntry);
             } catch (InvalidSerializedFormException e) {
                 InfinispanWebLogger.ROOT_LOGGER.failedToActivateSession(e, id);
@@ -130,7 +141,7 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
             if (value != null) {
                 try {
                     Map<String, Object> attributes = this.marshaller.read(value);
-                    return new CoarseSessionEntry<>(sessionEntry, new MutableCacheEntry<>(attributes, new CacheEntryMutator<>(this.attributesCache, key, value)));
+                    return new CoarseSessionEntry<>(sessionEntry, new MutableCacheEntry<>(attributes, this.createMutator(key, value)));
                 } catch (InvalidSerializedFormException e) {
                     InfinispanWebLogger.ROOT_LOGGER.failedToActivateSession(e, id);
                 }
@@ -140,6 +151,33 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         return null;
     }
 
+    private Mutator createMutator(SessionAttributesCacheKey key, MarshalledValue<Map<String, Object>, MarshallingContext> value) {
+        if (value instanceof MarshalledSessionAttributes) {
+            return new SessionAttributesDeltaMutator(this.attributesCache, key, (MarshalledSessionAttributes) value, this.replications, this.replicatedBytes);
+        }
+        return new CacheEntryMutator<>(this.attributesCache, key, value);
+    }
+
+    @Override
+    public long getAttributeFlushCount() {
+        return 0;
+    }
+
+    @Override
+    public long getAttributeWriteCount() {
+        return 0;
+    }
+
+    @Override
+    public long getDeltaReplicationCount() {
+        return this.replications.get();
+    }
+
+    @Override
+    public long getDeltaReplicationBytes() {
+        return this.replicatedBytes.get();
+    }
+
     @Override
     public void remove(String id) {
         this.sessionCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(id);
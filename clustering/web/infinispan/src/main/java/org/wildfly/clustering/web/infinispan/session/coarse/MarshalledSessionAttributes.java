@@ -0,0 +1,257 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.atomic.DeltaAware;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.Unmarshaller;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Marshalled form of the attributes of a coarse granularity session that supports delta replication.
+ * Each attribute is marshalled independently, and the hash of its serialized form, as of its last replication, is retained.
+ * A {@link SessionAttributesDelta} contains only those attributes whose serialized form changed since they were last replicated,
+ * and the names of removed attributes.
+ * Computing a delta does not modify the retained hashes; these are only updated once the write of the delta succeeded,
+ * such that the changes of a failed or rolled back write are included in a subsequent delta.
+ * The externalized form of this object always contains the full set of attributes, e.g. for state transfer or persistence.
+ */
+public class MarshalledSessionAttributes implements MarshalledValue<Map<String, Object>, MarshallingContext>, DeltaAware, Externalizable {
+    private static final long serialVersionUID = 2818359232451372953L;
+
+    private transient MarshallingContext context;
+    // Deserialized attributes, or null if not yet deserialized
+    private transient Map<String, Object> attributes;
+    // Hash of the serialized form of each attribute, as of its last replication
+    private transient Map<String, Long> hashes;
+    // Serialized attributes, or null if already deserialized
+    private transient Map<String, byte[]> bytes;
+
+    public MarshalledSessionAttributes(Map<String, Object> attributes, MarshallingContext context) {
+        this.attributes = attributes;
+        this.context = context;
+        this.hashes = new HashMap<>();
+    }
+
+    public MarshalledSessionAttributes() {
+        // Required for externalization
+        this.bytes = new HashMap<>();
+    }
+
+    @Override
+    public synchronized Map<String, Object> get(MarshallingContext context) throws IOException, ClassNotFoundException {
+        if (this.attributes == null) {
+            this.context = context;
+            Map<String, Object> attributes = new HashMap<>();
+            Map<String, Long> hashes = new HashMap<>();
+            for (Map.Entry<String, byte[]> entry: this.bytes.entrySet()) {
+                attributes.put(entry.getKey(), unmarshal(context, entry.getValue()));
+                hashes.put(entry.getKey(), hash(entry.getValue()));
+            }
+            this.attributes = attributes;
+            this.hashes = hashes;
+            this.bytes = null; // Free up memory
+        }
+        return this.attributes;
+    }
+
+    @Override
+    public Delta delta() {
+        return new SessionAttributesDelta(this);
+    }
+
+    @Override
+    public void commit() {
+        // Hashes are updated via commit(Map, Collection), once the write of a delta succeeded
+    }
+
+    /**
+     * Computes the attributes that changed, or were removed, since their last replication.
+     * The hashes of these attributes are not updated until the changes are {@link #commit(Map, Collection) committed}.
+     * @param updates collects the serialized form of updated attributes
+     * @param removals collects the names of removed attributes
+     * @param hashes collects the hashes of updated attributes
+     */
+    synchronized void diff(Map<String, byte[]> updates, Collection<String> removals, Map<String, Long> hashes) throws IOException {
+        // If our attributes were never deserialized, then they cannot have changed
+        if (this.attributes == null) return;
+        for (Map.Entry<String, Object> entry: this.attributes.entrySet()) {
+            String name = entry.getKey();
+            byte[] bytes = marshal(this.context, entry.getValue());
+            long hash = hash(bytes);
+            Long previous = this.hashes.get(name);
+            if ((previous == null) || (previous.longValue() != hash)) {
+                updates.put(name, bytes);
+                hashes.put(name, hash);
+            }
+        }
+        for (String name: this.hashes.keySet()) {
+            if (!this.attributes.containsKey(name)) {
+                removals.add(name);
+            }
+        }
+    }
+
+    /**
+     * Records the specified changes as replicated, such that they are excluded from subsequent deltas.
+     * @param hashes the hashes of replicated attributes
+     * @param removals the names of replicated attribute removals
+     */
+    synchronized void commit(Map<String, Long> hashes, Collection<String> removals) {
+        if (this.hashes == null) return;
+        this.hashes.putAll(hashes);
+        this.hashes.keySet().removeAll(removals);
+    }
+
+    /**
+     * Applies the specified changes to these attributes.
+     * @param updates the serialized form of updated attributes
+     * @param removals the names of removed attributes
+     */
+    synchronized void apply(Map<String, byte[]> updates, Collection<String> removals) {
+        if (this.attributes == null) {
+            this.bytes.putAll(updates);
+            this.bytes.keySet().removeAll(removals);
+            return;
+        }
+        for (Map.Entry<String, byte[]> entry: updates.entrySet()) {
+            String name = entry.getKey();
+            long hash = hash(entry.getValue());
+            Long current = this.hashes.get(name);
+            // Skip changes that originated from these attributes
+            if ((current == null) || (current.longValue() != hash)) {
+                try {
+                    this.attributes.put(name, unmarshal(this.context, entry.getValue()));
+                } catch (IOException | ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+                this.hashes.put(name, hash);
+            }
+        }
+        for (String name: removals) {
+            this.attributes.remove(name);
+            this.hashes.remove(name);
+        }
+    }
+
+    @Override
+    public synchronized void writeExternal(ObjectOutput output) throws IOException {
+        if (this.bytes != null) {
+            output.writeInt(this.bytes.size());
+            for (Map.Entry<String, byte[]> entry: this.bytes.entrySet()) {
+                writeAttribute(output, entry.getKey(), entry.getValue());
+            }
+        } else {
+            output.writeInt(this.attributes.size());
+            for (Map.Entry<String, Object> entry: this.attributes.entrySet()) {
+                writeAttribute(output, entry.getKey(), marshal(this.context, entry.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void readExternal(ObjectInput input) throws IOException {
+        int size = input.readInt();
+        for (int i = 0; i < size; ++i) {
+            String name = input.readUTF();
+            this.bytes.put(name, readBytes(input));
+        }
+    }
+
+    static void writeAttribute(ObjectOutput output, String name, byte[] bytes) throws IOException {
+        output.writeUTF(name);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static byte[] readBytes(ObjectInput input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * 64-bit FNV-1a hash, to make collisions between successive serialized forms of an attribute negligible.
+     */
+    static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b: bytes) {
+            hash ^= (b & 0xFF);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static byte[] marshal(MarshallingContext context, Object object) throws IOException {
+        int version = context.getCurrentVersion();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ClassLoader loader = setThreadContextClassLoader(context.getClassLoader());
+        try {
+            // Equivalent to DataOutput.writeInt(...)
+            output.write(version >>> 24);
+            output.write(version >>> 16);
+            output.write(version >>> 8);
+            output.write(version);
+            try (Marshaller marshaller = context.createMarshaller(version)) {
+                marshaller.start(Marshalling.createByteOutput(output));
+                marshaller.writeObject(object);
+                marshaller.finish();
+            }
+        } finally {
+            setThreadContextClassLoader(loader);
+        }
+        return output.toByteArray();
+    }
+
+    private static Object unmarshal(MarshallingContext context, byte[] bytes) throws IOException, ClassNotFoundException {
+        // Equivalent to DataInput.readInt()
+        int version = ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+        ByteArrayInputStream input = new ByteArrayInputStream(bytes, 4, bytes.length - 4);
+        ClassLoader loader = setThreadContextClassLoader(context.getClassLoader());
+        try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
+            unmarshaller.start(Marshalling.createByteInput(input));
+            Object object = unmarshaller.readObject();
+            unmarshaller.finish();
+            return object;
+        } finally {
+            setThreadContextClassLoader(loader);
+        }
+    }
+
+    private static ClassLoader setThreadContextClassLoader(ClassLoader loader) {
+        return (loader != null) ? WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(loader) : null;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.util.Map;
+
+import org.wildfly.clustering.marshalling.InvalidSerializedFormException;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.Marshaller;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+
+/**
+ * Marshaller of session attributes that supports delta replication.
+ * @see MarshalledSessionAttributes
+ */
+public class MarshalledSessionAttributesMarshaller implements Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> {
+    private final MarshallingContext context;
+
+    public MarshalledSessionAttributesMarshaller(MarshallingContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public Map<String, Object> read(MarshalledValue<Map<String, Object>, MarshallingContext> value) throws InvalidSerializedFormException {
+        if (value == null) return null;
+        try {
+            return value.get(this.context);
+        } catch (ClassNotFoundException | InvalidClassException | InvalidObjectException e) {
+            throw new InvalidSerializedFormException(e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public MarshalledValue<Map<String, Object>, MarshallingContext> write(Map<String, Object> attributes) {
+        if (attributes == null) return null;
+        return new MarshalledSessionAttributes(attributes, this.context);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.atomic.DeltaAware;
+
+/**
+ * Changes to the attributes of a coarse granularity session, merged into the {@link MarshalledSessionAttributes} of each owner.
+ * The changes are computed lazily from their source, i.e. when first replicated, so that a single delta reflects all changes of a batch.
+ * The changes must be {@link #commit() committed} to their source once the write of this delta succeeded.
+ */
+public class SessionAttributesDelta implements Delta, Externalizable {
+    private static final long serialVersionUID = -4318564437018429633L;
+
+    private transient MarshalledSessionAttributes source;
+    private transient AtomicLong replicatedBytes;
+    private transient Map<String, byte[]> updates;
+    private transient List<String> removals;
+    private transient Map<String, Long> hashes;
+
+    public SessionAttributesDelta(MarshalledSessionAttributes source) {
+        this(source, null);
+    }
+
+    /**
+     * Creates a delta of the specified attributes.
+     * @param source the source of this delta
+     * @param replicatedBytes accumulates the size of this delta, if non-null
+     */
+    public SessionAttributesDelta(MarshalledSessionAttributes source, AtomicLong replicatedBytes) {
+        this.source = source;
+        this.replicatedBytes = replicatedBytes;
+    }
+
+    public SessionAttributesDelta() {
+        // Required for externalization
+    }
+
+    // Computes the changes of the source at most once, so that all replicas receive the same changes
+    private synchronized void compute() throws IOException {
+        if (this.updates == null) {
+            Map<String, byte[]> updates = new HashMap<>();
+            List<String> removals = new ArrayList<>();
+            Map<String, Long> hashes = new HashMap<>();
+            this.source.diff(updates, removals, hashes);
+            this.updates = updates;
+            this.removals = removals;
+            this.hashes = hashes;
+            if (this.replicatedBytes != null) {
+                long size = 0;
+                for (Map.Entry<String, byte[]> entry: updates.entrySet()) {
+                    size += entry.getKey().length() + entry.getValue().length;
+                }
+                for (String name: removals) {
+                    size += name.length();
+                }
+                this.replicatedBytes.addAndGet(size);
+            }
+        }
+    }
+
+    /**
+     * Commits the changes of this delta, if computed, to its source, such that these are excluded from subsequent deltas.
+     * Changes of a delta that is never committed, e.g. due to a rollback, are included in the next delta of the same source.
+     */
+    public synchronized void commit() {
+        if ((this.source != null) && (this.hashes != null)) {
+            this.source.commit(this.hashes, this.removals);
+            this.hashes = null;
+        }
+    }
+
+    @Override
+    public DeltaAware merge(DeltaAware target) {
+        // Our source already reflects these changes
+        if ((this.source != null) && (target == this.source)) return target;
+        MarshalledSessionAttributes attributes = (target instanceof MarshalledSessionAttributes) ? (MarshalledSessionAttributes) target : new MarshalledSessionAttributes();
+        if (this.source != null) {
+            try {
+                this.compute();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        attributes.apply(this.updates, this.removals);
+        return attributes;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput output) throws IOException {
+        if (this.source != null) {
+            this.compute();
+        }
+        output.writeInt(this.updates.size());
+        for (Map.Entry<String, byte[]> entry: this.updates.entrySet()) {
+            MarshalledSessionAttributes.writeAttribute(output, entry.getKey(), entry.getValue());
+        }
+        output.writeInt(this.removals.size());
+        for (String name: this.removals) {
+            output.writeUTF(name);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput input) throws IOException {
+        int size = input.readInt();
+        this.updates = new HashMap<>(size);
+        for (int i = 0; i < size; ++i) {
+            String name = input.readUTF();
+            this.updates.put(name, MarshalledSessionAttributes.readBytes(input));
+        }
+        size = input.readInt();
+        this.removals = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            this.removals.add(input.readUTF());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+
+import org.infinispan.Cache;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+
+/**
+ * Mutates the attributes of a coarse granularity session by writing a {@link SessionAttributesDelta}, rather than the full set of attributes.
+ * The return value of the write is not ignored, since the previous value is required to merge the delta.
+ * The delta is committed to the session attributes once the write succeeded, i.e. upon transaction commit, if the cache is transactional.
+ */
+public class SessionAttributesDeltaMutator implements Mutator {
+
+    private final Cache<SessionAttributesCacheKey, Object> cache;
+    private final SessionAttributesCacheKey key;
+    private final MarshalledSessionAttributes value;
+    private final AtomicLong replications;
+    private final AtomicLong replicatedBytes;
+    private final AtomicBoolean mutated;
+
+    @SuppressWarnings("unchecked")
+    public SessionAttributesDeltaMutator(Cache<SessionAttributesCacheKey, ?> cache, SessionAttributesCacheKey key, MarshalledSessionAttributes value, AtomicLong replications, AtomicLong replicatedBytes) {
+        this.cache = (Cache<SessionAttributesCacheKey, Object>) cache;
+        this.key = key;
+        this.value = value;
+        this.replications = replications;
+        this.replicatedBytes = replicatedBytes;
+        this.mutated = cache.getCacheConfiguration().transaction().transactionMode().isTransactional() ? new AtomicBoolean(false) : null;
+    }
+
+    @Override
+    public void mutate() {
+        // We only ever have to write a delta once within a batch, since its changes are computed upon replication
+        if ((this.mutated == null) || this.mutated.compareAndSet(false, true)) {
+            this.replications.incrementAndGet();
+            final SessionAttributesDelta delta = new SessionAttributesDelta(this.value, this.replicatedBytes);
+            this.cache.put(this.key, delta);
+            TransactionManager tm = this.cache.getAdvancedCache().getTransactionManager();
+            try {
+                Transaction tx = (tm != null) ? tm.getTransaction() : null;
+                if (tx == null) {
+                    delta.commit();
+                } else {
+                    tx.registerSynchronization(new Synchronization() {
+                        @Override
+                        public void beforeCompletion() {
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status == Status.STATUS_COMMITTED) {
+                                delta.commit();
+                            }
+                        }
+                    });
+                }
+            } catch (RollbackException | SystemException e) {
+                // The delta remains uncommitted, thus its changes will be included in the next delta
+            }
+        }
+    }
+}
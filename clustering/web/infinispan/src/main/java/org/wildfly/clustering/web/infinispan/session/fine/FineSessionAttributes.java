@@ -21,20 +21,29 @@
  */
 package org.wildfly.clustering.web.infinispan.session.fine;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 import org.infinispan.Cache;
 import org.infinispan.context.Flag;
-import org.wildfly.clustering.ee.infinispan.CacheEntryMutator;
 import org.wildfly.clustering.marshalling.Marshaller;
 import org.wildfly.clustering.web.infinispan.session.MutableDetector;
 import org.wildfly.clustering.web.session.SessionAttributes;
 
 /**
  * Exposes session attributes for fine granularity sessions.
+ * Attribute changes are collected per request and written to the cache when this object is {@link #flush() flushed}, i.e. upon session close.
+ * Repeated changes to the same attribute within a request result in a single cache write.
  * @author Paul Ferraro
  */
 public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V> implements SessionAttributes {
     private final Cache<SessionAttributeCacheKey, V> cache;
     private final Marshaller<Object, V> marshaller;
+    // Attributes set or removed by this request, where a null value indicates a removed attribute
+    private final Map<String, V> updates = new HashMap<>();
+    // Mutable attributes read, but not otherwise updated, by this request
+    private final Map<String, V> mutations = new HashMap<>();
 
     public FineSessionAttributes(String id, Cache<SessionAttributeCacheKey, V> attributeCache, Marshaller<Object, V> marshaller) {
         super(id, attributeCache, marshaller);
@@ -43,32 +52,93 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
     }
 
     @Override
-    public Object removeAttribute(String name) {
-        SessionAttributeCacheKey key = this.createKey(name);
-        return this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).remove(key));
+    public synchronized Set<String> getAttributeNames() {
+        Set<String> names = super.getAttributeNames();
+        for (Map.Entry<String, V> entry: this.updates.entrySet()) {
+            if (entry.getValue() != null) {
+                names.add(entry.getKey());
+            } else {
+                names.remove(entry.getKey());
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public synchronized Object removeAttribute(String name) {
+        Object previous = this.findAttribute(name);
+        if ((previous != null) || this.updates.containsKey(name)) {
+            this.updates.put(name, null);
+            this.mutations.remove(name);
+        }
+        return previous;
     }
 
     @Override
-    public Object setAttribute(String name, Object attribute) {
+    public synchronized Object setAttribute(String name, Object attribute) {
         if (attribute == null) {
             return this.removeAttribute(name);
         }
-        SessionAttributeCacheKey key = this.createKey(name);
-        V value = this.marshaller.write(attribute);
-        return this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).put(key, value));
+        Object previous = this.findAttribute(name);
+        this.updates.put(name, this.marshaller.write(attribute));
+        this.mutations.remove(name);
+        return previous;
     }
 
     @Override
-    public Object getAttribute(String name) {
-        SessionAttributeCacheKey key = this.createKey(name);
-        V value = this.cache.get(key);
+    public synchronized Object getAttribute(String name) {
+        if (this.updates.containsKey(name)) {
+            // Pending updates will be written regardless of mutability
+            return this.read(name, this.updates.get(name));
+        }
+        V value = this.cache.get(this.createKey(name));
         Object attribute = this.read(name, value);
         if (attribute != null) {
             // If the object is mutable, we need to indicate that the attribute should be replicated
             if (MutableDetector.isMutable(attribute)) {
-                new CacheEntryMutator<>(this.cache, key, value).mutate();
+                this.mutations.put(name, value);
             }
         }
         return attribute;
     }
+
+    private Object findAttribute(String name) {
+        V value = this.updates.containsKey(name) ? this.updates.get(name) : this.cache.get(this.createKey(name));
+        return this.read(name, value);
+    }
+
+    /**
+     * Writes the attribute changes of this request to the cache.
+     * @return the number of cache writes issued
+     */
+    public synchronized int flush() {
+        if (this.updates.isEmpty() && this.mutations.isEmpty()) return 0;
+        int writes = 0;
+        Cache<SessionAttributeCacheKey, V> cache = this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES);
+        if (!this.updates.isEmpty()) {
+            Map<SessionAttributeCacheKey, V> puts = new HashMap<>();
+            for (Map.Entry<String, V> entry: this.updates.entrySet()) {
+                SessionAttributeCacheKey key = this.createKey(entry.getKey());
+                V value = entry.getValue();
+                if (value != null) {
+                    puts.put(key, value);
+                } else {
+                    cache.remove(key);
+                    writes += 1;
+                }
+            }
+            if (!puts.isEmpty()) {
+                cache.putAll(puts);
+                writes += puts.size();
+            }
+            this.updates.clear();
+        }
+        for (Map.Entry<String, V> entry: this.mutations.entrySet()) {
+            // Use replace, so as not to resurrect an attribute removed concurrently
+            cache.replace(this.createKey(entry.getKey()), entry.getValue());
+            writes += 1;
+        }
+        this.mutations.clear();
+        return writes;
+    }
 }
@@ -22,6 +22,7 @@
 package org.wildfly.clustering.web.infinispan.session.fine;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.TransactionConfiguration;
@@ -36,6 +37,7 @@ import org.wildfly.clustering.marshalling.Marshaller;
 import org.wildfly.clustering.marshalling.MarshallingContext;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.session.CoalescingSessionMetaDataMutator;
 import org.wildfly.clustering.web.infinispan.session.InfinispanImmutableSession;
 import org.wildfly.clustering.web.infinispan.session.InfinispanSession;
 import org.wildfly.clustering.web.infinispan.session.SessionFactory;
@@ -43,7 +45,6 @@ import org.wildfly.clustering.web.infinispan.session.SimpleSessionMetaData;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
 import org.wildfly.clustering.web.session.Session;
-import org.wildfly.clustering.web.session.SessionAttributes;
 import org.wildfly.clustering.web.session.SessionContext;
 import org.wildfly.clustering.web.session.SessionMetaData;
 
@@ -61,21 +62,62 @@ public class FineSessionFactory<L> implements SessionFactory<MutableCacheEntry<F
     private final SessionContext context;
     private final Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller;
     private final LocalContextFactory<L> localContextFactory;
+    private final double lastAccessedTimeThreshold;
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong attributeWriteCount = new AtomicLong();
 
     public FineSessionFactory(Cache<String, FineSessionCacheEntry<L>> sessionCache, Cache<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> attributeCache, SessionContext context, Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory) {
+        this(sessionCache, attributeCache, context, marshaller, localContextFactory, 0);
+    }
+
+    public FineSessionFactory(Cache<String, FineSessionCacheEntry<L>> sessionCache, Cache<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> attributeCache, SessionContext context, Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory, double lastAccessedTimeThreshold) {
         this.sessionCache = sessionCache;
         this.attributeCache = attributeCache;
         this.context = context;
         this.marshaller = marshaller;
         this.localContextFactory = localContextFactory;
+        this.lastAccessedTimeThreshold = lastAccessedTimeThreshold;
     }
 
     @Override
     public Session<L> createSession(String id, MutableCacheEntry<FineSessionCacheEntry<L>> entry) {
         FineSessionCacheEntry<L> sessionEntry = entry.getValue();
         SessionMetaData metaData = sessionEntry.getMetaData();
-        SessionAttributes attributes = new FineSessionAttributes<>(id, this.attributeCache, this.marshaller);
-        return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getLocalContext(), this.localContextFactory, this.context, entry.getMutator(), this);
+        final FineSessionAttributes<MarshalledValue<Object, MarshallingContext>> attributes = new FineSessionAttributes<>(id, this.attributeCache, this.marshaller);
+        final Mutator mutator = CoalescingSessionMetaDataMutator.decorate(entry.getMutator(), metaData, this.lastAccessedTimeThreshold);
+        // Flush attribute changes of this request along with the session meta data
+        Mutator sessionMutator = new Mutator() {
+            @Override
+            public void mutate() {
+                int writes = attributes.flush();
+                if (writes > 0) {
+                    FineSessionFactory.this.flushCount.incrementAndGet();
+                    FineSessionFactory.this.attributeWriteCount.addAndGet(writes);
+                }
+                mutator.mutate();
+            }
+        };
+        return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getLocalContext(), this.localContextFactory, this.context, sessionMutator, this);
+    }
+
+    @Override
+    public long getAttributeFlushCount() {
+        return this.flushCount.get();
+    }
+
+    @Override
+    public long getAttributeWriteCount() {
+        return this.attributeWriteCount.get();
+    }
+
+    @Override
+    public long getDeltaReplicationCount() {
+        return 0;
+    }
+
+    @Override
+    public long getDeltaReplicationBytes() {
+        return 0;
     }
 
     @Override
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.web.session.ImmutableSession;
+
+/**
+ * Compares the cost of rescheduling the expiration of a session upon each request,
+ * via {@link TimingWheelSessionExpirationScheduler} vs {@link SessionExpirationScheduler}, for requests of concurrent threads.
+ * Not run as part of the build; run via the JMH runner, e.g.
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main SessionExpirationSchedulerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(4)
+public class SessionExpirationSchedulerBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int sessions;
+
+    private ImmutableSession[] active;
+    private Scheduler executorScheduler;
+    private Scheduler timingWheelScheduler;
+
+    @Setup
+    public void setup() {
+        Date now = new Date();
+        this.active = new ImmutableSession[this.sessions];
+        for (int i = 0; i < this.sessions; ++i) {
+            // Sessions never expire during the benchmark, so neither scheduler ever requires a batcher nor a remover
+            this.active[i] = new MockImmutableSession(String.valueOf(i), new SimpleSessionMetaData(now, now, new Time(30, TimeUnit.MINUTES)));
+        }
+        this.executorScheduler = new SessionExpirationScheduler(null, null);
+        this.timingWheelScheduler = new TimingWheelSessionExpirationScheduler(null, null);
+        for (ImmutableSession session: this.active) {
+            this.executorScheduler.schedule(session);
+            this.timingWheelScheduler.schedule(session);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.executorScheduler.close();
+        this.timingWheelScheduler.close();
+    }
+
+    @Benchmark
+    public void executor() {
+        this.request(this.executorScheduler);
+    }
+
+    @Benchmark
+    public void timingWheel() {
+        this.request(this.timingWheelScheduler);
+    }
+
+    // Mimics the scheduler interaction of a request: cancel on session lookup, schedule on session close
+    private void request(Scheduler scheduler) {
+        ImmutableSession session = this.active[ThreadLocalRandom.current().nextInt(this.sessions)];
+        scheduler.cancel(session.getId());
+        scheduler.schedule(session);
+    }
+}
@@ -57,4 +57,34 @@ public class SimpleSessionMetaDataTestCase {
         metaData.setLastAccessedTime(new Date(now.getTime() - metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS) - 1));
         assertTrue(metaData.isExpired());
     }
+
+    @Test
+    public void isReplicationRequired() {
+        Date now = new Date();
+        SimpleSessionMetaData metaData = new SimpleSessionMetaData(now, now, new Time(10, TimeUnit.MINUTES));
+        assertFalse(metaData.isReplicationRequired(0.1));
+
+        // Drift less than threshold
+        metaData.setLastAccessedTime(new Date(now.getTime() + TimeUnit.SECONDS.toMillis(59)));
+        assertFalse(metaData.isReplicationRequired(0.1));
+        assertTrue(metaData.isReplicationRequired(0));
+
+        // Drift reaches threshold
+        metaData.setLastAccessedTime(new Date(now.getTime() + TimeUnit.MINUTES.toMillis(1)));
+        assertTrue(metaData.isReplicationRequired(0.1));
+
+        metaData.replicated();
+        assertFalse(metaData.isReplicationRequired(0.1));
+
+        // Max inactive interval changes always require replication
+        metaData.setMaxInactiveInterval(20, TimeUnit.MINUTES);
+        assertTrue(metaData.isReplicationRequired(0.1));
+
+        metaData.replicated();
+        metaData.setMaxInactiveInterval(0, TimeUnit.MINUTES);
+        metaData.replicated();
+        metaData.setLastAccessedTime(new Date(now.getTime() + TimeUnit.DAYS.toMillis(1)));
+        // Last accessed time of immortal sessions is irrelevant to expiration
+        assertFalse(metaData.isReplicationRequired(0.1));
+    }
 }
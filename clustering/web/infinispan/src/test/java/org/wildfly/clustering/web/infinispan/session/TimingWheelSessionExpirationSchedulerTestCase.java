@@ -0,0 +1,196 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.Remover;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.infinispan.spi.distribution.Locality;
+import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.SessionMetaData;
+
+public class TimingWheelSessionExpirationSchedulerTestCase {
+    @Test
+    public void test() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Remover<String> remover = mock(Remover.class);
+        ImmutableSession immortalSession = mock(ImmutableSession.class);
+        ImmutableSession expiringSession = mock(ImmutableSession.class);
+        ImmutableSession canceledSession = mock(ImmutableSession.class);
+        SessionMetaData immortalMetaData = mock(SessionMetaData.class);
+        SessionMetaData shortTimeoutMetaData = mock(SessionMetaData.class);
+        SessionMetaData longTimeoutMetaData = mock(SessionMetaData.class);
+        String immortalSessionId = "immortal";
+        String expiringSessionId = "expiring";
+        String canceledSessionId = "canceled";
+
+        when(batcher.createBatch()).thenReturn(batch);
+        CountDownLatch closed = countDownOnClose(batch);
+
+        when(immortalSession.getMetaData()).thenReturn(immortalMetaData);
+        when(expiringSession.getMetaData()).thenReturn(shortTimeoutMetaData);
+        when(canceledSession.getMetaData()).thenReturn(longTimeoutMetaData);
+
+        when(immortalMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(0L);
+        when(shortTimeoutMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        when(longTimeoutMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(10000L);
+
+        Date now = new Date();
+        when(shortTimeoutMetaData.getLastAccessedTime()).thenReturn(now);
+        when(longTimeoutMetaData.getLastAccessedTime()).thenReturn(now);
+
+        when(immortalSession.getId()).thenReturn(immortalSessionId);
+        when(expiringSession.getId()).thenReturn(expiringSessionId);
+        when(canceledSession.getId()).thenReturn(canceledSessionId);
+
+        try (Scheduler scheduler = new TimingWheelSessionExpirationScheduler(batcher, remover, 2, 10, 16)) {
+            scheduler.schedule(immortalSession);
+            scheduler.schedule(canceledSession);
+            scheduler.schedule(expiringSession);
+            // Reschedules should coalesce
+            scheduler.schedule(expiringSession);
+
+            assertTrue(closed.await(10, TimeUnit.SECONDS));
+
+            scheduler.cancel(canceledSessionId);
+            scheduler.schedule(canceledSession);
+        }
+
+        verify(remover, never()).remove(immortalSessionId);
+        verify(remover, times(1)).remove(expiringSessionId);
+        verify(remover, never()).remove(canceledSessionId);
+        verify(batch).close();
+    }
+
+    @Test
+    public void cancelLocality() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Remover<String> remover = mock(Remover.class);
+        Locality locality = mock(Locality.class);
+        ImmutableSession localSession = mock(ImmutableSession.class);
+        ImmutableSession remoteSession = mock(ImmutableSession.class);
+        SessionMetaData metaData = mock(SessionMetaData.class);
+        String localSessionId = "local";
+        String remoteSessionId = "remote";
+
+        when(batcher.createBatch()).thenReturn(batch);
+        CountDownLatch closed = countDownOnClose(batch);
+
+        when(localSession.getMetaData()).thenReturn(metaData);
+        when(remoteSession.getMetaData()).thenReturn(metaData);
+        when(metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(100L);
+        when(metaData.getLastAccessedTime()).thenReturn(new Date());
+
+        when(localSession.getId()).thenReturn(localSessionId);
+        when(remoteSession.getId()).thenReturn(remoteSessionId);
+
+        when(locality.isLocal(localSessionId)).thenReturn(true);
+        when(locality.isLocal(remoteSessionId)).thenReturn(false);
+
+        try (Scheduler scheduler = new TimingWheelSessionExpirationScheduler(batcher, remover, 1, 10, 16)) {
+            scheduler.schedule(localSession);
+            scheduler.schedule(remoteSession);
+
+            scheduler.cancel(locality);
+
+            // Both sessions share the same expiration, so the batch closes only once the tick that would have expired both completes
+            assertTrue(closed.await(10, TimeUnit.SECONDS));
+        }
+
+        verify(remover).remove(localSessionId);
+        verify(remover, never()).remove(remoteSessionId);
+        verify(batch).close();
+    }
+
+    @Test
+    public void failure() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        final TransactionBatch batch = mock(TransactionBatch.class);
+        Remover<String> remover = mock(Remover.class);
+        ImmutableSession session = mock(ImmutableSession.class);
+        SessionMetaData metaData = mock(SessionMetaData.class);
+        String sessionId = "session";
+
+        // Batches of the first expiration attempt fail to start, which must not suppress subsequent ticks
+        final CountDownLatch failed = new CountDownLatch(2);
+        when(batcher.createBatch()).thenAnswer(new Answer<TransactionBatch>() {
+            @Override
+            public TransactionBatch answer(InvocationOnMock invocation) {
+                if (failed.getCount() > 0) {
+                    failed.countDown();
+                    throw new IllegalStateException();
+                }
+                return batch;
+            }
+        });
+        CountDownLatch closed = countDownOnClose(batch);
+
+        when(session.getMetaData()).thenReturn(metaData);
+        when(metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        when(metaData.getLastAccessedTime()).thenReturn(new Date());
+        when(session.getId()).thenReturn(sessionId);
+
+        try (Scheduler scheduler = new TimingWheelSessionExpirationScheduler(batcher, remover, 1, 10, 16)) {
+            scheduler.schedule(session);
+
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+
+            // Schedule again, following the failed tick
+            when(metaData.getLastAccessedTime()).thenReturn(new Date());
+            scheduler.schedule(session);
+
+            assertTrue(closed.await(10, TimeUnit.SECONDS));
+        }
+
+        verify(remover, times(1)).remove(sessionId);
+        verify(batch, times(1)).close();
+    }
+
+    private static CountDownLatch countDownOnClose(TransactionBatch batch) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                latch.countDown();
+                return null;
+            }
+        }).when(batch).close();
+        return latch;
+    }
+}
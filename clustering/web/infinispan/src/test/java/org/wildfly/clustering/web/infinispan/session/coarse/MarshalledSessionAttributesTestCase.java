@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+import org.wildfly.clustering.marshalling.SimpleMarshallingContext;
+import org.wildfly.clustering.marshalling.VersionedMarshallingConfiguration;
+
+public class MarshalledSessionAttributesTestCase {
+    private final MarshallingContext context;
+
+    public MarshalledSessionAttributesTestCase() {
+        VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        this.context = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader());
+    }
+
+    @Test
+    public void delta() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("unchanged", "value");
+        attributes.put("changed", 1);
+        attributes.put("removed", Boolean.TRUE);
+        MarshalledSessionAttributes value = new MarshalledSessionAttributes(attributes, this.context);
+
+        // Full state transfer
+        MarshalledSessionAttributes owner = replicate(value);
+        MarshalledSessionAttributes passive = replicate(value);
+        assertEquals(attributes, owner.get(this.context));
+
+        // Initial delta contains all attributes, since none were replicated via delta
+        AtomicLong bytes = new AtomicLong();
+        SessionAttributesDelta local = new SessionAttributesDelta(value, bytes);
+        SessionAttributesDelta delta = replicate(local);
+        local.commit();
+        assertSame(owner, delta.merge(owner));
+        long initialSize = bytes.get();
+        assertTrue(initialSize > 0);
+
+        attributes.put("changed", 2);
+        attributes.remove("removed");
+        attributes.put("added", "new");
+
+        local = new SessionAttributesDelta(value, bytes);
+        delta = replicate(local);
+        local.commit();
+        long deltaSize = bytes.get() - initialSize;
+        // Only the changed and added attributes are replicated
+        assertTrue(deltaSize < initialSize);
+
+        assertSame(owner, delta.merge(owner));
+        assertEquals(attributes, owner.get(this.context));
+
+        // Merge into attributes that were never deserialized
+        assertSame(passive, delta.merge(passive));
+        assertEquals(attributes, passive.get(this.context));
+
+        // Subsequent delta is empty
+        delta = replicate(new SessionAttributesDelta(value, bytes));
+        assertEquals(initialSize + deltaSize, bytes.get());
+    }
+
+    @Test
+    public void rollback() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("unchanged", "value");
+        attributes.put("removed", Boolean.TRUE);
+        MarshalledSessionAttributes value = new MarshalledSessionAttributes(attributes, this.context);
+        MarshalledSessionAttributes owner = replicate(value);
+
+        AtomicLong bytes = new AtomicLong();
+        SessionAttributesDelta local = new SessionAttributesDelta(value, bytes);
+        replicate(local);
+        local.commit();
+
+        attributes.remove("removed");
+        attributes.put("added", "new");
+
+        // Replicated, but never committed, e.g. due to a transaction rollback
+        long committedSize = bytes.get();
+        replicate(new SessionAttributesDelta(value, bytes));
+        long rolledBackSize = bytes.get() - committedSize;
+        assertTrue(rolledBackSize > 0);
+
+        // Next delta still contains the changes of the rolled back delta
+        local = new SessionAttributesDelta(value, bytes);
+        SessionAttributesDelta delta = replicate(local);
+        local.commit();
+        assertEquals(rolledBackSize, bytes.get() - committedSize - rolledBackSize);
+
+        assertSame(owner, delta.merge(owner));
+        assertEquals(attributes, owner.get(this.context));
+
+        // Committing again has no effect
+        local.commit();
+        long size = bytes.get();
+        replicate(new SessionAttributesDelta(value, bytes));
+        assertEquals(size, bytes.get());
+    }
+
+    @Test
+    public void localMerge() {
+        Map<String, Object> attributes = new HashMap<>();
+        MarshalledSessionAttributes value = new MarshalledSessionAttributes(attributes, this.context);
+        SessionAttributesDelta delta = new SessionAttributesDelta(value);
+        attributes.put("name", "value");
+
+        assertSame(value, delta.merge(value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T replicate(T object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(output)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+}
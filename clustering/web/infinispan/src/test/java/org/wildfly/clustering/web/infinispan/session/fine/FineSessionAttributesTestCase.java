@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.fine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.wildfly.clustering.marshalling.Marshaller;
+
+public class FineSessionAttributesTestCase {
+    private final String id = "session";
+    private final Cache<SessionAttributeCacheKey, Object> cache = mock(Cache.class);
+    private final AdvancedCache<SessionAttributeCacheKey, Object> advancedCache = mock(AdvancedCache.class);
+    private final Marshaller<Object, Object> marshaller = mock(Marshaller.class);
+
+    private final FineSessionAttributes<Object> attributes = new FineSessionAttributes<>(this.id, this.cache, this.marshaller);
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void coalesce() throws Exception {
+        Object first = new Object();
+        Object second = new Object();
+        Object marshalledFirst = new Object();
+        Object marshalledSecond = new Object();
+        SessionAttributeCacheKey key = new SessionAttributeCacheKey(this.id, "name");
+        SessionAttributeCacheKey removedKey = new SessionAttributeCacheKey(this.id, "removed");
+        Object existing = new Object();
+        Object marshalledExisting = new Object();
+
+        when(this.cache.getAdvancedCache()).thenReturn(this.advancedCache);
+        when(this.advancedCache.withFlags(Flag.IGNORE_RETURN_VALUES)).thenReturn(this.advancedCache);
+        when(this.marshaller.write(first)).thenReturn(marshalledFirst);
+        when(this.marshaller.write(second)).thenReturn(marshalledSecond);
+        when(this.marshaller.read(marshalledFirst)).thenReturn(first);
+        when(this.marshaller.read(marshalledSecond)).thenReturn(second);
+        when(this.cache.get(removedKey)).thenReturn(marshalledExisting);
+        when(this.marshaller.read(marshalledExisting)).thenReturn(existing);
+
+        assertNull(this.attributes.setAttribute("name", first));
+        assertSame(first, this.attributes.setAttribute("name", second));
+        assertSame(second, this.attributes.getAttribute("name"));
+        assertSame(existing, this.attributes.removeAttribute("removed"));
+        assertNull(this.attributes.getAttribute("removed"));
+
+        // Nothing is written until flush
+        verify(this.cache, never()).put(any(SessionAttributeCacheKey.class), any());
+        verify(this.advancedCache, never()).putAll(anyMap());
+        verify(this.advancedCache, never()).remove(any());
+
+        ArgumentCaptor<Map> capturedPuts = ArgumentCaptor.forClass(Map.class);
+
+        assertEquals(2, this.attributes.flush());
+
+        verify(this.advancedCache).putAll(capturedPuts.capture());
+        verify(this.advancedCache).remove(removedKey);
+        assertEquals(Collections.singletonMap(key, marshalledSecond), capturedPuts.getValue());
+
+        // Subsequent flush is a no-op
+        assertEquals(0, this.attributes.flush());
+    }
+
+    @Test
+    public void immutableRead() throws Exception {
+        SessionAttributeCacheKey key = new SessionAttributeCacheKey(this.id, "name");
+        Object value = new Object();
+        String attribute = "immutable";
+
+        when(this.cache.get(key)).thenReturn(value);
+        when(this.marshaller.read(value)).thenReturn(attribute);
+
+        assertSame(attribute, this.attributes.getAttribute("name"));
+        assertEquals(0, this.attributes.flush());
+
+        verifyZeroInteractions(this.advancedCache);
+    }
+}
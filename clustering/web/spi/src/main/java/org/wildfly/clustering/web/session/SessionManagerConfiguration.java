@@ -29,6 +29,7 @@ import org.jboss.modules.Module;
  */
 public interface SessionManagerConfiguration {
     enum SessionAttributePersistenceStrategy { COARSE, FINE }
+    enum ExpirationSchedulerType { EXECUTOR, TIMING_WHEEL }
 
     int getMaxActiveSessions();
 
@@ -39,4 +40,18 @@ public interface SessionManagerConfiguration {
     Module getModule();
 
     String getCacheName();
+
+    ExpirationSchedulerType getExpirationSchedulerType();
+
+    /**
+     * Indicates whether coarse granularity sessions replicate only those attributes that changed since their last replication.
+     * @return true, if delta replication is enabled, false otherwise
+     */
+    boolean isDeltaReplication();
+
+    /**
+     * Returns the fraction of the max inactive interval of a session within which its last accessed time is not replicated.
+     * @return a value between 0 and 0.5, where 0 replicates the last accessed time on every request
+     */
+    double getLastAccessedTimeThreshold();
 }
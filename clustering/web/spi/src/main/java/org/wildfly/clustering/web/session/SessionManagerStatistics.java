@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.session;
+
+/**
+ * Exposes replication statistics of a session manager.
+ */
+public interface SessionManagerStatistics {
+
+    /**
+     * Returns the number of requests that wrote at least one attribute of a fine granularity session.
+     * @return a number of requests, always 0 for coarse granularity sessions
+     */
+    long getAttributeFlushCount();
+
+    /**
+     * Returns the total number of attribute writes of fine granularity sessions,
+     * such that the average number of writes per request is this value divided by {@link #getAttributeFlushCount()}.
+     * @return a number of cache writes, always 0 for coarse granularity sessions
+     */
+    long getAttributeWriteCount();
+
+    /**
+     * Returns the number of delta replications of session attributes, i.e. the number of requests that modified the attributes of a coarse granularity session.
+     * @return a number of replications, always 0 unless delta replication is enabled
+     */
+    long getDeltaReplicationCount();
+
+    /**
+     * Returns the total size of all session attribute deltas,
+     * such that the average replication size per request is this value divided by {@link #getDeltaReplicationCount()}.
+     * @return a number of bytes, always 0 unless delta replication is enabled
+     */
+    long getDeltaReplicationBytes();
+}
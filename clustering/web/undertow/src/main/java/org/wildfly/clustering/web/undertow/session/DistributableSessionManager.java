@@ -35,12 +35,13 @@ import org.wildfly.clustering.ee.Batch;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.Session;
 import org.wildfly.clustering.web.session.SessionManager;
+import org.wildfly.extension.undertow.session.DistributableSessionManagerStatistics;
 
 /**
  * Adapts a distributable {@link SessionManager} to an Undertow {@link io.undertow.server.session.SessionManager}.
  * @author Paul Ferraro
  */
-public class DistributableSessionManager implements UndertowSessionManager {
+public class DistributableSessionManager implements UndertowSessionManager, DistributableSessionManagerStatistics {
 
     private static final int MAX_SESSION_ID_GENERATION_ATTEMPTS = 10;
 
@@ -68,6 +69,26 @@ public class DistributableSessionManager implements UndertowSessionManager {
         this.manager.start();
     }
 
+    @Override
+    public long getAttributeFlushCount() {
+        return this.manager.getAttributeFlushCount();
+    }
+
+    @Override
+    public long getAttributeWriteCount() {
+        return this.manager.getAttributeWriteCount();
+    }
+
+    @Override
+    public long getDeltaReplicationCount() {
+        return this.manager.getDeltaReplicationCount();
+    }
+
+    @Override
+    public long getDeltaReplicationBytes() {
+        return this.manager.getDeltaReplicationBytes();
+    }
+
     @Override
     public void stop() {
         this.manager.stop();
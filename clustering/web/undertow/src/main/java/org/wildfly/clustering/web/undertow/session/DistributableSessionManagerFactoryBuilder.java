@@ -54,6 +54,12 @@ public class DistributableSessionManagerFactoryBuilder implements org.wildfly.ex
         strategies.put(ReplicationGranularity.ATTRIBUTE, SessionManagerConfiguration.SessionAttributePersistenceStrategy.FINE);
     }
 
+    static final Map<DistributableSessionManagerConfiguration.ExpirationSchedulerType, SessionManagerConfiguration.ExpirationSchedulerType> schedulers = new EnumMap<>(DistributableSessionManagerConfiguration.ExpirationSchedulerType.class);
+    static {
+        schedulers.put(DistributableSessionManagerConfiguration.ExpirationSchedulerType.EXECUTOR, SessionManagerConfiguration.ExpirationSchedulerType.EXECUTOR);
+        schedulers.put(DistributableSessionManagerConfiguration.ExpirationSchedulerType.TIMING_WHEEL, SessionManagerConfiguration.ExpirationSchedulerType.TIMING_WHEEL);
+    }
+
     private static SessionManagerFactoryBuilderProvider<Batch> load() {
         for (SessionManagerFactoryBuilderProvider<Batch> provider: ServiceLoader.load(SessionManagerFactoryBuilderProvider.class, SessionManagerFactoryBuilderProvider.class.getClassLoader())) {
             return provider;
@@ -100,6 +106,21 @@ public class DistributableSessionManagerFactoryBuilder implements org.wildfly.ex
             public String getCacheName() {
                 return config.getCacheName();
             }
+
+            @Override
+            public ExpirationSchedulerType getExpirationSchedulerType() {
+                return schedulers.get(config.getExpirationSchedulerType());
+            }
+
+            @Override
+            public boolean isDeltaReplication() {
+                return config.isDeltaReplication();
+            }
+
+            @Override
+            public double getLastAccessedTimeThreshold() {
+                return config.getLastAccessedTimeThreshold();
+            }
         };
         Builder<org.wildfly.clustering.web.session.SessionManagerFactory<Batch>> builder = this.provider.getBuilder(configuration);
         builder.build(target).install();
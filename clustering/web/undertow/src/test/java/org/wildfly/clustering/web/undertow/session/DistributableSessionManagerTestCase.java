@@ -80,6 +80,34 @@ public class DistributableSessionManagerTestCase {
         verify(this.manager).stop();
     }
 
+    @Test
+    public void getAttributeFlushCount() {
+        when(this.manager.getAttributeFlushCount()).thenReturn(5L);
+
+        assertEquals(5L, this.adapter.getAttributeFlushCount());
+    }
+
+    @Test
+    public void getAttributeWriteCount() {
+        when(this.manager.getAttributeWriteCount()).thenReturn(12L);
+
+        assertEquals(12L, this.adapter.getAttributeWriteCount());
+    }
+
+    @Test
+    public void getDeltaReplicationCount() {
+        when(this.manager.getDeltaReplicationCount()).thenReturn(3L);
+
+        assertEquals(3L, this.adapter.getDeltaReplicationCount());
+    }
+
+    @Test
+    public void getDeltaReplicationBytes() {
+        when(this.manager.getDeltaReplicationBytes()).thenReturn(1024L);
+
+        assertEquals(1024L, this.adapter.getDeltaReplicationBytes());
+    }
+
     @Test
     public void setDefaultSessionTimeout() {
         this.adapter.setDefaultSessionTimeout(10);
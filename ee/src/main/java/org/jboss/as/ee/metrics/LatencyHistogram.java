@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe, fixed memory histogram of latencies, in the spirit of HdrHistogram.
+ * Each power of 2 range of values is divided into a fixed number of linear sub-buckets, such that the relative error
+ * of a reported percentile is bounded by 1 / {@value #SUB_BUCKETS}.
+ * Buckets are striped by thread, such that concurrent writers neither contend on the same counters nor retry.
+ * Values are unitless; callers record and read them in a time unit of their choosing.
+ * Optionally, the histogram only reflects values recorded within a rolling time window.
+ * The window is divided into a fixed number of slices, the oldest of which is recycled as time progresses.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values larger than this (e.g. ~25 days in microseconds) are recorded as this value
+    private static final int MAX_MAGNITUDE = 40;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    // Histograms are considerably larger than plain counters, so bound the number of stripes
+    static final int STRIPES = stripes();
+
+    private final Slice[] slices;
+    private final long sliceDuration;
+
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while ((stripes < processors) && (stripes < 4)) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * Creates a histogram reflecting all recorded values.
+     */
+    public LatencyHistogram() {
+        this(0, TimeUnit.MILLISECONDS, 1);
+    }
+
+    /**
+     * Creates a histogram reflecting only the values recorded within the specified rolling time window.
+     * @param window the duration of the window, or 0, if the histogram should reflect all recorded values
+     * @param unit the time unit of the window
+     * @param slices the number of slices into which the window is divided
+     */
+    public LatencyHistogram(final long window, final TimeUnit unit, final int slices) {
+        final long duration = unit.toMillis(window);
+        final int count = (duration > 0) ? Math.max(slices, 2) : 1;
+        this.sliceDuration = (duration > 0) ? Math.max(duration / count, 1L) : 0L;
+        this.slices = new Slice[count];
+        for (int i = 0; i < count; ++i) {
+            this.slices[i] = new Slice();
+        }
+    }
+
+    static int bucket(final long value) {
+        final long v = Math.min(Math.max(value, 0L), MAX_VALUE);
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(v);
+        final int subBucket = (int) (v >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS) + subBucket;
+    }
+
+    /**
+     * Returns the highest value that would be recorded in the specified bucket.
+     */
+    static long highestValue(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int magnitude = (bucket / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        final long lowest = ((long) (SUB_BUCKETS + (bucket % SUB_BUCKETS))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the stripe of the current thread.
+     */
+    private static int stripe() {
+        final long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 32)) & (STRIPES - 1);
+    }
+
+    private long epoch(final long time) {
+        return (this.sliceDuration > 0) ? time / this.sliceDuration : 0L;
+    }
+
+    /**
+     * Records the specified value.
+     */
+    public void record(final long value) {
+        final long epoch = this.epoch(System.currentTimeMillis());
+        final Slice slice = this.slices[(int) (epoch % this.slices.length)];
+        final long sliceEpoch = slice.epoch.get();
+        if ((sliceEpoch < epoch) && slice.epoch.compareAndSet(sliceEpoch, epoch)) {
+            // Recycle the slice; concurrently recorded values may be lost
+            slice.clear();
+        }
+        slice.counts.incrementAndGet((stripe() * BUCKETS) + bucket(value));
+    }
+
+    /**
+     * Returns the number of values reflected by this histogram.
+     */
+    public long getCount() {
+        long count = 0;
+        for (long value : this.snapshot()) {
+            count += value;
+        }
+        return count;
+    }
+
+    /**
+     * Computes the values at the specified percentiles, which must be specified in ascending order.
+     * @param percentiles percentiles, between 0 and 100
+     * @return the values below which the specified percentages of reflected values fall, or 0, if no values are reflected
+     */
+    public long[] getValuesAtPercentiles(final double... percentiles) {
+        final long[] buckets = this.snapshot();
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        final long[] result = new long[percentiles.length];
+        if (total == 0) {
+            return result;
+        }
+        int bucket = 0;
+        long cumulative = buckets[0];
+        for (int i = 0; i < percentiles.length; ++i) {
+            final double percentile = Math.min(Math.max(percentiles[i], 0d), 100d);
+            final long target = Math.max((long) Math.ceil((percentile / 100) * total), 1L);
+            while ((cumulative < target) && (bucket < BUCKETS - 1)) {
+                cumulative += buckets[++bucket];
+            }
+            result[i] = highestValue(bucket);
+        }
+        return result;
+    }
+
+    private long[] snapshot() {
+        final long[] result = new long[BUCKETS];
+        final long epoch = this.epoch(System.currentTimeMillis());
+        for (Slice slice : this.slices) {
+            // Skip slices that have fallen out of the window
+            if (slice.epoch.get() > epoch - this.slices.length) {
+                for (int i = 0; i < STRIPES; ++i) {
+                    final int offset = i * BUCKETS;
+                    for (int j = 0; j < BUCKETS; ++j) {
+                        result[j] += slice.counts.get(offset + j);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static class Slice {
+        final AtomicLong epoch = new AtomicLong();
+        final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+
+        void clear() {
+            for (int i = 0; i < this.counts.length(); ++i) {
+                this.counts.set(i, 0L);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTestCase {
+
+    @Test
+    public void buckets() {
+        long previous = -1;
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; ++bucket) {
+            long highest = LatencyHistogram.highestValue(bucket);
+            assertTrue(highest > previous);
+            assertEquals(bucket, LatencyHistogram.bucket(highest));
+            assertEquals(bucket, LatencyHistogram.bucket(previous + 1));
+            previous = highest;
+        }
+        assertEquals(0, LatencyHistogram.bucket(-1));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValuesAtPercentiles(50)[0]);
+        for (long i = 1; i <= 1000; ++i) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        long[] values = histogram.getValuesAtPercentiles(50, 99, 99.9, 100);
+        assertWithinError(500, values[0]);
+        assertWithinError(990, values[1]);
+        assertWithinError(999, values[2]);
+        assertWithinError(1000, values[3]);
+    }
+
+    @Test
+    public void concurrent() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int threads = 8;
+        final int values = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; ++i) {
+                futures[i] = executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int j = 0; j < values; ++j) {
+                            histogram.record(2);
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertEquals(threads * values, histogram.getCount());
+        assertEquals(2, histogram.getValuesAtPercentiles(50)[0]);
+    }
+
+    @Test
+    public void window() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram(100, TimeUnit.MILLISECONDS, 2);
+        histogram.record(1000);
+        assertEquals(1, histogram.getCount());
+        Thread.sleep(200);
+        assertEquals(0, histogram.getCount());
+        histogram.record(1);
+        assertEquals(1, histogram.getCount());
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue(String.valueOf(actual), actual >= expected);
+        assertTrue(String.valueOf(actual), actual <= expected + (expected / 8));
+    }
+}
@@ -95,4 +95,14 @@ public interface Cache<K, V extends Identifiable<K>> extends AffinitySupport<K>,
     int getPassivatedCount();
 
     int getTotalSize();
+
+    int getEvictionQueueSize();
+
+    long getSchedulerCommandCount();
+
+    long getAccessRefreshCount();
+
+    long getInvocationCount();
+
+    long getInvocationTime();
 }
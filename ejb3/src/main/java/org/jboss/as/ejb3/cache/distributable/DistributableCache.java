@@ -22,6 +22,7 @@
 package org.jboss.as.ejb3.cache.distributable;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.ejb3.cache.Cache;
 import org.jboss.as.ejb3.cache.Contextual;
@@ -189,4 +190,29 @@ public class DistributableCache<K, V extends Identifiable<K> & Contextual<Batch>
     public int getTotalSize() {
         return this.manager.getActiveCount() + this.manager.getPassiveCount();
     }
+
+    @Override
+    public int getEvictionQueueSize() {
+        return this.manager.getEvictionQueueSize();
+    }
+
+    @Override
+    public long getSchedulerCommandCount() {
+        return this.manager.getSchedulerCommandCount();
+    }
+
+    @Override
+    public long getAccessRefreshCount() {
+        return this.manager.getAccessRefreshCount();
+    }
+
+    @Override
+    public long getInvocationCount() {
+        return this.manager.getInvocationCount();
+    }
+
+    @Override
+    public long getInvocationTime() {
+        return this.manager.getInvocationTime(TimeUnit.MILLISECONDS);
+    }
 }
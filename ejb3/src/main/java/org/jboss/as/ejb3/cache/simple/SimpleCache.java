@@ -188,6 +188,31 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
         return this.getCacheSize();
     }
 
+    @Override
+    public int getEvictionQueueSize() {
+        return 0;
+    }
+
+    @Override
+    public long getSchedulerCommandCount() {
+        return 0;
+    }
+
+    @Override
+    public long getAccessRefreshCount() {
+        return 0;
+    }
+
+    @Override
+    public long getInvocationCount() {
+        return 0;
+    }
+
+    @Override
+    public long getInvocationTime() {
+        return 0;
+    }
+
     class RemoveTask implements Runnable {
         private final K key;
 
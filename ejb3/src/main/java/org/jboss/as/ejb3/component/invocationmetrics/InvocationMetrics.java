@@ -22,15 +22,13 @@
 package org.jboss.as.ejb3.component.invocationmetrics;
 
 import java.lang.reflect.Method;
-import java.util.AbstractMap;
-import java.util.AbstractSet;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.as.ee.metrics.LatencyHistogram;
 
 /**
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
@@ -40,11 +38,21 @@ public class InvocationMetrics {
         final long invocations;
         final long executionTime;
         final long waitTime;
+        final long executionTime50;
+        final long executionTime99;
+        final long executionTime999;
+
+        Values(final long invocations, final long waitTime, final long executionTime) {
+            this(invocations, waitTime, executionTime, 0, 0, 0);
+        }
 
-        private Values(final long invocations, final long waitTime, final long executionTime) {
+        Values(final long invocations, final long waitTime, final long executionTime, final long executionTime50, final long executionTime99, final long executionTime999) {
             this.invocations = invocations;
             this.executionTime = executionTime;
             this.waitTime = waitTime;
+            this.executionTime50 = executionTime50;
+            this.executionTime99 = executionTime99;
+            this.executionTime999 = executionTime999;
         }
 
         public long getExecutionTime() {
@@ -58,40 +66,57 @@ public class InvocationMetrics {
         public long getWaitTime() {
             return waitTime;
         }
+
+        /**
+         * @return the median execution time, or 0 if no latency histogram was recorded
+         */
+        public long getExecutionTime50() {
+            return executionTime50;
+        }
+
+        /**
+         * @return the 99th percentile execution time, or 0 if no latency histogram was recorded
+         */
+        public long getExecutionTime99() {
+            return executionTime99;
+        }
+
+        /**
+         * @return the 99.9th percentile execution time, or 0 if no latency histogram was recorded
+         */
+        public long getExecutionTime999() {
+            return executionTime999;
+        }
+    }
+
+    private static class MethodMetrics {
+        final StripedInvocationCounters counters = new StripedInvocationCounters();
+        final LatencyHistogram histogram = new LatencyHistogram();
     }
 
-    private final AtomicReference<Values> values = new AtomicReference<Values>(new Values(0, 0, 0));
+    private final StripedInvocationCounters counters = new StripedInvocationCounters();
     private final AtomicLong concurrent = new AtomicLong(0);
     private final AtomicLong peakConcurrent = new AtomicLong(0);
 
-    private final ConcurrentMap<String, AtomicReference<Values>> methods = new ConcurrentHashMap<String, AtomicReference<Values>>();
+    private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<String, MethodMetrics>();
 
     void finishInvocation(final Method method, final long invocationWaitTime, final long invocationExecutionTime) {
         concurrent.decrementAndGet();
-        for(;;) {
-            final Values oldv = values.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (values.compareAndSet(oldv, newv))
-                break;
-        }
-        final AtomicReference<Values> methodValues = ref(methods, method.getName());
-        for (;;) {
-            final Values oldv = methodValues.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (methodValues.compareAndSet(oldv, newv))
-                break;
-        }
+        counters.record(invocationWaitTime, invocationExecutionTime);
+        final MethodMetrics methodMetrics = metrics(methods, method.getName());
+        methodMetrics.counters.record(invocationWaitTime, invocationExecutionTime);
+        methodMetrics.histogram.record(invocationExecutionTime);
     }
 
-    private static AtomicReference<Values> ref(final ConcurrentMap<String, AtomicReference<Values>> map, final String key) {
-        AtomicReference<Values> ref = map.get(key);
-        if (ref == null) {
-            ref = new AtomicReference<Values>(new Values(0, 0, 0));
-            final AtomicReference<Values> prevRef = map.putIfAbsent(key, ref);
-            if (prevRef != null)
-                ref = prevRef;
+    private static MethodMetrics metrics(final ConcurrentMap<String, MethodMetrics> map, final String key) {
+        MethodMetrics metrics = map.get(key);
+        if (metrics == null) {
+            metrics = new MethodMetrics();
+            final MethodMetrics prevMetrics = map.putIfAbsent(key, metrics);
+            if (prevMetrics != null)
+                metrics = prevMetrics;
         }
-        return ref;
+        return metrics;
     }
 
     public long getConcurrent() {
@@ -99,62 +124,30 @@ public class InvocationMetrics {
     }
 
     public long getExecutionTime() {
-        return values.get().executionTime;
+        return counters.getValues().executionTime;
     }
 
     public long getInvocations() {
-        return values.get().invocations;
+        return counters.getValues().invocations;
+    }
+
+    /**
+     * Returns a consistent snapshot of the invocation metrics of the component.
+     */
+    public Values getValues() {
+        return counters.getValues();
     }
 
+    /**
+     * Returns a snapshot of the invocation metrics per method, including execution time percentiles.
+     */
     public Map<String, Values> getMethods() {
-        return new AbstractMap<String, Values>() {
-            @Override
-            public Set<Entry<String, Values>> entrySet() {
-                return new AbstractSet<Entry<String, Values>>() {
-                    @Override
-                    public Iterator<Entry<String, Values>> iterator() {
-                        final Iterator<Entry<String, AtomicReference<Values>>> delegate = methods.entrySet().iterator();
-                        return new Iterator<Entry<String, Values>>() {
-                            @Override
-                            public boolean hasNext() {
-                                return delegate.hasNext();
-                            }
-
-                            @Override
-                            public Entry<String, Values> next() {
-                                final Entry<String, AtomicReference<Values>> next = delegate.next();
-                                return new Entry<String, Values>() {
-                                    @Override
-                                    public String getKey() {
-                                        return next.getKey();
-                                    }
-
-                                    @Override
-                                    public Values getValue() {
-                                        return next.getValue().get();
-                                    }
-
-                                    @Override
-                                    public Values setValue(final Values value) {
-                                        throw new UnsupportedOperationException("NYI");
-                                    }
-                                };
-                            }
-
-                            @Override
-                            public void remove() {
-                                throw new UnsupportedOperationException("NYI");
-                            }
-                        };
-                    }
-
-                    @Override
-                    public int size() {
-                        return methods.size();
-                    }
-                };
-            }
-        };
+        final Map<String, Values> result = new HashMap<String, Values>();
+        for (Map.Entry<String, MethodMetrics> entry : methods.entrySet()) {
+            final MethodMetrics metrics = entry.getValue();
+            result.put(entry.getKey(), metrics.counters.getValues(metrics.histogram));
+        }
+        return result;
     }
 
     public long getPeakConcurrent() {
@@ -162,7 +155,7 @@ public class InvocationMetrics {
     }
 
     public long getWaitTime() {
-        return values.get().waitTime;
+        return counters.getValues().waitTime;
     }
 
     void startInvocation() {
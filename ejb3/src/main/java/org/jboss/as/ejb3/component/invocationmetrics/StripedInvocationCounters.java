@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jboss.as.ee.metrics.LatencyHistogram;
+
+/**
+ * Invocation counters striped by thread, such that recording an invocation neither allocates nor retries.
+ * Each stripe counts the number of updates started and finished, which allows readers to obtain a consistent snapshot
+ * of the invocation count, wait time and execution time without blocking writers.
+ */
+class StripedInvocationCounters {
+    static final int STRIPES = stripes();
+
+    private static final int STARTED = 0;
+    private static final int WAIT_TIME = 1;
+    private static final int EXECUTION_TIME = 2;
+    private static final int FINISHED = 3;
+    // Pad each stripe to a cache line
+    private static final int STRIPE_SIZE = 8;
+    private static final int MAX_READ_ATTEMPTS = 16;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * STRIPE_SIZE);
+
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while ((stripes < processors) && (stripes < 64)) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * Returns the stripe of the current thread.
+     */
+    static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 32)) & (STRIPES - 1);
+    }
+
+    void record(final long waitTime, final long executionTime) {
+        final int offset = stripe() * STRIPE_SIZE;
+        cells.incrementAndGet(offset + STARTED);
+        cells.addAndGet(offset + WAIT_TIME, waitTime);
+        cells.addAndGet(offset + EXECUTION_TIME, executionTime);
+        cells.incrementAndGet(offset + FINISHED);
+    }
+
+    InvocationMetrics.Values getValues() {
+        return this.getValues(null);
+    }
+
+    InvocationMetrics.Values getValues(final LatencyHistogram histogram) {
+        long invocations = 0;
+        long waitTime = 0;
+        long executionTime = 0;
+        for (int i = 0; i < STRIPES; ++i) {
+            final int offset = i * STRIPE_SIZE;
+            long finished;
+            long stripeWaitTime;
+            long stripeExecutionTime;
+            int attempts = 0;
+            do {
+                finished = cells.get(offset + FINISHED);
+                stripeWaitTime = cells.get(offset + WAIT_TIME);
+                stripeExecutionTime = cells.get(offset + EXECUTION_TIME);
+                // If no update started since we read the finished count, then none were in progress while we read the stripe
+            } while ((cells.get(offset + STARTED) != finished) && (++attempts < MAX_READ_ATTEMPTS));
+            invocations += finished;
+            waitTime += stripeWaitTime;
+            executionTime += stripeExecutionTime;
+        }
+        if (histogram == null) {
+            return new InvocationMetrics.Values(invocations, waitTime, executionTime);
+        }
+        final long[] percentiles = histogram.getValuesAtPercentiles(50, 99, 99.9);
+        return new InvocationMetrics.Values(invocations, waitTime, executionTime, percentiles[0], percentiles[1], percentiles[2]);
+    }
+}
@@ -3036,4 +3036,37 @@ public interface EjbLogger extends BasicLogger {
 
     @Message(id = 467, value = "The request was rejected as the container is suspended")
     EJBComponentUnavailableException containerSuspended();
+
+    @LogMessage(level = WARN)
+    @Message(id = 468, value = "Timer table has no change version and it could not be added, falling back to full refresh of persistent timers")
+    void incrementalTimerRefreshNotAvailable(@Cause SQLException e);
+
+    @LogMessage(level = WARN)
+    @Message(id = 469, value = "Discarded %d bytes of incomplete or corrupt records at the end of timer journal %s")
+    void timerJournalTruncated(long bytes, File file);
+
+    @LogMessage(level = WARN)
+    @Message(id = 470, value = "Failed to compact timer journal %s")
+    void failedToCompactTimerJournal(File file, @Cause Throwable e);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 471, value = "Could not migrate timers of %s to the timer journal")
+    void failToMigrateTimersToJournal(String timedObjectId, @Cause Throwable e);
+
+    @Message(id = 472, value = "Could not open timer journal %s")
+    RuntimeException couldNotOpenTimerJournal(File file, @Cause Throwable e);
+
+    @Message(id = 473, value = "Could not write timer %s to timer journal %s")
+    RuntimeException couldNotWriteTimerJournal(String timerId, File file, @Cause Throwable e);
+
+    @Message(id = 474, value = "Could not force timer journal %s to disk")
+    RuntimeException couldNotSyncTimerJournal(File file, @Cause Throwable e);
+
+    @LogMessage(level = WARN)
+    @Message(id = 475, value = "Failed to schedule restored timer %s, will retry")
+    void failedToScheduleRestoredTimer(TimerImpl timer, @Cause Throwable e);
+
+    @LogMessage(level = WARN)
+    @Message(id = 476, value = "Could not rename timer file %s, which was migrated to the timer journal")
+    void failedToRenameMigratedTimerFile(File file);
 }
@@ -55,8 +55,22 @@ public interface Pool<T> {
 
     int getMaxSize();
 
+    /**
+     * Returns the number of threads currently waiting for an instance to become available.
+     *
+     * @return the number of waiting threads
+     */
+    int getQueueLength();
+
     int getRemoveCount();
 
+    /**
+     * Returns the cumulative time, in milliseconds, that threads have spent waiting for an instance to become available.
+     *
+     * @return the total wait time in milliseconds
+     */
+    long getWaitTime();
+
     /**
      * Release the object from use.
      *
@@ -31,6 +31,7 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A pool with a maximum size.
@@ -60,6 +61,10 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
      * Guarded by the implicit lock for "pool"
      */
     private final Queue<T> pool = new ConcurrentLinkedQueue<T>();
+    /**
+     * The cumulative time, in milliseconds, spent waiting for the semaphore.
+     */
+    private final AtomicLong waitTime = new AtomicLong();
 
     public StrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
         super(factory);
@@ -97,6 +102,14 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
         throw EjbLogger.ROOT_LOGGER.methodNotImplemented();
     }
 
+    public int getQueueLength() {
+        return semaphore.getQueueLength();
+    }
+
+    public long getWaitTime() {
+        return waitTime.get();
+    }
+
     /**
      * Get an instance without identity.
      * Can be used by finders,create-methods, and activation
@@ -104,12 +117,17 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
      * @return Context /w instance
      */
     public T get() {
-        try {
-            boolean acquired = semaphore.tryAcquire(timeout, timeUnit);
-            if (!acquired)
-                throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(timeout, timeUnit);
-        } catch (InterruptedException e) {
-            throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+        if (!semaphore.tryAcquire()) {
+            long start = System.nanoTime();
+            try {
+                boolean acquired = semaphore.tryAcquire(timeout, timeUnit);
+                if (!acquired)
+                    throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(timeout, timeUnit);
+            } catch (InterruptedException e) {
+                throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+            } finally {
+                waitTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
         }
 
         T bean = pool.poll();
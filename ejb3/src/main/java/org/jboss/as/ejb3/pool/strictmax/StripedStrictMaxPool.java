@@ -0,0 +1,341 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool with a maximum size, whose permits and free instances are partitioned into stripes.
+ * Each thread has an affinity to a single stripe, such that uncontended calls to {@link #get()} and {@link #release(Object)}
+ * touch only the state of that stripe. A thread whose stripe is exhausted steals permits and instances from other stripes
+ * before blocking. As with {@link StrictMaxPool}, no more than maxSize instances are ever in use at once.
+ */
+public class StripedStrictMaxPool<T> extends AbstractPool<T> {
+
+    // Each stripe occupies its own cache line within the permits array
+    private static final int PADDING = 16;
+
+    private final int maxSize;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    private final int mask;
+    /**
+     * Available permits per stripe; the sum across all stripes plus the number of instances in use is always maxSize.
+     */
+    private final AtomicIntegerArray permits;
+    /**
+     * Free instances per stripe.
+     */
+    private final Queue<T>[] pools;
+    /**
+     * The number of instances that currently exist, whether free or in use.
+     */
+    private final AtomicInteger instances = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    /**
+     * Threads holding a permit, but waiting for an instance to become free.
+     */
+    private final AtomicInteger instanceWaiters = new AtomicInteger();
+    private final AtomicLong waitTime = new AtomicLong();
+    private final Lock lock = new ReentrantLock();
+    private final Condition released = this.lock.newCondition();
+    private final Condition returned = this.lock.newCondition();
+
+    public StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, maxSize, timeout, timeUnit, Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit, int concurrency) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        // Never create more stripes than permits
+        int stripes = Integer.highestOneBit(Math.max(Math.min(concurrency, maxSize), 1));
+        this.mask = stripes - 1;
+        this.permits = new AtomicIntegerArray(stripes * PADDING);
+        this.pools = new Queue[stripes];
+        for (int i = 0; i < stripes; ++i) {
+            this.permits.set(i * PADDING, (maxSize / stripes) + ((i < (maxSize % stripes)) ? 1 : 0));
+            this.pools[i] = new ConcurrentLinkedQueue<T>();
+        }
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 32)) & this.mask;
+    }
+
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        this.instances.decrementAndGet();
+        this.signalReturned();
+        this.releasePermit(this.stripe());
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public int getCurrentSize() {
+        return getCreateCount() - getRemoveCount();
+    }
+
+    public int getAvailableCount() {
+        int count = 0;
+        for (int i = 0; i < this.pools.length; ++i) {
+            count += this.permits.get(i * PADDING);
+        }
+        return count;
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        throw EjbLogger.ROOT_LOGGER.methodNotImplemented();
+    }
+
+    @Override
+    public int getQueueLength() {
+        return this.waiters.get();
+    }
+
+    @Override
+    public long getWaitTime() {
+        return this.waitTime.get();
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    public T get() {
+        int stripe = this.stripe();
+        this.acquirePermit(stripe);
+
+        T bean = null;
+        try {
+            bean = this.poll(stripe);
+            while (bean == null) {
+                // Only create a new instance if this would not exceed the maximum number of instances.
+                // Otherwise, a free instance was concurrently returned to a stripe we already visited.
+                if (this.reserveInstance()) {
+                    try {
+                        // Pool is empty, create an instance
+                        bean = create();
+                    } finally {
+                        if (bean == null) {
+                            this.instances.decrementAndGet();
+                        }
+                    }
+                } else {
+                    bean = this.awaitInstance(stripe);
+                }
+            }
+            return bean;
+        } finally {
+            if (bean == null) {
+                this.releasePermit(stripe);
+            }
+        }
+    }
+
+    /**
+     * Return an instance after invocation.
+     * <p/>
+     * Called in 2 cases:
+     * a) Done with finder method
+     * b) Just removed
+     *
+     * @param obj
+     */
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", this.getAvailableCount(), this.maxSize, this);
+        }
+
+        int stripe = this.stripe();
+        // Instance must be available before its permit
+        this.pools[stripe].add(obj);
+        this.signalReturned();
+        this.releasePermit(stripe);
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        this.instances.decrementAndGet();
+        this.signalReturned();
+        this.releasePermit(this.stripe());
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public void start() {
+        // Nothing to start
+    }
+
+    public void stop() {
+        for (Queue<T> pool : this.pools) {
+            for (T obj = pool.poll(); obj != null; obj = pool.poll()) {
+                this.instances.decrementAndGet();
+                destroy(obj);
+            }
+        }
+    }
+
+    private T poll(int stripe) {
+        for (int i = 0; i < this.pools.length; ++i) {
+            T bean = this.pools[(stripe + i) & this.mask].poll();
+            if (bean != null) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    private boolean reserveInstance() {
+        while (true) {
+            int current = this.instances.get();
+            if (current >= this.maxSize) return false;
+            if (this.instances.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * Waits for a free instance, or for the number of instances to drop below the maximum.
+     * A permit guarantees that some instance is either free or about to be, so this wait is typically brief.
+     * @return a free instance, or null if a new instance may be created
+     */
+    private T awaitInstance(int stripe) {
+        // A returning thread only signals if it observes a waiter, so register before re-checking for an instance
+        this.instanceWaiters.incrementAndGet();
+        try {
+            this.lock.lockInterruptibly();
+            try {
+                T bean = this.poll(stripe);
+                while ((bean == null) && (this.instances.get() >= this.maxSize)) {
+                    this.returned.await();
+                    bean = this.poll(stripe);
+                }
+                return bean;
+            } finally {
+                this.lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+        } finally {
+            this.instanceWaiters.decrementAndGet();
+        }
+    }
+
+    private void signalReturned() {
+        if (this.instanceWaiters.get() > 0) {
+            this.lock.lock();
+            try {
+                this.returned.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private boolean tryAcquirePermit(int stripe) {
+        for (int i = 0; i < this.pools.length; ++i) {
+            int index = ((stripe + i) & this.mask) * PADDING;
+            int available = this.permits.get(index);
+            while (available > 0) {
+                if (this.permits.compareAndSet(index, available, available - 1)) {
+                    return true;
+                }
+                available = this.permits.get(index);
+            }
+        }
+        return false;
+    }
+
+    private void acquirePermit(int stripe) {
+        if (this.tryAcquirePermit(stripe)) return;
+
+        long start = System.nanoTime();
+        long remaining = this.timeUnit.toNanos(this.timeout);
+        // A releasing thread only signals if it observes a waiter, so register before re-checking for a permit
+        this.waiters.incrementAndGet();
+        try {
+            this.lock.lockInterruptibly();
+            try {
+                while (!this.tryAcquirePermit(stripe)) {
+                    if (remaining <= 0L) {
+                        throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(this.timeout, this.timeUnit);
+                    }
+                    remaining = this.released.awaitNanos(remaining);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+        } finally {
+            this.waiters.decrementAndGet();
+            this.waitTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private void releasePermit(int stripe) {
+        this.permits.incrementAndGet(stripe * PADDING);
+        if (this.waiters.get() > 0) {
+            this.lock.lock();
+            try {
+                this.released.signal();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
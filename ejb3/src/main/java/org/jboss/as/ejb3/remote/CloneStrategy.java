@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Strategy for copying a single parameter or result of a local invocation on a remote view.
+ * Strategies are selected once per view method from the declared types on either side of the invocation.
+ */
+enum CloneStrategy {
+    /**
+     * Value is passed as is, since it is either a primitive or of a type that is immutable and shared by both class loaders.
+     */
+    PASS,
+    /**
+     * Value is a byte array, copied directly.
+     */
+    COPY,
+    /**
+     * Value is cloned via JBoss Marshalling, unless its runtime type can be passed or copied.
+     */
+    CLONE,
+    ;
+
+    // Immutable types loaded by the bootstrap class loader, and thus visible to every deployment
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class));
+    // Annotations whose contract declares instances of the annotated class to be immutable
+    private static final Set<String> IMMUTABLE_ANNOTATIONS = new HashSet<>(Arrays.asList("javax.annotation.concurrent.Immutable", "net.jcip.annotations.Immutable", "com.google.errorprone.annotations.Immutable"));
+
+    /**
+     * Selects the strategy for values of the specified declared type on the source and target side of an invocation.
+     * @param source the type declared by the caller
+     * @param target the type declared by the callee
+     * @return a clone strategy
+     */
+    static CloneStrategy forType(Class<?> source, Class<?> target) {
+        if (target.isPrimitive()) {
+            return PASS;
+        }
+        if (target == byte[].class) {
+            return COPY;
+        }
+        // Types declared by a class loader shared by caller and callee need not be translated between class loaders
+        if ((source == target) && isImmutable(target)) {
+            return PASS;
+        }
+        return CLONE;
+    }
+
+    /**
+     * Selects the strategy for the specified value, independently of the declared type.
+     * Only types visible to every class loader qualify for anything other than {@link #CLONE}.
+     * @param value a non-null value
+     * @return a clone strategy
+     */
+    static CloneStrategy forValue(Object value) {
+        Class<?> valueClass = value.getClass();
+        if (valueClass == byte[].class) {
+            return COPY;
+        }
+        return IMMUTABLE_TYPES.contains(valueClass) ? PASS : CLONE;
+    }
+
+    /**
+     * Indicates whether instances of the specified type are immutable, i.e. one of the well known immutable JDK types,
+     * an enum, or a final class annotated with a known immutability annotation
+     * (i.e. {@code javax.annotation.concurrent.Immutable}, {@code net.jcip.annotations.Immutable}, or {@code com.google.errorprone.annotations.Immutable}).
+     */
+    static boolean isImmutable(Class<?> targetClass) {
+        if (targetClass.isEnum()) {
+            return true;
+        }
+        // Subclasses of a non-final immutable class (e.g. BigDecimal) need not be immutable
+        if (!Modifier.isFinal(targetClass.getModifiers())) {
+            return false;
+        }
+        if (IMMUTABLE_TYPES.contains(targetClass)) {
+            return true;
+        }
+        for (Annotation annotation : targetClass.getAnnotations()) {
+            if (IMMUTABLE_ANNOTATIONS.contains(annotation.annotationType().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.io.IOException;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedExceptionAction;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.marshalling.cloner.ClassCloner;
+import org.jboss.marshalling.cloner.ClonerConfiguration;
+import org.jboss.marshalling.cloner.ObjectCloner;
+import org.jboss.marshalling.cloner.ObjectCloners;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Pool of {@link ObjectCloner} instances sharing the same {@link ClassCloner}.
+ * Object cloners are not thread-safe, so the values of each invocation are cloned via a cloner leased for their duration.
+ * The pool grows to at most the number of concurrent leases.
+ */
+class ClonerPool {
+
+    private final ClassLoader classLoader;
+    private final ClonerConfiguration configuration = new ClonerConfiguration();
+    private final Queue<ObjectCloner> cloners = new ConcurrentLinkedQueue<>();
+
+    ClonerPool(ClassLoader classLoader, ClassCloner classCloner) {
+        this.classLoader = classLoader;
+        this.configuration.setClassCloner(classCloner);
+    }
+
+    /**
+     * Returns the class loader into which objects are cloned.
+     */
+    ClassLoader getClassLoader() {
+        return this.classLoader;
+    }
+
+    /**
+     * Borrows a cloner from this pool, to clone the values of a single invocation.
+     * @return a lease, which must be closed once all values of the invocation are cloned
+     */
+    Lease lease() {
+        return new Lease();
+    }
+
+    private ObjectCloner createCloner() {
+        if (WildFlySecurityManager.isChecking()) {
+            return WildFlySecurityManager.doUnchecked(new PrivilegedAction<ObjectCloner>() {
+                @Override
+                public ObjectCloner run() {
+                    return ObjectCloners.getSerializingObjectClonerFactory().createCloner(ClonerPool.this.configuration);
+                }
+            });
+        }
+        return ObjectCloners.getSerializingObjectClonerFactory().createCloner(this.configuration);
+    }
+
+    /**
+     * A cloner borrowed from the pool for the values of a single invocation, e.g. its parameters.
+     * Values cloned via the same lease share a single object graph, so an object referenced by several values is cloned only once,
+     * i.e. the clones preserve the identity of shared objects, as they would if the values were marshalled together.
+     * The cloner is reset and returned to the pool once the lease is closed.
+     */
+    class Lease implements AutoCloseable {
+        private ObjectCloner cloner;
+        private Map<byte[], byte[]> copies;
+        private boolean failed = false;
+
+        /**
+         * Clones the specified object.
+         * @param object a non-null object
+         * @return a clone of the object
+         */
+        Object clone(final Object object) {
+            if (this.cloner == null) {
+                ObjectCloner pooled = ClonerPool.this.cloners.poll();
+                this.cloner = (pooled != null) ? pooled : ClonerPool.this.createCloner();
+            }
+            final ObjectCloner cloner = this.cloner;
+            try {
+                if (WildFlySecurityManager.isChecking()) {
+                    return WildFlySecurityManager.doUnchecked(new PrivilegedExceptionAction<Object>() {
+                        @Override
+                        public Object run() throws IOException, ClassNotFoundException {
+                            return cloner.clone(object);
+                        }
+                    });
+                }
+                return cloner.clone(object);
+            } catch (Exception e) {
+                // Cloner state is undefined, so do not return it to the pool
+                this.failed = true;
+                throw EjbLogger.ROOT_LOGGER.failedToMarshalEjbParameters(e);
+            }
+        }
+
+        /**
+         * Copies the specified byte array, returning the same copy for the same array.
+         * @param bytes a byte array
+         * @return a copy of the byte array
+         */
+        byte[] copy(byte[] bytes) {
+            if (this.copies == null) {
+                this.copies = new IdentityHashMap<>();
+            }
+            byte[] copy = this.copies.get(bytes);
+            if (copy == null) {
+                copy = bytes.clone();
+                this.copies.put(bytes, copy);
+            }
+            return copy;
+        }
+
+        @Override
+        public void close() {
+            if ((this.cloner != null) && !this.failed) {
+                this.cloner.reset();
+                ClonerPool.this.cloners.offer(this.cloner);
+            }
+            this.cloner = null;
+        }
+    }
+}
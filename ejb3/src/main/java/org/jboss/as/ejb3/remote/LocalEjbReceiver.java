@@ -22,20 +22,21 @@
 package org.jboss.as.ejb3.remote;
 
 
-import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.security.PrivilegedExceptionAction;
 import java.util.Collections;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.ejb.AsyncResult;
@@ -44,7 +45,6 @@ import javax.transaction.xa.XAResource;
 
 import org.jboss.as.ee.component.Component;
 import org.jboss.as.ee.component.ComponentView;
-import org.jboss.as.ee.utils.DescriptorUtils;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
@@ -76,9 +76,6 @@ import org.jboss.ejb.client.remoting.NetworkUtil;
 import org.jboss.invocation.InterceptorContext;
 import org.jboss.logging.Logger;
 import org.jboss.marshalling.cloner.ClassLoaderClassCloner;
-import org.jboss.marshalling.cloner.ClonerConfiguration;
-import org.jboss.marshalling.cloner.ObjectCloner;
-import org.jboss.marshalling.cloner.ObjectCloners;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceName;
@@ -106,6 +103,15 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
 
     private static final Object[] EMPTY_OBJECT_ARRAY = {};
 
+    // Results are cloned into the class loader of the invoked proxy
+    private static final ClassValue<ClonerPool> RESULT_CLONER_POOLS = new ClassValue<ClonerPool>() {
+        @Override
+        protected ClonerPool computeValue(Class<?> proxyClass) {
+            final ClassLoader loader = WildFlySecurityManager.getClassLoaderPrivileged(proxyClass);
+            return new ClonerPool(loader, new LocalInvocationClassCloner(loader));
+        }
+    };
+
     final List<EJBReceiverContext> contexts = new CopyOnWriteArrayList<EJBReceiverContext>();
     private final InjectedValue<DeploymentRepository> deploymentRepository = new InjectedValue<DeploymentRepository>();
     @SuppressWarnings("rawtypes")
@@ -115,6 +121,7 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
     private final InjectedValue<Endpoint> endpointValue = new InjectedValue<>();
     private final InjectedValue<EJBRemoteConnectorService> ejbRemoteConnectorServiceValue = new InjectedValue<>();
     private final Set<ClusterTopologyUpdateListener> clusterTopologyUpdateListeners = Collections.synchronizedSet(new HashSet<ClusterTopologyUpdateListener>());
+    private final ConcurrentMap<ComponentView, ViewClonePlan> clonePlans = new ConcurrentHashMap<>();
 
 
     public LocalEjbReceiver(final String nodeName, final boolean allowPassByReference) {
@@ -151,21 +158,23 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         if (!ejb.isRemoteView(viewClass.getName())) {
             throw EjbLogger.ROOT_LOGGER.viewNotFound(viewClass.getName(), ejb.getEjbName());
         }
-        final ClonerConfiguration paramConfig = new ClonerConfiguration();
-        paramConfig.setClassCloner(new ClassLoaderClassCloner(ejb.getDeploymentClassLoader()));
-        final ObjectCloner parameterCloner = createCloner(paramConfig);
-        //TODO: this is not very efficient
-        final Method method = view.getMethod(invocation.getInvokedMethod().getName(), DescriptorUtils.methodDescriptor(invocation.getInvokedMethod()));
+        final ViewClonePlan viewPlan = this.getClonePlan(new DeploymentModuleIdentifier(locator.getAppName(), locator.getModuleName(), locator.getDistinctName()), view, ejb);
+        final MethodClonePlan methodPlan = viewPlan.getMethodPlan(invocation.getInvokedMethod());
+        final Method method = methodPlan.getViewMethod();
 
-        final boolean async = view.isAsynchronous(method);
+        final boolean async = methodPlan.isAsynchronous();
 
+        viewPlan.recordInvocation();
         final Object[] parameters;
         if (invocation.getParameters() == null) {
             parameters = EMPTY_OBJECT_ARRAY;
         } else {
             parameters = new Object[invocation.getParameters().length];
-            for (int i = 0; i < parameters.length; ++i) {
-                parameters[i] = clone(method.getParameterTypes()[i], parameterCloner, invocation.getParameters()[i], allowPassByReference);
+            // Clone all parameters via the same cloner, so that objects referenced by several parameters remain shared
+            try (ClonerPool.Lease lease = viewPlan.getParameterClonerPool().lease()) {
+                for (int i = 0; i < parameters.length; ++i) {
+                    parameters[i] = viewPlan.clone(methodPlan.getParameterStrategy(i), methodPlan.getParameterType(i), lease, invocation.getParameters()[i], allowPassByReference);
+                }
             }
         }
 
@@ -212,9 +221,7 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
             interceptorContext.putPrivateData(EntityBeanComponent.PRIMARY_KEY_CONTEXT_KEY, primaryKey);
         }
 
-        final ClonerConfiguration config = new ClonerConfiguration();
-        config.setClassCloner(new LocalInvocationClassCloner(WildFlySecurityManager.getClassLoaderPrivileged(invocation.getInvokedProxy().getClass())));
-        final ObjectCloner resultCloner = createCloner(config);
+        final ClonerPool resultClonerPool = RESULT_CLONER_POOLS.get(invocation.getInvokedProxy().getClass());
         if (async) {
             if (ejbComponent instanceof SessionBeanComponent) {
                 final SessionBeanComponent component = (SessionBeanComponent) ejbComponent;
@@ -238,12 +245,18 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
                                 if(asyncValue == null) {
                                     return asyncValue;
                                 }
-                                return new AsyncResult(LocalEjbReceiver.clone(asyncValue.getClass(), resultCloner, asyncValue, allowPassByReference));
+                                try (ClonerPool.Lease lease = resultClonerPool.lease()) {
+                                    return new AsyncResult(viewPlan.clone(CloneStrategy.CLONE, asyncValue.getClass(), lease, asyncValue, allowPassByReference));
+                                }
+                            }
+                            try (ClonerPool.Lease lease = resultClonerPool.lease()) {
+                                return viewPlan.clone(CloneStrategy.CLONE, result.getClass(), lease, result, allowPassByReference);
                             }
-                            return LocalEjbReceiver.clone(result.getClass(), resultCloner, result, allowPassByReference);
                         } catch(ExecutionException e) {
                             // WFLY-4331 - clone the exception of an async task
-                            throw ((Exception) LocalEjbReceiver.clone(e.getClass(), resultCloner, e, allowPassByReference));
+                            try (ClonerPool.Lease lease = resultClonerPool.lease()) {
+                                throw ((Exception) viewPlan.clone(CloneStrategy.CLONE, e.getClass(), lease, e, allowPassByReference));
+                            }
                         } finally {
                             clearSecurityContextOnAssociation();
                         }
@@ -262,29 +275,40 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
             } catch (Exception e) {
                 //we even have to clone the exception type
                 //to make sure it matches
-                throw (Exception) clone(Exception.class, resultCloner, e, allowPassByReference);
+                try (ClonerPool.Lease lease = resultClonerPool.lease()) {
+                    throw (Exception) viewPlan.clone(CloneStrategy.CLONE, Exception.class, lease, e, allowPassByReference);
+                }
             }
             //we do not marshal the return type unless we have to, the spec only says we have to
             //pass parameters by reference
             //TODO: investigate the implications of this further
-            final Object clonedResult = clone(invocation.getInvokedMethod().getReturnType(), resultCloner, result, allowPassByReference);
+            final Object clonedResult;
+            try (ClonerPool.Lease lease = resultClonerPool.lease()) {
+                clonedResult = viewPlan.clone(methodPlan.getResultStrategy(), invocation.getInvokedMethod().getReturnType(), lease, result, allowPassByReference);
+            }
             receiverContext.resultReady(new ImmediateResultProducer(clonedResult));
         }
     }
 
-    private ObjectCloner createCloner(final ClonerConfiguration paramConfig) {
-        ObjectCloner parameterCloner;
-        if(WildFlySecurityManager.isChecking()) {
-            parameterCloner = WildFlySecurityManager.doUnchecked(new PrivilegedAction<ObjectCloner>() {
-                @Override
-                public ObjectCloner run() {
-                    return ObjectCloners.getSerializingObjectClonerFactory().createCloner(paramConfig);
-                }
-            });
-        } else {
-            parameterCloner = ObjectCloners.getSerializingObjectClonerFactory().createCloner(paramConfig);
+    private ViewClonePlan getClonePlan(final DeploymentModuleIdentifier module, final ComponentView view, final EjbDeploymentInformation ejb) {
+        ViewClonePlan plan = this.clonePlans.get(view);
+        if (plan == null) {
+            final ClassLoader loader = ejb.getDeploymentClassLoader();
+            plan = new ViewClonePlan(module, view, new ClonerPool(loader, new ClassLoaderClassCloner(loader)));
+            final ViewClonePlan existing = this.clonePlans.putIfAbsent(view, plan);
+            if (existing != null) {
+                plan = existing;
+            }
         }
-        return parameterCloner;
+        return plan;
+    }
+
+    /**
+     * Returns the clone plans, and thereby the clone metrics, of each remote view invoked locally since its deployment.
+     * @return an unmodifiable map of clone plans per view
+     */
+    public Map<ComponentView, ViewClonePlan> getClonePlans() {
+        return Collections.unmodifiableMap(this.clonePlans);
     }
 
     @Override
@@ -299,42 +323,6 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         return new StatefulEJBLocator<T>(viewType, appName, moduleName, beanName, distinctName, sessionID, statefulComponent.getCache().getStrictAffinity(), this.getNodeName());
     }
 
-    private static Object clone(final Class<?> target, final ObjectCloner cloner, final Object object, final boolean allowPassByReference) {
-        if (object == null) {
-            return null;
-        }
-        // don't clone primitives
-        if (target.isPrimitive()) {
-            return object;
-        }
-        if (allowPassByReference && target.isAssignableFrom(object.getClass())) {
-            return object;
-        }
-        return clone(cloner, object);
-    }
-
-    private static Object clone(final ObjectCloner cloner, final Object object) {
-        if (object == null) {
-            return null;
-        }
-
-        try {
-            if(WildFlySecurityManager.isChecking()) {
-                return WildFlySecurityManager.doUnchecked(new PrivilegedExceptionAction<Object>() {
-                    @Override
-                    public Object run() throws IOException, ClassNotFoundException {
-                        return cloner.clone(object);
-                    }
-                });
-            } else {
-                return cloner.clone(object);
-            }
-        } catch (Exception e) {
-            throw EjbLogger.ROOT_LOGGER.failedToMarshalEjbParameters(e);
-        }
-    }
-
-
     @Override
     protected boolean exists(final String appName, final String moduleName, final String distinctName, final String beanName) {
         try {
@@ -593,6 +581,12 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
 
         @Override
         public void deploymentRemoved(final DeploymentModuleIdentifier deployment) {
+            final Iterator<ViewClonePlan> plans = LocalEjbReceiver.this.clonePlans.values().iterator();
+            while (plans.hasNext()) {
+                if (plans.next().getModule().equals(deployment)) {
+                    plans.remove();
+                }
+            }
             LocalEjbReceiver.this.deregisterModule(deployment.getApplicationName(), deployment.getModuleName(), deployment.getDistinctName());
         }
     }
@@ -0,0 +1,71 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.lang.reflect.Method;
+
+/**
+ * Clone plan for a single method of a remote view, computed once per invoked method.
+ * Captures the corresponding view method and the strategy with which to copy each parameter and the result.
+ * Must not reference any type of the invoked method, which belongs to the class loader of the caller.
+ */
+class MethodClonePlan {
+
+    private final Method viewMethod;
+    private final boolean async;
+    private final Class<?>[] parameterTypes;
+    private final CloneStrategy[] parameterStrategies;
+    private final CloneStrategy resultStrategy;
+
+    MethodClonePlan(Method invokedMethod, Method viewMethod, boolean async) {
+        this.viewMethod = viewMethod;
+        this.async = async;
+        this.parameterTypes = viewMethod.getParameterTypes();
+        Class<?>[] invokedParameterTypes = invokedMethod.getParameterTypes();
+        this.parameterStrategies = new CloneStrategy[this.parameterTypes.length];
+        for (int i = 0; i < this.parameterTypes.length; ++i) {
+            this.parameterStrategies[i] = CloneStrategy.forType(invokedParameterTypes[i], this.parameterTypes[i]);
+        }
+        // The value of an asynchronous result is only known at runtime
+        this.resultStrategy = async ? CloneStrategy.CLONE : CloneStrategy.forType(viewMethod.getReturnType(), invokedMethod.getReturnType());
+    }
+
+    Method getViewMethod() {
+        return this.viewMethod;
+    }
+
+    boolean isAsynchronous() {
+        return this.async;
+    }
+
+    Class<?> getParameterType(int index) {
+        return this.parameterTypes[index];
+    }
+
+    CloneStrategy getParameterStrategy(int index) {
+        return this.parameterStrategies[index];
+    }
+
+    CloneStrategy getResultStrategy() {
+        return this.resultStrategy;
+    }
+}
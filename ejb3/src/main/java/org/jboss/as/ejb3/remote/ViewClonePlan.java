@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ee.utils.DescriptorUtils;
+import org.jboss.as.ejb3.deployment.DeploymentModuleIdentifier;
+
+/**
+ * Clone plans and clone metrics for the local invocations of a single remote view.
+ * Method plans are associated with the class declaring the invoked method, so that they do not prevent the undeployment of the caller.
+ */
+public class ViewClonePlan {
+
+    private final DeploymentModuleIdentifier module;
+    private final ComponentView view;
+    private final ClonerPool parameterClonerPool;
+    private final ClassValue<ConcurrentMap<Method, MethodClonePlan>> plans = new ClassValue<ConcurrentMap<Method, MethodClonePlan>>() {
+        @Override
+        protected ConcurrentMap<Method, MethodClonePlan> computeValue(Class<?> invokedClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private final AtomicLong invocationCount = new AtomicLong();
+    private final AtomicLong passedCount = new AtomicLong();
+    private final AtomicLong copiedCount = new AtomicLong();
+    private final AtomicLong clonedCount = new AtomicLong();
+    private final AtomicLong cloneTime = new AtomicLong();
+
+    ViewClonePlan(DeploymentModuleIdentifier module, ComponentView view, ClonerPool parameterClonerPool) {
+        this.module = module;
+        this.view = view;
+        this.parameterClonerPool = parameterClonerPool;
+    }
+
+    DeploymentModuleIdentifier getModule() {
+        return this.module;
+    }
+
+    /**
+     * Returns the remote view to which this plan applies.
+     */
+    public ComponentView getView() {
+        return this.view;
+    }
+
+    ClonerPool getParameterClonerPool() {
+        return this.parameterClonerPool;
+    }
+
+    /**
+     * Returns the clone plan for the specified invoked method, creating it if necessary.
+     */
+    MethodClonePlan getMethodPlan(Method invokedMethod) {
+        ConcurrentMap<Method, MethodClonePlan> plans = this.plans.get(invokedMethod.getDeclaringClass());
+        MethodClonePlan plan = plans.get(invokedMethod);
+        if (plan == null) {
+            Method viewMethod = this.view.getMethod(invokedMethod.getName(), DescriptorUtils.methodDescriptor(invokedMethod));
+            plan = new MethodClonePlan(invokedMethod, viewMethod, this.view.isAsynchronous(viewMethod));
+            MethodClonePlan existing = plans.putIfAbsent(invokedMethod, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Copies the specified value according to the specified strategy.
+     * @param strategy the strategy selected for the declared type
+     * @param target the type declared by the recipient of the value
+     * @param lease a cloner, leased from the pool targeting the class loader of the recipient, shared by all values of the invocation
+     * @param value the value to copy
+     * @param allowPassByReference indicates whether the value may be passed by reference, if assignable to the target type
+     * @return a copy of the value, or the value itself, if no copy is necessary
+     */
+    Object clone(CloneStrategy strategy, Class<?> target, ClonerPool.Lease lease, Object value, boolean allowPassByReference) {
+        if (value == null) {
+            return null;
+        }
+        CloneStrategy effectiveStrategy = (strategy == CloneStrategy.CLONE) ? CloneStrategy.forValue(value) : strategy;
+        if ((effectiveStrategy == CloneStrategy.PASS) || (allowPassByReference && target.isAssignableFrom(value.getClass()))) {
+            this.passedCount.incrementAndGet();
+            return value;
+        }
+        long start = System.nanoTime();
+        try {
+            if (effectiveStrategy == CloneStrategy.COPY) {
+                this.copiedCount.incrementAndGet();
+                return lease.copy((byte[]) value);
+            }
+            this.clonedCount.incrementAndGet();
+            return lease.clone(value);
+        } finally {
+            this.cloneTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    void recordInvocation() {
+        this.invocationCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of local invocations of this view.
+     */
+    public long getInvocationCount() {
+        return this.invocationCount.get();
+    }
+
+    /**
+     * Returns the number of parameters and results passed without copying.
+     */
+    public long getPassedCount() {
+        return this.passedCount.get();
+    }
+
+    /**
+     * Returns the number of parameters and results copied directly, i.e. byte arrays.
+     */
+    public long getCopiedCount() {
+        return this.copiedCount.get();
+    }
+
+    /**
+     * Returns the number of parameters, results, and exceptions cloned via marshalling.
+     */
+    public long getClonedCount() {
+        return this.clonedCount.get();
+    }
+
+    /**
+     * Returns the cumulative time spent copying parameters, results, and exceptions of this view.
+     */
+    public long getCloneTime(TimeUnit unit) {
+        return unit.convert(this.cloneTime.get(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -47,6 +47,6 @@ public class ClusterPassivationStoreAdd extends PassivationStoreAdd {
         String containerName = ClusterPassivationStoreResourceDefinition.CACHE_CONTAINER.resolveModelAttribute(context, model).asString();
         ModelNode beanCacheNode = ClusterPassivationStoreResourceDefinition.BEAN_CACHE.resolveModelAttribute(context, model);
         String cacheName = beanCacheNode.isDefined() ? beanCacheNode.asString() : null;
-        this.install(context, operation, initialMaxSize, containerName, cacheName, verificationHandler, serviceControllers);
+        this.install(context, operation, initialMaxSize, containerName, cacheName, false, false, verificationHandler, serviceControllers);
     }
 }
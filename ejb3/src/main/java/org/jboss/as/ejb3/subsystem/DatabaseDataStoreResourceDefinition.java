@@ -26,19 +26,26 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.database.DatabaseTimerPersistence;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * {@link org.jboss.as.controller.ResourceDefinition} for the databse data store resource.
@@ -85,6 +92,28 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
                     .setDefaultValue(new ModelNode(true))
                     .build();
 
+    public static final SimpleAttributeDefinition INCREMENTAL_REFRESH =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.INCREMENTAL_REFRESH, ModelType.BOOLEAN, true)
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setDefaultValue(new ModelNode(false))
+                    .build();
+
+    public static final SimpleAttributeDefinition REFRESH_COUNT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.REFRESH_COUNT, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition REFRESH_TIME =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.REFRESH_TIME, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    public static final SimpleAttributeDefinition REFRESH_ROWS_SCANNED =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.REFRESH_ROWS_SCANNED, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     static {
@@ -94,6 +123,7 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
         map.put(PARTITION.getName(), PARTITION);
         map.put(REFRESH_INTERVAL.getName(), REFRESH_INTERVAL);
         map.put(ALLOW_EXECUTION.getName(), ALLOW_EXECUTION);
+        map.put(INCREMENTAL_REFRESH.getName(), INCREMENTAL_REFRESH);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -110,5 +140,31 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
         for (AttributeDefinition attr : ATTRIBUTES.values()) {
             resourceRegistration.registerReadWriteAttribute(attr, null, new ReloadRequiredWriteAttributeHandler(attr));
         }
+        resourceRegistration.registerMetric(REFRESH_COUNT, RefreshMetricsHandler.INSTANCE);
+        resourceRegistration.registerMetric(REFRESH_TIME, RefreshMetricsHandler.INSTANCE);
+        resourceRegistration.registerMetric(REFRESH_ROWS_SCANNED, RefreshMetricsHandler.INSTANCE);
+    }
+
+    private static class RefreshMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        static final RefreshMetricsHandler INSTANCE = new RefreshMetricsHandler();
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final String name = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue();
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(TimerPersistence.SERVICE_NAME.append(name));
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                final DatabaseTimerPersistence persistence = (DatabaseTimerPersistence) controller.getValue();
+                final String attributeName = operation.require(ModelDescriptionConstants.NAME).asString();
+                if (REFRESH_COUNT.getName().equals(attributeName)) {
+                    context.getResult().set(persistence.getRefreshCount());
+                } else if (REFRESH_TIME.getName().equals(attributeName)) {
+                    context.getResult().set(persistence.getRefreshTime());
+                } else if (REFRESH_ROWS_SCANNED.getName().equals(attributeName)) {
+                    context.getResult().set(persistence.getRowsScanned());
+                }
+            }
+            context.stepCompleted();
+        }
     }
 }
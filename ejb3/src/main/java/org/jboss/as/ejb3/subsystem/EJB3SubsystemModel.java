@@ -63,12 +63,14 @@ public interface EJB3SubsystemModel {
 
     String MAX_POOL_SIZE = "max-pool-size";
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
+    String STRIPED = "striped";
 
     String MAX_THREADS = "max-threads";
     String KEEPALIVE_TIME = "keepalive-time";
 
     String RELATIVE_TO = "relative-to";
     String PATH = "path";
+    String JOURNAL = "journal";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
@@ -107,6 +109,8 @@ public interface EJB3SubsystemModel {
     @Deprecated String CLUSTER_PASSIVATION_STORE = "cluster-passivation-store";
     String BEAN_CACHE = "bean-cache";
     String CACHE_CONTAINER = "cache-container";
+    String OWNER_LOCAL_SCHEDULING = "owner-local-scheduling";
+    String EVICTION_BATCHING = "eviction-batching";
     @Deprecated String CLIENT_MAPPINGS_CACHE = "client-mappings-cache";
     @Deprecated String PASSIVATE_EVENTS_ON_REPLICATE = "passivate-events-on-replicate";
 
@@ -119,6 +123,10 @@ public interface EJB3SubsystemModel {
     String PARTITION  = "partition";
     String REFRESH_INTERVAL = "refresh-interval";
     String ALLOW_EXECUTION = "allow-execution";
+    String INCREMENTAL_REFRESH = "incremental-refresh";
+    String REFRESH_COUNT = "refresh-count";
+    String REFRESH_TIME = "refresh-time";
+    String REFRESH_ROWS_SCANNED = "refresh-rows-scanned";
 
     PathElement REMOTE_SERVICE_PATH = PathElement.pathElement(SERVICE, REMOTE);
     PathElement ASYNC_SERVICE_PATH = PathElement.pathElement(SERVICE, ASYNC);
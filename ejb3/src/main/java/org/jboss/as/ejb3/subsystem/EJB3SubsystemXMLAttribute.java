@@ -51,15 +51,19 @@ public enum EJB3SubsystemXMLAttribute {
 
     ENABLED("enabled"),
     ENABLE_BY_DEFAULT("enable-by-default"),
+    EVICTION_BATCHING("eviction-batching"),
     EXCLUDE_LOCAL_RECEIVER("exclude-local-receiver"),
 
     @Deprecated GROUPS_PATH("groups-path"),
 
     @Deprecated IDLE_TIMEOUT("idle-timeout"),
     @Deprecated IDLE_TIMEOUT_UNIT("idle-timeout-unit"),
+    INCREMENTAL_REFRESH("incremental-refresh"),
     INSTANCE_ACQUISITION_TIMEOUT("instance-acquisition-timeout"),
     INSTANCE_ACQUISITION_TIMEOUT_UNIT("instance-acquisition-timeout-unit"),
 
+    JOURNAL("journal"),
+
     KEEPALIVE_TIME("keepalive-time"),
 
     LOCAL_RECEIVER_PASS_BY_VALUE("local-receiver-pass-by-value"),
@@ -71,6 +75,7 @@ public enum EJB3SubsystemXMLAttribute {
     NAME("name"),
 
     OUTBOUND_CONNECTION_REF("outbound-connection-ref"),
+    OWNER_LOCAL_SCHEDULING("owner-local-scheduling"),
 
     PARTITION("partition"),
     REFRESH_INTERVAL("refresh-interval"),
@@ -85,6 +90,7 @@ public enum EJB3SubsystemXMLAttribute {
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
     @Deprecated SESSIONS_PATH("sessions-path"),
+    STRIPED("striped"),
     @Deprecated SUBDIRECTORY_COUNT("subdirectory-count"),
 
     THREAD_POOL_NAME("thread-pool-name"),
@@ -73,7 +73,8 @@ public class FileDataStoreAdd extends AbstractAddStepHandler {
         final String relativeTo = relativeToNode.isDefined() ? relativeToNode.asString() : null;
 
 
-        final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true, path, relativeTo);
+        final boolean journal = FileDataStoreResourceDefinition.JOURNAL.resolveModelAttribute(context, model).asBoolean();
+        final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true, path, relativeTo, journal);
         final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
         final ServiceName serviceName = TimerPersistence.SERVICE_NAME.append(address.getLastElement().getValue());
         newControllers.add(context.getServiceTarget().addService(serviceName, fileTimerPersistence)
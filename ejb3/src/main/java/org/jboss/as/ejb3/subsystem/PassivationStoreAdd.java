@@ -61,10 +61,12 @@ public class PassivationStoreAdd extends AbstractAddStepHandler {
         String containerName = PassivationStoreResourceDefinition.CACHE_CONTAINER.resolveModelAttribute(context, model).asString();
         ModelNode beanCacheNode = PassivationStoreResourceDefinition.BEAN_CACHE.resolveModelAttribute(context, model);
         String cacheName = beanCacheNode.isDefined() ? beanCacheNode.asString() : null;
-        this.install(context, operation, initialMaxSize, containerName, cacheName, verificationHandler, serviceControllers);
+        boolean ownerLocalScheduling = PassivationStoreResourceDefinition.OWNER_LOCAL_SCHEDULING.resolveModelAttribute(context, model).asBoolean();
+        boolean evictionBatching = PassivationStoreResourceDefinition.EVICTION_BATCHING.resolveModelAttribute(context, model).asBoolean();
+        this.install(context, operation, initialMaxSize, containerName, cacheName, ownerLocalScheduling, evictionBatching, verificationHandler, serviceControllers);
     }
 
-    protected void install(OperationContext context, ModelNode operation, final int initialMaxSize, final String containerName, final String cacheName, ServiceVerificationHandler verificationHandler, List<ServiceController<?>> serviceControllers) {
+    protected void install(OperationContext context, ModelNode operation, final int initialMaxSize, final String containerName, final String cacheName, final boolean ownerLocalScheduling, final boolean evictionBatching, ServiceVerificationHandler verificationHandler, List<ServiceController<?>> serviceControllers) {
         final String name = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.ADDRESS)).getLastElement().getValue();
         BeanManagerFactoryBuilderConfiguration config = new BeanManagerFactoryBuilderConfiguration() {
             private volatile int maxSize = initialMaxSize;
@@ -79,6 +81,16 @@ public class PassivationStoreAdd extends AbstractAddStepHandler {
                 return cacheName;
             }
 
+            @Override
+            public boolean isOwnerLocalScheduling() {
+                return ownerLocalScheduling;
+            }
+
+            @Override
+            public boolean isEvictionBatching() {
+                return evictionBatching;
+            }
+
             @Override
             public int getMaxSize() {
                 return this.maxSize;
@@ -16,6 +16,8 @@ import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.transform.description.AttributeConverter;
+import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
+import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -47,9 +49,24 @@ public class PassivationStoreResourceDefinition extends SimpleResourceDefinition
             .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
             .build()
     ;
+    static final SimpleAttributeDefinition OWNER_LOCAL_SCHEDULING = new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.OWNER_LOCAL_SCHEDULING, ModelType.BOOLEAN, true)
+            .setXmlName(EJB3SubsystemXMLAttribute.OWNER_LOCAL_SCHEDULING.getLocalName())
+            .setDefaultValue(new ModelNode(false))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build()
+    ;
+
+    static final SimpleAttributeDefinition EVICTION_BATCHING = new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.EVICTION_BATCHING, ModelType.BOOLEAN, true)
+            .setXmlName(EJB3SubsystemXMLAttribute.EVICTION_BATCHING.getLocalName())
+            .setDefaultValue(new ModelNode(false))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build()
+    ;
 
-    static final AttributeDefinition[] ATTRIBUTES = { MAX_SIZE, CACHE_CONTAINER, BEAN_CACHE };
-    static final AttributeDefinition[] READ_ONLY_ATTRIBUTES = { CACHE_CONTAINER, BEAN_CACHE };
+    static final AttributeDefinition[] ATTRIBUTES = { MAX_SIZE, CACHE_CONTAINER, BEAN_CACHE, OWNER_LOCAL_SCHEDULING, EVICTION_BATCHING };
+    static final AttributeDefinition[] READ_ONLY_ATTRIBUTES = { CACHE_CONTAINER, BEAN_CACHE, OWNER_LOCAL_SCHEDULING, EVICTION_BATCHING };
     static final AttributeDefinition[] READ_WRITE_ATTRIBUTES = { MAX_SIZE };
 
     static final PassivationStoreAdd ADD_HANDLER = new PassivationStoreAdd(ATTRIBUTES);
@@ -76,12 +93,15 @@ public class PassivationStoreResourceDefinition extends SimpleResourceDefinition
      * This transformer does the following:
      * - maps <passivation-store/> to <cluster-passivation-store/>
      * - sets appropriate defaults for IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, PASSIVATE_EVENTS_ON_REPLICATE, and CLIENT_MAPPINGS_CACHE
+     * - discards OWNER_LOCAL_SCHEDULING and EVICTION_BATCHING if false, otherwise rejects them
      */
     @SuppressWarnings("deprecation")
     static void registerTransformers_1_1_0(ResourceTransformationDescriptionBuilder parent) {
 
         ResourceTransformationDescriptionBuilder child = parent.addChildRedirection(INSTANCE.getPathElement(), PathElement.pathElement(EJB3SubsystemModel.CLUSTER_PASSIVATION_STORE));
         child.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), OWNER_LOCAL_SCHEDULING, EVICTION_BATCHING)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, OWNER_LOCAL_SCHEDULING, EVICTION_BATCHING)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode(true), true), EJB3SubsystemModel.PASSIVATE_EVENTS_ON_REPLICATE)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode("default"), true), EJB3SubsystemModel.CLIENT_MAPPINGS_CACHE)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode().set(Integer.MAX_VALUE), true), EJB3SubsystemModel.IDLE_TIMEOUT)
@@ -93,12 +113,15 @@ public class PassivationStoreResourceDefinition extends SimpleResourceDefinition
      * This transformer does the following:
      * - maps <passivation-store/> to <cluster-passivation-store/>
      * - sets appropriate defaults for IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, PASSIVATE_EVENTS_ON_REPLICATE, and CLIENT_MAPPINGS_CACHE
+     * - discards OWNER_LOCAL_SCHEDULING and EVICTION_BATCHING if false, otherwise rejects them
      */
     @SuppressWarnings("deprecation")
     static void registerTransformers_1_2_0(ResourceTransformationDescriptionBuilder parent) {
 
         ResourceTransformationDescriptionBuilder child = parent.addChildRedirection(INSTANCE.getPathElement(), PathElement.pathElement(EJB3SubsystemModel.CLUSTER_PASSIVATION_STORE));
         child.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), OWNER_LOCAL_SCHEDULING, EVICTION_BATCHING)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, OWNER_LOCAL_SCHEDULING, EVICTION_BATCHING)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode(true), true), EJB3SubsystemModel.PASSIVATE_EVENTS_ON_REPLICATE)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode("default"), true), EJB3SubsystemModel.CLIENT_MAPPINGS_CACHE)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode().set(Integer.MAX_VALUE), true), EJB3SubsystemModel.IDLE_TIMEOUT)
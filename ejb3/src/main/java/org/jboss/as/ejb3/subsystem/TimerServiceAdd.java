@@ -22,8 +22,10 @@
 
 package org.jboss.as.ejb3.subsystem;
 
+import java.security.AccessController;
 import java.util.List;
 import java.util.Timer;
+import java.util.concurrent.ThreadFactory;
 
 import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
@@ -34,6 +36,8 @@ import org.jboss.as.ejb3.deployment.processors.AroundTimeoutAnnotationParsingPro
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
 import org.jboss.as.ejb3.deployment.processors.annotation.TimerServiceAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TimerMethodMergingProcessor;
+import org.jboss.as.ejb3.timerservice.ShardedTimerScheduler;
+import org.jboss.as.ejb3.timerservice.spi.TimerScheduler;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.deployment.Phase;
@@ -44,6 +48,8 @@ import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.security.manager.action.GetAccessControlContextAction;
 
 import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 
@@ -95,6 +101,8 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
 
         newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerValueService())
                 .install());
+        newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SCHEDULER_SERVICE_NAME, new TimerSchedulerService())
+                .install());
 
     }
 
@@ -118,4 +126,30 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
             return timer;
         }
     }
+
+    /**
+     * Provides the {@link TimerScheduler} shared by all timer services, using one delay queue per processor.
+     */
+    private static final class TimerSchedulerService implements Service<TimerScheduler> {
+
+        private static final ThreadFactory THREAD_FACTORY = new JBossThreadFactory(new ThreadGroup("EJB timer scheduler"), Boolean.FALSE, null, "%G - %t", null, null, AccessController.doPrivileged(GetAccessControlContextAction.getInstance()));
+
+        private ShardedTimerScheduler scheduler;
+
+        @Override
+        public synchronized void start(final StartContext context) throws StartException {
+            scheduler = new ShardedTimerScheduler(Runtime.getRuntime().availableProcessors(), THREAD_FACTORY);
+        }
+
+        @Override
+        public synchronized void stop(final StopContext context) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+
+        @Override
+        public synchronized TimerScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+            return scheduler;
+        }
+    }
 }
@@ -138,6 +138,10 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
             }
         });
 
+        fileDataStore = fileDataStore.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), FileDataStoreResourceDefinition.JOURNAL)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, FileDataStoreResourceDefinition.JOURNAL)
+                .end();
         if (rejectPathExpressions) {
             fileDataStore = fileDataStore.getAttributeBuilder()
                 .addRejectCheck(RejectAttributeChecker.SIMPLE_EXPRESSIONS, FileDataStoreResourceDefinition.PATH)
@@ -201,6 +205,12 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                 rejectIncompatibleDataStores(context, address);
             }
 
+            ModelNode journal = fileStore.get(EJB3SubsystemModel.JOURNAL);
+            if (journal.isDefined() && ((journal.getType() == ModelType.EXPRESSION) || journal.asBoolean())) {
+                // legacy versions only support one file per timer
+                rejectIncompatibleDataStores(context, address);
+            }
+
             ModelNode path = fileStore.get(EJB3SubsystemModel.PATH);
             if (rejectPathExpression) {
                 rejectPathExpression(context, address, defaultDataStore, path);
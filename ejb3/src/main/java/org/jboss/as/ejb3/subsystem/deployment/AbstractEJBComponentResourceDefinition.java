@@ -23,6 +23,7 @@
 package org.jboss.as.ejb3.subsystem.deployment;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ListAttributeDefinition;
@@ -40,9 +41,14 @@ import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
+import org.jboss.as.ejb3.remote.LocalEjbReceiver;
+import org.jboss.as.ejb3.remote.ViewClonePlan;
 import org.jboss.as.ejb3.subsystem.EJB3Extension;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceRegistry;
 
 /**
  * Base class for {@link org.jboss.as.controller.ResourceDefinition}s describing runtime {@link EJBComponent}s.
@@ -80,7 +86,22 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
-    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, INVOCATIONS, WAIT_TIME)
+    private static final AttributeDefinition EXECUTION_TIME_P50 = new SimpleAttributeDefinitionBuilder("execution-time-p50", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition EXECUTION_TIME_P99 = new SimpleAttributeDefinitionBuilder("execution-time-p99", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition EXECUTION_TIME_P999 = new SimpleAttributeDefinitionBuilder("execution-time-p999", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, INVOCATIONS, WAIT_TIME, EXECUTION_TIME_P50, EXECUTION_TIME_P99, EXECUTION_TIME_P999)
             .setAllowNull(false)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
@@ -111,6 +132,58 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
+    private static final AttributeDefinition EVICTION_QUEUE_SIZE = new SimpleAttributeDefinitionBuilder("eviction-queue-size", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition SCHEDULER_COMMAND_COUNT = new SimpleAttributeDefinitionBuilder("scheduler-command-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition ACCESS_REFRESH_COUNT = new SimpleAttributeDefinitionBuilder("access-refresh-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition CACHE_INVOCATION_COUNT = new SimpleAttributeDefinitionBuilder("cache-invocation-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition CACHE_INVOCATION_TIME = new SimpleAttributeDefinitionBuilder("cache-invocation-time", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    // Local invocation of remote view attributes
+
+    private static final AttributeDefinition REMOTE_VIEW_LOCAL_INVOCATIONS = new SimpleAttributeDefinitionBuilder("remote-view-local-invocations", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition REMOTE_VIEW_PASSED_COUNT = new SimpleAttributeDefinitionBuilder("remote-view-passed-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition REMOTE_VIEW_COPIED_COUNT = new SimpleAttributeDefinitionBuilder("remote-view-copied-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition REMOTE_VIEW_CLONED_COUNT = new SimpleAttributeDefinitionBuilder("remote-view-cloned-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition REMOTE_VIEW_CLONE_TIME = new SimpleAttributeDefinitionBuilder("remote-view-clone-time", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
     // Pool attributes
 
     public static final SimpleAttributeDefinition POOL_AVAILABLE_COUNT = new SimpleAttributeDefinitionBuilder("pool-available-count", ModelType.INT, false)
@@ -126,6 +199,10 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
     public static final SimpleAttributeDefinition POOL_MAX_SIZE = new SimpleAttributeDefinitionBuilder("pool-max-size", ModelType.INT, false)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition POOL_QUEUE_LENGTH = new SimpleAttributeDefinitionBuilder("pool-queue-length", ModelType.INT, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition POOL_WAIT_TIME = new SimpleAttributeDefinitionBuilder("pool-wait-time", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
 
     private final EJBComponentType componentType;
 
@@ -153,6 +230,8 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             resourceRegistration.registerReadOnlyAttribute(POOL_REMOVE_COUNT, handler);
             resourceRegistration.registerReadOnlyAttribute(POOL_CURRENT_SIZE, handler);
             resourceRegistration.registerReadWriteAttribute(POOL_MAX_SIZE, handler, handler);
+            resourceRegistration.registerReadOnlyAttribute(POOL_QUEUE_LENGTH, handler);
+            resourceRegistration.registerReadOnlyAttribute(POOL_WAIT_TIME, handler);
         }
 
         if (componentType.equals(EJBComponentType.STATEFUL)) {
@@ -174,6 +253,69 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                     context.getResult().set(((StatefulSessionComponent)component).getCache().getTotalSize());
                 }
             });
+            resourceRegistration.registerMetric(EVICTION_QUEUE_SIZE, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getEvictionQueueSize());
+                }
+            });
+            resourceRegistration.registerMetric(SCHEDULER_COMMAND_COUNT, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getSchedulerCommandCount());
+                }
+            });
+            resourceRegistration.registerMetric(ACCESS_REFRESH_COUNT, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getAccessRefreshCount());
+                }
+            });
+            resourceRegistration.registerMetric(CACHE_INVOCATION_COUNT, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getInvocationCount());
+                }
+            });
+            resourceRegistration.registerMetric(CACHE_INVOCATION_TIME, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().set(((StatefulSessionComponent)component).getCache().getInvocationTime());
+                }
+            });
+        }
+
+        if (!componentType.equals(EJBComponentType.MESSAGE_DRIVEN)) {
+            resourceRegistration.registerMetric(REMOTE_VIEW_LOCAL_INVOCATIONS, new ClonePlanMetricsHandler() {
+                @Override
+                protected long getValue(ViewClonePlan plan) {
+                    return plan.getInvocationCount();
+                }
+            });
+            resourceRegistration.registerMetric(REMOTE_VIEW_PASSED_COUNT, new ClonePlanMetricsHandler() {
+                @Override
+                protected long getValue(ViewClonePlan plan) {
+                    return plan.getPassedCount();
+                }
+            });
+            resourceRegistration.registerMetric(REMOTE_VIEW_COPIED_COUNT, new ClonePlanMetricsHandler() {
+                @Override
+                protected long getValue(ViewClonePlan plan) {
+                    return plan.getCopiedCount();
+                }
+            });
+            resourceRegistration.registerMetric(REMOTE_VIEW_CLONED_COUNT, new ClonePlanMetricsHandler() {
+                @Override
+                protected long getValue(ViewClonePlan plan) {
+                    return plan.getClonedCount();
+                }
+            });
+            resourceRegistration.registerMetric(REMOTE_VIEW_CLONE_TIME, new ClonePlanMetricsHandler() {
+                @Override
+                protected long getValue(ViewClonePlan plan) {
+                    return plan.getCloneTime(TimeUnit.MILLISECONDS);
+                }
+            });
         }
 
         resourceRegistration.registerMetric(EXECUTION_TIME, new AbstractRuntimeMetricsHandler() {
@@ -210,6 +352,9 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                     result.get("execution-time").set(values.getExecutionTime());
                     result.get("invocations").set(values.getInvocations());
                     result.get("wait-time").set(values.getWaitTime());
+                    result.get("execution-time-p50").set(values.getExecutionTime50());
+                    result.get("execution-time-p99").set(values.getExecutionTime99());
+                    result.get("execution-time-p999").set(values.getExecutionTime999());
                     context.getResult().get(entry.getKey()).set(result);
                 }
             }
@@ -226,4 +371,30 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         final AbstractEJBComponentRuntimeHandler<?> handler = componentType.getRuntimeHandler();
         resourceRegistration.registerSubModel(new TimerServiceResourceDefinition(handler));
     }
+
+    /**
+     * Sums a clone metric of the remote views of a component over the local EJB receivers, i.e. pass by value and pass by reference.
+     */
+    private abstract static class ClonePlanMetricsHandler extends AbstractRuntimeMetricsHandler {
+        private static final ServiceName[] RECEIVER_SERVICE_NAMES = new ServiceName[] { LocalEjbReceiver.BY_VALUE_SERVICE_NAME, LocalEjbReceiver.BY_REFERENCE_SERVICE_NAME };
+
+        protected abstract long getValue(ViewClonePlan plan);
+
+        @Override
+        protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+            final ServiceRegistry registry = context.getServiceRegistry(false);
+            long value = 0;
+            for (ServiceName name : RECEIVER_SERVICE_NAMES) {
+                final ServiceController<?> controller = registry.getService(name);
+                if ((controller != null) && (controller.getState() == ServiceController.State.UP)) {
+                    for (ViewClonePlan plan : ((LocalEjbReceiver) controller.getValue()).getClonePlans().values()) {
+                        if (plan.getView().getComponent() == component) {
+                            value += this.getValue(plan);
+                        }
+                    }
+                }
+            }
+            context.getResult().set(value);
+        }
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.timerservice.spi.TimerScheduler;
+
+/**
+ * {@link TimerScheduler} that distributes timers across a number of independent delay queues, each served by its own thread.
+ * Timers are assigned to a shard by the hash of their id, so that scheduling and cancelling timers only contends within a shard.
+ * Cancelled timeouts are removed from their queue immediately, rather than lingering until their expiration.
+ */
+public class ShardedTimerScheduler implements TimerScheduler {
+
+    private final ScheduledThreadPoolExecutor[] shards;
+
+    public ShardedTimerScheduler(int shards, ThreadFactory factory) {
+        this.shards = new ScheduledThreadPoolExecutor[Math.max(shards, 1)];
+        for (int i = 0; i < this.shards.length; ++i) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
+            executor.setRemoveOnCancelPolicy(true);
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+            this.shards[i] = executor;
+        }
+    }
+
+    private ScheduledThreadPoolExecutor shard(String timerId) {
+        int hash = timerId.hashCode();
+        hash ^= (hash >>> 16);
+        return this.shards[(hash & Integer.MAX_VALUE) % this.shards.length];
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(String timerId, Runnable task, long delay, TimeUnit unit) {
+        return this.shard(timerId).schedule(task, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(String timerId, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return this.shard(timerId).scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+
+    public void shutdown() {
+        for (ScheduledThreadPoolExecutor shard : this.shards) {
+            shard.shutdownNow();
+        }
+    }
+}
@@ -34,9 +34,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.ejb.EJBException;
 import javax.ejb.ScheduleExpression;
@@ -65,6 +72,7 @@ import org.jboss.as.ejb3.subsystem.deployment.TimerServiceResource;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
 import org.jboss.as.ejb3.timerservice.spi.ScheduleTimer;
 import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
+import org.jboss.as.ejb3.timerservice.spi.TimerScheduler;
 import org.jboss.as.ejb3.timerservice.task.TimerTask;
 import org.jboss.invocation.InterceptorContext;
 import org.jboss.logging.Logger;
@@ -108,7 +116,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimerScheduler> timerSchedulerInjectedValue = new InjectedValue<TimerScheduler>();
 
     private final InjectedValue<TimedObjectInvoker> timedObjectInvoker = new InjectedValue<TimedObjectInvoker>();
 
@@ -125,12 +133,28 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     /**
      * All timers which were created by this {@link TimerService}
      */
-    private final Map<String, TimerImpl> timers = Collections.synchronizedMap(new HashMap<String, TimerImpl>());
+    private final Map<String, TimerImpl> timers = new ConcurrentHashMap<String, TimerImpl>();
 
     /**
-     * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
+     * Holds the task, and thereby the {@link java.util.concurrent.Future}, of each of the timers that have been scheduled
      */
-    private final Map<String, java.util.TimerTask> scheduledTimerFutures = new HashMap<String, java.util.TimerTask>();
+    private final ConcurrentMap<String, Task> scheduledTimerFutures = new ConcurrentHashMap<String, Task>();
+
+    /**
+     * Restored timers whose next timeout is further away than this are not scheduled when the timer service is activated,
+     * but only once their next timeout comes within this horizon.
+     */
+    private static final long RESTORE_SCHEDULING_HORIZON = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Restored timers, ordered by their next timeout, whose scheduling was deferred. Guarded by its own monitor.
+     */
+    private final Queue<DeferredTimeout> deferredTimeouts = new PriorityQueue<DeferredTimeout>();
+
+    /**
+     * The periodic task scheduling deferred timeouts that came within the horizon. Guarded by the monitor of {@link #deferredTimeouts}.
+     */
+    private Future<?> deferredTimeoutsFuture;
 
     /**
      * Key that is used to store timers that are waiting on transaction completion in the transaction local
@@ -214,11 +238,11 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
 
         timerPersistence.getValue().timerUndeployed(timedObjectInvoker.getValue().getTimedObjectId());
+        cancelDeferredTimeouts();
         started = false;
         this.transactionManager = null;
         IoUtils.safeClose(listenerHandle);
         listenerHandle = null;
-        timerInjectedValue.getValue().purge(); //WFLY-3823
     }
 
 
@@ -234,6 +258,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     }
 
     public synchronized void deactivate() {
+        cancelDeferredTimeouts();
         suspendTimers();
     }
 
@@ -407,12 +432,10 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         Object pk = currentPrimaryKey();
         final Set<Timer> activeTimers = new HashSet<Timer>();
         // get all active timers for this timerservice
-        synchronized (this.timers) {
-            for (final TimerImpl timer : this.timers.values()) {
-                if (timer.isActive()) {
-                    if (timer.getPrimaryKey() == null || timer.getPrimaryKey().equals(pk)) {
-                        activeTimers.add(timer);
-                    }
+        for (final TimerImpl timer : this.timers.values()) {
+            if (timer.isActive()) {
+                if (timer.getPrimaryKey() == null || timer.getPrimaryKey().equals(pk)) {
+                    activeTimers.add(timer);
                 }
             }
         }
@@ -750,11 +773,11 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
                 }
                 this.persistTimer(activeTimer, false);
                 if (found) {
-                    startTimer(activeTimer);
+                    restoreTimer(activeTimer);
                     ROOT_LOGGER.debugv("Started timer: {0}", activeTimer);
                 }
             } else if (!ineligibleTimerStates.contains(activeTimer.getState())) {
-                startTimer(activeTimer);
+                restoreTimer(activeTimer);
             }
             ROOT_LOGGER.debugv("Started timer: {0}",  activeTimer);
         }
@@ -763,6 +786,51 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
             this.loadAutoTimer(timer.getScheduleExpression(), timer.getTimerConfig(), timer.getMethod());
         }
 
+        this.scheduleDeferredTimeouts();
+    }
+
+    /**
+     * Starts a restored timer. Unlike {@link #startTimer(TimerImpl)}, the timeout of a timer that is not due within
+     * {@link #RESTORE_SCHEDULING_HORIZON} is not scheduled yet. Instead, the timer is registered with a placeholder task,
+     * so that it is considered active, and can be cancelled, and is scheduled once its timeout comes within the horizon.
+     * Consequently, activating a timer service with many long-lived timers only needs to schedule those due soon.
+     */
+    private void restoreTimer(TimerImpl timer) {
+        Date nextExpiration = timer.getNextExpiration();
+        if ((nextExpiration == null) || (nextExpiration.getTime() - System.currentTimeMillis() <= RESTORE_SCHEDULING_HORIZON) || transactionActive()) {
+            startTimer(timer);
+            return;
+        }
+        this.timers.put(timer.getId(), timer);
+        timer.setTimerState(TimerState.ACTIVE);
+        this.registerTimerResource(timer.getId());
+        Task placeholder = new Task(timer.getTimerTask(), ejbComponentInjectedValue.getValue().getControlPoint());
+        Task previous = this.scheduledTimerFutures.put(timer.getId(), placeholder);
+        if (previous != null) {
+            previous.cancel();
+        }
+        synchronized (this.deferredTimeouts) {
+            this.deferredTimeouts.add(new DeferredTimeout(timer, placeholder, nextExpiration.getTime()));
+        }
+    }
+
+    private void scheduleDeferredTimeouts() {
+        synchronized (this.deferredTimeouts) {
+            if (!this.deferredTimeouts.isEmpty() && (this.deferredTimeoutsFuture == null)) {
+                long period = RESTORE_SCHEDULING_HORIZON / 2;
+                this.deferredTimeoutsFuture = this.timerSchedulerInjectedValue.getValue().scheduleAtFixedRate(this.getInvoker().getTimedObjectId(), new DeferredTimeoutsTask(), period, period, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void cancelDeferredTimeouts() {
+        synchronized (this.deferredTimeouts) {
+            this.deferredTimeouts.clear();
+            if (this.deferredTimeoutsFuture != null) {
+                this.deferredTimeoutsFuture.cancel(false);
+                this.deferredTimeoutsFuture = null;
+            }
+        }
     }
 
     /**
@@ -869,43 +937,47 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * Creates and schedules a {@link org.jboss.as.ejb3.timerservice.task.TimerTask} for the next timeout of the passed <code>timer</code>
      */
     protected void scheduleTimeout(TimerImpl timer, boolean newTimer) {
-        synchronized (scheduledTimerFutures) {
-            if (!newTimer && !scheduledTimerFutures.containsKey(timer.getId())) {
-                //this timer has been cancelled by another thread. We just return
-                return;
-            }
-
-            Date nextExpiration = timer.getNextExpiration();
-            if (nextExpiration == null) {
+        Date nextExpiration = timer.getNextExpiration();
+        if (nextExpiration == null) {
+            if (newTimer || this.scheduledTimerFutures.containsKey(timer.getId())) {
                 ROOT_LOGGER.nextExpirationIsNull(timer);
-                return;
             }
-            // create the timer task
-            final TimerTask<?> timerTask = timer.getTimerTask();
-            // find out how long is it away from now
-            long delay = nextExpiration.getTime() - System.currentTimeMillis();
-            // if in past, then trigger immediately
-            if (delay < 0) {
-                delay = 0;
+            return;
+        }
+        // create the timer task
+        final TimerTask<?> timerTask = timer.getTimerTask();
+        final Task task = new Task(timerTask, ejbComponentInjectedValue.getValue().getControlPoint());
+        // register the task before scheduling it, so that a concurrent cancellation is guaranteed to see it
+        if (newTimer) {
+            Task previous = this.scheduledTimerFutures.put(timer.getId(), task);
+            if (previous != null) {
+                previous.cancel();
             }
-            long intervalDuration = timer.getInterval();
-            final Task task = new Task(timerTask, ejbComponentInjectedValue.getValue().getControlPoint());
-            if (intervalDuration > 0) {
-                ROOT_LOGGER.debugv("Scheduling timer {0} at fixed rate, starting at {1} milliseconds from now with repeated interval={2}",
-                        timer, delay, intervalDuration);
-                // schedule the task
-                this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
-            } else {
-                ROOT_LOGGER.debugv("Scheduling a single action timer {0} starting at {1} milliseconds from now", timer, delay);
-                // schedule the task
-                this.timerInjectedValue.getValue().schedule(task, delay);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
-
+        } else {
+            Task previous = this.scheduledTimerFutures.get(timer.getId());
+            if ((previous == null) || !this.scheduledTimerFutures.replace(timer.getId(), previous, task)) {
+                //this timer has been cancelled by another thread. We just return
+                return;
             }
         }
+        // find out how long is it away from now
+        long delay = nextExpiration.getTime() - System.currentTimeMillis();
+        // if in past, then trigger immediately
+        if (delay < 0) {
+            delay = 0;
+        }
+        long intervalDuration = timer.getInterval();
+        final TimerScheduler scheduler = this.timerSchedulerInjectedValue.getValue();
+        if (intervalDuration > 0) {
+            ROOT_LOGGER.debugv("Scheduling timer {0} at fixed rate, starting at {1} milliseconds from now with repeated interval={2}",
+                    timer, delay, intervalDuration);
+            // schedule the task
+            task.setFuture(scheduler.scheduleAtFixedRate(timer.getId(), task, delay, intervalDuration, TimeUnit.MILLISECONDS));
+        } else {
+            ROOT_LOGGER.debugv("Scheduling a single action timer {0} starting at {1} milliseconds from now", timer, delay);
+            // schedule the task
+            task.setFuture(scheduler.schedule(timer.getId(), task, delay, TimeUnit.MILLISECONDS));
+        }
     }
 
     /**
@@ -914,26 +986,20 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * @param timer
      */
     protected void cancelTimeout(final TimerImpl timer) {
-        synchronized (this.scheduledTimerFutures) {
-            java.util.TimerTask timerTask = this.scheduledTimerFutures.remove(timer.getId());
-            if (timerTask != null) {
-                timerTask.cancel();
-            }
+        Task task = this.scheduledTimerFutures.remove(timer.getId());
+        if (task != null) {
+            task.cancel();
         }
     }
 
     public void invokeTimeout(final TimerImpl timer) {
-        synchronized (this.scheduledTimerFutures) {
-            if (this.scheduledTimerFutures.containsKey(timer.getId())) {
-                timer.getTimerTask().run();
-            }
+        if (this.scheduledTimerFutures.containsKey(timer.getId())) {
+            timer.getTimerTask().run();
         }
     }
 
     public boolean isScheduled(final String tid){
-        synchronized (this.scheduledTimerFutures) {
-            return this.scheduledTimerFutures.containsKey(tid);
-        }
+        return this.scheduledTimerFutures.containsKey(tid);
     }
 
     /**
@@ -1088,8 +1154,8 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
-        return timerInjectedValue;
+    public InjectedValue<TimerScheduler> getTimerSchedulerInjectedValue() {
+        return timerSchedulerInjectedValue;
     }
 
     public InjectedValue<TimerPersistence> getTimerPersistence() {
@@ -1206,7 +1272,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
     }
 
-    private class Task extends java.util.TimerTask {
+    private class Task implements Runnable {
 
         private final TimerTask<?> delegate;
         private final ControlPoint controlPoint;
@@ -1215,37 +1281,118 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
          * used to stop timer tasks banking up when the container is suspended.
          */
         private volatile boolean queued = false;
+        private volatile boolean cancelled = false;
+        private volatile Future<?> future;
 
         public Task(final TimerTask<?> delegate, ControlPoint controlPoint) {
             this.delegate = delegate;
             this.controlPoint = controlPoint;
         }
 
+        void setFuture(Future<?> future) {
+            this.future = future;
+            // Handle cancellation that raced with scheduling
+            if (this.cancelled) {
+                future.cancel(false);
+            }
+        }
+
         @Override
         public void run() {
+            if (cancelled) {
+                return;
+            }
             final ExecutorService executor = executorServiceInjectedValue.getOptionalValue();
             if (executor != null) {
-                if(controlPoint == null) {
-                    executor.submit(delegate);
-                } else if(!queued) {
-                    queued = true;
-                    controlPoint.queueTask(new Runnable() {
-                        @Override
-                        public void run() {
-                            queued = false;
-                            delegate.run();
-                        }
-                    }, executor, -1, null, false);
-                } else {
-                    EjbLogger.EJB3_INVOCATION_LOGGER.debug("Skipping timer invocation as existing request is already queued.");
+                try {
+                    if(controlPoint == null) {
+                        executor.submit(delegate);
+                    } else if(!queued) {
+                        queued = true;
+                        controlPoint.queueTask(new Runnable() {
+                            @Override
+                            public void run() {
+                                queued = false;
+                                delegate.run();
+                            }
+                        }, executor, -1, null, false);
+                    } else {
+                        EjbLogger.EJB3_INVOCATION_LOGGER.debug("Skipping timer invocation as existing request is already queued.");
+                    }
+                } catch (RejectedExecutionException e) {
+                    // Do not let the exception suppress subsequent executions of an interval timer
+                    queued = false;
+                    EjbLogger.EJB3_INVOCATION_LOGGER.debugf(e, "Timer invocation rejected for %s", delegate);
                 }
             }
         }
 
-        @Override
-        public boolean cancel() {
+        public void cancel() {
+            cancelled = true;
             delegate.cancel();
-            return super.cancel();
+            Future<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A restored timer whose scheduling was deferred, along with the placeholder task registered for it.
+     */
+    private static class DeferredTimeout implements Comparable<DeferredTimeout> {
+        final TimerImpl timer;
+        final Task placeholder;
+        final long expiration;
+
+        DeferredTimeout(TimerImpl timer, Task placeholder, long expiration) {
+            this.timer = timer;
+            this.placeholder = placeholder;
+            this.expiration = expiration;
+        }
+
+        @Override
+        public int compareTo(DeferredTimeout timeout) {
+            return Long.compare(this.expiration, timeout.expiration);
+        }
+    }
+
+    /**
+     * Schedules the deferred timeouts that came within {@link #RESTORE_SCHEDULING_HORIZON}, and cancels itself once none remain.
+     * Timeouts that fail to be scheduled are retried on the next pass.
+     */
+    private class DeferredTimeoutsTask implements Runnable {
+        @Override
+        public void run() {
+            long horizon = System.currentTimeMillis() + RESTORE_SCHEDULING_HORIZON;
+            List<DeferredTimeout> timeouts = new ArrayList<DeferredTimeout>();
+            synchronized (deferredTimeouts) {
+                while (!deferredTimeouts.isEmpty() && (deferredTimeouts.peek().expiration <= horizon)) {
+                    timeouts.add(deferredTimeouts.poll());
+                }
+            }
+            List<DeferredTimeout> failed = new ArrayList<DeferredTimeout>();
+            for (DeferredTimeout timeout : timeouts) {
+                // Skip timers that were cancelled or rescheduled since they were restored
+                if (scheduledTimerFutures.get(timeout.timer.getId()) == timeout.placeholder) {
+                    try {
+                        scheduleTimeout(timeout.timer, false);
+                    } catch (RuntimeException e) {
+                        ROOT_LOGGER.failedToScheduleRestoredTimer(timeout.timer, e);
+                        failed.add(timeout);
+                    }
+                }
+            }
+            synchronized (deferredTimeouts) {
+                // Unless this task was cancelled concurrently, retry failed timeouts on the next pass
+                if (deferredTimeoutsFuture != null) {
+                    deferredTimeouts.addAll(failed);
+                    if (deferredTimeouts.isEmpty()) {
+                        deferredTimeoutsFuture.cancel(false);
+                        deferredTimeoutsFuture = null;
+                    }
+                }
+            }
         }
     }
 
@@ -40,7 +40,6 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -48,7 +47,11 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.sql.DataSource;
 import javax.transaction.HeuristicMixedException;
@@ -87,6 +90,12 @@ import org.jboss.util.Base64;
  * <p>
  * Database timer persistence store.
  * </p>
+ * <p>
+ * By default every refresh reloads all timers of each known timed object. If incremental refresh is enabled, every write
+ * stamps the row with a change version, cancelled and expired timers are kept as tombstones for a while instead of being
+ * deleted, and a refresh only loads the rows of the partition that changed since the previous refresh.
+ * All nodes sharing a partition must use the same refresh mode.
+ * </p>
  *
  * @author Stuart Douglas
  * @author Wolf-Dieter Fink
@@ -95,11 +104,11 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
 
     private final InjectedValue<ManagedReferenceFactory> dataSourceInjectedValue = new InjectedValue<ManagedReferenceFactory>();
     private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
-    private final Map<String, TimerChangeListener> changeListeners = Collections.synchronizedMap(new HashMap<String, TimerChangeListener>());
+    private final Map<String, TimerChangeListener> changeListeners = new ConcurrentHashMap<String, TimerChangeListener>();
 
     private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
 
-    private final Map<String, Set<String>> knownTimerIds = new HashMap<>();
+    private final ConcurrentMap<String, Set<String>> knownTimerIds = new ConcurrentHashMap<>();
 
     /** Identifier for the database dialect to be used for the timer-sql.properties */
     private String database;
@@ -113,6 +122,17 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private final int refreshInterval;
     /** Flag whether this instance should execute persistent timers*/
     private final boolean allowExecution;
+    /** Flag whether only the timers changed since the last refresh are loaded, reset if the table lacks a change version*/
+    private volatile boolean incrementalRefresh;
+    /** Start time of the last incremental refresh*/
+    private volatile long lastRefresh;
+    /** Start time of the last full refresh*/
+    private volatile long lastFullRefresh;
+    /** Time of the last purge of cancelled timers*/
+    private volatile long lastPurge;
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshTime = new AtomicLong();
+    private final AtomicLong rowsScanned = new AtomicLong();
     private volatile ManagedReference managedReference;
     private volatile DataSource dataSource;
     private volatile Properties sql;
@@ -128,13 +148,27 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private static final String LOAD_TIMER = "load-timer";
     private static final String DELETE_TIMER = "delete-timer";
     private static final String UPDATE_RUNNING = "update-running";
-
-    public DatabaseTimerPersistence(final String database, String partition, String nodeName, int refreshInterval, boolean allowExecution) {
+    private static final String CREATE_VERSIONED_TIMER = "create-versioned-timer";
+    private static final String UPDATE_VERSIONED_TIMER = "update-versioned-timer";
+    private static final String CANCEL_VERSIONED_TIMER = "cancel-versioned-timer";
+    private static final String LOAD_CHANGED_TIMERS = "load-changed-timers";
+    private static final String PURGE_CANCELLED_TIMERS = "purge-cancelled-timers";
+    private static final String ADD_CHANGE_VERSION = "add-change-version";
+
+    /** Overlap of consecutive delta queries, which covers clock skew between nodes and transactions committing late*/
+    private static final long CHANGE_VERSION_OVERLAP = TimeUnit.SECONDS.toMillis(30);
+    /** Maximum time between two full refreshes in incremental mode, which catch the rows missed by the delta queries*/
+    private static final long FULL_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+    /** Minimum time cancelled and expired timers are retained, so that other nodes can observe their removal*/
+    private static final long CANCELLED_TIMER_RETENTION = TimeUnit.HOURS.toMillis(1);
+
+    public DatabaseTimerPersistence(final String database, String partition, String nodeName, int refreshInterval, boolean allowExecution, boolean incrementalRefresh) {
         this.database = database;
         this.partition = partition;
         this.nodeName = nodeName;
         this.refreshInterval = refreshInterval;
         this.allowExecution = allowExecution;
+        this.incrementalRefresh = incrementalRefresh;
     }
 
     @Override
@@ -158,6 +192,12 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         extractDialects();
         investigateDialect();
         checkDatabase();
+        if (incrementalRefresh) {
+            checkChangeVersion();
+        }
+        lastRefresh = System.currentTimeMillis();
+        lastFullRefresh = lastRefresh;
+        lastPurge = lastRefresh;
         if (refreshInterval > 0) {
             refreshTask = new RefreshTask();
             timerInjectedValue.getValue().schedule(refreshTask, refreshInterval, refreshInterval);
@@ -302,6 +342,48 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         }
     }
 
+    /**
+     * Checks whether the timer table has the change version column required for incremental refresh,
+     * and tries to add it otherwise. Falls back to full refresh if the column can not be added.
+     */
+    private void checkChangeVersion() {
+        Connection connection = null;
+        Statement statement = null;
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            preparedStatement = connection.prepareStatement(sql(LOAD_CHANGED_TIMERS));
+            preparedStatement.setString(1, "NON-EXISTENT");
+            preparedStatement.setLong(2, Long.MAX_VALUE);
+            resultSet = preparedStatement.executeQuery();
+        } catch (SQLException e) {
+            if (connection != null) {
+                try {
+                    for (final String sql : sql(ADD_CHANGE_VERSION).split(";")) {
+                        try {
+                            statement = connection.createStatement();
+                            statement.executeUpdate(sql);
+                        } finally {
+                            safeClose(statement);
+                        }
+                    }
+                } catch (SQLException e1) {
+                    EjbLogger.ROOT_LOGGER.incrementalTimerRefreshNotAvailable(e1);
+                    incrementalRefresh = false;
+                }
+            } else {
+                EjbLogger.ROOT_LOGGER.incrementalTimerRefreshNotAvailable(e);
+                incrementalRefresh = false;
+            }
+        } finally {
+            safeClose(resultSet);
+            safeClose(preparedStatement);
+            safeClose(statement);
+            safeClose(connection);
+        }
+    }
+
     private String sql(final String key) {
         if (database != null) {
             String result = sql.getProperty(key + "." + database);
@@ -314,17 +396,19 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
 
     @Override
     public void addTimer(final TimerImpl timerEntity) {
-        String createTimer = sql(CREATE_TIMER);
+        final boolean versioned = incrementalRefresh;
+        String createTimer = sql(versioned ? CREATE_VERSIONED_TIMER : CREATE_TIMER);
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         try {
-            synchronized (this) {
-                knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-            }
+            knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
             connection = dataSource.getConnection();
             statement = connection.prepareStatement(createTimer);
             statementParameters(timerEntity, statement);
+            if (versioned) {
+                statement.setLong(27, System.currentTimeMillis());
+            }
             statement.execute();
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -340,34 +424,46 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
+        final boolean versioned = incrementalRefresh;
         try {
             connection = dataSource.getConnection();
             if (timerEntity.getState() == TimerState.CANCELED ||
                     timerEntity.getState() == TimerState.EXPIRED) {
-                String deleteTimer = sql(DELETE_TIMER);
-                statement = connection.prepareStatement(deleteTimer);
-                statement.setString(1, timerEntity.getTimedObjectId());
-                statement.setString(2, timerEntity.getId());
-                statement.setString(3, partition);
-                statement.execute();
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
+                if (versioned) {
+                    // keep a tombstone, so that other nodes see the removal within their delta query
+                    String cancelTimer = sql(CANCEL_VERSIONED_TIMER);
+                    statement = connection.prepareStatement(cancelTimer);
+                    statement.setString(1, timerEntity.getState().name());
+                    statement.setLong(2, System.currentTimeMillis());
+                    statement.setString(3, timerEntity.getTimedObjectId());
+                    statement.setString(4, timerEntity.getId());
+                    statement.setString(5, partition);
+                } else {
+                    String deleteTimer = sql(DELETE_TIMER);
+                    statement = connection.prepareStatement(deleteTimer);
+                    statement.setString(1, timerEntity.getTimedObjectId());
+                    statement.setString(2, timerEntity.getId());
+                    statement.setString(3, partition);
                 }
+                statement.execute();
+                knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
             } else {
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-                }
-                String updateTimer = sql(UPDATE_TIMER);
+                knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
+                String updateTimer = sql(versioned ? UPDATE_VERSIONED_TIMER : UPDATE_TIMER);
                 statement = connection.prepareStatement(updateTimer);
-                statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
-                statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
-                statement.setString(3, timerEntity.getState().name());
-                setNodeName(timerEntity.getState(), statement, 4);
+                int index = 1;
+                statement.setTimestamp(index++, timestamp(timerEntity.getNextExpiration()));
+                statement.setTimestamp(index++, timestamp(timerEntity.getPreviousRun()));
+                statement.setString(index++, timerEntity.getState().name());
+                setNodeName(timerEntity.getState(), statement, index++);
+                if (versioned) {
+                    statement.setLong(index++, System.currentTimeMillis());
+                }
                 // WHERE CLAUSE
-                statement.setString(5, timerEntity.getTimedObjectId());
-                statement.setString(6, timerEntity.getId());
-                statement.setString(7, partition);
-                statement.setString(8, nodeName);   // only persist if this node or empty
+                statement.setString(index++, timerEntity.getTimedObjectId());
+                statement.setString(index++, timerEntity.getId());
+                statement.setString(index++, partition);
+                statement.setString(index, nodeName);   // only persist if this node or empty
                 statement.execute();
             }
         } catch (SQLException e) {
@@ -436,7 +532,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     }
 
     @Override
-    public synchronized void timerUndeployed(final String timedObjectId) {
+    public void timerUndeployed(final String timedObjectId) {
         knownTimerIds.remove(timedObjectId);
     }
 
@@ -455,6 +551,10 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             final List<TimerImpl> timers = new ArrayList<TimerImpl>();
             while (resultSet.next()) {
                 try {
+                    if (isInactive(resultSet.getString(9))) {
+                        // tombstone of an incrementally refreshed partition
+                        continue;
+                    }
                     final TimerImpl timerImpl = timerFromResult(resultSet, timerService);
                     if (timerImpl != null) {
                         timers.add(timerImpl);
@@ -463,13 +563,11 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
                     EjbLogger.ROOT_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
                 }
             }
-            synchronized (this) {
-                Set<String> ids = new HashSet<>();
-                for (TimerImpl timer : timers) {
-                    ids.add(timer.getId());
-                }
-                knownTimerIds.put(timedObjectId, ids);
+            Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            for (TimerImpl timer : timers) {
+                ids.add(timer.getId());
             }
+            knownTimerIds.put(timedObjectId, ids);
 
             return timers;
         } catch (SQLException e) {
@@ -497,6 +595,31 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         return this;
     }
 
+    /**
+     * @return the number of refreshes performed since this store was started
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * @return the accumulated duration of all refreshes, in milliseconds
+     */
+    public long getRefreshTime() {
+        return refreshTime.get();
+    }
+
+    /**
+     * @return the accumulated number of timer rows read by all refreshes
+     */
+    public long getRowsScanned() {
+        return rowsScanned.get();
+    }
+
+    private static boolean isInactive(final String state) {
+        return TimerState.CANCELED.name().equals(state) || TimerState.EXPIRED.name().equals(state);
+    }
+
     private TimerImpl timerFromResult(final ResultSet resultSet, final TimerServiceImpl timerService) throws SQLException {
         boolean calendarTimer = resultSet.getBoolean(24);
 
@@ -718,6 +841,128 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         }
     }
 
+    /**
+     * Reloads all timers of every known timed object, one query per timed object.
+     *
+     * @return the number of rows read
+     */
+    private int refreshAllTimers(final Connection connection) throws SQLException {
+        int rows = 0;
+        final PreparedStatement statement = connection.prepareStatement(sql(LOAD_ALL_TIMERS));
+        try {
+            for (Map.Entry<String, Set<String>> entry : knownTimerIds.entrySet()) {
+                final String timedObjectId = entry.getKey();
+                final TimerChangeListener listener = changeListeners.get(timedObjectId);
+                if (listener == null) {
+                    continue;
+                }
+                final Set<String> known = entry.getValue();
+                final Set<String> existing = new HashSet<>(known);
+                ResultSet resultSet = null;
+                try {
+                    statement.setString(1, timedObjectId);
+                    statement.setString(2, partition);
+                    resultSet = statement.executeQuery();
+                    while (resultSet.next()) {
+                        ++rows;
+                        try {
+                            String id = resultSet.getString(1);
+                            if (isInactive(resultSet.getString(9))) {
+                                continue;
+                            }
+                            if (!existing.remove(id) && known.add(id)) {
+                                final TimerImpl timerImpl = timerFromResult(resultSet, listener.getTimerService());
+                                if (timerImpl != null) {
+                                    listener.timerAdded(timerImpl);
+                                }
+                            }
+                        } catch (Exception e) {
+                            EjbLogger.ROOT_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
+                        }
+                    }
+                    for (String timer : existing) {
+                        if (known.remove(timer)) {
+                            listener.timerRemoved(timer);
+                        }
+                    }
+                } catch (SQLException e) {
+                    EjbLogger.ROOT_LOGGER.failedToRefreshTimers(timedObjectId);
+                } finally {
+                    safeClose(resultSet);
+                }
+            }
+        } finally {
+            safeClose(statement);
+        }
+        return rows;
+    }
+
+    /**
+     * Loads the timers of the partition which changed since the given change version, using a single query.
+     *
+     * @return the number of rows read
+     */
+    private int refreshChangedTimers(final Connection connection, final long since) throws SQLException {
+        int rows = 0;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(sql(LOAD_CHANGED_TIMERS));
+            statement.setString(1, partition);
+            statement.setLong(2, since);
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                ++rows;
+                final String id = resultSet.getString(1);
+                final String timedObjectId = resultSet.getString(2);
+                final Set<String> known = knownTimerIds.get(timedObjectId);
+                final TimerChangeListener listener = changeListeners.get(timedObjectId);
+                if (known == null || listener == null) {
+                    continue;
+                }
+                try {
+                    if (isInactive(resultSet.getString(9))) {
+                        if (known.remove(id)) {
+                            listener.timerRemoved(id);
+                        }
+                    } else if (known.add(id)) {
+                        final TimerImpl timerImpl = timerFromResult(resultSet, listener.getTimerService());
+                        if (timerImpl != null) {
+                            listener.timerAdded(timerImpl);
+                        }
+                    }
+                } catch (Exception e) {
+                    EjbLogger.ROOT_LOGGER.timerReinstatementFailed(timedObjectId, id, e);
+                }
+            }
+        } finally {
+            safeClose(resultSet);
+            safeClose(statement);
+        }
+        return rows;
+    }
+
+    /**
+     * Deletes the tombstones of cancelled and expired timers once they are old enough to have been seen by all nodes.
+     */
+    private void purgeCancelledTimers(final Connection connection, final long now) throws SQLException {
+        if (now - lastPurge < CHANGE_VERSION_OVERLAP) {
+            return;
+        }
+        lastPurge = now;
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(sql(PURGE_CANCELLED_TIMERS));
+            statement.setString(1, partition);
+            statement.setLong(2, now - Math.max(CANCELLED_TIMER_RETENTION, 10L * refreshInterval));
+            statement.setString(3, TimerState.CANCELED.name());
+            statement.setString(4, TimerState.EXPIRED.name());
+            statement.executeUpdate();
+        } finally {
+            safeClose(statement);
+        }
+    }
+
     private class RefreshTask extends TimerTask {
 
         private volatile AtomicBoolean running = new AtomicBoolean();
@@ -725,65 +970,32 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         @Override
         public void run() {
             if (running.compareAndSet(false, true)) {
+                final long start = System.currentTimeMillis();
+                Connection connection = null;
                 try {
-                    Set<String> timedObjects;
-                    synchronized (DatabaseTimerPersistence.this) {
-                        timedObjects = new HashSet<>(knownTimerIds.keySet());
-                    }
-                    for (String timedObjectId : timedObjects) {
-                        TimerChangeListener listener = changeListeners.get(timedObjectId);
-                        if (listener == null) {
-                            continue;
-                        }
-                        final Set<String> existing;
-                        synchronized (DatabaseTimerPersistence.this) {
-                            existing = new HashSet<>(knownTimerIds.get(timedObjectId));
-                        }
-                        String loadTimer = sql(LOAD_ALL_TIMERS);
-                        Connection connection = null;
-                        PreparedStatement statement = null;
-                        ResultSet resultSet = null;
-                        try {
-                            connection = dataSource.getConnection();
-                            statement = connection.prepareStatement(loadTimer);
-                            statement.setString(1, timedObjectId);
-                            statement.setString(2, partition);
-                            resultSet = statement.executeQuery();
-                            while (resultSet.next()) {
-                                try {
-                                    String id = resultSet.getString(1);
-                                    if (!existing.remove(id)) {
-                                        synchronized (DatabaseTimerPersistence.this) {
-                                            knownTimerIds.get(timedObjectId).add(id);
-                                        }
-                                        final TimerImpl timerImpl = timerFromResult(resultSet, listener.getTimerService());
-                                        listener.timerAdded(timerImpl);
-                                    }
-                                } catch (Exception e) {
-                                    EjbLogger.ROOT_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
-                                }
-                            }
-
-                            synchronized (DatabaseTimerPersistence.this) {
-                                Set<String> timers = knownTimerIds.get(timedObjectId);
-                                for (String timer : existing) {
-                                    timers.remove(timer);
-                                    listener.timerRemoved(timer);
-                                }
-                            }
-                        } catch (SQLException e) {
-                            EjbLogger.ROOT_LOGGER.failedToRefreshTimers(timedObjectId);
-                        } finally {
-                            safeClose(resultSet);
-                            safeClose(statement);
-                            safeClose(connection);
+                    connection = dataSource.getConnection();
+                    if (incrementalRefresh) {
+                        if (start - lastFullRefresh >= FULL_REFRESH_INTERVAL) {
+                            // backstop for rows which committed too late or with a skewed change version
+                            rowsScanned.addAndGet(refreshAllTimers(connection));
+                            lastFullRefresh = start;
+                        } else {
+                            rowsScanned.addAndGet(refreshChangedTimers(connection, lastRefresh - CHANGE_VERSION_OVERLAP));
                         }
+                        lastRefresh = start;
+                        purgeCancelledTimers(connection, start);
+                    } else {
+                        rowsScanned.addAndGet(refreshAllTimers(connection));
                     }
+                } catch (SQLException e) {
+                    EjbLogger.ROOT_LOGGER.failedToRefreshTimers(partition);
                 } finally {
+                    safeClose(connection);
+                    refreshCount.incrementAndGet();
+                    refreshTime.addAndGet(System.currentTimeMillis() - start);
                     running.set(false);
                 }
             }
-
         }
     }
 }
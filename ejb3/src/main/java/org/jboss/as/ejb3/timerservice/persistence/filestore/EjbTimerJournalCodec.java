@@ -0,0 +1,214 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.timerservice.CalendarTimer;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimeoutMethod;
+import org.jboss.marshalling.ByteBufferInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+
+import javax.ejb.ScheduleExpression;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+/**
+ * Binary encoding of the timers stored in a {@link TimerJournal}.
+ * <p/>
+ * Holds the same information as {@link EjbTimerXmlPersister}, but the timer info and primary key are kept as raw
+ * marshalled bytes rather than Base64 text, and no parser is needed to read a timer back.
+ */
+class EjbTimerJournalCodec {
+
+    private static final byte VERSION = 1;
+    private static final byte TIMER = 0;
+    private static final byte CALENDAR_TIMER = 1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final MarshallerFactory factory;
+    private final MarshallingConfiguration configuration;
+
+    EjbTimerJournalCodec(MarshallerFactory factory, MarshallingConfiguration configuration) {
+        this.factory = factory;
+        this.configuration = configuration;
+    }
+
+    byte[] encode(TimerImpl timer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSION);
+        out.writeByte(timer instanceof CalendarTimer ? CALENDAR_TIMER : TIMER);
+        out.writeUTF(timer.getTimedObjectId());
+        out.writeUTF(timer.getId());
+        writeDate(out, timer.getInitialExpiration());
+        out.writeLong(timer.getInterval());
+        writeDate(out, timer.getNextExpiration());
+        writeDate(out, timer.getPreviousRun());
+        out.writeUTF(timer.getState().name());
+        writeObject(out, timer.getTimerInfo());
+        writeObject(out, timer.getPrimaryKey());
+        if (timer instanceof CalendarTimer) {
+            final CalendarTimer calendarTimer = (CalendarTimer) timer;
+            final ScheduleExpression schedule = calendarTimer.getScheduleExpression();
+            writeString(out, schedule.getSecond());
+            writeString(out, schedule.getMinute());
+            writeString(out, schedule.getHour());
+            writeString(out, schedule.getDayOfWeek());
+            writeString(out, schedule.getDayOfMonth());
+            writeString(out, schedule.getMonth());
+            writeString(out, schedule.getYear());
+            writeDate(out, schedule.getStart());
+            writeDate(out, schedule.getEnd());
+            writeString(out, schedule.getTimezone());
+            out.writeBoolean(calendarTimer.isAutoTimer());
+            if (calendarTimer.isAutoTimer()) {
+                final Method method = calendarTimer.getTimeoutMethod();
+                out.writeUTF(method.getDeclaringClass().getName());
+                out.writeUTF(method.getName());
+                final Class<?>[] parameterTypes = method.getParameterTypes();
+                out.writeInt(parameterTypes.length);
+                for (Class<?> parameterType : parameterTypes) {
+                    out.writeUTF(parameterType.getName());
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a timer.
+     *
+     * @return the timer, or null if the timeout method of an auto timer no longer exists
+     */
+    TimerImpl decode(ByteBuffer buffer, TimerServiceImpl timerService) throws IOException, ClassNotFoundException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()));
+        final byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported timer journal record version " + version);
+        }
+        final boolean calendar = in.readByte() == CALENDAR_TIMER;
+        final TimerImpl.Builder builder = calendar ? CalendarTimer.builder() : TimerImpl.builder();
+        builder.setTimedObjectId(in.readUTF());
+        builder.setId(in.readUTF());
+        builder.setInitialDate(readDate(in));
+        builder.setRepeatInterval(in.readLong());
+        builder.setNextDate(readDate(in));
+        builder.setPreviousRun(readDate(in));
+        builder.setTimerState(TimerState.valueOf(in.readUTF()));
+        builder.setInfo((Serializable) readObject(in));
+        builder.setPrimaryKey(readObject(in));
+        builder.setPersistent(true);
+        if (calendar) {
+            final CalendarTimer.Builder calendarBuilder = (CalendarTimer.Builder) builder;
+            calendarBuilder.setScheduleExprSecond(readString(in));
+            calendarBuilder.setScheduleExprMinute(readString(in));
+            calendarBuilder.setScheduleExprHour(readString(in));
+            calendarBuilder.setScheduleExprDayOfWeek(readString(in));
+            calendarBuilder.setScheduleExprDayOfMonth(readString(in));
+            calendarBuilder.setScheduleExprMonth(readString(in));
+            calendarBuilder.setScheduleExprYear(readString(in));
+            calendarBuilder.setScheduleExprStartDate(readDate(in));
+            calendarBuilder.setScheduleExprEndDate(readDate(in));
+            calendarBuilder.setScheduleExprTimezone(readString(in));
+            final boolean autoTimer = in.readBoolean();
+            calendarBuilder.setAutoTimer(autoTimer);
+            if (autoTimer) {
+                final String declaringClass = in.readUTF();
+                final String methodName = in.readUTF();
+                final String[] params = new String[in.readInt()];
+                for (int i = 0; i < params.length; ++i) {
+                    params[i] = in.readUTF();
+                }
+                final Method timeoutMethod = CalendarTimer.getTimeoutMethod(new TimeoutMethod(declaringClass, methodName, params), timerService.getTimedObjectInvoker().getValue().getClassLoader());
+                if (timeoutMethod == null) {
+                    EjbLogger.ROOT_LOGGER.timerReinstatementFailed(builder.getTimedObjectId(), builder.getId(), new NoSuchMethodException());
+                    return null;
+                }
+                calendarBuilder.setTimeoutMethod(timeoutMethod);
+            }
+        }
+        return builder.build(timerService);
+    }
+
+    private void writeObject(DataOutputStream out, Object object) throws IOException {
+        if (object == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Marshaller marshaller = factory.createMarshaller(configuration);
+        marshaller.start(new OutputStreamByteOutput(bytes));
+        marshaller.writeObject(object);
+        marshaller.finish();
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private Object readObject(DataInputStream in) throws IOException, ClassNotFoundException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+        unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(bytes)));
+        final Object object = unmarshaller.readObject();
+        unmarshaller.finish();
+        return object;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeLong(date != null ? date.getTime() : NO_DATE);
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        final long time = in.readLong();
+        return time != NO_DATE ? new Date(time) : null;
+    }
+}
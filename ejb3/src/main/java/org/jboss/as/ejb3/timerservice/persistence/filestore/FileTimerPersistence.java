@@ -58,9 +58,11 @@ import java.io.FileOutputStream;
 import java.io.FilePermission;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +77,11 @@ import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 /**
  * File based persistent timer store.
  * <p/>
+ * By default every timer is written to its own XML file. If the journal is enabled, the timers of each timed object are
+ * instead appended to a {@link TimerJournal}, which is only read once. Existing XML files are migrated into the journal
+ * when it is first opened, after which a marker file prevents them from being read again, and each migrated file is
+ * renamed with a {@value #MIGRATED_SUFFIX} suffix.
+ * <p/>
  * TODO: this is fairly hackey at the moment, it should be registered as an XA resource to support proper XA semantics
  *
  * @author Stuart Douglas
@@ -84,7 +91,11 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     private static final FilePermission FILE_PERMISSION = new FilePermission("<<ALL FILES>>", "read,write,delete");
     private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
 
+    static final String JOURNAL_MIGRATION_MARKER = "migrated-to-journal.marker";
+    static final String MIGRATED_SUFFIX = ".migrated";
+
     private final boolean createIfNotExists;
+    private final boolean journalEnabled;
     private MarshallerFactory factory;
     private MarshallingConfiguration configuration;
     private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
@@ -98,8 +109,16 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
     private final ConcurrentMap<String, String> directories = new ConcurrentHashMap<String, String>();
+    // Journal mode only, guarded by the lock of the timed object
+    private final ConcurrentMap<String, TimerJournal> journals = new ConcurrentHashMap<String, TimerJournal>();
+    private final ConcurrentMap<String, Map<String, TimerImpl>> journaledTimers = new ConcurrentHashMap<String, Map<String, TimerImpl>>();
+    private EjbTimerJournalCodec codec;
 
     public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
+        this(createIfNotExists, path, pathRelativeTo, false);
+    }
+
+    public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo, final boolean journal) {
         final SecurityManager sm = System.getSecurityManager();
         if (sm != null) {
             sm.checkPermission(FILE_PERMISSION);
@@ -107,6 +126,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         this.createIfNotExists = createIfNotExists;
         this.path = path;
         this.pathRelativeTo = pathRelativeTo;
+        this.journalEnabled = journal;
     }
 
     @Override
@@ -130,6 +150,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
         this.configuration = configuration;
         this.factory = factory;
+        this.codec = new EjbTimerJournalCodec(factory, configuration);
         if (pathRelativeTo != null) {
             callbackHandle = pathManager.getValue().registerCallback(pathRelativeTo, PathManager.ReloadServerCallback.create(), PathManager.Event.UPDATED, PathManager.Event.REMOVED);
         }
@@ -150,6 +171,11 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     @Override
     public void stop(final StopContext context) {
+        for (TimerJournal journal : journals.values()) {
+            safeClose(journal);
+        }
+        journals.clear();
+        journaledTimers.clear();
         locks.clear();
         directories.clear();
         if (callbackHandle != null) {
@@ -157,6 +183,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         }
         factory = null;
         configuration = null;
+        codec = null;
     }
 
     @Override
@@ -201,6 +228,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     private void persistTimer(final TimerImpl timer, boolean newTimer) {
         final Lock lock = getLock(timer.getTimedObjectId());
+        long sequence = -1;
         try {
             final int status = transactionManager.getValue().getStatus();
             if (status == Status.STATUS_MARKED_ROLLBACK || status == Status.STATUS_ROLLEDBACK ||
@@ -217,12 +245,12 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
                 if (timer.getState() == TimerState.CANCELED ||
                         timer.getState() == TimerState.EXPIRED) {
                     map.remove(timer.getId());
-                    writeFile(timer);
+                    sequence = writeFile(timer);
                 } else if (newTimer || map.containsKey(timer.getId())) {
                     //if it is not a new timer and is not in the map then it has
                     //been removed by another thread.
                     map.put(timer.getId(), timer);
-                    writeFile(timer);
+                    sequence = writeFile(timer);
                 }
             } else {
 
@@ -240,6 +268,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         } finally {
             lock.unlock();
         }
+        awaitJournal(timer.getTimedObjectId(), sequence);
     }
 
     private String timerTransactionKey(final TimerImpl TimerImpl) {
@@ -253,6 +282,11 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             lock.lock();
             locks.remove(timedObjectId);
             directories.remove(timedObjectId);
+            journaledTimers.remove(timedObjectId);
+            final TimerJournal journal = journals.remove(timedObjectId);
+            if (journal != null) {
+                safeClose(journal);
+            }
         } finally {
             lock.unlock();
         }
@@ -276,7 +310,20 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
             final List<TimerImpl> entities = new ArrayList<TimerImpl>();
             for (Map.Entry<String, TimerImpl> entry : timers.entrySet()) {
-                entities.add(mostRecentEntityVersion(entry.getValue()));
+                final TimerImpl timer = mostRecentEntityVersion(entry.getValue());
+                if (journalEnabled) {
+                    // the journal timers are cached, so the caller must not be able to modify them
+                    try {
+                        final TimerImpl copy = codec.decode(ByteBuffer.wrap(codec.encode(timer)), timerService);
+                        if (copy != null) {
+                            entities.add(copy);
+                        }
+                    } catch (Exception e) {
+                        EjbLogger.ROOT_LOGGER.timerReinstatementFailed(timedObjectId, entry.getKey(), e);
+                    }
+                } else {
+                    entities.add(timer);
+                }
             }
             return entities;
         } finally {
@@ -331,16 +378,104 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
      * @return The timers for the object
      */
     private Map<String, TimerImpl> getTimers(final String timedObjectId, final TimerServiceImpl timerService) {
+        if (journalEnabled) {
+            return loadTimersFromJournal(timedObjectId, timerService);
+        }
         return loadTimersFromFile(timedObjectId, timerService);
     }
 
+    /**
+     * Gets the timers of the journal, which is read only once. Should be called under lock
+     */
+    private Map<String, TimerImpl> loadTimersFromJournal(String timedObjectId, TimerServiceImpl timerService) {
+        Map<String, TimerImpl> timers = journaledTimers.get(timedObjectId);
+        if (timers != null) {
+            return timers;
+        }
+        timers = new HashMap<>();
+        final TimerJournal journal = getJournal(timedObjectId);
+        try {
+            for (Map.Entry<String, ByteBuffer> entry : journal.load().entrySet()) {
+                try {
+                    final TimerImpl timer = codec.decode(entry.getValue(), timerService);
+                    if (timer != null) {
+                        timers.put(timer.getId(), timer);
+                    }
+                } catch (Exception e) {
+                    EjbLogger.ROOT_LOGGER.timerReinstatementFailed(timedObjectId, entry.getKey(), e);
+                }
+            }
+            final File marker = new File(getDirectory(timedObjectId), JOURNAL_MIGRATION_MARKER);
+            if (!marker.exists()) {
+                final Map<String, TimerImpl> migrated = loadTimersFromFile(timedObjectId, timerService);
+                long sequence = -1;
+                for (TimerImpl timer : migrated.values()) {
+                    sequence = journal.write(timer.getId(), codec.encode(timer));
+                    timers.put(timer.getId(), timer);
+                }
+                if (sequence >= 0) {
+                    journal.sync(sequence);
+                }
+                final FileOutputStream out = new FileOutputStream(marker);
+                try {
+                    out.write(new Date().toString().getBytes());
+                } finally {
+                    out.close();
+                }
+                // Keep the migrated files for reference, but out of reach of the XML loader, e.g. if the journal is disabled again
+                for (TimerImpl timer : migrated.values()) {
+                    final File file = fileName(timedObjectId, timer.getId());
+                    if (!file.renameTo(new File(file.getPath() + MIGRATED_SUFFIX))) {
+                        ROOT_LOGGER.failedToRenameMigratedTimerFile(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ROOT_LOGGER.failToMigrateTimersToJournal(timedObjectId, e);
+        }
+        journaledTimers.put(timedObjectId, timers);
+        return timers;
+    }
+
+    private TimerJournal getJournal(String timedObjectId) {
+        TimerJournal journal = journals.get(timedObjectId);
+        if (journal == null) {
+            final File file = new File(getDirectory(timedObjectId), TimerJournal.FILE_NAME);
+            try {
+                journal = new TimerJournal(file);
+            } catch (IOException e) {
+                throw EjbLogger.ROOT_LOGGER.couldNotOpenTimerJournal(file, e);
+            }
+            journals.put(timedObjectId, journal);
+        }
+        return journal;
+    }
+
+    /**
+     * Waits for a record appended to the journal to reach the disk. Called after releasing the lock of the timed object,
+     * so that the records of concurrently completing transactions are forced together.
+     */
+    private void awaitJournal(String timedObjectId, long sequence) {
+        if (sequence < 0) {
+            return;
+        }
+        final TimerJournal journal = journals.get(timedObjectId);
+        if (journal != null) {
+            try {
+                journal.sync(sequence);
+            } catch (IOException e) {
+                throw EjbLogger.ROOT_LOGGER.couldNotSyncTimerJournal(journal.getFile(), e);
+            }
+        }
+    }
+
     private Map<String, TimerImpl> loadTimersFromFile(String timedObjectId, TimerServiceImpl timerService) {
         Map<String, TimerImpl> timers = new HashMap<>();
         String directory = getDirectory(timedObjectId);
 
         timers.putAll(LegacyFileStore.loadTimersFromFile(timedObjectId, timerService, directory, factory, configuration));
         for(Map.Entry<String, TimerImpl> entry : timers.entrySet()) {
-            writeFile(entry.getValue()); //write legacy timers into the new format
+            writeXmlFile(entry.getValue()); //write legacy timers into the new format
             //the legacy code handling code will write a marker file, to make sure that the old timers will not be loaded on next restart.
         }
         final File file = new File(directory);
@@ -453,6 +588,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
                     if (timer == null) {
                         return null;
                     }
+                    long sequence = -1;
                     try {
                         lock.lock();
                         if (status == Status.STATUS_COMMITTED) {
@@ -466,11 +602,12 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
                                     map.put(timer.getId(), timer);
                                 }
                             }
-                            writeFile(timer);
+                            sequence = writeFile(timer);
                         }
                     } finally {
                         lock.unlock();
                     }
+                    awaitJournal(timer.getTimedObjectId(), sequence);
                     return null;
                 }
             });
@@ -479,7 +616,27 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     }
 
-    private void writeFile(TimerImpl timer) {
+    /**
+     * Writes the timer. Should be called under lock
+     *
+     * @return the sequence number of the journal record, which is not yet durable, or -1 if the timer was written to its own file
+     */
+    private long writeFile(TimerImpl timer) {
+        if (!journalEnabled) {
+            writeXmlFile(timer);
+            return -1;
+        }
+        final boolean removed = timer.getState() == TimerState.CANCELED ||
+                timer.getState() == TimerState.EXPIRED;
+        final TimerJournal journal = getJournal(timer.getTimedObjectId());
+        try {
+            return journal.write(timer.getId(), removed ? null : codec.encode(timer));
+        } catch (IOException e) {
+            throw EjbLogger.ROOT_LOGGER.couldNotWriteTimerJournal(timer.getId(), journal.getFile(), e);
+        }
+    }
+
+    private void writeXmlFile(TimerImpl timer) {
         final File file = fileName(timer.getTimedObjectId(), timer.getId());
 
         //if the timer is expired or cancelled delete the file
@@ -0,0 +1,320 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+
+/**
+ * Append-only journal holding the persistent timers of a single timed object.
+ * <p/>
+ * Every record consists of the length and the CRC32 checksum of its body, followed by the body itself: the timer id,
+ * and either the encoded timer or a removal marker. Reading stops at the first record that is incomplete or fails its
+ * checksum, which is where a crash interrupted the last write, and the journal is truncated at that point.
+ * Once the journal holds mostly superseded records, the live records are copied into a new file that replaces it.
+ * <p/>
+ * Writers append under the journal monitor but wait for their record to reach the disk outside of it, so that
+ * concurrent writers, e.g. of transactions completing at the same time, share a single {@link FileChannel#force(boolean)}.
+ */
+class TimerJournal implements Closeable {
+
+    static final String FILE_NAME = "timers.journal";
+
+    private static final int HEADER_SIZE = 8;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 0;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private final File file;
+    private final Object syncLock = new Object();
+
+    // Guarded by this
+    private FileChannel channel;
+    private Map<String, Location> live = new HashMap<>();
+    private int records;
+
+    // Sequence number of the last appended record, written while holding this
+    private volatile long appended;
+    // Guarded by syncLock
+    private long synced;
+    private boolean syncing;
+
+    TimerJournal(File file) throws IOException {
+        this.file = file;
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the journal, which is mapped into memory for this purpose.
+     *
+     * @return the encoded live timers by timer id
+     */
+    synchronized Map<String, ByteBuffer> load() throws IOException {
+        final Map<String, ByteBuffer> timers = new HashMap<>();
+        final long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(file + " is too large");
+        }
+        long valid = 0;
+        if (size > 0) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_SIZE) {
+                final int position = buffer.position();
+                final int length = buffer.getInt();
+                final int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                final byte[] body = new byte[length];
+                buffer.get(body);
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                final ByteArrayInputStream bytes = new ByteArrayInputStream(body);
+                final DataInputStream in = new DataInputStream(bytes);
+                final String id = in.readUTF();
+                final byte type = in.readByte();
+                if (type == PUT) {
+                    final int offset = length - bytes.available();
+                    timers.put(id, ByteBuffer.wrap(body, offset, length - offset));
+                    live.put(id, new Location(position, HEADER_SIZE + length));
+                } else {
+                    timers.remove(id);
+                    live.remove(id);
+                }
+                records += 1;
+                valid = buffer.position();
+            }
+        }
+        if (valid < size) {
+            EjbLogger.ROOT_LOGGER.timerJournalTruncated(size - valid, file);
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        return timers;
+    }
+
+    /**
+     * Appends a record for the given timer. The record is not necessarily durable until {@link #sync(long)} returns.
+     *
+     * @param id the timer id
+     * @param timer the encoded timer, or null if the timer was removed
+     * @return the sequence number of the record
+     */
+    long write(String id, byte[] timer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + 64 + (timer != null ? timer.length : 0));
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(0L);
+        out.writeUTF(id);
+        out.writeByte(timer != null ? PUT : REMOVE);
+        if (timer != null) {
+            out.write(timer);
+        }
+        out.flush();
+        final byte[] record = bytes.toByteArray();
+        final int length = record.length - HEADER_SIZE;
+        final CRC32 crc = new CRC32();
+        crc.update(record, HEADER_SIZE, length);
+        final ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        synchronized (this) {
+            final long position = channel.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                // Discard the partial record, which would otherwise end the readable part of the journal once followed by others
+                try {
+                    channel.truncate(position);
+                    channel.position(position);
+                } catch (IOException | RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            if (timer != null) {
+                live.put(id, new Location(position, record.length));
+            } else {
+                live.remove(id);
+            }
+            records += 1;
+            final long sequence = appended + 1;
+            appended = sequence;
+            if (records >= MIN_COMPACTION_RECORDS && records > 2 * live.size()) {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    EjbLogger.ROOT_LOGGER.failedToCompactTimerJournal(file, e);
+                }
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence number, and all records before it, reached the disk.
+     * If another thread is already forcing the journal, this thread waits for it and only forces the journal
+     * itself if its record was not covered.
+     */
+    void sync(long sequence) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                synchronized (syncLock) {
+                    while (syncing && synced < sequence) {
+                        try {
+                            syncLock.wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (synced >= sequence) {
+                        return;
+                    }
+                    syncing = true;
+                }
+                // Everything appended so far will be covered by the force
+                final long target = appended;
+                final FileChannel current;
+                synchronized (this) {
+                    current = channel;
+                }
+                boolean forced = false;
+                try {
+                    current.force(false);
+                    forced = true;
+                } catch (ClosedChannelException e) {
+                    synchronized (this) {
+                        // Otherwise the channel was replaced by a compaction, which forced all records
+                        if (channel == current) {
+                            throw e;
+                        }
+                    }
+                } finally {
+                    synchronized (syncLock) {
+                        syncing = false;
+                        if (forced && (target > synced)) {
+                            synced = target;
+                        }
+                        syncLock.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Copies the live records into a new journal, which replaces this one. Must be called while holding the monitor.
+     */
+    private void compact() throws IOException {
+        final File compacted = new File(file.getParentFile(), file.getName() + ".compact");
+        final FileChannel target = new RandomAccessFile(compacted, "rw").getChannel();
+        final Map<String, Location> locations = new HashMap<>();
+        long position = 0;
+        try {
+            target.truncate(0);
+            final List<Map.Entry<String, Location>> entries = new ArrayList<>(live.entrySet());
+            // Copy in file order, to read the journal sequentially
+            Collections.sort(entries, new Comparator<Map.Entry<String, Location>>() {
+                @Override
+                public int compare(Map.Entry<String, Location> entry1, Map.Entry<String, Location> entry2) {
+                    return Long.compare(entry1.getValue().offset, entry2.getValue().offset);
+                }
+            });
+            for (Map.Entry<String, Location> entry : entries) {
+                final Location location = entry.getValue();
+                long copied = 0;
+                while (copied < location.length) {
+                    copied += channel.transferTo(location.offset + copied, location.length - copied, target);
+                }
+                locations.put(entry.getKey(), new Location(position, location.length));
+                position += location.length;
+            }
+            target.force(true);
+            Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            target.close();
+            compacted.delete();
+            throw e;
+        }
+        channel.close();
+        channel = target;
+        channel.position(position);
+        live = locations;
+        records = locations.size();
+        synchronized (syncLock) {
+            if (appended > synced) {
+                synced = appended;
+            }
+            syncLock.notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static class Location {
+        final long offset;
+        final int length;
+
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.spi;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the timeouts of EJB timers.
+ * <p/>
+ * Implementations are only responsible for triggering the passed task at the requested time;
+ * the task itself is expected to hand off the actual timeout invocation to the timer service thread pool.
+ */
+public interface TimerScheduler {
+    /**
+     * Schedules a single execution of the passed task.
+     *
+     * @param timerId the id of the timer for which the task is scheduled
+     * @param task the task to execute
+     * @param delay the delay before execution
+     * @param unit the unit of the delay
+     * @return a future which may be used to cancel the execution
+     */
+    ScheduledFuture<?> schedule(String timerId, Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Schedules periodic executions of the passed task.
+     *
+     * @param timerId the id of the timer for which the task is scheduled
+     * @param task the task to execute
+     * @param initialDelay the delay before the first execution
+     * @param period the period between successive executions
+     * @param unit the unit of the delay and period
+     * @return a future which may be used to cancel subsequent executions
+     */
+    ScheduledFuture<?> scheduleAtFixedRate(String timerId, Runnable task, long initialDelay, long period, TimeUnit unit);
+}
@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright (c) 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link InvocationMetrics}.
+ */
+public class InvocationMetricsTestCase {
+
+    @Test
+    public void testConcurrentInvocations() throws Exception {
+        final InvocationMetrics metrics = new InvocationMetrics();
+        final Method method = Object.class.getMethod("toString");
+        final int threads = 8;
+        final int invocations = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; ++i) {
+                futures[i] = executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int j = 0; j < invocations; ++j) {
+                            metrics.startInvocation();
+                            metrics.finishInvocation(method, 1, 2);
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        final long total = threads * invocations;
+        InvocationMetrics.Values values = metrics.getValues();
+        assertEquals(total, values.getInvocations());
+        assertEquals(total, values.getWaitTime());
+        assertEquals(2 * total, values.getExecutionTime());
+        assertEquals(0, metrics.getConcurrent());
+
+        Map<String, InvocationMetrics.Values> methods = metrics.getMethods();
+        assertEquals(1, methods.size());
+        InvocationMetrics.Values methodValues = methods.get("toString");
+        assertEquals(total, methodValues.getInvocations());
+        assertEquals(2, methodValues.getExecutionTime50());
+        assertEquals(2, methodValues.getExecutionTime999());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of borrowing and returning an instance via {@link StripedStrictMaxPool} vs {@link StrictMaxPool},
+ * for invocations of concurrent threads, both with fewer threads than instances and with more.
+ * Not run as part of the build; run via the JMH runner, e.g.
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main StrictMaxPoolBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(8)
+public class StrictMaxPoolBenchmark {
+
+    private static final StatelessObjectFactory<Object> FACTORY = new StatelessObjectFactory<Object>() {
+        @Override
+        public Object create() {
+            return new Object();
+        }
+
+        @Override
+        public void destroy(Object obj) {
+        }
+    };
+
+    @Param({ "4", "20" })
+    private int maxSize;
+
+    private Pool<Object> pool;
+    private Pool<Object> stripedPool;
+
+    @Setup
+    public void setup() {
+        this.pool = new StrictMaxPool<Object>(FACTORY, this.maxSize, 1, TimeUnit.MINUTES);
+        this.stripedPool = new StripedStrictMaxPool<Object>(FACTORY, this.maxSize, 1, TimeUnit.MINUTES);
+        this.pool.start();
+        this.stripedPool.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pool.stop();
+        this.stripedPool.stop();
+    }
+
+    @Benchmark
+    public Object strictMax() {
+        return invoke(this.pool);
+    }
+
+    @Benchmark
+    public Object stripedStrictMax() {
+        return invoke(this.stripedPool);
+    }
+
+    private static Object invoke(Pool<Object> pool) {
+        Object instance = pool.get();
+        try {
+            return instance;
+        } finally {
+            pool.release(instance);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CloneStrategyTestCase {
+
+    // Shares its simple name with known immutability annotations, but carries no such contract
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Immutable {
+    }
+
+    @net.jcip.annotations.Immutable
+    static final class ImmutableValue {
+    }
+
+    @net.jcip.annotations.Immutable
+    static class NonFinalValue {
+    }
+
+    @Immutable
+    static final class UnknownImmutableValue {
+    }
+
+    @Test
+    public void forType() {
+        assertSame(CloneStrategy.PASS, CloneStrategy.forType(int.class, int.class));
+        assertSame(CloneStrategy.PASS, CloneStrategy.forType(String.class, String.class));
+        assertSame(CloneStrategy.PASS, CloneStrategy.forType(Long.class, Long.class));
+        assertSame(CloneStrategy.PASS, CloneStrategy.forType(TimeUnit.class, TimeUnit.class));
+        assertSame(CloneStrategy.PASS, CloneStrategy.forType(ImmutableValue.class, ImmutableValue.class));
+        assertSame(CloneStrategy.COPY, CloneStrategy.forType(byte[].class, byte[].class));
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forType(Date.class, Date.class));
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forType(Object.class, Object.class));
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forType(BigDecimal.class, BigDecimal.class));
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forType(NonFinalValue.class, NonFinalValue.class));
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forType(UnknownImmutableValue.class, UnknownImmutableValue.class));
+        // Types declared by caller and callee differ, e.g. loaded by different class loaders
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forType(Object.class, ImmutableValue.class));
+    }
+
+    @Test
+    public void forValue() {
+        assertSame(CloneStrategy.PASS, CloneStrategy.forValue("foo"));
+        assertSame(CloneStrategy.PASS, CloneStrategy.forValue(Integer.valueOf(1)));
+        assertSame(CloneStrategy.PASS, CloneStrategy.forValue(BigDecimal.ONE));
+        assertSame(CloneStrategy.COPY, CloneStrategy.forValue(new byte[0]));
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forValue(new Date()));
+        // Enums of a deployment need not be visible to the recipient
+        assertSame(CloneStrategy.CLONE, CloneStrategy.forValue(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void isImmutable() {
+        assertTrue(CloneStrategy.isImmutable(String.class));
+        assertTrue(CloneStrategy.isImmutable(TimeUnit.class));
+        assertTrue(CloneStrategy.isImmutable(ImmutableValue.class));
+        assertFalse(CloneStrategy.isImmutable(NonFinalValue.class));
+        assertFalse(CloneStrategy.isImmutable(UnknownImmutableValue.class));
+        assertFalse(CloneStrategy.isImmutable(Date.class));
+    }
+}
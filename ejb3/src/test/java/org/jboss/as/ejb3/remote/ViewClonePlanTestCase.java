@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.marshalling.cloner.ClassLoaderClassCloner;
+import org.junit.Test;
+
+public class ViewClonePlanTestCase {
+
+    private final ClassLoader loader = this.getClass().getClassLoader();
+    private final ViewClonePlan plan = new ViewClonePlan(null, mock(ComponentView.class), new ClonerPool(this.loader, new ClassLoaderClassCloner(this.loader)));
+
+    @Test
+    public void sharedParameter() {
+        List<String> list = new ArrayList<>(Arrays.asList("foo", "bar"));
+        // e.g. foo(list, list)
+        Object[] parameters = new Object[] { list, list };
+        Object[] clones = new Object[parameters.length];
+        try (ClonerPool.Lease lease = this.plan.getParameterClonerPool().lease()) {
+            for (int i = 0; i < parameters.length; ++i) {
+                clones[i] = this.plan.clone(CloneStrategy.CLONE, List.class, lease, parameters[i], false);
+            }
+        }
+        assertNotSame(list, clones[0]);
+        assertEquals(list, clones[0]);
+        assertSame(clones[0], clones[1]);
+
+        // Clones of separate invocations are never shared
+        try (ClonerPool.Lease lease = this.plan.getParameterClonerPool().lease()) {
+            Object clone = this.plan.clone(CloneStrategy.CLONE, List.class, lease, list, false);
+            assertNotSame(clones[0], clone);
+            assertEquals(list, clone);
+        }
+        assertEquals(3, this.plan.getClonedCount());
+    }
+
+    @Test
+    public void sharedByteArray() {
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        Object first;
+        Object second;
+        try (ClonerPool.Lease lease = this.plan.getParameterClonerPool().lease()) {
+            first = this.plan.clone(CloneStrategy.COPY, byte[].class, lease, bytes, false);
+            second = this.plan.clone(CloneStrategy.COPY, byte[].class, lease, bytes, false);
+        }
+        assertNotSame(bytes, first);
+        assertSame(first, second);
+        assertEquals(2, this.plan.getCopiedCount());
+    }
+
+    @Test
+    public void passByReference() {
+        List<String> list = new ArrayList<>(Arrays.asList("foo"));
+        try (ClonerPool.Lease lease = this.plan.getParameterClonerPool().lease()) {
+            assertSame(list, this.plan.clone(CloneStrategy.CLONE, List.class, lease, list, true));
+        }
+        assertEquals(1, this.plan.getPassedCount());
+    }
+}
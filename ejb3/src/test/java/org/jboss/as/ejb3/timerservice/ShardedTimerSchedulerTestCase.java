@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardedTimerSchedulerTestCase {
+
+    private ShardedTimerScheduler scheduler;
+
+    @Before
+    public void init() {
+        this.scheduler = new ShardedTimerScheduler(4, Executors.defaultThreadFactory());
+    }
+
+    @After
+    public void destroy() {
+        this.scheduler.shutdown();
+    }
+
+    @Test
+    public void schedule() throws InterruptedException {
+        int count = 1000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < count; ++i) {
+            this.scheduler.schedule("timer" + i, task, i % 50, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        final AtomicInteger executions = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                executions.incrementAndGet();
+            }
+        };
+        ScheduledFuture<?> future = this.scheduler.schedule("timer", task, 100, TimeUnit.MILLISECONDS);
+        assertTrue(future.cancel(false));
+        Thread.sleep(200);
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void scheduleAtFixedRate() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(3);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        ScheduledFuture<?> future = this.scheduler.scheduleAtFixedRate("timer", task, 0, 10, TimeUnit.MILLISECONDS);
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            future.cancel(false);
+        }
+    }
+}
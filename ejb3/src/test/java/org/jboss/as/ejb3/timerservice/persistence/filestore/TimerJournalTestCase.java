@@ -0,0 +1,130 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimerJournalTestCase {
+
+    private File file;
+
+    @Before
+    public void init() throws IOException {
+        this.file = File.createTempFile("timers", ".journal");
+        this.file.delete();
+    }
+
+    @After
+    public void destroy() {
+        this.file.delete();
+        new File(this.file.getPath() + ".compact").delete();
+    }
+
+    @Test
+    public void writeAndLoad() throws IOException {
+        try (TimerJournal journal = new TimerJournal(this.file)) {
+            journal.load();
+            journal.write("a", bytes("1"));
+            journal.write("b", bytes("2"));
+            journal.write("a", bytes("3"));
+            long sequence = journal.write("b", null);
+            journal.sync(sequence);
+        }
+        try (TimerJournal journal = new TimerJournal(this.file)) {
+            Map<String, ByteBuffer> timers = journal.load();
+            assertEquals(1, timers.size());
+            assertFalse(timers.containsKey("b"));
+            assertArrayEquals(bytes("3"), toArray(timers.get("a")));
+        }
+    }
+
+    @Test
+    public void truncatedTail() throws IOException {
+        try (TimerJournal journal = new TimerJournal(this.file)) {
+            journal.load();
+            journal.write("a", bytes("1"));
+            journal.sync(journal.write("b", bytes("2")));
+        }
+        // Simulate a torn write of the last record
+        try (RandomAccessFile raf = new RandomAccessFile(this.file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        long truncated = this.file.length();
+        try (TimerJournal journal = new TimerJournal(this.file)) {
+            Map<String, ByteBuffer> timers = journal.load();
+            assertEquals(1, timers.size());
+            assertArrayEquals(bytes("1"), toArray(timers.get("a")));
+            journal.sync(journal.write("c", bytes("3")));
+        }
+        assertTrue(this.file.length() < truncated + 64);
+        try (TimerJournal journal = new TimerJournal(this.file)) {
+            Map<String, ByteBuffer> timers = journal.load();
+            assertEquals(2, timers.size());
+            assertArrayEquals(bytes("3"), toArray(timers.get("c")));
+        }
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        try (TimerJournal journal = new TimerJournal(this.file)) {
+            journal.load();
+            long sequence = 0;
+            for (int i = 0; i < 5000; ++i) {
+                sequence = journal.write(String.valueOf(i % 10), bytes(String.valueOf(i)));
+            }
+            journal.sync(sequence);
+        }
+        // Without compaction, the journal would contain all 5000 records
+        assertTrue(this.file.length() < 5000 * 16);
+        try (TimerJournal journal = new TimerJournal(this.file)) {
+            Map<String, ByteBuffer> timers = journal.load();
+            assertEquals(10, timers.size());
+            for (int i = 0; i < 10; ++i) {
+                assertArrayEquals(bytes(String.valueOf(4990 + i)), toArray(timers.get(String.valueOf(i))));
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+}
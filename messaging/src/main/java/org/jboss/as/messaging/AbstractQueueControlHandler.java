@@ -35,11 +35,23 @@ import static org.jboss.dmr.ModelType.BOOLEAN;
 import static org.jboss.dmr.ModelType.INT;
 import static org.jboss.dmr.ModelType.LIST;
 import static org.jboss.dmr.ModelType.LONG;
+import static org.jboss.dmr.ModelType.OBJECT;
 import static org.jboss.dmr.ModelType.STRING;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hornetq.core.filter.Filter;
+import org.hornetq.core.filter.impl.FilterImpl;
 import org.hornetq.core.server.HornetQServer;
+import org.hornetq.core.server.MessageReference;
+import org.hornetq.core.server.Queue;
+import org.hornetq.core.server.ServerMessage;
+import org.hornetq.utils.LinkedListIterator;
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectListAttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathAddress;
@@ -68,6 +80,7 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
 
     public static final String LIST_MESSAGES = "list-messages";
     public static final String LIST_MESSAGES_AS_JSON = "list-messages-as-json";
+    public static final String LIST_MESSAGES_PAGE = "list-messages-page";
     public static final String COUNT_MESSAGES = "count-messages";
     public static final String REMOVE_MESSAGE = "remove-message";
     public static final String REMOVE_MESSAGES = "remove-messages";
@@ -101,6 +114,25 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
             .setValidator(PRIORITY_VALIDATOR)
             .build();
 
+    static final int MAX_PAGE_SIZE = 10000;
+    private static final AttributeDefinition OFFSET = SimpleAttributeDefinitionBuilder.create("offset", INT)
+            .setAllowNull(true)
+            .setDefaultValue(new ModelNode(0))
+            .setValidator(new IntRangeValidator(0, Integer.MAX_VALUE, true, false))
+            .build();
+    private static final AttributeDefinition LIMIT = SimpleAttributeDefinitionBuilder.create("limit", INT)
+            .setAllowNull(true)
+            .setDefaultValue(new ModelNode(100))
+            .setValidator(new IntRangeValidator(1, MAX_PAGE_SIZE, true, false))
+            .build();
+    private static final AttributeDefinition CURSOR = SimpleAttributeDefinitionBuilder.create("cursor", LONG)
+            .setAllowNull(true)
+            .build();
+    private static final AttributeDefinition HEADERS_ONLY = SimpleAttributeDefinitionBuilder.create("headers-only", BOOLEAN)
+            .setAllowNull(true)
+            .setDefaultValue(new ModelNode(true))
+            .build();
+
     protected abstract AttributeDefinition getMessageIDAttributeDefinition();
 
     protected abstract AttributeDefinition[] getReplyMessageParameterDefinitions();
@@ -118,6 +150,16 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
                 .setReplyType(STRING)
                 .build(),
                 this);
+        registry.registerOperationHandler(runtimeReadOnlyOperation(LIST_MESSAGES_PAGE, RESOLVER)
+                .setParameters(FILTER, OFFSET, LIMIT, CURSOR, HEADERS_ONLY)
+                .setReplyType(OBJECT)
+                .setReplyParameters(
+                        new ObjectListAttributeDefinition.Builder("messages",
+                                new ObjectTypeAttributeDefinition.Builder("message", getReplyMessageParameterDefinitions()).build())
+                                .build(),
+                        CURSOR)
+                .build(),
+                this);
         registry.registerOperationHandler(runtimeReadOnlyOperation(COUNT_MESSAGES, RESOLVER)
                 .setParameters(FILTER)
                 .setReplyType(LONG)
@@ -242,6 +284,8 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
             } else if (LIST_MESSAGES_AS_JSON.equals(operationName)) {
                 String filter = resolveFilter(context, operation);
                 context.getResult().set(control.listMessagesAsJSON(filter));
+            } else if (LIST_MESSAGES_PAGE.equals(operationName)) {
+                listMessagesPage(context, operation, hqServer, queueName);
             } else if (COUNT_MESSAGES.equals(operationName)) {
                 String filter = resolveFilter(context, operation);
                 context.getResult().set(control.countMessages(filter));
@@ -351,6 +395,130 @@ public abstract class AbstractQueueControlHandler<T> extends AbstractRuntimeOnly
 
     protected abstract DelegatingQueueControl<T> getQueueControl(HornetQServer hqServer, String queueName);
 
+    /**
+     * Returns the core queue backing the queue with the given name.
+     */
+    protected abstract Queue getQueue(HornetQServer hqServer, String queueName);
+
+    /**
+     * Translates the filter specified by the operation into a core filter.
+     */
+    protected String translateFilter(String filter) throws Exception {
+        return filter;
+    }
+
+    /**
+     * Translates the map representation of a core message into the representation returned by the operation.
+     */
+    protected Map<String, Object> translateMessage(Map<String, Object> message) {
+        return message;
+    }
+
+    private void listMessagesPage(OperationContext context, ModelNode operation, HornetQServer hqServer, String queueName) throws Exception {
+        Queue queue = getQueue(hqServer, queueName);
+        if (queue == null) {
+            throw ControllerLogger.ROOT_LOGGER.managementResourceNotFound(PathAddress.pathAddress(operation.require(OP_ADDR)));
+        }
+        String filter = resolveFilter(context, operation);
+        int offset = OFFSET.resolveModelAttribute(context, operation).asInt();
+        int limit = LIMIT.resolveModelAttribute(context, operation).asInt();
+        ModelNode cursor = CURSOR.resolveModelAttribute(context, operation);
+        boolean headersOnly = HEADERS_ONLY.resolveModelAttribute(context, operation).asBoolean();
+
+        context.getResult().set(listMessagesPage(queue, filter, offset, limit, cursor.isDefined() ? cursor.asLong() : null, headersOnly));
+    }
+
+    /**
+     * Lists a single page of the messages of a queue, without materializing the other messages of the queue.
+     * The page starts after the message identified by the cursor, if specified, otherwise after the given offset.
+     * If the message identified by the cursor is no longer in the queue, the page starts after the given offset instead.
+     * If the queue contains further matching messages, the result contains the cursor of the next page.
+     */
+    ModelNode listMessagesPage(Queue queue, String filter, int offset, int limit, Long cursor, boolean headersOnly) throws Exception {
+        Filter coreFilter = FilterImpl.createFilter(translateFilter(filter));
+        ModelNode result = new ModelNode();
+        if ((cursor == null) || !listMessagesPage(queue, coreFilter, cursor, 0, limit, headersOnly, result)) {
+            listMessagesPage(queue, coreFilter, null, offset, limit, headersOnly, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return false, if a cursor was specified, but no longer identifies a message in the queue, true otherwise
+     */
+    private boolean listMessagesPage(Queue queue, Filter filter, Long cursor, int offset, int limit, boolean headersOnly, ModelNode result) {
+        result.setEmptyObject();
+        ModelNode messages = result.get("messages").setEmptyList();
+        boolean skipping = (cursor != null);
+        int skipped = 0;
+        int count = 0;
+        long last = 0;
+        LinkedListIterator<MessageReference> references = queue.totalIterator();
+        try {
+            while (references.hasNext()) {
+                ServerMessage message = references.next().getMessage();
+                if (skipping) {
+                    skipping = (message.getMessageID() != cursor.longValue());
+                } else if ((filter == null) || filter.match(message)) {
+                    if (skipped < offset) {
+                        skipped += 1;
+                    } else if (count < limit) {
+                        messages.add(toModelNode(translateMessage(headersOnly ? getHeaders(message) : message.toMap())));
+                        last = message.getMessageID();
+                        count += 1;
+                    } else {
+                        // There is at least one more matching message
+                        result.get(CURSOR.getName()).set(last);
+                        break;
+                    }
+                }
+            }
+        } finally {
+            references.close();
+        }
+        return !skipping;
+    }
+
+    /**
+     * Returns the headers of a core message, using the same keys and types as {@link ServerMessage#toMap()}, but omitting its properties.
+     */
+    private static Map<String, Object> getHeaders(ServerMessage message) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("messageID", message.getMessageID());
+        if (message.getUserID() != null) {
+            headers.put("userID", "ID:" + message.getUserID());
+        }
+        headers.put("address", message.getAddress().toString());
+        headers.put("type", message.getType());
+        headers.put("durable", message.isDurable());
+        headers.put("expiration", message.getExpiration());
+        headers.put("timestamp", message.getTimestamp());
+        headers.put("priority", message.getPriority());
+        return headers;
+    }
+
+    private static ModelNode toModelNode(Map<String, Object> message) {
+        ModelNode node = new ModelNode();
+        for (Map.Entry<String, Object> entry : message.entrySet()) {
+            Object value = entry.getValue();
+            ModelNode child = node.get(entry.getKey());
+            if (value instanceof Long) {
+                child.set((Long) value);
+            } else if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+                child.set(((Number) value).intValue());
+            } else if ((value instanceof Double) || (value instanceof Float)) {
+                child.set(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                child.set((Boolean) value);
+            } else if (value instanceof byte[]) {
+                child.set((byte[]) value);
+            } else if (value != null) {
+                child.set(value.toString());
+            }
+        }
+        return node;
+    }
+
     protected abstract Object handleAdditionalOperation(final String operationName, final ModelNode operation,
                                                         final OperationContext context, T queueControl) throws OperationFailedException;
 
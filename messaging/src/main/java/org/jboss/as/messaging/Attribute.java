@@ -42,6 +42,8 @@ public enum Attribute {
    CONNECTOR_NAME(CommonAttributes.CONNECTOR_NAME),
    CONNECTOR_REF(CommonAttributes.CONNECTOR_REF_STRING),
    HTTP_LISTENER(CommonAttributes.HTTP_LISTENER),
+   INJECTED_JMS_CONTEXT_IDLE_TIMEOUT(MessagingSubsystemRootResourceDefinition.INJECTED_JMS_CONTEXT_IDLE_TIMEOUT),
+   INJECTED_JMS_CONTEXT_MAX_IDLE(MessagingSubsystemRootResourceDefinition.INJECTED_JMS_CONTEXT_MAX_IDLE),
    KEY(CommonAttributes.KEY),
    MATCH(CommonAttributes.MATCH),
    NAME(CommonAttributes.NAME),
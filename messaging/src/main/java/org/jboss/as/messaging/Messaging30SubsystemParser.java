@@ -24,6 +24,7 @@ package org.jboss.as.messaging;
 
 import javax.xml.stream.XMLStreamException;
 
+import org.jboss.as.controller.parsing.ParseUtils;
 import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLExtendedStreamReader;
 
@@ -44,6 +45,24 @@ public class Messaging30SubsystemParser extends Messaging20SubsystemParser {
         return INSTANCE;
     }
 
+    @Override
+    protected void processSubsystemAttributes(XMLExtendedStreamReader reader, ModelNode subsystemAdd) throws XMLStreamException {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String value = reader.getAttributeValue(i);
+            final Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case INJECTED_JMS_CONTEXT_MAX_IDLE:
+                    MessagingSubsystemRootResourceDefinition.INJECTED_JMS_CONTEXT_MAX_IDLE.parseAndSetParameter(value, subsystemAdd, reader);
+                    break;
+                case INJECTED_JMS_CONTEXT_IDLE_TIMEOUT:
+                    MessagingSubsystemRootResourceDefinition.INJECTED_JMS_CONTEXT_IDLE_TIMEOUT.parseAndSetParameter(value, subsystemAdd, reader);
+                    break;
+                default:
+                    throw ParseUtils.unexpectedAttribute(reader, i);
+            }
+        }
+    }
+
     @Override
     protected void handleUnknownConfigurationAttribute(XMLExtendedStreamReader reader, Element element, ModelNode operation) throws XMLStreamException {
         switch (element) {
@@ -120,6 +120,8 @@ public class MessagingSubsystemParser implements XMLStreamConstants, XMLElementR
         subsystemAdd.get(OP_ADDR).set(address);
         list.add(subsystemAdd);
 
+        processSubsystemAttributes(reader, subsystemAdd);
+
         final Namespace schemaVer = Namespace.forUri(reader.getNamespaceURI());
         switch (schemaVer) {
             case MESSAGING_1_0:
@@ -139,6 +141,13 @@ public class MessagingSubsystemParser implements XMLStreamConstants, XMLElementR
 
     }
 
+    /**
+     * Parses the attributes of the subsystem element, of which older schemas define none.
+     */
+    protected void processSubsystemAttributes(final XMLExtendedStreamReader reader, final ModelNode subsystemAdd) throws XMLStreamException {
+        // no subsystem attributes
+    }
+
     protected void processHornetQServers(final XMLExtendedStreamReader reader, final ModelNode subsystemAddress, final List<ModelNode> list) throws XMLStreamException {
         while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
             final Namespace schemaVer = Namespace.forUri(reader.getNamespaceURI());
@@ -22,8 +22,23 @@
 
 package org.jboss.as.messaging;
 
+import static org.jboss.as.controller.SimpleAttributeDefinitionBuilder.create;
+import static org.jboss.as.controller.client.helpers.MeasurementUnit.MILLISECONDS;
+import static org.jboss.dmr.ModelType.INT;
+import static org.jboss.dmr.ModelType.LONG;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
+import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
 
 /**
  * {@link org.jboss.as.controller.ResourceDefinition} for the messaging subsystem root resource.
@@ -32,6 +47,31 @@ import org.jboss.as.controller.SimpleResourceDefinition;
  */
 public class MessagingSubsystemRootResourceDefinition extends SimpleResourceDefinition {
 
+    /**
+     * The maximum number of idle non-transacted contexts of injected JMSContexts retained per deployment and key, 0 to disable pooling.
+     */
+    public static final SimpleAttributeDefinition INJECTED_JMS_CONTEXT_MAX_IDLE = create("injected-jms-context-max-idle", INT)
+            .setDefaultValue(new ModelNode(0))
+            .setValidator(new IntRangeValidator(0, true, true))
+            .setAllowNull(true)
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .build();
+
+    /**
+     * The time after which pooled idle contexts are closed, 0 if idle contexts are never closed.
+     */
+    public static final SimpleAttributeDefinition INJECTED_JMS_CONTEXT_IDLE_TIMEOUT = create("injected-jms-context-idle-timeout", LONG)
+            .setDefaultValue(new ModelNode(TimeUnit.MINUTES.toMillis(1)))
+            .setValidator(new LongRangeValidator(0, Long.MAX_VALUE, true, true))
+            .setMeasurementUnit(MILLISECONDS)
+            .setAllowNull(true)
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .build();
+
+    public static final SimpleAttributeDefinition[] ATTRIBUTES = { INJECTED_JMS_CONTEXT_MAX_IDLE, INJECTED_JMS_CONTEXT_IDLE_TIMEOUT };
+
     public static final MessagingSubsystemRootResourceDefinition INSTANCE = new MessagingSubsystemRootResourceDefinition();
 
     private MessagingSubsystemRootResourceDefinition() {
@@ -41,4 +81,13 @@ public class MessagingSubsystemRootResourceDefinition extends SimpleResourceDefi
                 ReloadRequiredRemoveStepHandler.INSTANCE);
         setDeprecated(MessagingExtension.DEPRECATED_SINCE);
     }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration registry) {
+        // Applies to the pools of subsequent deployments, thus requires a reload
+        ReloadRequiredWriteAttributeHandler handler = new ReloadRequiredWriteAttributeHandler(ATTRIBUTES);
+        for (AttributeDefinition attr : ATTRIBUTES) {
+            registry.registerReadWriteAttribute(attr, null, handler);
+        }
+    }
 }
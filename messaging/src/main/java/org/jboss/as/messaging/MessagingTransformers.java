@@ -112,6 +112,8 @@ public class MessagingTransformers {
      * Transformation for WildFly 8.1.0.Final
      */
     private static void buildTransformers2_1_0(ResourceTransformationDescriptionBuilder builder) {
+        rejectDefinedAttributeWithDefaultValue(builder, MessagingSubsystemRootResourceDefinition.ATTRIBUTES);
+
         ResourceTransformationDescriptionBuilder hornetqServer = builder.addChildResource(pathElement(HORNETQ_SERVER));
         rejectDefinedAttributeWithDefaultValue(hornetqServer, OVERRIDE_IN_VM_SECURITY);
 
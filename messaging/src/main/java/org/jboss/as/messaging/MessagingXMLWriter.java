@@ -61,6 +61,7 @@ import java.util.List;
 import javax.xml.stream.XMLStreamException;
 
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
 import org.jboss.as.messaging.jms.ConnectionFactoryAttribute;
@@ -89,6 +90,10 @@ public class MessagingXMLWriter implements XMLElementWriter<SubsystemMarshalling
         context.startSubsystemElement(CURRENT.getUriString(), false);
         final ModelNode node = context.getModelNode();
 
+        for (SimpleAttributeDefinition attr : MessagingSubsystemRootResourceDefinition.ATTRIBUTES) {
+            attr.marshallAsAttribute(node, writer);
+        }
+
         if (node.hasDefined(HORNETQ_SERVER)) {
             final ModelNode servers = node.get(HORNETQ_SERVER);
             boolean first = true;
@@ -35,9 +35,11 @@ import static org.jboss.dmr.ModelType.STRING;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hornetq.api.core.SimpleString;
 import org.hornetq.api.core.management.QueueControl;
 import org.hornetq.api.core.management.ResourceNames;
 import org.hornetq.core.server.HornetQServer;
+import org.hornetq.core.server.Queue;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ObjectListAttributeDefinition;
 import org.jboss.as.controller.ObjectTypeAttributeDefinition;
@@ -199,6 +201,11 @@ public class QueueControlHandler extends AbstractQueueControlHandler<QueueContro
         // no-op
     }
 
+    @Override
+    protected Queue getQueue(HornetQServer hqServer, String queueName) {
+        return hqServer.locateQueue(new SimpleString(queueName));
+    }
+
     @Override
     protected DelegatingQueueControl<QueueControl> getQueueControl(HornetQServer hqServer, String queueName) {
         final QueueControl control = QueueControl.class.cast(hqServer.getManagementService().getResource(ResourceNames.CORE_QUEUE + queueName));
@@ -24,6 +24,7 @@ package org.jboss.as.messaging.deployment;
 
 import org.jboss.as.ee.structure.EJBAnnotationPropertyReplacement;
 import org.jboss.as.ee.weld.WeldDeploymentMarker;
+import org.jboss.as.messaging.MessagingExtension;
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
@@ -37,6 +38,19 @@ import org.jboss.metadata.property.PropertyReplacer;
  * @author <a href="http://jmesnil.net/">Jeff Mesnil</a> (c) 2013 Red Hat inc.
  */
 public class CDIDeploymentProcessor implements DeploymentUnitProcessor {
+
+    private final int contextMaxIdle;
+    private final long contextIdleTimeout;
+
+    /**
+     * @param contextMaxIdle the maximum number of idle contexts of injected JMSContexts retained per key, 0 to disable pooling
+     * @param contextIdleTimeout the time in milliseconds after which idle contexts are closed, 0 if idle contexts are never closed
+     */
+    public CDIDeploymentProcessor(int contextMaxIdle, long contextIdleTimeout) {
+        this.contextMaxIdle = contextMaxIdle;
+        this.contextIdleTimeout = contextIdleTimeout;
+    }
+
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
         final DeploymentUnit parent = deploymentUnit.getParent() == null ? deploymentUnit : deploymentUnit.getParent();
@@ -44,7 +58,21 @@ public class CDIDeploymentProcessor implements DeploymentUnitProcessor {
 
         if (WeldDeploymentMarker.isPartOfWeldDeployment(deploymentUnit)) {
             WeldPortableExtensions extensions = WeldPortableExtensions.getPortableExtensions(parent);
-            extensions.registerExtensionInstance(new JMSCDIExtension(propertyReplacer), parent);
+            // The pool is shared by all modules of the deployment, and exposes its statistics via the deployment's messaging resource
+            JMSContextPool contextPool;
+            synchronized (parent) {
+                contextPool = parent.getAttachment(MessagingAttachments.JMS_CONTEXT_POOL);
+                if (contextPool == null) {
+                    contextPool = new JMSContextPool(this.contextMaxIdle, this.contextIdleTimeout);
+                    parent.putAttachment(MessagingAttachments.JMS_CONTEXT_POOL, contextPool);
+                    if (contextPool.isEnabled()) {
+                        parent.getDeploymentSubsystemModel(MessagingExtension.SUBSYSTEM_NAME);
+                        // Stopped once the pool is closed, i.e. when the deployment's CDI container shuts down
+                        contextPool.startReaper();
+                    }
+                }
+            }
+            extensions.registerExtensionInstance(new JMSCDIExtension(propertyReplacer, contextPool), parent);
         }
     }
 
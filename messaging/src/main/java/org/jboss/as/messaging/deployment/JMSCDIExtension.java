@@ -27,6 +27,7 @@ import javax.enterprise.event.Observes;
 import javax.enterprise.inject.spi.AnnotatedType;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.BeforeShutdown;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.InjectionTarget;
 import javax.enterprise.inject.spi.ProcessInjectionTarget;
@@ -42,9 +43,22 @@ import org.jboss.weld.injection.ForwardingInjectionTarget;
 public class JMSCDIExtension implements Extension {
 
     private final PropertyReplacer propertyReplacer;
+    private final JMSContextPool contextPool;
 
     public JMSCDIExtension(PropertyReplacer propertyReplacer) {
+        this(propertyReplacer, new JMSContextPool(0));
+    }
+
+    public JMSCDIExtension(PropertyReplacer propertyReplacer, JMSContextPool contextPool) {
         this.propertyReplacer = propertyReplacer;
+        this.contextPool = contextPool;
+    }
+
+    /**
+     * Returns the pool of JMSContexts shared by the injected JMSContexts of this deployment.
+     */
+    public JMSContextPool getContextPool() {
+        return contextPool;
     }
 
     void beforeBeanDiscovery(@Observes BeforeBeanDiscovery bbd, BeanManager bm) {
@@ -61,6 +75,7 @@ public class JMSCDIExtension implements Extension {
             public void inject(JMSContextProducer instance, CreationalContext<JMSContextProducer> ctx) {
                 super.inject(instance, ctx);
                 instance.setPropertyReplacer(propertyReplacer);
+                instance.setContextPool(contextPool);
             }
 
             @Override
@@ -69,4 +84,8 @@ public class JMSCDIExtension implements Extension {
             }
         });
     }
+
+    void beforeShutdown(@Observes BeforeShutdown event) {
+        contextPool.close();
+    }
 }
@@ -0,0 +1,387 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.deployment;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSContext;
+
+import org.jboss.as.messaging.logging.MessagingLogger;
+
+/**
+ * Pool of idle non-transacted {@link JMSContext}s used by injected JMSContexts of a deployment,
+ * keyed by connection factory, credentials, and session mode.
+ * Pooling is disabled, unless the injected-jms-context-max-idle attribute of the messaging subsystem specifies a positive number
+ * of idle contexts to retain per key.
+ * Contexts idle for longer than the injected-jms-context-idle-timeout attribute are closed instead of reused.
+ * Once the reaper is started, expired contexts are also closed periodically, so that they do not remain open while their key is unused.
+ */
+public class JMSContextPool {
+
+    static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    private final int maxIdle;
+    // in nanoseconds, 0 if idle contexts never expire
+    private final long idleTimeout;
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong createCount = new AtomicLong();
+    private final AtomicLong reuseCount = new AtomicLong();
+    private final AtomicLong releaseCount = new AtomicLong();
+    private final AtomicLong discardCount = new AtomicLong();
+    private volatile boolean closed = false;
+    private volatile Future<?> reaper;
+
+    public JMSContextPool(int maxIdle) {
+        this(maxIdle, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param maxIdle the maximum number of idle contexts retained per key, 0 to disable pooling
+     * @param idleTimeout the time in milliseconds after which idle contexts are closed, 0 if idle contexts never expire,
+     *        in which case idle contexts remain open until the pool is closed
+     */
+    public JMSContextPool(int maxIdle, long idleTimeout) {
+        this.maxIdle = maxIdle;
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+    }
+
+    /**
+     * Indicates whether released contexts are retained for reuse.
+     */
+    public boolean isEnabled() {
+        return this.maxIdle > 0;
+    }
+
+    /**
+     * Returns an idle context for the specified connection factory, credentials and session mode, creating one if none is available.
+     * Idle contexts that expired, or whose connection was closed, are closed instead of reused.
+     */
+    JMSContext acquire(ConnectionFactory factory, String userName, String password, int sessionMode) {
+        if (this.isEnabled()) {
+            Entry entry = this.entries.get(new Key(factory, userName, password, sessionMode));
+            if (entry != null) {
+                Idle idle = entry.poll();
+                while (idle != null) {
+                    if (this.isExpired(idle, System.nanoTime())) {
+                        // Remaining contexts were released earlier, so have also expired
+                        this.discard(idle.context);
+                        this.drain(entry);
+                        break;
+                    }
+                    if (isValid(idle.context)) {
+                        this.reuseCount.incrementAndGet();
+                        return idle.context;
+                    }
+                    this.discard(idle.context);
+                    idle = entry.poll();
+                }
+            }
+        }
+        this.createCount.incrementAndGet();
+        return factory.createContext(userName, password, sessionMode);
+    }
+
+    /**
+     * Returns the specified context to the pool, or closes it if the pool is disabled, closed or full.
+     * Contexts of the same key that have expired in the meantime are closed.
+     */
+    void release(ConnectionFactory factory, String userName, String password, int sessionMode, JMSContext context) {
+        if (this.isEnabled() && !this.closed) {
+            Key key = new Key(factory, userName, password, sessionMode);
+            Entry entry = this.entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                Entry existing = this.entries.putIfAbsent(key, entry);
+                if (existing != null) {
+                    entry = existing;
+                }
+            }
+            long now = System.nanoTime();
+            this.evict(entry, now);
+            if (entry.offer(new Idle(context, now), this.maxIdle)) {
+                this.releaseCount.incrementAndGet();
+                // Handle a concurrent close()
+                if (this.closed) {
+                    this.drain(entry);
+                }
+                return;
+            }
+        }
+        this.discard(context);
+    }
+
+    /**
+     * Closes the specified context, e.g. if its state does not permit reuse.
+     */
+    void discard(JMSContext context) {
+        this.discardCount.incrementAndGet();
+        try {
+            context.close();
+        } catch (RuntimeException e) {
+            MessagingLogger.ROOT_LOGGER.debugf(e, "Failed to close JMSContext %s", context);
+        }
+    }
+
+    /**
+     * Periodically closes the expired idle contexts of all keys, until this pool is closed.
+     * Idle contexts are thereby closed within twice the idle timeout of their release.
+     * Does nothing if pooling is disabled or idle contexts never expire.
+     */
+    public void startReaper() {
+        if (this.isEnabled() && (this.idleTimeout > 0) && !this.closed) {
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    JMSContextPool.this.reap();
+                }
+            };
+            this.reaper = Reaper.EXECUTOR.scheduleWithFixedDelay(task, this.idleTimeout, this.idleTimeout, TimeUnit.NANOSECONDS);
+            // Handle a concurrent close()
+            if (this.closed) {
+                this.reaper.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Closes the expired idle contexts of all keys.
+     */
+    void reap() {
+        long now = System.nanoTime();
+        for (Entry entry : this.entries.values()) {
+            this.evict(entry, now);
+        }
+    }
+
+    /**
+     * Closes all idle contexts and stops the reaper. Contexts released subsequently are closed immediately.
+     */
+    public void close() {
+        this.closed = true;
+        Future<?> reaper = this.reaper;
+        if (reaper != null) {
+            reaper.cancel(false);
+        }
+        for (Entry entry : this.entries.values()) {
+            this.drain(entry);
+        }
+        this.entries.clear();
+    }
+
+    private void drain(Entry entry) {
+        Idle idle = entry.poll();
+        while (idle != null) {
+            this.discard(idle.context);
+            idle = entry.poll();
+        }
+    }
+
+    // Least recently released contexts are at the tail
+    private void evict(Entry entry, long now) {
+        Idle idle = entry.peekLast();
+        while ((idle != null) && this.isExpired(idle, now) && entry.remove(idle)) {
+            this.discard(idle.context);
+            idle = entry.peekLast();
+        }
+    }
+
+    private boolean isExpired(Idle idle, long now) {
+        return (this.idleTimeout > 0) && (now - idle.releaseTime >= this.idleTimeout);
+    }
+
+    // Fails if the context, or its underlying connection, was closed while idle
+    private static boolean isValid(JMSContext context) {
+        try {
+            context.getMetaData();
+            return true;
+        } catch (RuntimeException e) {
+            MessagingLogger.ROOT_LOGGER.debugf(e, "Idle JMSContext %s is no longer valid", context);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of contexts created via a connection factory.
+     */
+    public long getCreateCount() {
+        return this.createCount.get();
+    }
+
+    /**
+     * Returns the number of contexts reused from the pool.
+     */
+    public long getReuseCount() {
+        return this.reuseCount.get();
+    }
+
+    /**
+     * Returns the number of contexts returned to the pool.
+     */
+    public long getReleaseCount() {
+        return this.releaseCount.get();
+    }
+
+    /**
+     * Returns the number of contexts closed instead of returned to the pool.
+     */
+    public long getDiscardCount() {
+        return this.discardCount.get();
+    }
+
+    /**
+     * Returns the number of idle contexts in the pool.
+     */
+    public int getIdleCount() {
+        int count = 0;
+        for (Map.Entry<Key, Entry> entry : this.entries.entrySet()) {
+            count += entry.getValue().size();
+        }
+        return count;
+    }
+
+    /**
+     * Idle contexts of a single key. Most recently released contexts are reused first.
+     */
+    private static class Entry {
+        private final Deque<Idle> contexts = new ConcurrentLinkedDeque<>();
+        // Tracked separately, since ConcurrentLinkedDeque.size() is not constant time
+        private final AtomicInteger size = new AtomicInteger();
+
+        Idle poll() {
+            Idle idle = this.contexts.pollFirst();
+            if (idle != null) {
+                this.size.decrementAndGet();
+            }
+            return idle;
+        }
+
+        Idle peekLast() {
+            return this.contexts.peekLast();
+        }
+
+        boolean remove(Idle idle) {
+            if (this.contexts.removeLastOccurrence(idle)) {
+                this.size.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        boolean offer(Idle idle, int maxIdle) {
+            if (this.size.incrementAndGet() > maxIdle) {
+                this.size.decrementAndGet();
+                return false;
+            }
+            this.contexts.offerFirst(idle);
+            return true;
+        }
+
+        int size() {
+            return this.size.get();
+        }
+    }
+
+    /**
+     * Executor shared by the reapers of all pools, created once the first reaper is started.
+     * Its thread terminates while no reaper is scheduled.
+     */
+    private static class Reaper {
+        static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "JMSContext reaper");
+                thread.setDaemon(true);
+                // Do not retain the class loader of the deployment that started the first reaper
+                thread.setContextClassLoader(JMSContextPool.class.getClassLoader());
+                return thread;
+            }
+        });
+
+        static {
+            EXECUTOR.setKeepAliveTime(1, TimeUnit.MINUTES);
+            EXECUTOR.allowCoreThreadTimeOut(true);
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    private static class Idle {
+        final JMSContext context;
+        final long releaseTime;
+
+        Idle(JMSContext context, long releaseTime) {
+            this.context = context;
+            this.releaseTime = releaseTime;
+        }
+    }
+
+    /**
+     * Connection factories are compared by identity, since the same JNDI name may resolve to different connection factories in different components.
+     */
+    private static class Key {
+        private final ConnectionFactory factory;
+        private final String userName;
+        private final String password;
+        private final int sessionMode;
+
+        Key(ConnectionFactory factory, String userName, String password, int sessionMode) {
+            this.factory = factory;
+            this.userName = userName;
+            this.password = password;
+            this.sessionMode = sessionMode;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) return true;
+            if (!(object instanceof Key)) return false;
+
+            Key key = (Key) object;
+
+            if (factory != key.factory) return false;
+            if (sessionMode != key.sessionMode) return false;
+            if (password != null ? !password.equals(key.password) : key.password != null) return false;
+            if (userName != null ? !userName.equals(key.userName) : key.userName != null) return false;
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(factory);
+            result = 31 * result + (userName != null ? userName.hashCode() : 0);
+            result = 31 * result + (password != null ? password.hashCode() : 0);
+            result = 31 * result + sessionMode;
+            return result;
+        }
+    }
+}
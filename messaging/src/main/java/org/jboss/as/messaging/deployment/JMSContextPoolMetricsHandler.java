@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.deployment;
+
+import static org.jboss.dmr.ModelType.INT;
+import static org.jboss.dmr.ModelType.LONG;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.server.Services;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the statistics of the {@link JMSContextPool} of a deployment.
+ * The pool is shared by all modules of a deployment, so its statistics are resolved via the top-level deployment.
+ */
+public class JMSContextPoolMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public static final AttributeDefinition CREATE_COUNT = new SimpleAttributeDefinitionBuilder("injected-jms-context-create-count", LONG)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition REUSE_COUNT = new SimpleAttributeDefinitionBuilder("injected-jms-context-reuse-count", LONG)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition RELEASE_COUNT = new SimpleAttributeDefinitionBuilder("injected-jms-context-release-count", LONG)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition DISCARD_COUNT = new SimpleAttributeDefinitionBuilder("injected-jms-context-discard-count", LONG)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition IDLE_COUNT = new SimpleAttributeDefinitionBuilder("injected-jms-context-idle-count", INT)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition[] METRICS = { CREATE_COUNT, REUSE_COUNT, RELEASE_COUNT, DISCARD_COUNT, IDLE_COUNT };
+
+    public static final JMSContextPoolMetricsHandler INSTANCE = new JMSContextPoolMetricsHandler();
+
+    private JMSContextPoolMetricsHandler() {
+    }
+
+    public static void registerMetrics(ManagementResourceRegistration registration) {
+        for (AttributeDefinition metric : METRICS) {
+            registration.registerMetric(metric, INSTANCE);
+        }
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(ModelDescriptionConstants.NAME).asString();
+        final PathAddress deploymentAddress = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR)).subAddress(0, 1);
+        final String runtimeName = context.readResourceFromRoot(deploymentAddress, false).getModel().get(ModelDescriptionConstants.RUNTIME_NAME).asString();
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(Services.deploymentUnitName(runtimeName));
+        final DeploymentUnit unit = (controller != null) ? (DeploymentUnit) controller.getValue() : null;
+        final JMSContextPool pool = (unit != null) ? unit.getAttachment(MessagingAttachments.JMS_CONTEXT_POOL) : null;
+
+        final ModelNode result = context.getResult();
+        if (pool == null) {
+            result.set(0);
+        } else if (CREATE_COUNT.getName().equals(attributeName)) {
+            result.set(pool.getCreateCount());
+        } else if (REUSE_COUNT.getName().equals(attributeName)) {
+            result.set(pool.getReuseCount());
+        } else if (RELEASE_COUNT.getName().equals(attributeName)) {
+            result.set(pool.getReleaseCount());
+        } else if (DISCARD_COUNT.getName().equals(attributeName)) {
+            result.set(pool.getDiscardCount());
+        } else if (IDLE_COUNT.getName().equals(attributeName)) {
+            result.set(pool.getIdleCount());
+        }
+        context.stepCompleted();
+    }
+}
@@ -23,8 +23,10 @@
 package org.jboss.as.messaging.deployment;
 
 import static javax.jms.JMSContext.AUTO_ACKNOWLEDGE;
+import static javax.jms.JMSContext.DUPS_OK_ACKNOWLEDGE;
 
 import java.io.Serializable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.enterprise.inject.Disposes;
 import javax.enterprise.inject.Produces;
@@ -72,13 +74,17 @@ import org.jboss.metadata.property.PropertyReplacer;
 public class JMSContextProducer {
 
     private static final String TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP = "java:comp/TransactionSynchronizationRegistry";
-    private static final Object TRANSACTION_KEY = "TRANSACTED_JMS_CONTEXT";
 
     /**
      * the propertyReplace is set in {@link org.jboss.as.messaging.deployment.JMSCDIExtension#wrapInjectionTarget(javax.enterprise.inject.spi.ProcessInjectionTarget)}.
      */
     private PropertyReplacer propertyReplacer;
 
+    /**
+     * the contextPool is set in {@link org.jboss.as.messaging.deployment.JMSCDIExtension#wrapInjectionTarget(javax.enterprise.inject.spi.ProcessInjectionTarget)}.
+     */
+    private JMSContextPool contextPool = new JMSContextPool(0);
+
     public JMSContextProducer() {
     }
 
@@ -86,6 +92,10 @@ public class JMSContextProducer {
         this.propertyReplacer = propertyReplacer;
     }
 
+    void setContextPool(JMSContextPool contextPool) {
+        this.contextPool = contextPool;
+    }
+
     /**
      * CDI Producer method for injected {@link JMSContext}.
      */
@@ -174,71 +184,136 @@ public class JMSContextProducer {
     /**
      * Wrapper to restrict use of methods for injected JMSContext (JMS 2.0 spec, §12.4.5)
      * and lazily create the real JMSContext depending on the transaction status.
+     *
+     * Outside of a transaction, the real JMSContext is acquired from the {@link JMSContextPool} of the deployment,
+     * and returned to it once the injected JMSContext is disposed, provided its state permits reuse.
      */
     private class JMSContextWrapper implements JMSContext {
 
         private final JMSInfo info;
-        private JMSContext delegate;
-        private boolean inTransaction = false;
+        // Non-transacted context, created lazily
+        private volatile JMSContext delegate;
+        private volatile ConnectionFactory connectionFactory;
+        private volatile TransactionSynchronizationRegistry txSyncRegistry;
+        // Indicates whether the non-transacted context may be returned to the pool
+        private volatile boolean reusable;
+        // Consumers of the non-transacted context, which must be closed before it can be reused
+        private final java.util.Queue<JMSConsumer> consumers = new ConcurrentLinkedQueue<>();
 
         JMSContextWrapper(JMSInfo info) {
             this.info = info;
+            // Acknowledgement of messages received via a pooled context is outside the control of the application
+            this.reusable = contextPool.isEnabled() && ((info.ackMode == AUTO_ACKNOWLEDGE) || (info.ackMode == DUPS_OK_ACKNOWLEDGE));
         }
 
-        private JMSContext create(JMSInfo info, boolean inTx) {
-            inTransaction = inTx;
-            ConnectionFactory cf = (ConnectionFactory) lookup(info.connectionFactoryLookup);
-            if (inTransaction) {
-                XAJMSContext xaContext = ((XAConnectionFactory) cf).createXAContext(info.userName, info.password);
-                return xaContext.getContext();
-            } else {
-                return cf.createContext(info.userName, info.password, info.ackMode);
+        private void internalClose() {
+            JMSContext context = delegate;
+            if (context != null) {
+                delegate = null;
+                if (reusable && closeConsumers()) {
+                    contextPool.release(connectionFactory, info.userName, info.password, info.ackMode, context);
+                } else {
+                    contextPool.discard(context);
+                }
             }
         }
 
-        private void internalClose() {
-            if (delegate != null && !inTransaction) {
-                delegate.close();
-                delegate = null;
+        private boolean closeConsumers() {
+            JMSConsumer consumer = consumers.poll();
+            while (consumer != null) {
+                try {
+                    consumer.close();
+                } catch (RuntimeException e) {
+                    MessagingLogger.ROOT_LOGGER.debugf(e, "Failed to close JMSConsumer %s", consumer);
+                    return false;
+                }
+                consumer = consumers.poll();
             }
+            return true;
         }
 
         /**
          * create the underlying JMSContext or return it if there is already one create.
          */
-        private synchronized JMSContext getDelegate() {
-            TransactionSynchronizationRegistry txSyncRegistry = (TransactionSynchronizationRegistry) lookup(TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP);
-            boolean inTx = txSyncRegistry.getTransactionStatus() == Status.STATUS_ACTIVE;
-            if (inTx) {
-                Object resource = txSyncRegistry.getResource(TRANSACTION_KEY);
-                if (resource != null) {
-                    return (JMSContext) resource;
-                } else {
-                    final JMSContext transactedContext = create(info, inTx);
-                    txSyncRegistry.putResource(TRANSACTION_KEY, resource);
-                    txSyncRegistry.registerInterposedSynchronization(new Synchronization() {
-                        @Override
-                        public void beforeCompletion() {
-                        }
-
-                        @Override
-                        public synchronized void afterCompletion(int status) {
-                            transactedContext.close();
-                            inTransaction = false;
+        private JMSContext getDelegate() {
+            TransactionSynchronizationRegistry txSyncRegistry = getTransactionSynchronizationRegistry();
+            if (txSyncRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+                return getTransactedContext(txSyncRegistry);
+            }
+            JMSContext context = delegate;
+            if (context == null) {
+                synchronized (this) {
+                    context = delegate;
+                    if (context == null) {
+                        try {
+                            context = contextPool.acquire(getConnectionFactory(), info.userName, info.password, info.ackMode);
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
                         }
-                    });
-                    return transactedContext;
-                }
-            } else {
-                if (delegate == null) {
-                    try {
-                        delegate = create(info, inTx);
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
+                        delegate = context;
                     }
                 }
-                return delegate;
             }
+            return context;
+        }
+
+        /**
+         * Returns the context enlisted in the current transaction, shared by all injected JMSContexts with identical annotations.
+         */
+        private JMSContext getTransactedContext(TransactionSynchronizationRegistry txSyncRegistry) {
+            // JMSInfo is private to this class, so it serves as transaction resource key
+            JMSContext context = (JMSContext) txSyncRegistry.getResource(info);
+            if (context == null) {
+                XAJMSContext xaContext = ((XAConnectionFactory) getConnectionFactory()).createXAContext(info.userName, info.password);
+                final JMSContext transactedContext = xaContext.getContext();
+                txSyncRegistry.putResource(info, transactedContext);
+                txSyncRegistry.registerInterposedSynchronization(new Synchronization() {
+                    @Override
+                    public void beforeCompletion() {
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        transactedContext.close();
+                    }
+                });
+                context = transactedContext;
+            }
+            return context;
+        }
+
+        private JMSConsumer track(JMSContext context, JMSConsumer consumer) {
+            if (reusable && (context == delegate)) {
+                consumers.add(consumer);
+            }
+            return consumer;
+        }
+
+        // e.g. temporary destinations and browsers, whose lifecycle would otherwise exceed that of the injected JMSContext
+        private JMSContext notReusable(JMSContext context) {
+            if (context == delegate) {
+                reusable = false;
+            }
+            return context;
+        }
+
+        // JNDI lookups are resolved once per injected JMSContext
+        private ConnectionFactory getConnectionFactory() {
+            ConnectionFactory cf = connectionFactory;
+            if (cf == null) {
+                cf = (ConnectionFactory) lookup(info.connectionFactoryLookup);
+                connectionFactory = cf;
+            }
+            return cf;
+        }
+
+        private TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+            TransactionSynchronizationRegistry registry = txSyncRegistry;
+            if (registry == null) {
+                registry = (TransactionSynchronizationRegistry) lookup(TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP);
+                txSyncRegistry = registry;
+            }
+            return registry;
         }
 
         private Object lookup(String name) {
@@ -388,17 +463,20 @@ public class JMSContextProducer {
 
         @Override
         public JMSConsumer createConsumer(Destination destination) {
-            return getDelegate().createConsumer(destination);
+            JMSContext context = getDelegate();
+            return track(context, context.createConsumer(destination));
         }
 
         @Override
         public JMSConsumer createConsumer(Destination destination, String messageSelector) {
-            return getDelegate().createConsumer(destination, messageSelector);
+            JMSContext context = getDelegate();
+            return track(context, context.createConsumer(destination, messageSelector));
         }
 
         @Override
         public JMSConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) {
-            return getDelegate().createConsumer(destination, messageSelector, noLocal);
+            JMSContext context = getDelegate();
+            return track(context, context.createConsumer(destination, messageSelector, noLocal));
         }
 
         @Override
@@ -413,52 +491,58 @@ public class JMSContextProducer {
 
         @Override
         public JMSConsumer createDurableConsumer(Topic topic, String name) {
-            return getDelegate().createDurableConsumer(topic, name);
+            JMSContext context = getDelegate();
+            return track(context, context.createDurableConsumer(topic, name));
         }
 
         @Override
         public JMSConsumer createDurableConsumer(Topic topic, String name, String messageSelector, boolean noLocal) {
-            return getDelegate().createDurableConsumer(topic, name, messageSelector, noLocal);
+            JMSContext context = getDelegate();
+            return track(context, context.createDurableConsumer(topic, name, messageSelector, noLocal));
         }
 
         @Override
         public JMSConsumer createSharedDurableConsumer(Topic topic, String name) {
-            return getDelegate().createSharedDurableConsumer(topic, name);
+            JMSContext context = getDelegate();
+            return track(context, context.createSharedDurableConsumer(topic, name));
         }
 
         @Override
         public JMSConsumer createSharedDurableConsumer(Topic topic, String name, String messageSelector) {
-            return getDelegate().createSharedDurableConsumer(topic, name, messageSelector);
+            JMSContext context = getDelegate();
+            return track(context, context.createSharedDurableConsumer(topic, name, messageSelector));
         }
 
         @Override
         public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) {
-            return getDelegate().createSharedConsumer(topic, sharedSubscriptionName);
+            JMSContext context = getDelegate();
+            return track(context, context.createSharedConsumer(topic, sharedSubscriptionName));
         }
 
         @Override
         public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName, String messageSelector) {
-            return getDelegate().createSharedConsumer(topic, sharedSubscriptionName, messageSelector);
+            JMSContext context = getDelegate();
+            return track(context, context.createSharedConsumer(topic, sharedSubscriptionName, messageSelector));
         }
 
         @Override
         public QueueBrowser createBrowser(Queue queue) {
-            return getDelegate().createBrowser(queue);
+            return notReusable(getDelegate()).createBrowser(queue);
         }
 
         @Override
         public QueueBrowser createBrowser(Queue queue, String messageSelector) {
-            return getDelegate().createBrowser(queue, messageSelector);
+            return notReusable(getDelegate()).createBrowser(queue, messageSelector);
         }
 
         @Override
         public TemporaryQueue createTemporaryQueue() {
-            return getDelegate().createTemporaryQueue();
+            return notReusable(getDelegate()).createTemporaryQueue();
         }
 
         @Override
         public TemporaryTopic createTemporaryTopic() {
-            return getDelegate().createTemporaryTopic();
+            return notReusable(getDelegate()).createTemporaryTopic();
         }
 
         @Override
@@ -474,8 +558,7 @@ public class JMSContextProducer {
         @Override
         public String toString() {
             return "JMSContextWrapper{" +
-                    ", delegate=" + getDelegate() +
-                    ", inTransaction=" + inTransaction +
+                    "delegate=" + getDelegate() +
                     '}';
         }
     }
@@ -34,5 +34,10 @@ public class MessagingAttachments {
 
     static final AttachmentKey<AttachmentList<ParseResult>> PARSE_RESULT = AttachmentKey.createList(ParseResult.class);
 
+    /**
+     * The pool of injected JMSContexts, attached to the top-level deployment.
+     */
+    public static final AttachmentKey<JMSContextPool> JMS_CONTEXT_POOL = AttachmentKey.create(JMSContextPool.class);
+
 
 }
@@ -22,11 +22,18 @@
 
 package org.jboss.as.messaging.jms;
 
+import static org.hornetq.jms.client.HornetQDestination.JMS_QUEUE_ADDRESS_PREFIX;
 import static org.jboss.as.messaging.OperationDefinitionHelper.createNonEmptyStringAttribute;
 
+import java.util.Map;
+
+import org.hornetq.api.core.SimpleString;
 import org.hornetq.api.core.management.ResourceNames;
 import org.hornetq.api.jms.management.JMSQueueControl;
 import org.hornetq.core.server.HornetQServer;
+import org.hornetq.core.server.Queue;
+import org.hornetq.jms.client.HornetQMessage;
+import org.hornetq.jms.client.SelectorTranslator;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
@@ -57,6 +64,21 @@ public class JMSQueueControlHandler extends AbstractQueueControlHandler<JMSQueue
         return JMSManagementHelper.JMS_MESSAGE_PARAMETERS;
     }
 
+    @Override
+    protected Queue getQueue(HornetQServer hqServer, String queueName) {
+        return hqServer.locateQueue(new SimpleString(JMS_QUEUE_ADDRESS_PREFIX + queueName));
+    }
+
+    @Override
+    protected String translateFilter(String filter) throws Exception {
+        return SelectorTranslator.convertToHornetQFilterString(filter);
+    }
+
+    @Override
+    protected Map<String, Object> translateMessage(Map<String, Object> message) {
+        return HornetQMessage.coreMaptoJMSMap(message);
+    }
+
     protected AbstractQueueControlHandler.DelegatingQueueControl<JMSQueueControl> getQueueControl(HornetQServer hqServer, String queueName){
         final JMSQueueControl control = JMSQueueControl.class.cast(hqServer.getManagementService().getResource(ResourceNames.JMS_QUEUE + queueName));
         if (control == null) {
@@ -0,0 +1,231 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.hornetq.api.core.SimpleString;
+import org.hornetq.core.server.MessageReference;
+import org.hornetq.core.server.Queue;
+import org.hornetq.core.server.ServerMessage;
+import org.hornetq.core.server.impl.ServerMessageImpl;
+import org.hornetq.utils.LinkedListIterator;
+import org.jboss.as.messaging.jms.JMSQueueControlHandler;
+import org.jboss.dmr.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Unit test for the list-messages-page operation of core and JMS queues.
+ */
+public class ListMessagesPageTestCase {
+
+    private static final SimpleString ADDRESS = new SimpleString("jms.queue.test");
+
+    private final List<MessageReference> references = new ArrayList<>();
+    private final Queue queue = mock(Queue.class);
+
+    @Before
+    public void init() {
+        for (int i = 1; i <= 5; ++i) {
+            this.add(i, i, ((i % 2) == 0) ? "red" : "blue");
+        }
+        when(this.queue.totalIterator()).thenAnswer(new Answer<LinkedListIterator<MessageReference>>() {
+            @Override
+            public LinkedListIterator<MessageReference> answer(InvocationOnMock invocation) {
+                final Iterator<MessageReference> iterator = new ArrayList<>(ListMessagesPageTestCase.this.references).iterator();
+                return new LinkedListIterator<MessageReference>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public MessageReference next() {
+                        return iterator.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+
+                    @Override
+                    public void repeat() {
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        });
+    }
+
+    private void add(long id, int priority, String color) {
+        ServerMessage message = new ServerMessageImpl(id, 100);
+        message.setAddress(ADDRESS);
+        message.setDurable(true);
+        message.setPriority((byte) priority);
+        message.setTimestamp(1000L * id);
+        message.putStringProperty("color", color);
+        MessageReference reference = mock(MessageReference.class);
+        when(reference.getMessage()).thenReturn(message);
+        this.references.add(reference);
+    }
+
+    @Test
+    public void firstPage() throws Exception {
+        ModelNode result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 0, 2, null, true);
+
+        assertMessageIDs(result, 1, 2);
+        assertEquals(2L, result.get("cursor").asLong());
+    }
+
+    @Test
+    public void offset() throws Exception {
+        ModelNode result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 2, 2, null, true);
+
+        assertMessageIDs(result, 3, 4);
+        assertEquals(4L, result.get("cursor").asLong());
+
+        // Last page has no cursor
+        result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 4, 2, null, true);
+
+        assertMessageIDs(result, 5);
+        assertFalse(result.hasDefined("cursor"));
+
+        result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 10, 2, null, true);
+
+        assertMessageIDs(result);
+        assertFalse(result.hasDefined("cursor"));
+    }
+
+    @Test
+    public void cursor() throws Exception {
+        ModelNode result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 0, 2, 2L, true);
+
+        assertMessageIDs(result, 3, 4);
+        assertEquals(4L, result.get("cursor").asLong());
+
+        // Offset is ignored, if the cursor identifies a message of the queue
+        result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 1, 2, 4L, true);
+
+        assertMessageIDs(result, 5);
+        assertFalse(result.hasDefined("cursor"));
+    }
+
+    @Test
+    public void cursorFallback() throws Exception {
+        // Message 2 left the queue since the previous page was listed
+        this.references.remove(1);
+
+        ModelNode result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 1, 2, 2L, true);
+
+        assertMessageIDs(result, 3, 4);
+        assertEquals(4L, result.get("cursor").asLong());
+    }
+
+    @Test
+    public void filter() throws Exception {
+        ModelNode result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, "color = 'red'", 0, 1, null, true);
+
+        assertMessageIDs(result, 2);
+        assertEquals(2L, result.get("cursor").asLong());
+
+        // Cursor and offset count matching messages only
+        result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, "color = 'red'", 0, 1, 2L, true);
+
+        assertMessageIDs(result, 4);
+        assertFalse(result.hasDefined("cursor"));
+
+        result = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, "HQPriority >= 3", 1, 10, null, true);
+
+        assertMessageIDs(result, 4, 5);
+    }
+
+    @Test
+    public void headersOnly() throws Exception {
+        ModelNode message = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 0, 1, null, true).get("messages").get(0);
+
+        assertEquals(1L, message.get("messageID").asLong());
+        assertEquals(ADDRESS.toString(), message.get("address").asString());
+        assertTrue(message.get("durable").asBoolean());
+        assertEquals(1, message.get("priority").asInt());
+        assertEquals(1000L, message.get("timestamp").asLong());
+        assertFalse(message.has("color"));
+
+        message = QueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 0, 1, null, false).get("messages").get(0);
+
+        assertEquals(1L, message.get("messageID").asLong());
+        assertEquals("blue", message.get("color").asString());
+    }
+
+    @Test
+    public void jmsFilter() throws Exception {
+        // JMS selectors are translated into core filters
+        ModelNode result = JMSQueueControlHandler.INSTANCE.listMessagesPage(this.queue, "JMSPriority >= 3", 1, 10, null, true);
+
+        assertMessageIDs(result, 4, 5);
+
+        result = JMSQueueControlHandler.INSTANCE.listMessagesPage(this.queue, "color = 'red'", 0, 1, null, true);
+
+        assertMessageIDs(result, 2);
+        assertEquals(2L, result.get("cursor").asLong());
+    }
+
+    @Test
+    public void jmsHeadersOnly() throws Exception {
+        ModelNode message = JMSQueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 0, 1, null, true).get("messages").get(0);
+
+        // Core headers are mapped to their JMS names
+        assertEquals(1, message.get("JMSPriority").asInt());
+        assertEquals(1000L, message.get("JMSTimestamp").asLong());
+        assertEquals("PERSISTENT", message.get("JMSDeliveryMode").asString());
+        assertFalse(message.has("priority"));
+        assertFalse(message.has("durable"));
+        assertFalse(message.has("color"));
+
+        message = JMSQueueControlHandler.INSTANCE.listMessagesPage(this.queue, null, 0, 1, null, false).get("messages").get(0);
+
+        assertEquals("PERSISTENT", message.get("JMSDeliveryMode").asString());
+        assertEquals("blue", message.get("color").asString());
+    }
+
+    private static void assertMessageIDs(ModelNode result, long... ids) {
+        List<ModelNode> messages = result.get("messages").asList();
+        assertEquals(ids.length, messages.size());
+        for (int i = 0; i < ids.length; ++i) {
+            assertEquals(ids[i], messages.get(i).get("messageID").asLong());
+        }
+    }
+}
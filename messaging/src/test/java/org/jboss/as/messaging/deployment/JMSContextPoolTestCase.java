@@ -0,0 +1,214 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.deployment;
+
+import static javax.jms.JMSContext.AUTO_ACKNOWLEDGE;
+import static javax.jms.JMSContext.DUPS_OK_ACKNOWLEDGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import javax.jms.JMSContext;
+
+import org.jboss.as.messaging.deployment.MockConnectionFactory.MockContext;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link JMSContextPool}.
+ */
+public class JMSContextPoolTestCase {
+
+    private final MockConnectionFactory factory = new MockConnectionFactory();
+
+    @Test
+    public void disabled() {
+        JMSContextPool pool = new JMSContextPool(0);
+        assertFalse(pool.isEnabled());
+
+        JMSContext context = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context);
+
+        assertTrue(this.factory.contexts.get(0).closed);
+        assertNotSame(context, pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE));
+        assertEquals(2, pool.getCreateCount());
+        assertEquals(0, pool.getReuseCount());
+        assertEquals(0, pool.getReleaseCount());
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test
+    public void reuse() {
+        JMSContextPool pool = new JMSContextPool(2);
+        assertTrue(pool.isEnabled());
+
+        JMSContext context = pool.acquire(this.factory.factory, "user", "password", AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, "user", "password", AUTO_ACKNOWLEDGE, context);
+        assertEquals(1, pool.getIdleCount());
+
+        assertSame(context, pool.acquire(this.factory.factory, "user", "password", AUTO_ACKNOWLEDGE));
+        assertFalse(this.factory.contexts.get(0).closed);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getCreateCount());
+        assertEquals(1, pool.getReuseCount());
+        assertEquals(1, pool.getReleaseCount());
+        assertEquals(0, pool.getDiscardCount());
+    }
+
+    @Test
+    public void key() {
+        JMSContextPool pool = new JMSContextPool(2);
+        MockConnectionFactory otherFactory = new MockConnectionFactory();
+
+        JMSContext context = pool.acquire(this.factory.factory, "user", "password", AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, "user", "password", AUTO_ACKNOWLEDGE, context);
+
+        assertNotSame(context, pool.acquire(this.factory.factory, "user", "password", DUPS_OK_ACKNOWLEDGE));
+        assertNotSame(context, pool.acquire(this.factory.factory, "other", "password", AUTO_ACKNOWLEDGE));
+        assertNotSame(context, pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE));
+        assertNotSame(context, pool.acquire(otherFactory.factory, "user", "password", AUTO_ACKNOWLEDGE));
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(0, pool.getReuseCount());
+    }
+
+    @Test
+    public void maxIdle() {
+        JMSContextPool pool = new JMSContextPool(2);
+
+        JMSContext context1 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        JMSContext context2 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        JMSContext context3 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context1);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context2);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context3);
+
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(2, pool.getReleaseCount());
+        assertEquals(1, pool.getDiscardCount());
+        assertTrue(this.factory.contexts.get(2).closed);
+
+        // Most recently released context is reused first
+        assertSame(context2, pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE));
+        assertSame(context1, pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE));
+    }
+
+    @Test
+    public void idleTimeout() throws InterruptedException {
+        JMSContextPool pool = new JMSContextPool(2, 10);
+
+        JMSContext context = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context);
+        Thread.sleep(50);
+
+        assertNotSame(context, pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE));
+        assertTrue(this.factory.contexts.get(0).closed);
+        assertEquals(0, pool.getReuseCount());
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test
+    public void evictOnRelease() throws InterruptedException {
+        JMSContextPool pool = new JMSContextPool(2, 10);
+
+        JMSContext context1 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        JMSContext context2 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context1);
+        Thread.sleep(50);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context2);
+
+        assertTrue(this.factory.contexts.get(0).closed);
+        assertFalse(this.factory.contexts.get(1).closed);
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test
+    public void validation() {
+        JMSContextPool pool = new JMSContextPool(2);
+
+        JMSContext context1 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        JMSContext context2 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context1);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context2);
+        MockContext invalid = this.factory.contexts.get(1);
+        invalid.valid = false;
+
+        assertSame(context1, pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE));
+        assertTrue(invalid.closed);
+        assertEquals(1, pool.getReuseCount());
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test
+    public void close() {
+        JMSContextPool pool = new JMSContextPool(2);
+
+        JMSContext context1 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        JMSContext context2 = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context1);
+        pool.close();
+
+        assertTrue(this.factory.contexts.get(0).closed);
+        assertEquals(0, pool.getIdleCount());
+
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context2);
+        assertTrue(this.factory.contexts.get(1).closed);
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void reap() throws InterruptedException {
+        JMSContextPool pool = new JMSContextPool(2, 10);
+
+        JMSContext context = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+        pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context);
+        pool.reap();
+        assertEquals(1, pool.getIdleCount());
+
+        Thread.sleep(50);
+        // Closed without any subsequent use of the pool
+        pool.reap();
+        assertTrue(this.factory.contexts.get(0).closed);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test
+    public void reaper() throws InterruptedException {
+        JMSContextPool pool = new JMSContextPool(2, 10);
+        pool.startReaper();
+        try {
+            JMSContext context = pool.acquire(this.factory.factory, null, null, AUTO_ACKNOWLEDGE);
+            pool.release(this.factory.factory, null, null, AUTO_ACKNOWLEDGE, context);
+
+            long timeout = System.currentTimeMillis() + 5000;
+            while (!this.factory.contexts.get(0).closed && (System.currentTimeMillis() < timeout)) {
+                Thread.sleep(10);
+            }
+            assertTrue(this.factory.contexts.get(0).closed);
+            assertEquals(0, pool.getIdleCount());
+        } finally {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.deployment;
+
+import static javax.jms.JMSContext.AUTO_ACKNOWLEDGE;
+import static javax.jms.JMSContext.CLIENT_ACKNOWLEDGE;
+import static javax.jms.JMSContext.DUPS_OK_ACKNOWLEDGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Hashtable;
+
+import javax.enterprise.inject.spi.Annotated;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.jms.JMSContext;
+import javax.jms.JMSSessionMode;
+import javax.naming.Context;
+import javax.naming.spi.InitialContextFactory;
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.messaging.deployment.MockConnectionFactory.MockContext;
+import org.jboss.as.messaging.deployment.MockConnectionFactory.MockConsumer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Verifies which non-transacted contexts of injected JMSContexts are returned to the {@link JMSContextPool}.
+ */
+public class JMSContextProducerTestCase {
+
+    static MockConnectionFactory factory;
+
+    private final JMSContextProducer producer = new JMSContextProducer();
+    private final JMSContextPool pool = new JMSContextPool(4);
+
+    @BeforeClass
+    public static void setInitialContextFactory() {
+        System.setProperty(Context.INITIAL_CONTEXT_FACTORY, MockInitialContextFactory.class.getName());
+    }
+
+    @AfterClass
+    public static void clearInitialContextFactory() {
+        System.clearProperty(Context.INITIAL_CONTEXT_FACTORY);
+    }
+
+    @Before
+    public void init() {
+        factory = new MockConnectionFactory();
+        this.producer.setContextPool(this.pool);
+    }
+
+    @After
+    public void destroy() {
+        this.pool.close();
+    }
+
+    @Test
+    public void autoAcknowledge() throws Exception {
+        JMSContext context = this.producer.getJMSContext(null);
+        context.createProducer();
+        this.producer.closeJMSContext(context);
+
+        assertEquals(1, this.pool.getReleaseCount());
+        assertFalse(factory.contexts.get(0).closed);
+
+        context = this.producer.getJMSContext(null);
+        context.createProducer();
+        this.producer.closeJMSContext(context);
+
+        assertEquals(1, factory.contexts.size());
+        assertEquals(1, this.pool.getReuseCount());
+    }
+
+    @Test
+    public void dupsOkAcknowledge() throws Exception {
+        JMSContext context = this.producer.getJMSContext(injectionPoint(DUPS_OK_ACKNOWLEDGE));
+        context.createProducer();
+        this.producer.closeJMSContext(context);
+
+        assertEquals(1, this.pool.getReleaseCount());
+        assertFalse(factory.contexts.get(0).closed);
+    }
+
+    @Test
+    public void clientAcknowledge() throws Exception {
+        JMSContext context = this.producer.getJMSContext(injectionPoint(CLIENT_ACKNOWLEDGE));
+        context.createProducer();
+        this.producer.closeJMSContext(context);
+
+        assertEquals(0, this.pool.getReleaseCount());
+        assertEquals(1, this.pool.getDiscardCount());
+        assertTrue(factory.contexts.get(0).closed);
+    }
+
+    @Test
+    public void unusedContext() throws Exception {
+        this.producer.closeJMSContext(this.producer.getJMSContext(null));
+
+        assertTrue(factory.contexts.isEmpty());
+        assertEquals(0, this.pool.getCreateCount());
+    }
+
+    @Test
+    public void consumers() throws Exception {
+        JMSContext context = this.producer.getJMSContext(null);
+        context.createConsumer(null);
+        context.createConsumer(null, "selector");
+        this.producer.closeJMSContext(context);
+
+        MockContext delegate = factory.contexts.get(0);
+        assertEquals(2, delegate.consumers.size());
+        for (MockConsumer consumer : delegate.consumers) {
+            assertTrue(consumer.closed);
+        }
+        assertFalse(delegate.closed);
+        assertEquals(1, this.pool.getReleaseCount());
+    }
+
+    @Test
+    public void consumerCloseFailure() throws Exception {
+        JMSContext context = this.producer.getJMSContext(null);
+        context.createConsumer(null);
+        MockContext delegate = factory.contexts.get(0);
+        delegate.consumers.get(0).failOnClose = true;
+        this.producer.closeJMSContext(context);
+
+        assertTrue(delegate.closed);
+        assertEquals(0, this.pool.getReleaseCount());
+        assertEquals(1, this.pool.getDiscardCount());
+    }
+
+    @Test
+    public void browser() throws Exception {
+        JMSContext context = this.producer.getJMSContext(null);
+        context.createBrowser(null);
+        this.producer.closeJMSContext(context);
+
+        assertTrue(factory.contexts.get(0).closed);
+        assertEquals(0, this.pool.getReleaseCount());
+    }
+
+    @Test
+    public void temporaryQueue() throws Exception {
+        JMSContext context = this.producer.getJMSContext(null);
+        context.createTemporaryQueue();
+        this.producer.closeJMSContext(context);
+
+        assertTrue(factory.contexts.get(0).closed);
+        assertEquals(0, this.pool.getReleaseCount());
+    }
+
+    @Test
+    public void temporaryTopic() throws Exception {
+        JMSContext context = this.producer.getJMSContext(null);
+        context.createTemporaryTopic();
+        this.producer.closeJMSContext(context);
+
+        assertTrue(factory.contexts.get(0).closed);
+        assertEquals(0, this.pool.getReleaseCount());
+    }
+
+    private static InjectionPoint injectionPoint(final int sessionMode) {
+        final JMSSessionMode annotation = (JMSSessionMode) Proxy.newProxyInstance(JMSSessionMode.class.getClassLoader(), new Class<?>[] { JMSSessionMode.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "value":
+                        return sessionMode;
+                    case "annotationType":
+                        return JMSSessionMode.class;
+                    default:
+                        return MockConnectionFactory.defaultValue(proxy, method, args);
+                }
+            }
+        });
+        final Annotated annotated = (Annotated) Proxy.newProxyInstance(Annotated.class.getClassLoader(), new Class<?>[] { Annotated.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "isAnnotationPresent":
+                        return args[0] == JMSSessionMode.class;
+                    case "getAnnotation":
+                        return (args[0] == JMSSessionMode.class) ? annotation : null;
+                    default:
+                        return MockConnectionFactory.defaultValue(proxy, method, args);
+                }
+            }
+        });
+        return (InjectionPoint) Proxy.newProxyInstance(InjectionPoint.class.getClassLoader(), new Class<?>[] { InjectionPoint.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return method.getName().equals("getAnnotated") ? annotated : MockConnectionFactory.defaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    /**
+     * Resolves the default connection factory to the current mock, and the transaction synchronization registry to one without a transaction.
+     */
+    public static class MockInitialContextFactory implements InitialContextFactory {
+        @Override
+        public Context getInitialContext(Hashtable<?, ?> environment) {
+            final TransactionSynchronizationRegistry registry = (TransactionSynchronizationRegistry) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { TransactionSynchronizationRegistry.class }, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return method.getName().equals("getTransactionStatus") ? Status.STATUS_NO_TRANSACTION : MockConnectionFactory.defaultValue(proxy, method, args);
+                }
+            });
+            return (Context) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { Context.class }, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("lookup")) {
+                        return args[0].equals(DefaultJMSConnectionFactoryBindingProcessor.COMP_DEFAULT_JMS_CONNECTION_FACTORY) ? factory.factory : registry;
+                    }
+                    return MockConnectionFactory.defaultValue(proxy, method, args);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.deployment;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.ConnectionFactory;
+import javax.jms.ConnectionMetaData;
+import javax.jms.JMSConsumer;
+import javax.jms.JMSContext;
+import javax.jms.XAConnectionFactory;
+
+/**
+ * Minimal JMS connection factory recording the contexts and consumers it creates.
+ */
+class MockConnectionFactory implements InvocationHandler {
+
+    final List<MockContext> contexts = new ArrayList<>();
+    final ConnectionFactory factory = (ConnectionFactory) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { ConnectionFactory.class, XAConnectionFactory.class }, this);
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getName().equals("createContext")) {
+            MockContext context = new MockContext((args.length == 3) ? (Integer) args[2] : JMSContext.AUTO_ACKNOWLEDGE);
+            this.contexts.add(context);
+            return context.context;
+        }
+        return defaultValue(proxy, method, args);
+    }
+
+    static Object defaultValue(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return proxy.getClass().getName();
+            default:
+                return method.getReturnType().equals(boolean.class) ? Boolean.FALSE : null;
+        }
+    }
+
+    static class MockContext implements InvocationHandler {
+        final int sessionMode;
+        final List<MockConsumer> consumers = new ArrayList<>();
+        final JMSContext context = (JMSContext) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { JMSContext.class }, this);
+        volatile boolean closed = false;
+        // Simulates a failed connection, which is detected on validation
+        volatile boolean valid = true;
+
+        MockContext(int sessionMode) {
+            this.sessionMode = sessionMode;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "close":
+                    this.closed = true;
+                    return null;
+                case "getSessionMode":
+                    return this.sessionMode;
+                case "getMetaData":
+                    if (this.closed || !this.valid) {
+                        throw new IllegalStateException();
+                    }
+                    return Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { ConnectionMetaData.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            return defaultValue(proxy, method, args);
+                        }
+                    });
+                default:
+                    if (method.getReturnType().equals(JMSConsumer.class)) {
+                        MockConsumer consumer = new MockConsumer();
+                        this.consumers.add(consumer);
+                        return consumer.consumer;
+                    }
+                    return defaultValue(proxy, method, args);
+            }
+        }
+    }
+
+    static class MockConsumer implements InvocationHandler {
+        final JMSConsumer consumer = (JMSConsumer) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { JMSConsumer.class }, this);
+        volatile boolean closed = false;
+        volatile boolean failOnClose = false;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getName().equals("close")) {
+                if (this.failOnClose) {
+                    throw new IllegalStateException();
+                }
+                this.closed = true;
+                return null;
+            }
+            return defaultValue(proxy, method, args);
+        }
+    }
+}
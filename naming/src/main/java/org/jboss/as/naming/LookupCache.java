@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.naming;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.naming.Name;
+
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Cache of the bindings resolved by a {@link ServiceBasedNamingStore}, keyed by JNDI name.
+ * A cached entry references the controller of the binder service, rather than the bound object,
+ * so that a rebind is visible without invalidation, and each lookup still obtains a fresh reference from its {@link ManagedReferenceFactory}.
+ * The cache of a naming store is invalidated whenever one of its binder services stops.
+ * Caching is disabled by default, and is enabled via the lookup-cache attribute of the naming subsystem.
+ */
+public class LookupCache {
+
+    // Guards against unbounded growth, since distinct names (e.g. "a/b" and "a//b") may resolve to the same binding
+    private static final int MAX_SIZE = 4096;
+
+    private static volatile boolean enabled = false;
+    private static final Counter HITS = new Counter();
+    private static final Counter MISSES = new Counter();
+
+    private final ConcurrentMap<Name, ServiceController<?>> bindings = new ConcurrentHashMap<Name, ServiceController<?>>();
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        LookupCache.enabled = enabled;
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * Returns the cached binder service controller of the specified name.
+     * @param name a JNDI name
+     * @return a service controller, or null if the name is not cached
+     */
+    ServiceController<?> get(Name name) {
+        final ServiceController<?> controller = this.bindings.get(name);
+        if (controller != null) {
+            HITS.increment();
+        } else {
+            MISSES.increment();
+        }
+        return controller;
+    }
+
+    /**
+     * Returns the current generation of this cache, to be passed to a subsequent {@link #put(Name, ServiceController, int)}.
+     * @return the generation of this cache
+     */
+    int getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Caches the specified binder service controller, unless this cache was invalidated since the specified generation.
+     * @param name a JNDI name
+     * @param controller the controller of the binder service of the specified name
+     * @param generation the generation of this cache prior to resolving the specified name
+     */
+    void put(Name name, ServiceController<?> controller, int generation) {
+        if (this.bindings.size() < MAX_SIZE) {
+            // Names are mutable, so cache a private copy
+            final Name key = (Name) name.clone();
+            this.bindings.put(key, controller);
+            if (this.generation.get() != generation) {
+                this.bindings.remove(key, controller);
+            }
+        }
+    }
+
+    void invalidate() {
+        this.generation.incrementAndGet();
+        this.bindings.clear();
+    }
+
+    /**
+     * Statistics counter striped by thread, to avoid contention between concurrent lookups.
+     */
+    private static class Counter {
+        // Pad each stripe to its own cache line
+        private static final int PADDING = 8;
+        private static final int STRIPES = stripes();
+
+        private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+        private static int stripes() {
+            int stripes = 1;
+            while (stripes < Runtime.getRuntime().availableProcessors()) {
+                stripes <<= 1;
+            }
+            return stripes;
+        }
+
+        void increment() {
+            this.cells.incrementAndGet((int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING);
+        }
+
+        long get() {
+            long result = 0;
+            for (int i = 0; i < STRIPES; ++i) {
+                result += this.cells.get(i * PADDING);
+            }
+            return result;
+        }
+    }
+}
@@ -64,6 +64,7 @@ public class ServiceBasedNamingStore implements NamingStore {
     private final ServiceName serviceNameBase;
 
     private ConcurrentSkipListSet<ServiceName> boundServices = new ConcurrentSkipListSet<ServiceName>();
+    private final LookupCache lookupCache = new LookupCache();
 
     public ServiceBasedNamingStore(final ServiceRegistry serviceRegistry, final ServiceName serviceNameBase) {
         this.serviceRegistry = serviceRegistry;
@@ -79,8 +80,17 @@ public class ServiceBasedNamingStore implements NamingStore {
         if (name.isEmpty()) {
             return new NamingContext(EMPTY_NAME, this, null);
         }
+        final boolean cacheEnabled = LookupCache.isEnabled();
+        if (cacheEnabled) {
+            final ServiceController<?> controller = lookupCache.get(name);
+            if (controller != null) {
+                return lookup(name.toString(), controller, dereference);
+            }
+        }
+        final int generation = lookupCache.getGeneration();
         final ServiceName lookupName = buildServiceName(name);
-        Object obj = lookup(name.toString(), lookupName, dereference);
+        final ServiceController<?> controller = serviceRegistry.getService(lookupName);
+        Object obj = lookup(name.toString(), controller, dereference);
         if (obj == null) {
             final ServiceName lower = boundServices.lower(lookupName);
             if (lower != null && lower.isParentOf(lookupName)) {
@@ -106,6 +116,10 @@ public class ServiceBasedNamingStore implements NamingStore {
             throw new NameNotFoundException(name.toString() + " -- " + lookupName);
         }
 
+        // Only cache services bound to this store, since these invalidate the cache when unbound
+        if (cacheEnabled && boundServices.contains(lookupName)) {
+            lookupCache.put(name, controller, generation);
+        }
         return obj;
     }
 
@@ -125,8 +139,11 @@ public class ServiceBasedNamingStore implements NamingStore {
     }
 
     private Object lookup(final String name, final ServiceName lookupName, boolean dereference) throws NamingException {
+        return lookup(name, serviceRegistry.getService(lookupName), dereference);
+    }
+
+    private Object lookup(final String name, final ServiceController<?> controller, boolean dereference) throws NamingException {
         try {
-            final ServiceController<?> controller = serviceRegistry.getService(lookupName);
             if (controller != null) {
                 final Object object = controller.getValue();
                 if (dereference && object instanceof ManagedReferenceFactory) {
@@ -257,6 +274,7 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     public void close() throws NamingException {
         boundServices.clear();
+        lookupCache.invalidate();
     }
 
     public void addNamingListener(Name target, int scope, NamingListener listener) {
@@ -275,6 +293,7 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     public void remove(final ServiceName serviceName) {
         boundServices.remove(serviceName);
+        lookupCache.invalidate();
     }
 
     protected ServiceName buildServiceName(final Name name) {
@@ -26,6 +26,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUB
 import static org.jboss.as.naming.subsystem.NamingSubsystemModel.BINDING_TYPE;
 import static org.jboss.as.naming.subsystem.NamingSubsystemModel.CACHE;
 import static org.jboss.as.naming.subsystem.NamingSubsystemModel.ENVIRONMENT;
+import static org.jboss.as.naming.subsystem.NamingSubsystemModel.LOOKUP_CACHE;
 
 import org.jboss.as.controller.Extension;
 import org.jboss.as.controller.ExtensionContext;
@@ -48,6 +49,7 @@ import org.jboss.as.controller.transform.description.ResourceTransformationDescr
 import org.jboss.as.controller.transform.description.TransformationDescription;
 import org.jboss.as.controller.transform.description.TransformationDescriptionBuilder;
 import org.jboss.as.naming.management.JndiViewOperation;
+import org.jboss.dmr.ModelNode;
 
 /**
  * Domain extension used to initialize the naming subsystem element handlers.
@@ -113,6 +115,7 @@ public class NamingExtension implements Extension {
 
             // register 1.1.0 transformer
             ResourceTransformationDescriptionBuilder builder = TransformationDescriptionBuilder.Factory.createSubsystemInstance();
+            rejectLookupCache(builder);
             builder.addChildResource(NamingSubsystemModel.BINDING_PATH)
                     .getAttributeBuilder()
                         .addRejectCheck(RejectAttributeChecker.DEFINED, ENVIRONMENT)
@@ -126,6 +129,7 @@ public class NamingExtension implements Extension {
 
             // register 1.2.0 and 1.3.0 transformer
             builder = TransformationDescriptionBuilder.Factory.createSubsystemInstance();
+            rejectLookupCache(builder);
             builder.addChildResource(NamingSubsystemModel.BINDING_PATH)
                     .getAttributeBuilder()
                         .setDiscard(DiscardAttributeChecker.UNDEFINED, CACHE)
@@ -138,6 +142,13 @@ public class NamingExtension implements Extension {
         }
     }
 
+    private static void rejectLookupCache(ResourceTransformationDescriptionBuilder builder) {
+        builder.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), LOOKUP_CACHE)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, LOOKUP_CACHE)
+                .end();
+    }
+
     /**
      * {@inheritDoc}
      */
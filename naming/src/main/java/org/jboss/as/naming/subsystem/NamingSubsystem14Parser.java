@@ -71,6 +71,7 @@ public class NamingSubsystem14Parser implements XMLElementReader<List<ModelNode>
         PathAddress address = PathAddress.pathAddress(SUBSYSTEM_PATH);
         final ModelNode ejb3SubsystemAddOperation = Util.createAddOperation(address);
         operations.add(ejb3SubsystemAddOperation);
+        this.parseSubsystemAttributes(reader, ejb3SubsystemAddOperation);
 
         // elements
         final EnumSet<NamingSubsystemXMLElement> encountered = EnumSet.noneOf(NamingSubsystemXMLElement.class);
@@ -100,6 +101,10 @@ public class NamingSubsystem14Parser implements XMLElementReader<List<ModelNode>
         }
     }
 
+    protected void parseSubsystemAttributes(final XMLExtendedStreamReader reader, final ModelNode subsystemAddOperation) throws XMLStreamException {
+        // no attributes prior to 2.0
+    }
+
     private void parseRemoteNaming(final XMLExtendedStreamReader reader, final List<ModelNode> operations, PathAddress parent) throws XMLStreamException {
         requireNoAttributes(reader);
         requireNoContent(reader);
@@ -22,6 +22,14 @@
 
 package org.jboss.as.naming.subsystem;
 
+import static org.jboss.as.controller.parsing.ParseUtils.requireNoNamespaceAttribute;
+import static org.jboss.as.controller.parsing.ParseUtils.unexpectedAttribute;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLExtendedStreamReader;
+
 /**
  * @author Eduardo Martins
  */
@@ -32,4 +40,20 @@ public class NamingSubsystem20Parser extends NamingSubsystem14Parser {
     private NamingSubsystem20Parser() {
         super(NamingSubsystemNamespace.NAMING_2_0);
     }
+
+    @Override
+    protected void parseSubsystemAttributes(final XMLExtendedStreamReader reader, final ModelNode subsystemAddOperation) throws XMLStreamException {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final NamingSubsystemXMLAttribute attribute = NamingSubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case LOOKUP_CACHE:
+                    NamingSubsystemRootResourceDefinition.LOOKUP_CACHE.parseAndSetParameter(value, subsystemAddOperation, reader);
+                    break;
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+    }
 }
@@ -24,6 +24,8 @@ package org.jboss.as.naming.subsystem;
 
 import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.naming.LookupCache;
 import org.jboss.as.naming.NamingContext;
 import org.jboss.as.naming.NamingStore;
 import org.jboss.as.naming.context.external.ExternalContexts;
@@ -55,14 +57,17 @@ public class NamingSubsystemAdd extends AbstractBoottimeAddStepHandler {
 
     static final NamingSubsystemAdd INSTANCE = new NamingSubsystemAdd();
 
-    protected void populateModel(ModelNode operation, ModelNode model) {
+    protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
         model.setEmptyObject();
+        NamingSubsystemRootResourceDefinition.LOOKUP_CACHE.validateAndSet(operation, model);
     }
 
-    protected void performBoottime(OperationContext context, ModelNode operation, ModelNode model) {
+    protected void performBoottime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
 
         ROOT_LOGGER.activatingSubsystem();
 
+        LookupCache.setEnabled(NamingSubsystemRootResourceDefinition.LOOKUP_CACHE.resolveModelAttribute(context, model).asBoolean());
+
         NamingContext.initializeNamingManager();
         final ServiceTarget target = context.getServiceTarget();
 
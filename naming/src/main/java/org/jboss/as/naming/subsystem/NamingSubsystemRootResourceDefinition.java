@@ -22,13 +22,23 @@
 
 package org.jboss.as.naming.subsystem;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleOperationDefinition;
 import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.naming.LookupCache;
 import org.jboss.as.naming.management.JndiViewOperation;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -47,11 +57,65 @@ public class NamingSubsystemRootResourceDefinition extends SimpleResourceDefinit
             .setReplyValueType(ModelType.STRING)
             .build();
 
+    public static final SimpleAttributeDefinition LOOKUP_CACHE = new SimpleAttributeDefinitionBuilder(NamingSubsystemModel.LOOKUP_CACHE, ModelType.BOOLEAN, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(false))
+            .build();
+
+    static final SimpleAttributeDefinition LOOKUP_CACHE_HITS = new SimpleAttributeDefinitionBuilder(NamingSubsystemModel.LOOKUP_CACHE_HITS, ModelType.LONG, true)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    static final SimpleAttributeDefinition LOOKUP_CACHE_MISSES = new SimpleAttributeDefinitionBuilder(NamingSubsystemModel.LOOKUP_CACHE_MISSES, ModelType.LONG, true)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
     private NamingSubsystemRootResourceDefinition() {
         super(PathElement.pathElement(ModelDescriptionConstants.SUBSYSTEM, NamingExtension.SUBSYSTEM_NAME),
                 NamingExtension.getResourceDescriptionResolver(NamingExtension.SUBSYSTEM_NAME),
                 NamingSubsystemAdd.INSTANCE, NamingSubsystemRemove.INSTANCE);
     }
 
+    @Override
+    public void registerAttributes(ManagementResourceRegistration registration) {
+        registration.registerReadWriteAttribute(LOOKUP_CACHE, null, new LookupCacheWriteHandler());
+        registration.registerMetric(LOOKUP_CACHE_HITS, new LookupCacheMetricHandler());
+        registration.registerMetric(LOOKUP_CACHE_MISSES, new LookupCacheMetricHandler());
+    }
+
+    /**
+     * Enables or disables the lookup cache without requiring a reload.
+     */
+    private static class LookupCacheWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+        LookupCacheWriteHandler() {
+            super(LOOKUP_CACHE);
+        }
+
+        @Override
+        protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+            LookupCache.setEnabled(resolvedValue.asBoolean());
+            return false;
+        }
+
+        @Override
+        protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+            LookupCache.setEnabled(LOOKUP_CACHE.resolveValue(context, valueToRestore).asBoolean());
+        }
+    }
+
+    private static class LookupCacheMetricHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final String name = operation.require(ModelDescriptionConstants.NAME).asString();
+            if (NamingSubsystemModel.LOOKUP_CACHE_HITS.equals(name)) {
+                context.getResult().set(LookupCache.getHitCount());
+            } else if (NamingSubsystemModel.LOOKUP_CACHE_MISSES.equals(name)) {
+                context.getResult().set(LookupCache.getMissCount());
+            }
+            context.stepCompleted();
+        }
+    }
 
 }
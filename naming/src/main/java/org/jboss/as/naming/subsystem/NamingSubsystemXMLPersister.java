@@ -59,6 +59,8 @@ public class NamingSubsystemXMLPersister implements XMLElementWriter<SubsystemMa
 
         ModelNode model = context.getModelNode();
 
+        NamingSubsystemRootResourceDefinition.LOOKUP_CACHE.marshallAsAttribute(model, writer);
+
         // bindings
         if (model.hasDefined(BINDING)) {
             writer.writeStartElement(NamingSubsystemXMLElement.BINDINGS.getLocalName());
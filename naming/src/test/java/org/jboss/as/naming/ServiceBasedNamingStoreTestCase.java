@@ -30,12 +30,15 @@ import javax.naming.Binding;
 import javax.naming.CompositeName;
 import javax.naming.Context;
 import javax.naming.Name;
+import javax.naming.NameNotFoundException;
 import javax.naming.NameClassPair;
 import javax.naming.NameParser;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 
+import org.jboss.msc.service.AbstractServiceListener;
 import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceContainer;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
@@ -386,6 +389,43 @@ public class ServiceBasedNamingStoreTestCase {
         }
     }
 
+    @Test
+    public void testLookupCache() throws Exception {
+        final ServiceName bindingName = ServiceName.JBOSS.append("foo", "cached");
+        final Object value = new Object();
+        bindObject(bindingName, value);
+
+        LookupCache.setEnabled(true);
+        try {
+            final long hits = LookupCache.getHitCount();
+            assertEquals(value, store.lookup(new CompositeName("foo/cached")));
+            assertEquals(value, store.lookup(new CompositeName("foo/cached")));
+            assertEquals(hits + 1, LookupCache.getHitCount());
+
+            // Unbinding must invalidate the cache
+            store.remove(bindingName);
+            final CountDownLatch latch = new CountDownLatch(1);
+            final ServiceController<?> controller = container.getService(bindingName);
+            controller.addListener(new AbstractServiceListener<Object>() {
+                @Override
+                public void transition(ServiceController<?> controller, ServiceController.Transition transition) {
+                    if (transition.getAfter() == ServiceController.Substate.REMOVED) {
+                        latch.countDown();
+                    }
+                }
+            });
+            controller.setMode(ServiceController.Mode.REMOVE);
+            latch.await();
+            try {
+                store.lookup(new CompositeName("foo/cached"));
+                fail("Should have thrown name not found");
+            } catch (NameNotFoundException expected) {
+            }
+        } finally {
+            LookupCache.setEnabled(false);
+        }
+    }
+
     private void assertContains(final List<? extends NameClassPair> list, String name, Class<?> type) {
         for (NameClassPair value : list) {
             if (value instanceof Binding) {
@@ -200,9 +200,9 @@ public interface TransactionLogger extends BasicLogger {
     @Message(id = 25, value = "Either %s must be 'true' or  %s must be defined.")
     OperationFailedException eitherTrueOrDefined(String attrOne, String attrTwo);
 
-    @LogMessage(level = WARN)
-    @Message(id = 26, value = "The transaction %s could not be removed from the cache during cleanup.")
-    void transactionNotFound(Transaction tx);
+    // @LogMessage(level = WARN)
+    // @Message(id = 26, value = "The transaction %s could not be removed from the cache during cleanup.")
+    // void transactionNotFound(Transaction tx);
 
     @LogMessage(level = WARN)
     @Message(id = 27, value = "The pre-jca synchronization %s associated with tx %s failed during after completion")
@@ -22,15 +22,10 @@
 package org.jboss.as.txn.service.internal.tsr;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
-import javax.transaction.Transaction;
 
 import org.jboss.as.txn.logging.TransactionLogger;
 
@@ -49,15 +44,16 @@ import org.jboss.as.txn.logging.TransactionLogger;
  * "Resources can be closed but no transactional work can be performed with them"
  */
 public class JCAOrderedLastSynchronizationList implements Synchronization {
-    private com.arjuna.ats.jta.transaction.Transaction tx;
-    private Map<Transaction, JCAOrderedLastSynchronizationList> jcaOrderedLastSynchronizations;
-    private List<Synchronization> preJcaSyncs = new ArrayList<Synchronization>();
-    private List<Synchronization> jcaSyncs = new ArrayList<Synchronization>();
+    // A typical transaction registers a few JPA synchronizations and a JCA synchronization per enlisted connection
+    private static final int INITIAL_PRE_JCA_SYNCS_CAPACITY = 4;
+    private static final int INITIAL_JCA_SYNCS_CAPACITY = 2;
 
-    public JCAOrderedLastSynchronizationList(com.arjuna.ats.jta.transaction.Transaction tx,
-        Map<Transaction, JCAOrderedLastSynchronizationList> jcaOrderedLastSynchronizations) {
+    private final com.arjuna.ats.jta.transaction.Transaction tx;
+    private final List<Synchronization> preJcaSyncs = new ArrayList<Synchronization>(INITIAL_PRE_JCA_SYNCS_CAPACITY);
+    private final List<Synchronization> jcaSyncs = new ArrayList<Synchronization>(INITIAL_JCA_SYNCS_CAPACITY);
+
+    public JCAOrderedLastSynchronizationList(com.arjuna.ats.jta.transaction.Transaction tx) {
         this.tx = tx;
-        this.jcaOrderedLastSynchronizations = jcaOrderedLastSynchronizations;
     }
 
     /**
@@ -137,8 +133,8 @@ public class JCAOrderedLastSynchronizationList implements Synchronization {
     public void afterCompletion(int status) {
         // The list should be iterated in reverse order - has issues with EJB3 if not
         // https://github.com/jbosstm/narayana/blob/master/ArjunaCore/arjuna/classes/com/arjuna/ats/arjuna/coordinator/TwoPhaseCoordinator.java#L509
-        Collections.reverse(preJcaSyncs);
-        for (Synchronization preJcaSync : preJcaSyncs) {
+        for (int i = preJcaSyncs.size() - 1; i >= 0; --i) {
+            Synchronization preJcaSync = preJcaSyncs.get(i);
             if (TransactionLogger.ROOT_LOGGER.isTraceEnabled()) {
                 TransactionLogger.ROOT_LOGGER.trace("JCAOrderedLastSynchronizationList.preJcaSyncs.afterCompletion - Class: " + preJcaSync.getClass() + " HashCode: "
                     + preJcaSync.hashCode()
@@ -152,8 +148,8 @@ public class JCAOrderedLastSynchronizationList implements Synchronization {
                 TransactionLogger.ROOT_LOGGER.preJcaSyncAfterCompletionFailed(preJcaSync, tx, e);
             }
         }
-        Collections.reverse(jcaSyncs);
-        for (Synchronization jcaSync : jcaSyncs) {
+        for (int i = jcaSyncs.size() - 1; i >= 0; --i) {
+            Synchronization jcaSync = jcaSyncs.get(i);
             if (TransactionLogger.ROOT_LOGGER.isTraceEnabled()) {
                 TransactionLogger.ROOT_LOGGER.trace("JCAOrderedLastSynchronizationList.jcaSyncs.afterCompletion - Class: " + jcaSync.getClass() + " HashCode: "
                     + jcaSync.hashCode()
@@ -168,27 +164,5 @@ public class JCAOrderedLastSynchronizationList implements Synchronization {
                 TransactionLogger.ROOT_LOGGER.jcaSyncAfterCompletionFailed(jcaSync, tx, e);
             }
         }
-
-        if (jcaOrderedLastSynchronizations.remove(tx) == null) {
-            // The identifier wasn't stable - scan for it - this can happen in JTS propagation when the UID needs retrieving
-            // from the parent and the parent has been deactivated
-            Transaction altKey = null;
-            Iterator<Entry<Transaction, JCAOrderedLastSynchronizationList>> iterator = jcaOrderedLastSynchronizations.entrySet().iterator();
-            while (altKey == null && iterator.hasNext()) {
-                Map.Entry<Transaction, JCAOrderedLastSynchronizationList> next = iterator.next();
-                if (next.getValue().equals(this)) {
-                    altKey = next.getKey();
-                    iterator.remove();
-                    if (TransactionLogger.ROOT_LOGGER.isTraceEnabled()) {
-                        TransactionLogger.ROOT_LOGGER.tracef("Removed: %s [%s]", System.identityHashCode(tx), tx.toString());
-                    }
-                    break;
-                }
-            }
-
-            if (altKey == null) {
-                TransactionLogger.ROOT_LOGGER.transactionNotFound(tx);
-            }
-        }
     }
 }
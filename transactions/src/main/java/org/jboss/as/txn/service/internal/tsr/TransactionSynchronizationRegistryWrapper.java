@@ -21,8 +21,6 @@
  */
 package org.jboss.as.txn.service.internal.tsr;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
@@ -48,12 +46,22 @@ import javax.transaction.TransactionSynchronizationRegistry;
  * One implication of this approach is that if the underlying transactions implementation has special handling for various types
  * of Synchronization that can also implement other interfaces (i.e. if interposedSync instanceof OtherInterface) these
  * behaviours cannot take effect as the underlying implementation will never directly see the actual Synchronizations.
+ *
+ * The JCA ordered Synchronization list of a transaction is stored as a transaction local resource of the delegate, so that its
+ * lifecycle is bound to that of the transaction, rather than tracked within a map keyed by transaction.
  */
 public class TransactionSynchronizationRegistryWrapper implements TransactionSynchronizationRegistry {
 
+    // Private key, so that the list cannot be retrieved or replaced via getResource(...)/putResource(...)
+    private static final Object JCA_ORDERED_LAST_SYNCHRONIZATION_LIST_KEY = new Object() {
+        @Override
+        public String toString() {
+            return JCAOrderedLastSynchronizationList.class.getName();
+        }
+    };
+
     private TransactionSynchronizationRegistry delegate;
     private TransactionManager transactionManager;
-    private ConcurrentHashMap<Transaction, JCAOrderedLastSynchronizationList> interposedSyncs = new ConcurrentHashMap<Transaction, JCAOrderedLastSynchronizationList>();
 
     public TransactionSynchronizationRegistryWrapper(TransactionSynchronizationRegistry delegate) {
         this.delegate = delegate;
@@ -66,13 +74,22 @@ public class TransactionSynchronizationRegistryWrapper implements TransactionSyn
         throws IllegalStateException {
         try {
             Transaction tx = transactionManager.getTransaction();
-            JCAOrderedLastSynchronizationList jcaOrderedLastSynchronization = interposedSyncs.get(tx);
+            if (tx == null) {
+                // Let the delegate report the missing transaction
+                delegate.registerInterposedSynchronization(sync);
+                return;
+            }
+            JCAOrderedLastSynchronizationList jcaOrderedLastSynchronization = (JCAOrderedLastSynchronizationList) delegate.getResource(JCA_ORDERED_LAST_SYNCHRONIZATION_LIST_KEY);
             if (jcaOrderedLastSynchronization == null) {
-                JCAOrderedLastSynchronizationList toPut = new JCAOrderedLastSynchronizationList((com.arjuna.ats.jta.transaction.Transaction) tx, interposedSyncs);
-                jcaOrderedLastSynchronization = interposedSyncs.putIfAbsent(tx, toPut);
-                if (jcaOrderedLastSynchronization == null) {
-                    jcaOrderedLastSynchronization = toPut;
-                    delegate.registerInterposedSynchronization(jcaOrderedLastSynchronization);
+                // Only taken by the first registration of each transaction, and only contended by threads sharing that transaction.
+                // Ensures that the list of a transaction is created and registered once, even if the transaction is used by several threads.
+                synchronized (tx) {
+                    jcaOrderedLastSynchronization = (JCAOrderedLastSynchronizationList) delegate.getResource(JCA_ORDERED_LAST_SYNCHRONIZATION_LIST_KEY);
+                    if (jcaOrderedLastSynchronization == null) {
+                        jcaOrderedLastSynchronization = new JCAOrderedLastSynchronizationList((com.arjuna.ats.jta.transaction.Transaction) tx);
+                        delegate.registerInterposedSynchronization(jcaOrderedLastSynchronization);
+                        delegate.putResource(JCA_ORDERED_LAST_SYNCHRONIZATION_LIST_KEY, jcaOrderedLastSynchronization);
+                    }
                 }
             }
             jcaOrderedLastSynchronization.registerInterposedSynchronization(sync);
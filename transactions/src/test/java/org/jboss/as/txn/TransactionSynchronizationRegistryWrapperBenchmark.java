@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.txn;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.txn.service.internal.tsr.TransactionSynchronizationRegistryWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionSynchronizationRegistryImple;
+import com.arjuna.ats.jta.common.jtaPropertyManager;
+
+/**
+ * Measures the cost of registering interposed synchronizations via {@link TransactionSynchronizationRegistryWrapper},
+ * relative to registering them directly with the underlying registry, for many concurrent transactions.
+ * Each thread interleaves the registrations of several active transactions, while as many threads as processors do the same.
+ * Not run as part of the build; run via the JMH runner, e.g.
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main TransactionSynchronizationRegistryWrapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(Threads.MAX)
+public class TransactionSynchronizationRegistryWrapperBenchmark {
+
+    private static final Synchronization SYNCHRONIZATION = new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+        }
+    };
+
+    @Param({ "1", "4" })
+    private int synchronizations;
+
+    // Active transactions per thread
+    @Param({ "1", "16" })
+    private int transactions;
+
+    private TransactionManager tm;
+    private TransactionSynchronizationRegistry delegate;
+    private TransactionSynchronizationRegistry wrapper;
+
+    @Setup
+    public void setup() {
+        jtaPropertyManager.getJTAEnvironmentBean().setTransactionManagerClassName("com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionManagerImple");
+        this.tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        this.delegate = new TransactionSynchronizationRegistryImple();
+        this.wrapper = new TransactionSynchronizationRegistryWrapper(this.delegate);
+    }
+
+    @Benchmark
+    public void delegate() throws Exception {
+        this.register(this.delegate);
+    }
+
+    @Benchmark
+    public void wrapper() throws Exception {
+        this.register(this.wrapper);
+    }
+
+    private void register(TransactionSynchronizationRegistry tsr) throws Exception {
+        Transaction[] active = new Transaction[this.transactions];
+        for (int i = 0; i < active.length; ++i) {
+            this.tm.begin();
+            active[i] = this.tm.suspend();
+        }
+        try {
+            // Register each synchronization with every transaction in turn, so that registrations of the transactions interleave
+            for (int i = 0; i < this.synchronizations; ++i) {
+                for (Transaction tx: active) {
+                    this.tm.resume(tx);
+                    try {
+                        tsr.registerInterposedSynchronization(SYNCHRONIZATION);
+                    } finally {
+                        this.tm.suspend();
+                    }
+                }
+            }
+        } finally {
+            for (Transaction tx: active) {
+                this.tm.resume(tx);
+                this.tm.commit();
+            }
+        }
+    }
+}
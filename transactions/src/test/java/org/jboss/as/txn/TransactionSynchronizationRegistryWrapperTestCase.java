@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.txn;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.txn.service.internal.tsr.JCAOrderedLastSynchronizationList;
+import org.jboss.as.txn.service.internal.tsr.TransactionSynchronizationRegistryWrapper;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionSynchronizationRegistryImple;
+import com.arjuna.ats.jta.common.jtaPropertyManager;
+
+public class TransactionSynchronizationRegistryWrapperTestCase {
+
+    @BeforeClass
+    public static void init() {
+        jtaPropertyManager.getJTAEnvironmentBean().setTransactionManagerClassName("com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionManagerImple");
+    }
+
+    @Test
+    public void orderedSynchronizationListIsTransactionResource() throws Exception {
+        RecordingRegistry delegate = new RecordingRegistry(new TransactionSynchronizationRegistryImple());
+        TransactionSynchronizationRegistry tsr = new TransactionSynchronizationRegistryWrapper(delegate);
+        TransactionManager tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        List<String> events = new ArrayList<>();
+
+        tm.begin();
+        tsr.registerInterposedSynchronization(new RecordingSynchronization("first", events));
+        tsr.registerInterposedSynchronization(new RecordingSynchronization("second", events));
+
+        // A single list per transaction, registered with, and stored as a resource of, the delegate
+        assertEquals(1, delegate.lists.size());
+        assertEquals(1, delegate.resources);
+
+        tm.commit();
+
+        assertEquals(Arrays.asList("first.beforeCompletion", "second.beforeCompletion", "second.afterCompletion", "first.afterCompletion"), events);
+
+        // A subsequent transaction gets a new list
+        tm.begin();
+        try {
+            tsr.registerInterposedSynchronization(new RecordingSynchronization("third", events));
+            assertEquals(2, delegate.lists.size());
+            assertEquals(2, delegate.resources);
+        } finally {
+            tm.rollback();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void registerWithoutTransaction() {
+        new TransactionSynchronizationRegistryWrapper(new TransactionSynchronizationRegistryImple()).registerInterposedSynchronization(new RecordingSynchronization("none", new ArrayList<String>()));
+    }
+
+    private static class RecordingSynchronization implements Synchronization {
+        private final String name;
+        private final List<String> events;
+
+        RecordingSynchronization(String name, List<String> events) {
+            this.name = name;
+            this.events = events;
+        }
+
+        @Override
+        public void beforeCompletion() {
+            this.events.add(this.name + ".beforeCompletion");
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            this.events.add(this.name + ".afterCompletion");
+        }
+    }
+
+    private static class RecordingRegistry implements TransactionSynchronizationRegistry {
+        private final TransactionSynchronizationRegistry delegate;
+        final List<Synchronization> lists = new ArrayList<>();
+        int resources = 0;
+
+        RecordingRegistry(TransactionSynchronizationRegistry delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization sync) {
+            if (sync instanceof JCAOrderedLastSynchronizationList) {
+                this.lists.add(sync);
+            }
+            this.delegate.registerInterposedSynchronization(sync);
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            if (value instanceof JCAOrderedLastSynchronizationList) {
+                this.resources += 1;
+            }
+            this.delegate.putResource(key, value);
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            return this.delegate.getResource(key);
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return this.delegate.getTransactionKey();
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return this.delegate.getTransactionStatus();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return this.delegate.getRollbackOnly();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            this.delegate.setRollbackOnly();
+        }
+    }
+}
@@ -44,6 +44,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,18 +70,7 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
             try {
                 final Map<String, SessionEntry> serializedData = new HashMap<String, SessionEntry>();
                 for (Map.Entry<String, PersistentSession> sessionEntry : sessionData.entrySet()) {
-                    Map<String, byte[]> data = new HashMap<String, byte[]>();
-                    for (Map.Entry<String, Object> sessionAttribute : sessionEntry.getValue().getSessionData().entrySet()) {
-                        try {
-                            final ByteArrayOutputStream out = new ByteArrayOutputStream();
-                            marshaller.start(new OutputStreamByteOutput(out));
-                            marshaller.writeObject(sessionAttribute.getValue());
-                            marshaller.finish();
-                            data.put(sessionAttribute.getKey(), out.toByteArray());
-                        } catch (Exception e) {
-                            UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(sessionAttribute.getKey(), sessionAttribute.getValue(), sessionEntry.getKey(), e);
-                        }
-                    }
+                    Map<String, byte[]> data = serializeAttributes(marshaller, sessionEntry.getKey(), sessionEntry.getValue().getSessionData());
                     serializedData.put(sessionEntry.getKey(), new SessionEntry(sessionEntry.getValue().getExpiration(), data));
                 }
                 persistSerializedSessions(deploymentName, serializedData);
@@ -108,12 +98,7 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
                     Map<String, PersistentSession> ret = new HashMap<String, PersistentSession>();
                     for (Map.Entry<String, SessionEntry> sessionEntry : data.entrySet()) {
                         if (sessionEntry.getValue().expiry.getTime() > time) {
-                            Map<String, Object> session = new HashMap<String, Object>();
-                            for (Map.Entry<String, byte[]> sessionAttribute : sessionEntry.getValue().data.entrySet()) {
-                                unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(sessionAttribute.getValue())));
-                                session.put(sessionAttribute.getKey(), unmarshaller.readObject());
-                                unmarshaller.finish();
-                            }
+                            Map<String, Object> session = deserializeAttributes(unmarshaller, sessionEntry.getValue().data);
                             ret.put(sessionEntry.getKey(), new PersistentSession(sessionEntry.getValue().expiry, session));
                         }
                     }
@@ -128,6 +113,47 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
         return null;
     }
 
+    /**
+     * Serializes the attributes of a session, skipping attributes that cannot be serialized.
+     */
+    protected Map<String, byte[]> serializeAttributes(Marshaller marshaller, String sessionId, Map<String, Object> attributes) {
+        return serializeAttributes(marshaller, sessionId, attributes, null);
+    }
+
+    /**
+     * Serializes the attributes of a session, skipping attributes that cannot be serialized.
+     *
+     * @param failedAttributes collects the names of the skipped attributes, or null
+     */
+    protected Map<String, byte[]> serializeAttributes(Marshaller marshaller, String sessionId, Map<String, Object> attributes, Collection<String> failedAttributes) {
+        Map<String, byte[]> data = new HashMap<String, byte[]>();
+        for (Map.Entry<String, Object> sessionAttribute : attributes.entrySet()) {
+            try {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                marshaller.start(new OutputStreamByteOutput(out));
+                marshaller.writeObject(sessionAttribute.getValue());
+                marshaller.finish();
+                data.put(sessionAttribute.getKey(), out.toByteArray());
+            } catch (Exception e) {
+                UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(sessionAttribute.getKey(), sessionAttribute.getValue(), sessionId, e);
+                if (failedAttributes != null) {
+                    failedAttributes.add(sessionAttribute.getKey());
+                }
+            }
+        }
+        return data;
+    }
+
+    protected Map<String, Object> deserializeAttributes(Unmarshaller unmarshaller, Map<String, byte[]> data) throws IOException, ClassNotFoundException {
+        Map<String, Object> session = new HashMap<String, Object>();
+        for (Map.Entry<String, byte[]> sessionAttribute : data.entrySet()) {
+            unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(sessionAttribute.getValue())));
+            session.put(sessionAttribute.getKey(), unmarshaller.readObject());
+            unmarshaller.finish();
+        }
+        return session;
+    }
+
     protected Marshaller createMarshaller() throws IOException {
         return factory.createMarshaller(configuration);
     }
@@ -57,9 +57,14 @@ class AccessLogAdd extends AbstractAddStepHandler {
         final String directory = AccessLogDefinition.DIRECTORY.resolveModelAttribute(context, model).asString();
         final String filePrefix = AccessLogDefinition.PREFIX.resolveModelAttribute(context, model).asString();
         final String fileSuffix = AccessLogDefinition.SUFFIX.resolveModelAttribute(context, model).asString();
+        final ModelNode asyncFormatModel = AccessLogDefinition.ASYNC_FORMAT.resolveModelAttribute(context, model);
+        final AccessLogFormat asyncFormat = asyncFormatModel.isDefined() ? AccessLogFormat.forName(asyncFormatModel.asString()) : null;
+        final int asyncBufferSize = AccessLogDefinition.ASYNC_BUFFER_SIZE.resolveModelAttribute(context, model).asInt();
+        final long maxFileSize = AccessLogDefinition.MAX_FILE_SIZE.resolveModelAttribute(context, model).asLong();
+        final boolean blockWhenFull = AccessLogDefinition.BLOCK_WHEN_FULL.resolveModelAttribute(context, model).asBoolean();
 
 
-        final AccessLogService service = new AccessLogService(pattern, new File(directory), filePrefix, fileSuffix);
+        final AccessLogService service = new AccessLogService(pattern, new File(directory), filePrefix, fileSuffix, asyncFormat, asyncBufferSize, maxFileSize, blockWhenFull);
         final String serverName = serverAddress.getLastElement().getValue();
         final String hostName = hostAddress.getLastElement().getValue();
 
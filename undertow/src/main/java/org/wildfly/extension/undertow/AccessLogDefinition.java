@@ -26,6 +26,10 @@ import java.util.Collection;
 import java.util.List;
 
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
@@ -33,11 +37,18 @@ import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.access.constraint.SensitivityClassification;
 import org.jboss.as.controller.access.management.AccessConstraintDefinition;
 import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraintDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.EnumValidator;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.dmr.ValueExpression;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * @author Tomaz Cerar (c) 2013 Red Hat Inc.
@@ -74,6 +85,29 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
             .setDefaultValue(new ModelNode(new ValueExpression("${jboss.server.log.dir}")))
             .setAllowExpression(true)
             .build();
+    protected static final SimpleAttributeDefinition ASYNC_FORMAT = new SimpleAttributeDefinitionBuilder(Constants.ASYNC_FORMAT, ModelType.STRING, true)
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .setValidator(new EnumValidator<>(AccessLogFormat.class, true, true))
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition ASYNC_BUFFER_SIZE = new SimpleAttributeDefinitionBuilder(Constants.ASYNC_BUFFER_SIZE, ModelType.INT, true)
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .setValidator(new IntRangeValidator(1, AsyncAccessLogReceiver.MAX_BUFFER_SIZE, true, true))
+            .setDefaultValue(new ModelNode(AsyncAccessLogReceiver.DEFAULT_BUFFER_SIZE))
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition MAX_FILE_SIZE = new SimpleAttributeDefinitionBuilder(Constants.MAX_FILE_SIZE, ModelType.LONG, true)
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .setValidator(new LongRangeValidator(0, true, true))
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .setDefaultValue(new ModelNode(0L))
+            .setAllowExpression(true)
+            .build();
+    protected static final SimpleAttributeDefinition BLOCK_WHEN_FULL = new SimpleAttributeDefinitionBuilder(Constants.BLOCK_WHEN_FULL, ModelType.BOOLEAN, true)
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .setDefaultValue(new ModelNode(false))
+            .setAllowExpression(true)
+            .build();
     static final Collection<SimpleAttributeDefinition> ATTRIBUTES = Arrays.asList(
             // IMPORTANT -- keep these in xsd order as this order controls marshalling
             WORKER,
@@ -81,8 +115,15 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
             PREFIX,
             SUFFIX,
             ROTATE,
-            DIRECTORY
+            DIRECTORY,
+            ASYNC_FORMAT,
+            ASYNC_BUFFER_SIZE,
+            MAX_FILE_SIZE,
+            BLOCK_WHEN_FULL
     );
+    static final AttributeDefinition DROPPED_COUNT = new SimpleAttributeDefinitionBuilder("dropped-count", ModelType.LONG, true).setStorageRuntime().build();
+    static final AttributeDefinition WRITTEN_COUNT = new SimpleAttributeDefinitionBuilder("written-count", ModelType.LONG, true).setStorageRuntime().build();
+    static final AttributeDefinition WRITTEN_BYTES = new SimpleAttributeDefinitionBuilder("written-bytes", ModelType.LONG, true).setMeasurementUnit(MeasurementUnit.BYTES).setStorageRuntime().build();
     static final AccessLogDefinition INSTANCE = new AccessLogDefinition();
     private final List<AccessConstraintDefinition> accessConstraints;
 
@@ -103,4 +144,38 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
         //noinspection unchecked
         return (Collection) ATTRIBUTES;
     }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        for (AttributeDefinition metric : Arrays.asList(DROPPED_COUNT, WRITTEN_COUNT, WRITTEN_BYTES)) {
+            resourceRegistration.registerMetric(metric, ReadMetricHandler.INSTANCE);
+        }
+    }
+
+    private static class ReadMetricHandler implements OperationStepHandler {
+
+        static final ReadMetricHandler INSTANCE = new ReadMetricHandler();
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final PathAddress address = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR));
+            final PathAddress hostAddress = address.getParent();
+            final String hostName = hostAddress.getLastElement().getValue();
+            final String serverName = hostAddress.getParent().getLastElement().getValue();
+            final String metric = operation.require(ModelDescriptionConstants.NAME).asString();
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.accessLogServiceName(serverName, hostName));
+            final AccessLogService service = ((controller != null) && (controller.getState() == ServiceController.State.UP)) ? (AccessLogService) controller.getValue() : null;
+            if (service == null) {
+                context.getResult().set(0L);
+            } else if (metric.equals(DROPPED_COUNT.getName())) {
+                context.getResult().set(service.getDroppedCount());
+            } else if (metric.equals(WRITTEN_COUNT.getName())) {
+                context.getResult().set(service.getWrittenCount());
+            } else if (metric.equals(WRITTEN_BYTES.getName())) {
+                context.getResult().set(service.getWrittenBytes());
+            }
+            context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
+        }
+    }
 }
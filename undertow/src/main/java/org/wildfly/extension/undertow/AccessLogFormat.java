@@ -0,0 +1,265 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import io.undertow.util.HttpString;
+
+/**
+ * Formats of the access log written by an {@link AsyncAccessLogReceiver}.
+ * Formatting only ever happens on the writer thread of a receiver.
+ */
+enum AccessLogFormat {
+    /**
+     * Common or combined log format, as written by Undertow's own access log receiver.
+     */
+    TEXT {
+        @Override
+        void format(AccessLogRecord record, StringBuilder builder) {
+            if (record.message != null) {
+                builder.append(record.message);
+            } else {
+                append(builder, formatRemoteAddress(record.remoteAddress)).append(" - ");
+                append(builder, record.user).append(" [").append(DATE_FORMAT.get().format(new Date(record.timestamp))).append("] \"");
+                builder.append(record.method).append(' ').append(record.uri);
+                if ((record.query != null) && !record.query.isEmpty()) {
+                    builder.append('?').append(record.query);
+                }
+                builder.append(' ').append(record.protocol).append("\" ").append(record.status).append(' ');
+                if (record.bytes > 0) {
+                    builder.append(record.bytes);
+                } else {
+                    builder.append('-');
+                }
+                if (record.combined) {
+                    builder.append(" \"");
+                    append(builder, record.referer).append("\" \"");
+                    append(builder, record.userAgent).append('"');
+                }
+            }
+            builder.append('\n');
+        }
+    },
+    /**
+     * One JSON object per line, suitable for log shippers.
+     */
+    JSON {
+        @Override
+        void format(AccessLogRecord record, StringBuilder builder) {
+            builder.append('{');
+            if (record.message != null) {
+                appendJson(builder, "message", record.message);
+            } else {
+                builder.append("\"timestamp\":").append(record.timestamp);
+                if (record.duration >= 0) {
+                    builder.append(",\"duration\":").append(TimeUnit.NANOSECONDS.toMicros(record.duration));
+                }
+                builder.append(',');
+                appendJson(builder, "remoteAddress", formatRemoteAddress(record.remoteAddress));
+                builder.append(',');
+                appendJson(builder, "user", record.user);
+                builder.append(',');
+                appendJson(builder, "method", toString(record.method));
+                builder.append(',');
+                appendJson(builder, "uri", record.uri);
+                builder.append(',');
+                appendJson(builder, "query", record.query);
+                builder.append(',');
+                appendJson(builder, "protocol", toString(record.protocol));
+                builder.append(",\"status\":").append(record.status);
+                builder.append(",\"bytes\":").append(record.bytes);
+                if (record.combined) {
+                    builder.append(',');
+                    appendJson(builder, "referer", record.referer);
+                    builder.append(',');
+                    appendJson(builder, "userAgent", record.userAgent);
+                }
+            }
+            builder.append("}\n");
+        }
+    },
+    /**
+     * Compact binary format, in which each record is prefixed by its length as a 4 byte integer, followed by:
+     * <ol>
+     * <li>a version byte, currently 1</li>
+     * <li>a flags byte, where bit 0 indicates a preformatted record, consisting only of a message string</li>
+     * <li>otherwise, the timestamp in milliseconds (8 bytes), the duration in microseconds or -1 (8 bytes),
+     * the status (2 bytes), the response size (8 bytes), followed by the remote address, user, method, URI, query, protocol, referer,
+     * and user agent strings.</li>
+     * </ol>
+     * Strings are UTF-8 encoded, prefixed by their encoded length as an unsigned 2 byte integer, where 0xFFFF denotes null.
+     */
+    BINARY {
+        @Override
+        boolean isBinary() {
+            return true;
+        }
+
+        @Override
+        ByteBuffer encode(AccessLogRecord record, ByteBuffer buffer) {
+            while (true) {
+                buffer.clear();
+                try {
+                    buffer.putInt(0);
+                    buffer.put(BINARY_VERSION);
+                    if (record.message != null) {
+                        buffer.put((byte) 1);
+                        putString(buffer, record.message);
+                    } else {
+                        buffer.put((byte) 0);
+                        buffer.putLong(record.timestamp);
+                        buffer.putLong((record.duration >= 0) ? TimeUnit.NANOSECONDS.toMicros(record.duration) : -1L);
+                        buffer.putShort((short) record.status);
+                        buffer.putLong(record.bytes);
+                        putString(buffer, formatRemoteAddress(record.remoteAddress));
+                        putString(buffer, record.user);
+                        putString(buffer, toString(record.method));
+                        putString(buffer, record.uri);
+                        putString(buffer, record.query);
+                        putString(buffer, toString(record.protocol));
+                        putString(buffer, record.combined ? record.referer : null);
+                        putString(buffer, record.combined ? record.userAgent : null);
+                    }
+                    buffer.putInt(0, buffer.position() - 4);
+                    buffer.flip();
+                    return buffer;
+                } catch (BufferOverflowException e) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+            }
+        }
+    },
+    ;
+
+    static final byte BINARY_VERSION = 1;
+    private static final int MAX_STRING_LENGTH = 0xFFFE;
+
+    static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("dd/MMM/yyyy:HH:mm:ss Z", Locale.US);
+        }
+    };
+
+    /**
+     * Indicates whether records are encoded via {@link #encode(AccessLogRecord, ByteBuffer)}, rather than formatted as text.
+     */
+    boolean isBinary() {
+        return false;
+    }
+
+    /**
+     * Formats the specified record as a single line of text.
+     */
+    void format(AccessLogRecord record, StringBuilder builder) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Encodes the specified record into the specified buffer, or into a larger buffer, if the record does not fit.
+     * @return the flipped buffer containing the encoded record
+     */
+    ByteBuffer encode(AccessLogRecord record, ByteBuffer buffer) {
+        throw new UnsupportedOperationException();
+    }
+
+    static AccessLogFormat forName(String name) {
+        for (AccessLogFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    static String formatRemoteAddress(InetSocketAddress address) {
+        if (address == null) {
+            return null;
+        }
+        InetAddress inetAddress = address.getAddress();
+        return (inetAddress != null) ? inetAddress.getHostAddress() : address.getHostString();
+    }
+
+    static String toString(HttpString value) {
+        return (value != null) ? value.toString() : null;
+    }
+
+    static StringBuilder append(StringBuilder builder, String value) {
+        return builder.append((value != null) ? value : "-");
+    }
+
+    static void appendJson(StringBuilder builder, String name, String value) {
+        builder.append('"').append(name).append("\":");
+        if (value == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) 0xFFFF);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_LENGTH);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+}
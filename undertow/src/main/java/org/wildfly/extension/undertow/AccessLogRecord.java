@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import java.net.InetSocketAddress;
+
+import io.undertow.util.HttpString;
+
+/**
+ * Preallocated slot of the ring buffer of an {@link AsyncAccessLogReceiver}.
+ * Request threads only capture references to values that already exist on the exchange, which the writer thread formats later.
+ * If {@link #message} is set, the record was preformatted, and all other values are undefined.
+ */
+final class AccessLogRecord {
+
+    // Sequence under which this record was last published, written by the publishing request thread
+    volatile long published = -1L;
+    // Sequence under which this record was last claimed, only accessed by the claiming request thread
+    long claimed = -1L;
+
+    long timestamp;
+    long duration;
+    int status;
+    long bytes;
+    InetSocketAddress remoteAddress;
+    String user;
+    HttpString method;
+    String uri;
+    String query;
+    HttpString protocol;
+    String referer;
+    String userAgent;
+    String message;
+    // Indicates whether referer and user agent were captured, i.e. whether this record uses the combined, rather than common, log format
+    boolean combined;
+
+    void clear() {
+        this.remoteAddress = null;
+        this.user = null;
+        this.method = null;
+        this.uri = null;
+        this.query = null;
+        this.protocol = null;
+        this.referer = null;
+        this.userAgent = null;
+        this.message = null;
+    }
+}
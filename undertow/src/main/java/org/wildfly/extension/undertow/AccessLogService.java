@@ -47,13 +47,24 @@ class AccessLogService implements Service<AccessLogService> {
     private final File directory;
     private final String filePrefix;
     private final String fileSuffix;
+    private final AccessLogFormat asyncFormat;
+    private final int asyncBufferSize;
+    private final long maxFileSize;
+    private final boolean blockWhenFull;
     private volatile AccessLogReceiver logReceiver;
 
-    AccessLogService(String pattern, File directory, String filePrefix, String fileSuffix) {
+    /**
+     * @param asyncFormat the format of the asynchronous access log receiver, or null, to use Undertow's default receiver
+     */
+    AccessLogService(String pattern, File directory, String filePrefix, String fileSuffix, AccessLogFormat asyncFormat, int asyncBufferSize, long maxFileSize, boolean blockWhenFull) {
         this.pattern = pattern;
         this.directory = directory;
         this.filePrefix = filePrefix;
         this.fileSuffix = fileSuffix;
+        this.asyncFormat = asyncFormat;
+        this.asyncBufferSize = asyncBufferSize;
+        this.maxFileSize = maxFileSize;
+        this.blockWhenFull = blockWhenFull;
     }
 
     @Override
@@ -64,7 +75,13 @@ class AccessLogService implements Service<AccessLogService> {
             }
         }
         try {
-            logReceiver = new DefaultAccessLogReceiver(worker.getValue(), directory, filePrefix, fileSuffix);
+            if (asyncFormat != null) {
+                AsyncAccessLogReceiver asyncReceiver = new AsyncAccessLogReceiver(directory, filePrefix, fileSuffix, asyncFormat, asyncBufferSize, maxFileSize, blockWhenFull);
+                asyncReceiver.start();
+                logReceiver = asyncReceiver;
+            } else {
+                logReceiver = new DefaultAccessLogReceiver(worker.getValue(), directory, filePrefix, fileSuffix);
+            }
         } catch (IllegalStateException e) {
             throw new StartException(e);
         }
@@ -72,7 +89,9 @@ class AccessLogService implements Service<AccessLogService> {
 
     @Override
     public void stop(StopContext context) {
-
+        if (logReceiver instanceof AsyncAccessLogReceiver) {
+            ((AsyncAccessLogReceiver) logReceiver).close();
+        }
     }
 
     @Override
@@ -84,7 +103,34 @@ class AccessLogService implements Service<AccessLogService> {
         return worker;
     }
 
-    protected AccessLogHandler configureAccessLogHandler(HttpHandler handler) {
+    /**
+     * Returns the number of access log entries dropped by the asynchronous receiver, or 0, if the default receiver is used.
+     */
+    long getDroppedCount() {
+        AccessLogReceiver receiver = logReceiver;
+        return (receiver instanceof AsyncAccessLogReceiver) ? ((AsyncAccessLogReceiver) receiver).getDroppedCount() : 0L;
+    }
+
+    /**
+     * Returns the number of access log entries written by the asynchronous receiver, or 0, if the default receiver is used.
+     */
+    long getWrittenCount() {
+        AccessLogReceiver receiver = logReceiver;
+        return (receiver instanceof AsyncAccessLogReceiver) ? ((AsyncAccessLogReceiver) receiver).getWrittenCount() : 0L;
+    }
+
+    /**
+     * Returns the number of bytes written by the asynchronous receiver, or 0, if the default receiver is used.
+     */
+    long getWrittenBytes() {
+        AccessLogReceiver receiver = logReceiver;
+        return (receiver instanceof AsyncAccessLogReceiver) ? ((AsyncAccessLogReceiver) receiver).getWrittenBytes() : 0L;
+    }
+
+    protected HttpHandler configureAccessLogHandler(HttpHandler handler) {
+        if ((logReceiver instanceof AsyncAccessLogReceiver) && AsyncAccessLogHandler.isSupported(pattern)) {
+            return new AsyncAccessLogHandler(handler, (AsyncAccessLogReceiver) logReceiver, pattern);
+        }
         return new AccessLogHandler(handler, logReceiver, pattern, AccessLogService.class.getClassLoader());
     }
 
@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import io.undertow.security.api.SecurityContext;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+
+/**
+ * Access log handler for the common and combined log formats, which defers formatting to the writer thread of an {@link AsyncAccessLogReceiver}.
+ * On completion of an exchange, this only captures references to the logged values into a preallocated record.
+ */
+class AsyncAccessLogHandler implements HttpHandler {
+
+    private static final String COMMON = "common";
+    private static final String COMBINED = "combined";
+
+    private final HttpHandler next;
+    private final AsyncAccessLogReceiver receiver;
+    private final boolean combined;
+    private final ExchangeCompletionListener listener = new ExchangeCompletionListener() {
+        @Override
+        public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+            try {
+                AsyncAccessLogHandler.this.log(exchange);
+            } finally {
+                nextListener.proceed();
+            }
+        }
+    };
+
+    /**
+     * Indicates whether the specified access log pattern can be formatted lazily by this handler.
+     */
+    static boolean isSupported(String pattern) {
+        return pattern.equals(COMMON) || pattern.equals(COMBINED);
+    }
+
+    AsyncAccessLogHandler(HttpHandler next, AsyncAccessLogReceiver receiver, String pattern) {
+        this.next = next;
+        this.receiver = receiver;
+        this.combined = pattern.equals(COMBINED);
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        exchange.addExchangeCompleteListener(this.listener);
+        this.next.handleRequest(exchange);
+    }
+
+    void log(HttpServerExchange exchange) {
+        AccessLogRecord record = this.receiver.claim();
+        if (record == null) return;
+        try {
+            record.timestamp = System.currentTimeMillis();
+            long start = exchange.getRequestStartTime();
+            record.duration = (start > 0) ? System.nanoTime() - start : -1L;
+            record.status = exchange.getResponseCode();
+            record.bytes = exchange.getResponseBytesSent();
+            record.remoteAddress = exchange.getSourceAddress();
+            SecurityContext securityContext = exchange.getSecurityContext();
+            record.user = ((securityContext != null) && securityContext.isAuthenticated()) ? securityContext.getAuthenticatedAccount().getPrincipal().getName() : null;
+            record.method = exchange.getRequestMethod();
+            record.uri = exchange.getRequestURI();
+            record.query = exchange.getQueryString();
+            record.protocol = exchange.getProtocol();
+            record.combined = this.combined;
+            if (this.combined) {
+                record.referer = exchange.getRequestHeaders().getFirst(Headers.REFERER);
+                record.userAgent = exchange.getRequestHeaders().getFirst(Headers.USER_AGENT);
+            }
+        } finally {
+            // Always publish a claimed record, otherwise the writer thread would stall
+            this.receiver.publish(record);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.undertow.server.handlers.accesslog.AccessLogReceiver;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+
+/**
+ * Access log receiver that decouples request threads from formatting and file I/O via a preallocated ring buffer of {@link AccessLogRecord}s.
+ * Request threads claim a record, capture the values to log and publish the record, which a dedicated writer thread formats lazily.
+ * Formatted records are written in batches, via a direct buffer, to a {@link FileChannel}, which is rotated daily,
+ * and, optionally, whenever it exceeds a maximum size.
+ * If the ring buffer is full, records are dropped and counted, unless the receiver is configured to block until space is available.
+ * If the file cannot be written, the writer thread discards records, and backs off exponentially before it reopens the file.
+ * Preformatted messages, as logged by Undertow's own {@link io.undertow.server.handlers.accesslog.AccessLogHandler}, are supported as well.
+ *
+ * This receiver is used instead of Undertow's {@link io.undertow.server.handlers.accesslog.DefaultAccessLogReceiver}
+ * if the async-format attribute of the access log specifies one of the {@link AccessLogFormat}s.
+ */
+class AsyncAccessLogReceiver implements AccessLogReceiver, Runnable, Closeable {
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int MAX_BUFFER_SIZE = 1 << 24;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long DROP_REPORT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long ERROR_REPORT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long MIN_RETRY_DELAY = 100L;
+    private static final long MAX_RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
+
+    private final File directory;
+    private final String prefix;
+    private final String suffix;
+    private final File file;
+    private final AccessLogFormat format;
+    private final long maxFileSize;
+    private final boolean blockWhenFull;
+
+    private final AccessLogRecord[] records;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Next sequence to be written, only advanced by the writer thread
+    private volatile long head = 0L;
+    private volatile boolean closed = false;
+    private final Thread writer;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+
+    // State confined to the writer thread
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final StringBuilder builder = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+    private FileChannel channel;
+    private long fileSize;
+    private long nextRotation;
+    private String period;
+    private long reportedDropCount = 0L;
+    private long lastDropReport = 0L;
+    private long lastErrorReport = 0L;
+    private long retryDelay = 0L;
+    private long retryTime = 0L;
+
+    AsyncAccessLogReceiver(File directory, String prefix, String suffix, AccessLogFormat format, int bufferSize, long maxFileSize, boolean blockWhenFull) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.file = new File(directory, prefix + suffix);
+        this.format = format;
+        this.maxFileSize = maxFileSize;
+        this.blockWhenFull = blockWhenFull;
+        int capacity = 1;
+        while (capacity < bufferSize) {
+            capacity <<= 1;
+        }
+        this.records = new AccessLogRecord[capacity];
+        for (int i = 0; i < capacity; ++i) {
+            this.records[i] = new AccessLogRecord();
+        }
+        this.mask = capacity - 1;
+        this.writer = new Thread(this, "access-log-writer-" + this.file.getName());
+        this.writer.setDaemon(true);
+    }
+
+    void start() {
+        this.writer.start();
+    }
+
+    @Override
+    public void logMessage(String message) {
+        AccessLogRecord record = this.claim();
+        if (record != null) {
+            record.message = message;
+            this.publish(record);
+        }
+    }
+
+    /**
+     * Claims the next record of the ring buffer.
+     * The caller must populate and then {@link #publish(AccessLogRecord)} the record.
+     * @return a record, or null, if the ring buffer is full and the record was dropped
+     */
+    AccessLogRecord claim() {
+        while (!this.closed) {
+            long sequence = this.tail.get();
+            if (sequence - this.head >= this.records.length) {
+                if (!this.blockWhenFull) {
+                    break;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            } else if (this.tail.compareAndSet(sequence, sequence + 1)) {
+                AccessLogRecord record = this.records[(int) (sequence & this.mask)];
+                record.claimed = sequence;
+                return record;
+            }
+        }
+        this.droppedCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Makes a claimed and populated record available to the writer thread.
+     */
+    void publish(AccessLogRecord record) {
+        record.published = record.claimed;
+    }
+
+    /**
+     * Returns the number of records dropped, since the ring buffer was full.
+     */
+    long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    /**
+     * Returns the number of records written to the access log.
+     */
+    long getWrittenCount() {
+        return this.writtenCount.get();
+    }
+
+    /**
+     * Returns the number of bytes written to the access log.
+     */
+    long getWrittenBytes() {
+        return this.writtenBytes.get();
+    }
+
+    @Override
+    public void run() {
+        long sequence = this.head;
+        while (true) {
+            AccessLogRecord record = this.records[(int) (sequence & this.mask)];
+            try {
+                if (record.published == sequence) {
+                    try {
+                        this.write(record);
+                    } finally {
+                        record.clear();
+                        this.head = ++sequence;
+                    }
+                } else {
+                    this.flush();
+                    this.reportDrops();
+                    if (this.closed && (this.tail.get() == sequence)) {
+                        break;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (IOException e) {
+                this.reportFailure(e);
+                // Discard the current batch, and back off before reopening the file
+                this.buffer.clear();
+                this.closeChannel();
+                this.retryDelay = (this.retryDelay > 0L) ? Math.min(this.retryDelay * 2, MAX_RETRY_DELAY) : MIN_RETRY_DELAY;
+                this.retryTime = System.currentTimeMillis() + this.retryDelay;
+            }
+        }
+        this.closeChannel();
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(AccessLogRecord record) throws IOException {
+        if (this.channel == null) {
+            if ((this.retryDelay > 0L) && (System.currentTimeMillis() < this.retryTime)) {
+                // Rather than retry the file for every record, discard records until the retry delay elapsed
+                this.droppedCount.incrementAndGet();
+                return;
+            }
+            this.open();
+        } else if (System.currentTimeMillis() >= this.nextRotation) {
+            this.rotate(false);
+        }
+        ByteBuffer bytes;
+        if (this.format.isBinary()) {
+            this.scratch = this.format.encode(record, this.scratch);
+            bytes = this.scratch;
+        } else {
+            this.builder.setLength(0);
+            this.format.format(record, this.builder);
+            bytes = null;
+        }
+        if ((this.maxFileSize > 0) && (this.fileSize + this.buffer.position() > this.maxFileSize)) {
+            this.rotate(true);
+        }
+        if (bytes != null) {
+            while (bytes.hasRemaining()) {
+                if (!this.buffer.hasRemaining()) {
+                    this.flush();
+                }
+                int length = Math.min(bytes.remaining(), this.buffer.remaining());
+                ByteBuffer slice = bytes.duplicate();
+                slice.limit(slice.position() + length);
+                this.buffer.put(slice);
+                bytes.position(bytes.position() + length);
+            }
+        } else {
+            CharBuffer chars = CharBuffer.wrap(this.builder);
+            this.encoder.reset();
+            CoderResult result = this.encoder.encode(chars, this.buffer, true);
+            while (result.isOverflow()) {
+                this.flush();
+                result = this.encoder.encode(chars, this.buffer, true);
+            }
+            result = this.encoder.flush(this.buffer);
+            while (result.isOverflow()) {
+                this.flush();
+                result = this.encoder.flush(this.buffer);
+            }
+        }
+        this.writtenCount.incrementAndGet();
+    }
+
+    private void flush() throws IOException {
+        if ((this.channel != null) && (this.buffer.position() > 0)) {
+            this.buffer.flip();
+            try {
+                while (this.buffer.hasRemaining()) {
+                    int written = this.channel.write(this.buffer);
+                    this.fileSize += written;
+                    this.writtenBytes.addAndGet(written);
+                }
+                this.retryDelay = 0L;
+            } finally {
+                this.buffer.clear();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        long now = System.currentTimeMillis();
+        if (this.file.exists() && (this.file.lastModified() < startOfDay(now))) {
+            // Log file of a previous day, left behind by a previous run
+            this.period = formatPeriod(this.file.lastModified());
+            try {
+                this.archive();
+            } catch (IOException e) {
+                // Continue appending to the existing file
+                UndertowLogger.ROOT_LOGGER.debugf(e, "Failed to archive access log %s", this.file);
+            }
+        }
+        this.period = formatPeriod(now);
+        this.nextRotation = startOfDay(now) + TimeUnit.DAYS.toMillis(1);
+        this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fileSize = this.channel.size();
+    }
+
+    private void rotate(boolean sizeExceeded) throws IOException {
+        this.flush();
+        this.closeChannel();
+        this.archive();
+        long now = System.currentTimeMillis();
+        if (!sizeExceeded) {
+            this.period = formatPeriod(now);
+        }
+        this.nextRotation = startOfDay(now) + TimeUnit.DAYS.toMillis(1);
+        this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fileSize = 0L;
+    }
+
+    private void archive() throws IOException {
+        File target = new File(this.directory, this.prefix + this.period + "." + this.suffix);
+        int index = 1;
+        while (target.exists()) {
+            target = new File(this.directory, this.prefix + this.period + "-" + index++ + "." + this.suffix);
+        }
+        if (!this.file.renameTo(target)) {
+            throw new IOException(target.getPath());
+        }
+    }
+
+    private void closeChannel() {
+        if (this.channel != null) {
+            try {
+                this.flush();
+            } catch (IOException e) {
+                this.reportFailure(e);
+            }
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                this.reportFailure(e);
+            }
+            this.channel = null;
+        }
+    }
+
+    private void reportDrops() {
+        long dropped = this.droppedCount.get();
+        if (dropped > this.reportedDropCount) {
+            long now = System.currentTimeMillis();
+            if (now - this.lastDropReport >= DROP_REPORT_INTERVAL) {
+                UndertowLogger.ROOT_LOGGER.droppedAccessLogEntries(dropped - this.reportedDropCount, this.file);
+                this.reportedDropCount = dropped;
+                this.lastDropReport = now;
+            }
+        }
+    }
+
+    /**
+     * Logs the specified failure as an error, unless a failure was logged as an error within the last minute.
+     */
+    private void reportFailure(IOException e) {
+        long now = System.currentTimeMillis();
+        if (now - this.lastErrorReport >= ERROR_REPORT_INTERVAL) {
+            UndertowLogger.ROOT_LOGGER.failedToWriteAccessLog(this.file, e);
+            this.lastErrorReport = now;
+        } else {
+            UndertowLogger.ROOT_LOGGER.debugf(e, "Failed to write access log %s", this.file);
+        }
+    }
+
+    private static long startOfDay(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    private static String formatPeriod(long time) {
+        return new SimpleDateFormat("yyyy-MM-dd").format(new Date(time));
+    }
+}
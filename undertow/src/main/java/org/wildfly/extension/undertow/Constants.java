@@ -40,10 +40,16 @@ public interface Constants {
     String SECURITY_REALM = "security-realm";
     String SOCKET_BINDING = "socket-binding";
     String PATH = "path";
+    String FLUSH_INTERVAL = "flush-interval";
     String HTTP_LISTENER = "http-listener";
     String HTTPS_LISTENER = "https-listener";
     String LISTENER = "listener";
     String INSTANCE_ID = "instance-id";
+    String ASYNC_FORMAT = "async-format";
+    String ASYNC_BUFFER_SIZE = "async-buffer-size";
+    String MAX_FILE_SIZE = "max-file-size";
+    String BLOCK_WHEN_FULL = "block-when-full";
+    String STATISTICS_HISTOGRAM_WINDOW = "statistics-histogram-window";
     String NAME = "name";
     String WORKER = "worker";
     String SERVLET_CONTAINER = "servlet-container";
@@ -135,10 +141,16 @@ public interface Constants {
     String SESSION_COOKIE_NAMES = "session-cookie-names";
     String CONNECTIONS_PER_THREAD = "connections-per-thread";
     String REVERSE_PROXY = "reverse-proxy";
+    String BALANCING_STRATEGY = "balancing-strategy";
+    String HASH_HEADER = "hash-header";
     String MAX_REQUEST_TIME = "max-request-time";
     String CERTIFICATE_FORWARDING = "certificate-forwarding";
     String OPTIONS = "options";
     String IGNORE_FLUSH = "ignore-flush";
+    String SESSION_EXPIRATION_SCHEDULER = "session-expiration-scheduler";
+    String SESSION_DELTA_REPLICATION = "session-delta-replication";
+    String SESSION_LAST_ACCESSED_TIME_THRESHOLD = "session-last-accessed-time-threshold";
+    String PRECOMPRESSED_RESOURCE_ENCODINGS = "precompressed-resource-encodings";
 
     String WEBSOCKETS = "websockets";
     //mod_cluster
@@ -156,4 +168,12 @@ public interface Constants {
     String REQUEST_QUEUE_SIZE = "request-queue-size";
     String CACHED_CONNECTIONS_PER_THREAD = "cached-connections-per-thread";
     String CONNECTION_IDLE_TIMEOUT = "connection-idle-timeout";
+    String ADAPTIVE_CONCURRENCY_LIMIT = "adaptive-concurrency-limit";
+    String INITIAL_LIMIT = "initial-limit";
+    String MIN_LIMIT = "min-limit";
+    String MAX_LIMIT = "max-limit";
+    String QUEUE_SIZE = "queue-size";
+    String QUEUE_TIMEOUT = "queue-timeout";
+    String PRIORITY_PATHS = "priority-paths";
+    String PRIORITY_RESERVE = "priority-reserve";
 }
@@ -28,6 +28,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 
+import io.undertow.server.handlers.resource.ResourceManager;
 import io.undertow.server.session.SessionManager;
 import io.undertow.server.session.SessionManagerStatistics;
 import io.undertow.servlet.api.Deployment;
@@ -45,7 +46,9 @@ import org.jboss.as.controller.registry.Resource;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceController;
+import org.wildfly.extension.undertow.deployment.PrecompressedResourceManager;
 import org.wildfly.extension.undertow.deployment.UndertowDeploymentService;
+import org.wildfly.extension.undertow.session.DistributableSessionManagerStatistics;
 import org.wildfly.extension.undertow.logging.UndertowLogger;
 
 /**
@@ -71,6 +74,24 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
         for (SessionStat stat : SessionStat.values()) {
             resourceRegistration.registerMetric(stat.definition, SessionManagerStatsHandler.getInstance());
         }
+        for (PrecompressedResourceStat stat : PrecompressedResourceStat.values()) {
+            resourceRegistration.registerMetric(stat.definition, PrecompressedResourceStatsHandler.INSTANCE);
+        }
+    }
+
+    static Deployment getDeployment(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final PathAddress address = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR));
+
+        final Resource web = context.readResourceFromRoot(address.subAddress(0, address.size()), false);
+        final ModelNode subModel = web.getModel();
+
+        final String host = VIRTUAL_HOST.resolveModelAttribute(context, subModel).asString();
+        final String path = CONTEXT_ROOT.resolveModelAttribute(context, subModel).asString();
+        final String server = SERVER.resolveModelAttribute(context, subModel).asString();
+
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.deploymentServiceName(server, host, path));
+        final UndertowDeploymentService deploymentService = (UndertowDeploymentService) controller.getService();
+        return deploymentService.getDeployment();
     }
 
     static class SessionManagerStatsHandler extends AbstractRuntimeOnlyHandler {
@@ -87,22 +108,12 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
         @Override
         protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
 
-            final PathAddress address = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR));
-
-            final Resource web = context.readResourceFromRoot(address.subAddress(0, address.size()), false);
-            final ModelNode subModel = web.getModel();
-
-            final String host = VIRTUAL_HOST.resolveModelAttribute(context, subModel).asString();
-            final String path = CONTEXT_ROOT.resolveModelAttribute(context, subModel).asString();
-            final String server = SERVER.resolveModelAttribute(context, subModel).asString();
-
-            final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.deploymentServiceName(server, host, path));
-            final UndertowDeploymentService deploymentService = (UndertowDeploymentService) controller.getService();
-            Deployment deployment = deploymentService.getDeployment();
+            Deployment deployment = getDeployment(context, operation);
             SessionManager sessionManager = deployment.getSessionManager();
 
             SessionStat stat = SessionStat.getStat(operation.require(ModelDescriptionConstants.NAME).asString());
             SessionManagerStatistics sms = sessionManager instanceof SessionManagerStatistics ? (SessionManagerStatistics) sessionManager : null;
+            DistributableSessionManagerStatistics dsms = sessionManager instanceof DistributableSessionManagerStatistics ? (DistributableSessionManagerStatistics) sessionManager : null;
 
             if (stat == null) {
                 context.getFailureDescription().set(UndertowLogger.ROOT_LOGGER.unknownMetric(operation.require(ModelDescriptionConstants.NAME).asString()));
@@ -157,6 +168,34 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
                             result.set((int)sms.getRejectedSessions());
                         }
                         break;
+                    case SESSION_ATTRIBUTE_FLUSH_COUNT:
+                        if(dsms == null) {
+                            result.set(0L);
+                        } else {
+                            result.set(dsms.getAttributeFlushCount());
+                        }
+                        break;
+                    case SESSION_ATTRIBUTE_WRITE_COUNT:
+                        if(dsms == null) {
+                            result.set(0L);
+                        } else {
+                            result.set(dsms.getAttributeWriteCount());
+                        }
+                        break;
+                    case SESSION_DELTA_REPLICATION_COUNT:
+                        if(dsms == null) {
+                            result.set(0L);
+                        } else {
+                            result.set(dsms.getDeltaReplicationCount());
+                        }
+                        break;
+                    case SESSION_DELTA_REPLICATION_BYTES:
+                        if(dsms == null) {
+                            result.set(0L);
+                        } else {
+                            result.set(dsms.getDeltaReplicationBytes());
+                        }
+                        break;
                     default:
                         throw new IllegalStateException(UndertowLogger.ROOT_LOGGER.unknownMetric(stat));
                 }
@@ -168,6 +207,78 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
 
     }
 
+    static class PrecompressedResourceStatsHandler extends AbstractRuntimeOnlyHandler {
+
+        static final PrecompressedResourceStatsHandler INSTANCE = new PrecompressedResourceStatsHandler();
+
+        private PrecompressedResourceStatsHandler() {
+        }
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            PrecompressedResourceStat stat = PrecompressedResourceStat.getStat(operation.require(ModelDescriptionConstants.NAME).asString());
+            if (stat == null) {
+                context.getFailureDescription().set(UndertowLogger.ROOT_LOGGER.unknownMetric(operation.require(ModelDescriptionConstants.NAME).asString()));
+            } else {
+                ResourceManager resourceManager = getDeployment(context, operation).getDeploymentInfo().getResourceManager();
+                PrecompressedResourceManager prm = resourceManager instanceof PrecompressedResourceManager ? (PrecompressedResourceManager) resourceManager : null;
+                ModelNode result = new ModelNode();
+                switch (stat) {
+                    case HIT_COUNT:
+                        result.set((prm != null) ? prm.getHitCount() : 0L);
+                        break;
+                    case SIBLING_HIT_COUNT:
+                        result.set((prm != null) ? prm.getSiblingHitCount() : 0L);
+                        break;
+                    case MISS_COUNT:
+                        result.set((prm != null) ? prm.getMissCount() : 0L);
+                        break;
+                    case UNCACHED_COUNT:
+                        result.set((prm != null) ? prm.getUncachedCount() : 0L);
+                        break;
+                    case COMPRESSION_RATIO:
+                        result.set((prm != null) ? prm.getCompressionRatio() : 1d);
+                        break;
+                    default:
+                        throw new IllegalStateException(UndertowLogger.ROOT_LOGGER.unknownMetric(stat));
+                }
+                context.getResult().set(result);
+            }
+            context.stepCompleted();
+        }
+    }
+
+    public enum PrecompressedResourceStat {
+        HIT_COUNT(new SimpleAttributeDefinitionBuilder("precompressed-resource-hit-count", ModelType.LONG, false).setStorageRuntime().build()),
+        SIBLING_HIT_COUNT(new SimpleAttributeDefinitionBuilder("precompressed-resource-sibling-hit-count", ModelType.LONG, false).setStorageRuntime().build()),
+        MISS_COUNT(new SimpleAttributeDefinitionBuilder("precompressed-resource-miss-count", ModelType.LONG, false).setStorageRuntime().build()),
+        UNCACHED_COUNT(new SimpleAttributeDefinitionBuilder("precompressed-resource-uncached-count", ModelType.LONG, false).setStorageRuntime().build()),
+        COMPRESSION_RATIO(new SimpleAttributeDefinitionBuilder("precompressed-resource-compression-ratio", ModelType.DOUBLE, false).setStorageRuntime().build());
+
+        private static final Map<String, PrecompressedResourceStat> MAP = new HashMap<>();
+
+        static {
+            for (PrecompressedResourceStat stat : EnumSet.allOf(PrecompressedResourceStat.class)) {
+                MAP.put(stat.toString(), stat);
+            }
+        }
+
+        final AttributeDefinition definition;
+
+        private PrecompressedResourceStat(final AttributeDefinition definition) {
+            this.definition = definition;
+        }
+
+        @Override
+        public final String toString() {
+            return definition.getName();
+        }
+
+        public static PrecompressedResourceStat getStat(final String stringForm) {
+            return MAP.get(stringForm);
+        }
+    }
+
     public enum SessionStat {
         ACTIVE_SESSIONS(new SimpleAttributeDefinitionBuilder("active-sessions", ModelType.INT, false).setStorageRuntime().build()),
         EXPIRED_SESSIONS(new SimpleAttributeDefinitionBuilder("expired-sessions", ModelType.INT, false).setStorageRuntime().build()),
@@ -176,7 +287,11 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
         SESSION_AVG_ALIVE_TIME(new SimpleAttributeDefinitionBuilder("session-avg-alive-time", ModelType.INT, false).setStorageRuntime().build()),
         SESSION_MAX_ALIVE_TIME(new SimpleAttributeDefinitionBuilder("session-max-alive-time", ModelType.INT, false).setStorageRuntime().build()),
         REJECTED_SESSIONS(new SimpleAttributeDefinitionBuilder("rejected-sessions", ModelType.INT, false).setStorageRuntime().build()),
-        MAX_ACTIVE_SESSIONS(new SimpleAttributeDefinitionBuilder("max-active-sessions", ModelType.INT, false).setStorageRuntime().build());
+        MAX_ACTIVE_SESSIONS(new SimpleAttributeDefinitionBuilder("max-active-sessions", ModelType.INT, false).setStorageRuntime().build()),
+        SESSION_ATTRIBUTE_FLUSH_COUNT(new SimpleAttributeDefinitionBuilder("session-attribute-flush-count", ModelType.LONG, false).setStorageRuntime().build()),
+        SESSION_ATTRIBUTE_WRITE_COUNT(new SimpleAttributeDefinitionBuilder("session-attribute-write-count", ModelType.LONG, false).setStorageRuntime().build()),
+        SESSION_DELTA_REPLICATION_COUNT(new SimpleAttributeDefinitionBuilder("session-delta-replication-count", ModelType.LONG, false).setStorageRuntime().build()),
+        SESSION_DELTA_REPLICATION_BYTES(new SimpleAttributeDefinitionBuilder("session-delta-replication-bytes", ModelType.LONG, false).setStorageRuntime().build());
 
         private static final Map<String, SessionStat> MAP = new HashMap<>();
 
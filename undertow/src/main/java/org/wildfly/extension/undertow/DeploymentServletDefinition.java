@@ -85,12 +85,38 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
                 response.set(metricResult.getTotalRequests());
             }
         });
+        for (final RequestStatistic statistic : RequestStatistic.values()) {
+            // request-count is already provided by Undertow's own metrics
+            if (statistic != RequestStatistic.REQUEST_COUNT) {
+                registration.registerMetric(statistic.getDefinition(), new AbstractServletMetricsHandler() {
+                    @Override
+                    void handle(final ModelNode response, final String name, final UndertowMetricsCollector collector) {
+                        statistic.read(response, collector != null ? collector.getRequestMetrics(name) : null);
+                    }
+                });
+            }
+        }
     }
 
-    abstract static class AbstractMetricsHandler implements OperationStepHandler {
+    abstract static class AbstractMetricsHandler extends AbstractServletMetricsHandler {
 
         abstract void handle(ModelNode response, String name, MetricsHandler.MetricResult metricResult);
 
+        @Override
+        void handle(final ModelNode response, final String name, final UndertowMetricsCollector collector) {
+            MetricsHandler.MetricResult result = collector != null ? collector.getMetrics(name) : null;
+            if (result == null) {
+                response.set(0);
+            } else {
+                handle(response, name, result);
+            }
+        }
+    }
+
+    abstract static class AbstractServletMetricsHandler implements OperationStepHandler {
+
+        abstract void handle(ModelNode response, String name, UndertowMetricsCollector collector);
+
         @Override
         public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
             final PathAddress address = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR));
@@ -113,12 +139,7 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
                     if (controller != null) {
                         final String name = address.getLastElement().getValue();
                         final ModelNode response = new ModelNode();
-                        MetricsHandler.MetricResult result = collector != null ? collector.getMetrics(name) : null;
-                        if (result == null) {
-                            response.set(0);
-                        } else {
-                            handle(response, name, result);
-                        }
+                        handle(response, name, collector);
                         context.getResult().set(response);
                     }
                     context.stepCompleted();
@@ -21,10 +21,10 @@
  */
 package org.wildfly.extension.undertow;
 
+import io.undertow.servlet.UndertowServletLogger;
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.marshalling.InputStreamByteInput;
 import org.jboss.marshalling.Marshaller;
-import org.jboss.marshalling.OutputStreamByteOutput;
 import org.jboss.marshalling.Unmarshaller;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
@@ -33,28 +33,69 @@ import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.undertow.logging.UndertowLogger;
 import org.xnio.IoUtils;
 
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionAttributeListener;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionIdListener;
+import javax.servlet.http.HttpSessionListener;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.EventListener;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Persistent session manager that stores persistent session information to disk
+ * <p/>
+ * The sessions of each deployment are kept in a {@link SessionJournal}, to which only changed sessions are written.
+ * While a deployment is running, the listener returned by {@link #createSessionListener(String)} tracks the sessions
+ * that changed, which are written every flush interval, so that a crash only loses the changes of the last interval.
+ * Sessions that could not be written are retried on the next flush, as are sessions with an attribute that failed to
+ * serialize, e.g. since a request mutated it while the writer thread marshalled it. Such a session is written without
+ * that attribute, which a crash before the next successful flush would therefore lose.
+ * When a deployment starts, only the journal index is read. Undertow requests the data of each restored session
+ * when the first request of that session arrives, and only then is the session read from the journal and unmarshalled.
+ * Sessions that no request accessed before the deployment stops are retained in the journal until they expire.
  *
  * @author Stuart Douglas
  */
 public class DiskBasedModularPersistentSessionManager extends AbstractPersistentSessionManager {
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+
     private final String path;
     private final String pathRelativeTo;
+    private final long flushInterval;
+    private final ConcurrentMap<String, SessionJournal> journals = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SessionTracker> trackers = new ConcurrentHashMap<>();
+    // The sessions handed to each running deployment on deploy, some of which may not have been restored yet
+    private final ConcurrentMap<String, Map<String, JournalSession>> loadedSessions = new ConcurrentHashMap<>();
     private File baseDir;
     private PathManager.Callback.Handle callbackHandle;
+    private ScheduledExecutorService executor;
 
     private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
 
-    public DiskBasedModularPersistentSessionManager(String path, String pathRelativeTo) {
+    /**
+     * @param flushInterval the interval, in milliseconds, in which changed sessions are written, or 0, if sessions are only written on undeploy
+     */
+    public DiskBasedModularPersistentSessionManager(String path, String pathRelativeTo, long flushInterval) {
         this.path = path;
         this.pathRelativeTo = pathRelativeTo;
+        this.flushInterval = flushInterval;
     }
 
     @Override
@@ -63,6 +104,16 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
         if (callbackHandle != null) {
             callbackHandle.remove();
         }
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        trackers.clear();
+        loadedSessions.clear();
+        for (SessionJournal journal : journals.values()) {
+            IoUtils.safeClose(journal);
+        }
+        journals.clear();
     }
 
     @Override
@@ -80,27 +131,121 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
         if (!baseDir.isDirectory()) {
             throw UndertowLogger.ROOT_LOGGER.invalidPersistentSessionDir(baseDir);
         }
+        if (flushInterval > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "persistent-session-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    for (SessionTracker tracker : trackers.values()) {
+                        // An exception would suppress all subsequent flushes
+                        try {
+                            tracker.flush();
+                        } catch (Throwable e) {
+                            UndertowLogger.ROOT_LOGGER.failedToWritePersistentSessions(tracker.deploymentName, e);
+                        }
+                    }
+                }
+            }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
+    /**
+     * Creates a listener that tracks the session changes of a deployment, so that they are written to disk while
+     * the deployment is running.
+     *
+     * @param deploymentName the deployment name
+     * @return the listener to register with the deployment, or null, if sessions are only written on undeploy
+     */
+    public EventListener createSessionListener(String deploymentName) {
+        if (flushInterval <= 0) {
+            return null;
+        }
+        SessionTracker tracker = new SessionTracker(deploymentName);
+        trackers.put(deploymentName, tracker);
+        return tracker;
+    }
 
     @Override
-    protected void persistSerializedSessions(String deploymentName, Map<String, SessionEntry> serializedData) throws IOException {
-        File file = new File(baseDir, deploymentName);
-        FileOutputStream out = new FileOutputStream(file, false);
+    public void persistSessions(String deploymentName, Map<String, PersistentSession> sessionData) {
+        SessionTracker tracker = trackers.remove(deploymentName);
+        if (tracker != null) {
+            tracker.close();
+        }
         try {
-            Marshaller marshaller = createMarshaller();
-            try {
-                marshaller.start(new OutputStreamByteOutput(out));
-                marshaller.writeObject(serializedData);
-                marshaller.finish();
-            } finally {
-                marshaller.close();
-            }
+            super.persistSessions(deploymentName, sessionData);
         } finally {
-            IoUtils.safeClose(out);
+            loadedSessions.remove(deploymentName);
+            SessionJournal journal = journals.remove(deploymentName);
+            if (journal != null) {
+                IoUtils.safeClose(journal);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, ClassLoader classLoader) {
+        try {
+            SessionJournal journal = getJournal(deploymentName);
+            Map<String, SessionEntry> legacy = loadSerializedSessions(deploymentName);
+            if (legacy != null) {
+                // Move sessions persisted in the format of previous releases into the journal
+                writeSessions(journal, legacy);
+                new File(baseDir, deploymentName).delete();
+            }
+            long time = System.currentTimeMillis();
+            Map<String, JournalSession> sessions = new HashMap<>();
+            for (Map.Entry<String, Long> entry : journal.getExpirations().entrySet()) {
+                if (entry.getValue() > time) {
+                    sessions.put(entry.getKey(), new JournalSession(journal, entry.getKey(), new Date(entry.getValue())));
+                }
+            }
+            loadedSessions.put(deploymentName, sessions);
+            return new HashMap<String, PersistentSession>(sessions);
+        } catch (Exception e) {
+            UndertowServletLogger.ROOT_LOGGER.failedtoLoadPersistentSessions(e);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the sessions, which only appends records for sessions that changed, and removes all other sessions,
+     * except for unexpired sessions that were loaded on deploy, but whose data Undertow never requested, since no request of
+     * these sessions arrived while the deployment was running.
+     */
+    @Override
+    protected void persistSerializedSessions(String deploymentName, Map<String, SessionEntry> serializedData) throws IOException {
+        SessionJournal journal = getJournal(deploymentName);
+        Map<String, JournalSession> loaded = loadedSessions.get(deploymentName);
+        long time = System.currentTimeMillis();
+        for (Map.Entry<String, Long> entry : journal.getExpirations().entrySet()) {
+            String id = entry.getKey();
+            if (!serializedData.containsKey(id)) {
+                JournalSession session = (loaded != null) ? loaded.get(id) : null;
+                if ((session == null) || session.isRestored() || (entry.getValue() <= time)) {
+                    journal.remove(id);
+                }
+            }
+        }
+        writeSessions(journal, serializedData);
+    }
+
+    private static void writeSessions(SessionJournal journal, Map<String, SessionEntry> serializedData) throws IOException {
+        for (Map.Entry<String, SessionEntry> entry : serializedData.entrySet()) {
+            journal.write(entry.getKey(), entry.getValue().getExpiry().getTime(), entry.getValue().getData());
         }
+        journal.sync();
     }
 
+    /**
+     * Reads sessions persisted in the single file format of previous releases.
+     */
     @Override
     protected Map<String, SessionEntry> loadSerializedSessions(String deploymentName) throws IOException {
         File file = new File(baseDir, deploymentName);
@@ -128,7 +273,240 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
 
     }
 
+    private SessionJournal getJournal(String deploymentName) throws IOException {
+        SessionJournal journal = journals.get(deploymentName);
+        if (journal == null) {
+            synchronized (journals) {
+                journal = journals.get(deploymentName);
+                if (journal == null) {
+                    journal = new SessionJournal(new File(baseDir, deploymentName + JOURNAL_SUFFIX));
+                    journals.put(deploymentName, journal);
+                }
+            }
+        }
+        return journal;
+    }
+
     public InjectedValue<PathManager> getPathManager() {
         return pathManager;
     }
+
+    /**
+     * A session of a journal, which is only read and unmarshalled once Undertow requests its data,
+     * i.e. when it restores the session for the first request of that session.
+     * If the session cannot be read, it is restored without attributes.
+     */
+    private class JournalSession extends PersistentSession {
+        private final SessionJournal journal;
+        private final String id;
+        private Map<String, Object> data;
+
+        JournalSession(SessionJournal journal, String id, Date expiration) {
+            super(expiration, null);
+            this.journal = journal;
+            this.id = id;
+        }
+
+        @Override
+        public synchronized Map<String, Object> getSessionData() {
+            if (data == null) {
+                data = load();
+            }
+            return data;
+        }
+
+        synchronized boolean isRestored() {
+            return data != null;
+        }
+
+        private Map<String, Object> load() {
+            try {
+                Map<String, byte[]> serialized = journal.read(id);
+                if (serialized == null) {
+                    return Collections.emptyMap();
+                }
+                Unmarshaller unmarshaller = createUnmarshaller();
+                try {
+                    return deserializeAttributes(unmarshaller, serialized);
+                } finally {
+                    unmarshaller.close();
+                }
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                UndertowLogger.ROOT_LOGGER.failedToLoadPersistentSession(id, e);
+                return Collections.emptyMap();
+            }
+        }
+    }
+
+    /**
+     * Tracks the sessions of a running deployment, and periodically writes those that changed.
+     * Attribute values are captured on the request threads, so that writing sessions does not access them.
+     */
+    private class SessionTracker implements HttpSessionListener, HttpSessionAttributeListener, HttpSessionIdListener {
+        private final String deploymentName;
+        private final ConcurrentMap<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+        // Session ids to write (true) or remove (false) on the next flush
+        private final ConcurrentMap<String, Boolean> pending = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        SessionTracker(String deploymentName) {
+            this.deploymentName = deploymentName;
+        }
+
+        private TrackedSession track(HttpSession session) {
+            TrackedSession tracked = sessions.get(session.getId());
+            if (tracked == null) {
+                tracked = new TrackedSession(session);
+                TrackedSession existing = sessions.putIfAbsent(session.getId(), tracked);
+                if (existing != null) {
+                    tracked = existing;
+                }
+            }
+            return tracked;
+        }
+
+        @Override
+        public void sessionCreated(HttpSessionEvent event) {
+            if (!closed) {
+                track(event.getSession());
+                pending.put(event.getSession().getId(), Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void sessionDestroyed(HttpSessionEvent event) {
+            if (!closed) {
+                sessions.remove(event.getSession().getId());
+                pending.put(event.getSession().getId(), Boolean.FALSE);
+            }
+        }
+
+        @Override
+        public void sessionIdChanged(HttpSessionEvent event, String oldSessionId) {
+            if (!closed) {
+                TrackedSession tracked = sessions.remove(oldSessionId);
+                if (tracked != null) {
+                    sessions.put(event.getSession().getId(), new TrackedSession(event.getSession(), tracked.attributes));
+                } else {
+                    track(event.getSession());
+                }
+                pending.put(oldSessionId, Boolean.FALSE);
+                pending.put(event.getSession().getId(), Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void attributeAdded(HttpSessionBindingEvent event) {
+            this.attributeChanged(event);
+        }
+
+        @Override
+        public void attributeReplaced(HttpSessionBindingEvent event) {
+            this.attributeChanged(event);
+        }
+
+        private void attributeChanged(HttpSessionBindingEvent event) {
+            if (!closed) {
+                // The event holds the previous value of replaced attributes
+                Object value = event.getSession().getAttribute(event.getName());
+                if (value != null) {
+                    track(event.getSession()).attributes.put(event.getName(), value);
+                }
+                pending.put(event.getSession().getId(), Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void attributeRemoved(HttpSessionBindingEvent event) {
+            if (!closed) {
+                track(event.getSession()).attributes.remove(event.getName());
+                pending.put(event.getSession().getId(), Boolean.TRUE);
+            }
+        }
+
+        synchronized void flush() {
+            if (closed || pending.isEmpty()) {
+                return;
+            }
+            // The changes of this flush, which are retried on the next flush, unless they are written
+            Map<String, Boolean> batch = new HashMap<>();
+            for (String id : new HashSet<>(pending.keySet())) {
+                Boolean write = pending.remove(id);
+                if (write != null) {
+                    batch.put(id, write);
+                }
+            }
+            try {
+                SessionJournal journal = getJournal(deploymentName);
+                Marshaller marshaller = createMarshaller();
+                try {
+                    Set<String> failedAttributes = new HashSet<>();
+                    for (Map.Entry<String, Boolean> entry : batch.entrySet()) {
+                        String id = entry.getKey();
+                        if (entry.getValue()) {
+                            TrackedSession tracked = sessions.get(id);
+                            long expiry = (tracked != null) ? tracked.getExpiry() : 0;
+                            if (expiry > 0) {
+                                failedAttributes.clear();
+                                journal.write(id, expiry, serializeAttributes(marshaller, id, new HashMap<>(tracked.attributes), failedAttributes));
+                                if (!failedAttributes.isEmpty()) {
+                                    // Retry the missing attributes on the next flush
+                                    pending.putIfAbsent(id, Boolean.TRUE);
+                                }
+                            }
+                        } else {
+                            journal.remove(id);
+                        }
+                    }
+                } finally {
+                    marshaller.close();
+                }
+                journal.sync();
+            } catch (IOException | RuntimeException e) {
+                UndertowLogger.ROOT_LOGGER.failedToWritePersistentSessions(deploymentName, e);
+                // Changes tracked since this flush started supersede those of this flush
+                for (Map.Entry<String, Boolean> entry : batch.entrySet()) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+    }
+
+    private static class TrackedSession {
+        final HttpSession session;
+        final ConcurrentMap<String, Object> attributes;
+
+        TrackedSession(HttpSession session) {
+            this(session, new ConcurrentHashMap<String, Object>());
+            Enumeration<String> names = session.getAttributeNames();
+            while (names.hasMoreElements()) {
+                String name = names.nextElement();
+                Object value = session.getAttribute(name);
+                if (value != null) {
+                    attributes.put(name, value);
+                }
+            }
+        }
+
+        TrackedSession(HttpSession session, ConcurrentMap<String, Object> attributes) {
+            this.session = session;
+            this.attributes = attributes;
+        }
+
+        /**
+         * @return the expiration time, or 0 if the session is no longer valid
+         */
+        long getExpiry() {
+            try {
+                int maxInactiveInterval = session.getMaxInactiveInterval();
+                return (maxInactiveInterval > 0) ? session.getLastAccessedTime() + TimeUnit.SECONDS.toMillis(maxInactiveInterval) : Long.MAX_VALUE;
+            } catch (IllegalStateException e) {
+                return 0;
+            }
+        }
+    }
 }
@@ -32,6 +32,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
 import io.undertow.Handlers;
 import io.undertow.security.api.AuthenticationMechanism;
@@ -46,6 +47,7 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
+import org.wildfly.extension.undertow.deployment.RequestMetrics;
 import org.wildfly.extension.undertow.filters.FilterRef;
 import org.wildfly.extension.undertow.logging.UndertowLogger;
 
@@ -65,6 +67,7 @@ public class Host implements Service<Host> {
     private final List<InjectedValue<FilterRef>> filters = new CopyOnWriteArrayList<>();
     private final Set<Deployment> deployments = new CopyOnWriteArraySet<>();
     private final Map<String, AuthenticationMechanism> additionalAuthenticationMechanisms = new ConcurrentHashMap<>();
+    private volatile RequestMetrics requestMetrics;
 
     protected Host(String name, List<String> aliases, String defaultWebModule) {
         this.name = name;
@@ -81,6 +84,7 @@ public class Host implements Service<Host> {
 
     @Override
     public void start(StartContext context) throws StartException {
+        requestMetrics = new RequestMetrics(undertowService.getValue().getStatisticsHistogramWindow(), TimeUnit.SECONDS);
         rootHandler = configureRootHandler();
         server.getValue().registerHost(this);
         UndertowLogger.ROOT_LOGGER.hostStarting(name);
@@ -134,6 +138,13 @@ public class Host implements Service<Host> {
         return undertowService;
     }
 
+    /**
+     * Returns the request metrics aggregated over the servlets of all deployments on this host, if statistics are enabled.
+     */
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
     public Set<String> getAllAliases() {
         return allAliases;
     }
@@ -33,14 +33,21 @@ import javax.xml.stream.XMLStreamWriter;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.AttributeParser;
 import org.jboss.as.controller.DefaultAttributeMarshaller;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.StringListAttributeDefinition;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 import org.wildfly.extension.undertow.filters.FilterRefDefinition;
 
 /**
@@ -113,4 +120,32 @@ class HostDefinition extends PersistentResourceDefinition {
         return CHILDREN;
     }
 
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        for (RequestStatistic statistic : RequestStatistic.values()) {
+            resourceRegistration.registerMetric(statistic.getDefinition(), ReadRequestStatisticHandler.INSTANCE);
+        }
+    }
+
+    private static class ReadRequestStatisticHandler implements OperationStepHandler {
+
+        static final ReadRequestStatisticHandler INSTANCE = new ReadRequestStatisticHandler();
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final PathAddress address = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR));
+            final String hostName = address.getLastElement().getValue();
+            final String serverName = address.getParent().getLastElement().getValue();
+            final RequestStatistic statistic = RequestStatistic.forName(operation.require(ModelDescriptionConstants.NAME).asString());
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.virtualHostName(serverName, hostName));
+            if ((controller != null) && (controller.getState() == ServiceController.State.UP) && (statistic != null)) {
+                statistic.read(context.getResult(), ((Host) controller.getValue()).getRequestMetrics());
+            } else {
+                context.getResult().set(0L);
+            }
+            context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
+        }
+    }
+
 }
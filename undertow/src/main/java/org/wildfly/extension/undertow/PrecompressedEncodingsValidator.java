@@ -0,0 +1,51 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.operations.validation.ModelTypeValidator;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.wildfly.extension.undertow.deployment.PrecompressedResourceManager;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+
+/**
+ * Validates that a {@link ModelType#STRING} parameter is a comma separated list of encodings supported by the {@link PrecompressedResourceManager}.
+ */
+class PrecompressedEncodingsValidator extends ModelTypeValidator {
+
+    PrecompressedEncodingsValidator() {
+        super(ModelType.STRING, true, true, false);
+    }
+
+    @Override
+    public void validateParameter(String parameterName, ModelNode value) throws OperationFailedException {
+        super.validateParameter(parameterName, value);
+        if (value.isDefined() && value.getType() != ModelType.EXPRESSION) {
+            try {
+                PrecompressedResourceManager.parseEncodings(value.asString());
+            } catch (IllegalArgumentException e) {
+                throw UndertowLogger.ROOT_LOGGER.unsupportedEncoding(e.getMessage(), parameterName, PrecompressedResourceManager.SUPPORTED_ENCODINGS.toString());
+            }
+        }
+    }
+}
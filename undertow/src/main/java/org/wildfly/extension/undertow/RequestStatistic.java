@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.wildfly.extension.undertow.deployment.RequestMetrics;
+
+/**
+ * Runtime attributes reading the {@link RequestMetrics} of a servlet or host.
+ */
+enum RequestStatistic {
+    REQUEST_COUNT("request-count", MeasurementUnit.NONE) {
+        @Override
+        long read(RequestMetrics metrics) {
+            return metrics.getRequestCount();
+        }
+    },
+    ERROR_COUNT("error-count", MeasurementUnit.NONE) {
+        @Override
+        long read(RequestMetrics metrics) {
+            return metrics.getErrorCount();
+        }
+    },
+    BYTES_RECEIVED("bytes-received", MeasurementUnit.BYTES) {
+        @Override
+        long read(RequestMetrics metrics) {
+            return metrics.getBytesReceived();
+        }
+    },
+    BYTES_SENT("bytes-sent", MeasurementUnit.BYTES) {
+        @Override
+        long read(RequestMetrics metrics) {
+            return metrics.getBytesSent();
+        }
+    },
+    REQUEST_TIME_P50("request-time-p50", 50d),
+    REQUEST_TIME_P95("request-time-p95", 95d),
+    REQUEST_TIME_P99("request-time-p99", 99d),
+    REQUEST_TIME_P999("request-time-p999", 99.9d),
+    ;
+
+    private final AttributeDefinition definition;
+    private final double percentile;
+
+    RequestStatistic(String name, double percentile) {
+        this(name, MeasurementUnit.MICROSECONDS, percentile);
+    }
+
+    RequestStatistic(String name, MeasurementUnit unit) {
+        this(name, unit, 0d);
+    }
+
+    RequestStatistic(String name, MeasurementUnit unit, double percentile) {
+        this.definition = new SimpleAttributeDefinitionBuilder(name, ModelType.LONG, true).setMeasurementUnit(unit).setStorageRuntime().build();
+        this.percentile = percentile;
+    }
+
+    AttributeDefinition getDefinition() {
+        return this.definition;
+    }
+
+    long read(RequestMetrics metrics) {
+        return metrics.getRequestTimePercentile(this.percentile, TimeUnit.MICROSECONDS);
+    }
+
+    void read(ModelNode response, RequestMetrics metrics) {
+        response.set((metrics != null) ? this.read(metrics) : 0L);
+    }
+
+    static RequestStatistic forName(String name) {
+        for (RequestStatistic statistic : values()) {
+            if (statistic.definition.getName().equals(name)) {
+                return statistic;
+            }
+        }
+        return null;
+    }
+}
@@ -22,6 +22,8 @@
 
 package org.wildfly.extension.undertow;
 
+import java.util.List;
+
 import io.undertow.server.handlers.cache.DirectBufferCache;
 import io.undertow.servlet.api.ServletStackTraces;
 import io.undertow.servlet.api.SessionPersistenceManager;
@@ -36,6 +38,8 @@ import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.io.IOServices;
+import org.wildfly.extension.undertow.deployment.PrecompressedResourceManager;
+import org.wildfly.extension.undertow.session.DistributableSessionManagerConfiguration.ExpirationSchedulerType;
 import org.xnio.Pool;
 import org.xnio.XnioWorker;
 
@@ -73,6 +77,11 @@ final class ServletContainerAdd extends AbstractBoottimeAddStepHandler {
         final boolean disableCachingForSecuredPages = ServletContainerDefinition.DISABLE_CACHING_FOR_SECURED_PAGES.resolveModelAttribute(context, model).asBoolean();
 
         final int sessionTimeout = ServletContainerDefinition.DEFAULT_SESSION_TIMEOUT.resolveModelAttribute(context, model).asInt();
+        final ExpirationSchedulerType sessionExpirationSchedulerType = ExpirationSchedulerType.valueOf(ServletContainerDefinition.SESSION_EXPIRATION_SCHEDULER.resolveModelAttribute(context, model).asString());
+        final boolean sessionDeltaReplication = ServletContainerDefinition.SESSION_DELTA_REPLICATION.resolveModelAttribute(context, model).asBoolean();
+        final double sessionLastAccessedTimeThreshold = ServletContainerDefinition.SESSION_LAST_ACCESSED_TIME_THRESHOLD.resolveModelAttribute(context, model).asDouble();
+        final ModelNode precompressedResourceEncodingsValue = ServletContainerDefinition.PRECOMPRESSED_RESOURCE_ENCODINGS.resolveModelAttribute(context, model);
+        final List<String> precompressedResourceEncodings = PrecompressedResourceManager.parseEncodings(precompressedResourceEncodingsValue.isDefined() ? precompressedResourceEncodingsValue.asString() : null);
 
         WebsocketsDefinition.WebSocketInfo info = WebsocketsDefinition.INSTANCE.getConfig(context, model);
 
@@ -85,7 +94,11 @@ final class ServletContainerAdd extends AbstractBoottimeAddStepHandler {
                 ignoreFlush,
                 eagerFilterInit,
                 sessionTimeout,
-                disableCachingForSecuredPages, info != null, info != null && info.isDispatchToWorker());
+                disableCachingForSecuredPages, info != null, info != null && info.isDispatchToWorker(),
+                sessionExpirationSchedulerType,
+                sessionDeltaReplication,
+                sessionLastAccessedTimeThreshold,
+                precompressedResourceEncodings);
         final ServiceTarget target = context.getServiceTarget();
         final ServiceBuilder<ServletContainerService> builder = target.addService(UndertowService.SERVLET_CONTAINER.append(name), container);
         if(bufferCache != null) {
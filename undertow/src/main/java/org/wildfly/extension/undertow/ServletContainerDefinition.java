@@ -39,6 +39,7 @@ import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.wildfly.extension.undertow.session.DistributableSessionManagerConfiguration.ExpirationSchedulerType;
 
 /**
  * @author <a href="mailto:tomaz.cerar@redhat.com">Tomaz Cerar</a> (c) 2013 Red Hat Inc.
@@ -111,6 +112,37 @@ class ServletContainerDefinition extends PersistentResourceDefinition {
                     .build(); //30 minutes
 
 
+    protected static final AttributeDefinition SESSION_EXPIRATION_SCHEDULER =
+            new SimpleAttributeDefinitionBuilder(Constants.SESSION_EXPIRATION_SCHEDULER, ModelType.STRING, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setValidator(new EnumValidator<>(ExpirationSchedulerType.class, true, true))
+                    .setDefaultValue(new ModelNode(ExpirationSchedulerType.EXECUTOR.name()))
+                    .build();
+
+    protected static final AttributeDefinition SESSION_DELTA_REPLICATION =
+            new SimpleAttributeDefinitionBuilder(Constants.SESSION_DELTA_REPLICATION, ModelType.BOOLEAN, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setDefaultValue(new ModelNode(false))
+                    .build();
+
+    // Following a failover, a session may outlive its max inactive interval by this fraction, so cap it
+    protected static final AttributeDefinition SESSION_LAST_ACCESSED_TIME_THRESHOLD =
+            new SimpleAttributeDefinitionBuilder(Constants.SESSION_LAST_ACCESSED_TIME_THRESHOLD, ModelType.DOUBLE, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setValidator(new DoubleRangeValidator(0, 0.5, true, true))
+                    .setDefaultValue(new ModelNode(0D))
+                    .build();
+
+    protected static final AttributeDefinition PRECOMPRESSED_RESOURCE_ENCODINGS =
+            new SimpleAttributeDefinitionBuilder(Constants.PRECOMPRESSED_RESOURCE_ENCODINGS, ModelType.STRING, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setValidator(new PrecompressedEncodingsValidator())
+                    .build();
+
     private static final List<? extends PersistentResourceDefinition> CHILDREN;
     static final Collection<AttributeDefinition> ATTRIBUTES = Arrays.asList(
             ALLOW_NON_STANDARD_WRAPPERS,
@@ -121,7 +153,11 @@ class ServletContainerDefinition extends PersistentResourceDefinition {
             IGNORE_FLUSH,
             EAGER_FILTER_INIT,
             DEFAULT_SESSION_TIMEOUT,
-            DISABLE_CACHING_FOR_SECURED_PAGES
+            DISABLE_CACHING_FOR_SECURED_PAGES,
+            SESSION_EXPIRATION_SCHEDULER,
+            SESSION_DELTA_REPLICATION,
+            SESSION_LAST_ACCESSED_TIME_THRESHOLD,
+            PRECOMPRESSED_RESOURCE_ENCODINGS
             );
 
     static final ServletContainerDefinition INSTANCE = new ServletContainerDefinition();
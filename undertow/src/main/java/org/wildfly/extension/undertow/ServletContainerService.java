@@ -31,10 +31,12 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
+import org.wildfly.extension.undertow.session.DistributableSessionManagerConfiguration.ExpirationSchedulerType;
 import org.xnio.Pool;
 import org.xnio.XnioWorker;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 /**
  * Central Undertow 'Container' HTTP listeners will make this container accessible whilst deployers will add content.
@@ -61,10 +63,16 @@ public class ServletContainerService implements Service<ServletContainerService>
     private final InjectedValue<Pool<ByteBuffer>> websocketsBufferPool = new InjectedValue<>();
     private final InjectedValue<XnioWorker> websocketsWorker = new InjectedValue<>();
     private final boolean dispatchWebsocketInvocationToWorker;
+    private final ExpirationSchedulerType sessionExpirationSchedulerType;
+    private final boolean sessionDeltaReplication;
+    private final double sessionLastAccessedTimeThreshold;
+    private final List<String> precompressedResourceEncodings;
 
     public ServletContainerService(boolean allowNonStandardWrappers, ServletStackTraces stackTraces, SessionCookieConfig sessionCookieConfig, JSPConfig jspConfig,
                                    String defaultEncoding, boolean useListenerEncoding, boolean ignoreFlush, boolean eagerFilterInit, int defaultSessionTimeout,
-                                   boolean disableCachingForSecuredPages, boolean websocketsEnabled, boolean dispatchWebsocketInvocationToWorker) {
+                                   boolean disableCachingForSecuredPages, boolean websocketsEnabled, boolean dispatchWebsocketInvocationToWorker,
+                                   ExpirationSchedulerType sessionExpirationSchedulerType, boolean sessionDeltaReplication,
+                                   double sessionLastAccessedTimeThreshold, List<String> precompressedResourceEncodings) {
         this.allowNonStandardWrappers = allowNonStandardWrappers;
         this.stackTraces = stackTraces;
         this.sessionCookieConfig = sessionCookieConfig;
@@ -77,6 +85,10 @@ public class ServletContainerService implements Service<ServletContainerService>
         this.disableCachingForSecuredPages = disableCachingForSecuredPages;
         this.websocketsEnabled = websocketsEnabled;
         this.dispatchWebsocketInvocationToWorker = dispatchWebsocketInvocationToWorker;
+        this.sessionExpirationSchedulerType = sessionExpirationSchedulerType;
+        this.sessionDeltaReplication = sessionDeltaReplication;
+        this.sessionLastAccessedTimeThreshold = sessionLastAccessedTimeThreshold;
+        this.precompressedResourceEncodings = precompressedResourceEncodings;
     }
 
     public void start(StartContext context) throws StartException {
@@ -166,4 +178,20 @@ public class ServletContainerService implements Service<ServletContainerService>
     public int getDefaultSessionTimeout() {
         return defaultSessionTimeout;
     }
+
+    public ExpirationSchedulerType getSessionExpirationSchedulerType() {
+        return sessionExpirationSchedulerType;
+    }
+
+    public boolean isSessionDeltaReplication() {
+        return sessionDeltaReplication;
+    }
+
+    public double getSessionLastAccessedTimeThreshold() {
+        return sessionLastAccessedTimeThreshold;
+    }
+
+    public List<String> getPrecompressedResourceEncodings() {
+        return precompressedResourceEncodings;
+    }
 }
@@ -0,0 +1,366 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+
+/**
+ * Append-only journal holding the persistent sessions of a single deployment.
+ * <p/>
+ * Every record consists of the length and the CRC32 checksum of its body, followed by the body itself: the session id,
+ * the record type and, depending on the type, the expiration time and the serialized session attributes.
+ * A session whose attributes did not change since it was last written only gets a small record updating its
+ * expiration time, or no record at all. Reading stops at the first record that is incomplete or fails its checksum,
+ * which is where a crash interrupted the last write, and the journal is truncated at that point.
+ * <p/>
+ * Loading the journal only builds an index of the live sessions; their attributes are read on demand.
+ * Once the journal holds mostly superseded records, the live sessions are copied into a new file that replaces it.
+ *
+ * @see DiskBasedModularPersistentSessionManager
+ */
+class SessionJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+    private static final byte PUT = 1;
+    private static final byte TOUCH = 2;
+    private static final byte REMOVE = 0;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private final File file;
+
+    // Guarded by this
+    private FileChannel channel;
+    private Map<String, Location> live = new LinkedHashMap<>();
+    private int records;
+
+    SessionJournal(File file) throws IOException {
+        this.file = file;
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.load();
+    }
+
+    File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Indexes the records of the journal, without retaining the session attributes.
+     */
+    private void load() throws IOException {
+        final long size = this.channel.size();
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(this.channel.position(0)), 65536));
+        final CRC32 crc = new CRC32();
+        byte[] body = new byte[256];
+        long valid = 0;
+        try {
+            while (size - valid >= HEADER_SIZE) {
+                final int length = in.readInt();
+                final int checksum = in.readInt();
+                if (length <= 0 || length > size - valid - HEADER_SIZE) {
+                    break;
+                }
+                if (body.length < length) {
+                    body = new byte[Math.max(length, body.length * 2)];
+                }
+                in.readFully(body, 0, length);
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                final ByteBuffer buffer = ByteBuffer.wrap(body, 0, length);
+                final String id = readUTF(buffer);
+                final byte type = buffer.get();
+                if (type == PUT) {
+                    final long expiry = buffer.getLong();
+                    final int attributesOffset = buffer.position();
+                    crc.reset();
+                    crc.update(body, attributesOffset, length - attributesOffset);
+                    this.live.put(id, new Location(valid, HEADER_SIZE + length, HEADER_SIZE + attributesOffset, expiry, (int) crc.getValue()));
+                } else if (type == TOUCH) {
+                    final Location location = this.live.get(id);
+                    if (location != null) {
+                        location.expiry = buffer.getLong();
+                    }
+                } else {
+                    this.live.remove(id);
+                }
+                this.records += 1;
+                valid += HEADER_SIZE + length;
+            }
+        } catch (EOFException e) {
+            // Incomplete record
+        }
+        if (valid < size) {
+            UndertowLogger.ROOT_LOGGER.persistentSessionJournalTruncated(size - valid, this.file);
+            this.channel.truncate(valid);
+        }
+        this.channel.position(valid);
+    }
+
+    /**
+     * Returns the expiration times of the live sessions, in the order in which they were first written.
+     */
+    synchronized Map<String, Long> getExpirations() {
+        final Map<String, Long> expirations = new LinkedHashMap<>();
+        for (Map.Entry<String, Location> entry : this.live.entrySet()) {
+            expirations.put(entry.getKey(), entry.getValue().expiry);
+        }
+        return expirations;
+    }
+
+    synchronized boolean contains(String id) {
+        return this.live.containsKey(id);
+    }
+
+    /**
+     * Reads the serialized attributes of a session.
+     *
+     * @return the serialized attributes by attribute name, or null, if the journal does not contain the session
+     */
+    Map<String, byte[]> read(String id) throws IOException {
+        final ByteBuffer buffer;
+        synchronized (this) {
+            final Location location = this.live.get(id);
+            if (location == null) {
+                return null;
+            }
+            buffer = ByteBuffer.allocate(location.length - location.attributesOffset);
+            long position = location.offset + location.attributesOffset;
+            while (buffer.hasRemaining()) {
+                final int read = this.channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException(this.file.toString());
+                }
+                position += read;
+            }
+        }
+        buffer.flip();
+        final int count = buffer.getInt();
+        final Map<String, byte[]> attributes = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; ++i) {
+            final String name = readUTF(buffer);
+            final byte[] value = new byte[buffer.getInt()];
+            buffer.get(value);
+            attributes.put(name, value);
+        }
+        return attributes;
+    }
+
+    /**
+     * Appends a record for the given session, unless the journal already holds the same state.
+     * The record is not necessarily durable until {@link #sync()} returns.
+     *
+     * @param id the session id
+     * @param expiry the expiration time of the session
+     * @param attributes the serialized attributes by attribute name
+     */
+    void write(String id, long expiry, Map<String, byte[]> attributes) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(attributes.size());
+        for (Map.Entry<String, byte[]> attribute : attributes.entrySet()) {
+            out.writeUTF(attribute.getKey());
+            out.writeInt(attribute.getValue().length);
+            out.write(attribute.getValue());
+        }
+        out.flush();
+        final byte[] section = bytes.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(section);
+        final int fingerprint = (int) crc.getValue();
+        synchronized (this) {
+            final Location location = this.live.get(id);
+            if (location != null && location.fingerprint == fingerprint && location.length - location.attributesOffset == section.length) {
+                if (location.expiry != expiry) {
+                    this.append(record(id, TOUCH, expiry, null));
+                    location.expiry = expiry;
+                }
+                return;
+            }
+            final byte[] record = record(id, PUT, expiry, section);
+            final long position = this.append(record);
+            this.live.put(id, new Location(position, record.length, record.length - section.length, expiry, fingerprint));
+        }
+    }
+
+    /**
+     * Appends a removal record for the given session, if the journal contains it.
+     */
+    synchronized void remove(String id) throws IOException {
+        if (this.live.remove(id) != null) {
+            this.append(record(id, REMOVE, 0L, null));
+        }
+    }
+
+    /**
+     * Forces all appended records to the disk, compacting the journal first if it holds mostly superseded records.
+     */
+    synchronized void sync() throws IOException {
+        if (this.records >= MIN_COMPACTION_RECORDS && this.records > 2 * this.live.size()) {
+            this.compact();
+        } else {
+            this.channel.force(false);
+        }
+    }
+
+    private long append(byte[] record) throws IOException {
+        final long position = this.channel.position();
+        final ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.records += 1;
+        return position;
+    }
+
+    /**
+     * Copies the live sessions into a new journal, which replaces this one. Must be called while holding the monitor.
+     */
+    private void compact() throws IOException {
+        final File compacted = new File(this.file.getParentFile(), this.file.getName() + ".compact");
+        final FileChannel target = new RandomAccessFile(compacted, "rw").getChannel();
+        final Map<String, Location> locations = new LinkedHashMap<>();
+        long position = 0;
+        try {
+            target.truncate(0);
+            final List<Map.Entry<String, Location>> entries = new ArrayList<>(this.live.entrySet());
+            // Copy in file order, to read the journal sequentially
+            Collections.sort(entries, new Comparator<Map.Entry<String, Location>>() {
+                @Override
+                public int compare(Map.Entry<String, Location> entry1, Map.Entry<String, Location> entry2) {
+                    return Long.compare(entry1.getValue().offset, entry2.getValue().offset);
+                }
+            });
+            for (Map.Entry<String, Location> entry : entries) {
+                final Location location = entry.getValue();
+                final ByteBuffer section = ByteBuffer.allocate(location.length - location.attributesOffset);
+                long offset = location.offset + location.attributesOffset;
+                while (section.hasRemaining()) {
+                    final int read = this.channel.read(section, offset);
+                    if (read < 0) {
+                        throw new EOFException(this.file.toString());
+                    }
+                    offset += read;
+                }
+                // Rewrite the record, so that it includes the latest expiration time
+                final byte[] record = record(entry.getKey(), PUT, location.expiry, section.array());
+                final ByteBuffer buffer = ByteBuffer.wrap(record);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                locations.put(entry.getKey(), new Location(position, record.length, location.attributesOffset, location.expiry, location.fingerprint));
+                position += record.length;
+            }
+            target.force(true);
+            Files.move(compacted.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            target.close();
+            compacted.delete();
+            throw e;
+        }
+        this.channel.close();
+        this.channel = target;
+        this.channel.position(position);
+        this.live = locations;
+        this.records = locations.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.channel.close();
+    }
+
+    private static byte[] record(String id, byte type, long expiry, byte[] section) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + 64 + ((section != null) ? section.length : 0));
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(0L);
+        out.writeUTF(id);
+        out.writeByte(type);
+        if (type != REMOVE) {
+            out.writeLong(expiry);
+        }
+        if (section != null) {
+            out.write(section);
+        }
+        out.flush();
+        final byte[] record = bytes.toByteArray();
+        final int length = record.length - HEADER_SIZE;
+        final CRC32 crc = new CRC32();
+        crc.update(record, HEADER_SIZE, length);
+        final ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        return record;
+    }
+
+    private static String readUTF(ByteBuffer buffer) throws IOException {
+        final int length = buffer.getShort() & 0xFFFF;
+        final byte[] bytes = new byte[length + 2];
+        bytes[0] = (byte) (length >> 8);
+        bytes[1] = (byte) length;
+        buffer.get(bytes, 2, length);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    private static class Location {
+        final long offset;
+        // Length of the whole record, including its header
+        final int length;
+        // Offset of the serialized attributes within the record
+        final int attributesOffset;
+        final int fingerprint;
+        long expiry;
+
+        Location(long offset, int length, int attributesOffset, long expiry, int fingerprint) {
+            this.offset = offset;
+            this.length = length;
+            this.attributesOffset = attributesOffset;
+            this.expiry = expiry;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
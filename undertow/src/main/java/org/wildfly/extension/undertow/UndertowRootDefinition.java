@@ -31,6 +31,8 @@ import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.dmr.ValueExpression;
 import org.wildfly.extension.undertow.filters.FilterDefinitions;
@@ -68,9 +70,17 @@ class UndertowRootDefinition extends PersistentResourceDefinition {
                         .setAllowExpression(true)
                         .setDefaultValue(new ModelNode(false))
                         .build();
+    protected static final SimpleAttributeDefinition STATISTICS_HISTOGRAM_WINDOW =
+                new SimpleAttributeDefinitionBuilder(Constants.STATISTICS_HISTOGRAM_WINDOW, ModelType.INT, true)
+                        .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                        .setAllowExpression(true)
+                        .setMeasurementUnit(MeasurementUnit.SECONDS)
+                        .setValidator(new IntRangeValidator(0, true, true))
+                        .setDefaultValue(new ModelNode(0))
+                        .build();
 
 
-    static final AttributeDefinition[] ATTRIBUTES = {DEFAULT_VIRTUAL_HOST, DEFAULT_SERVLET_CONTAINER, DEFAULT_SERVER, INSTANCE_ID, STATISTICS_ENABLED};
+    static final AttributeDefinition[] ATTRIBUTES = {DEFAULT_VIRTUAL_HOST, DEFAULT_SERVLET_CONTAINER, DEFAULT_SERVER, INSTANCE_ID, STATISTICS_ENABLED, STATISTICS_HISTOGRAM_WINDOW};
     static final PersistentResourceDefinition[] CHILDREN = {
             BufferCacheDefinition.INSTANCE,
             ServerDefinition.INSTANCE,
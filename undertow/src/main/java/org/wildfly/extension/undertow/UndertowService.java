@@ -75,13 +75,15 @@ public class UndertowService implements Service<UndertowService> {
     private final List<UndertowEventListener> listeners = Collections.synchronizedList(new LinkedList<UndertowEventListener>());
     private volatile String instanceId;//todo this should be final and no setter should be exposed, currently mod cluster "wants it", this needs to change
     private final boolean statistics;
+    private final int statisticsHistogramWindow;
 
-    protected UndertowService(String defaultContainer, String defaultServer, String defaultVirtualHost, String instanceId, boolean statistics) {
+    protected UndertowService(String defaultContainer, String defaultServer, String defaultVirtualHost, String instanceId, boolean statistics, int statisticsHistogramWindow) {
         this.defaultContainer = defaultContainer;
         this.defaultServer = defaultServer;
         this.defaultVirtualHost = defaultVirtualHost;
         this.instanceId = instanceId;
         this.statistics = statistics;
+        this.statisticsHistogramWindow = statisticsHistogramWindow;
     }
 
     public static ServiceName deploymentServiceName(final String serverName, final String virtualHost, final String contextPath) {
@@ -230,6 +232,13 @@ public class UndertowService implements Service<UndertowService> {
         return statistics;
     }
 
+    /**
+     * Returns the duration, in seconds, of the rolling window reflected by the request time percentiles, or 0, if they reflect all requests.
+     */
+    public int getStatisticsHistogramWindow() {
+        return statisticsHistogramWindow;
+    }
+
     /**
      * Registers custom Event listener to server
      *
@@ -34,6 +34,7 @@ import org.jboss.as.controller.operations.common.Util;
 import org.jboss.dmr.ModelNode;
 import org.wildfly.extension.undertow.filters.CustomFilterDefinition;
 import org.wildfly.extension.undertow.filters.ErrorPageDefinition;
+import org.wildfly.extension.undertow.filters.AdaptiveConcurrencyLimitDefinition;
 import org.wildfly.extension.undertow.filters.BasicAuthHandler;
 import org.wildfly.extension.undertow.filters.ConnectionLimitHandler;
 import org.wildfly.extension.undertow.filters.FilterDefinitions;
@@ -57,6 +58,7 @@ public class UndertowSubsystemParser_2_0 extends PersistentResourceXMLParser {
         xmlDescription = builder(UndertowRootDefinition.INSTANCE, Namespace.UNDERTOW_2_0.getUriString())
                 .addAttributes(UndertowRootDefinition.DEFAULT_VIRTUAL_HOST, UndertowRootDefinition.DEFAULT_SERVLET_CONTAINER, UndertowRootDefinition.DEFAULT_SERVER, UndertowRootDefinition.INSTANCE_ID)
                 .addAttribute(UndertowRootDefinition.STATISTICS_ENABLED)
+                .addAttribute(UndertowRootDefinition.STATISTICS_HISTOGRAM_WINDOW)
                 .addChild(
                         builder(BufferCacheDefinition.INSTANCE)
                                 .addAttributes(BufferCacheDefinition.BUFFER_SIZE, BufferCacheDefinition.BUFFERS_PER_REGION, BufferCacheDefinition.MAX_REGIONS)
@@ -105,7 +107,7 @@ public class UndertowSubsystemParser_2_0 extends PersistentResourceXMLParser {
                                                                 )
                                                 ).addChild(
                                                 builder(AccessLogDefinition.INSTANCE)
-                                                        .addAttributes(AccessLogDefinition.PATTERN, AccessLogDefinition.DIRECTORY, AccessLogDefinition.PREFIX, AccessLogDefinition.SUFFIX, AccessLogDefinition.WORKER, AccessLogDefinition.ROTATE)
+                                                        .addAttributes(AccessLogDefinition.PATTERN, AccessLogDefinition.DIRECTORY, AccessLogDefinition.PREFIX, AccessLogDefinition.SUFFIX, AccessLogDefinition.WORKER, AccessLogDefinition.ROTATE, AccessLogDefinition.ASYNC_FORMAT, AccessLogDefinition.ASYNC_BUFFER_SIZE, AccessLogDefinition.MAX_FILE_SIZE, AccessLogDefinition.BLOCK_WHEN_FULL)
                                         ).addChild(
                                                 builder(FilterRefDefinition.INSTANCE)
                                                         .addAttributes(FilterRefDefinition.PREDICATE, FilterRefDefinition.PRIORITY)
@@ -126,6 +128,10 @@ public class UndertowSubsystemParser_2_0 extends PersistentResourceXMLParser {
                                 .addAttribute(ServletContainerDefinition.EAGER_FILTER_INIT)
                                 .addAttribute(ServletContainerDefinition.DEFAULT_SESSION_TIMEOUT)
                                 .addAttribute(ServletContainerDefinition.DISABLE_CACHING_FOR_SECURED_PAGES)
+                                .addAttribute(ServletContainerDefinition.SESSION_EXPIRATION_SCHEDULER)
+                                .addAttribute(ServletContainerDefinition.SESSION_DELTA_REPLICATION)
+                                .addAttribute(ServletContainerDefinition.SESSION_LAST_ACCESSED_TIME_THRESHOLD)
+                                .addAttribute(ServletContainerDefinition.PRECOMPRESSED_RESOURCE_ENCODINGS)
                                 .addChild(
                                         builder(JspDefinition.INSTANCE)
                                                 .setXmlElementName(Constants.JSP_CONFIG)
@@ -165,7 +171,8 @@ public class UndertowSubsystemParser_2_0 extends PersistentResourceXMLParser {
                                         builder(PersistentSessionsDefinition.INSTANCE)
                                                 .addAttributes(
                                                         PersistentSessionsDefinition.PATH,
-                                                        PersistentSessionsDefinition.RELATIVE_TO
+                                                        PersistentSessionsDefinition.RELATIVE_TO,
+                                                        PersistentSessionsDefinition.FLUSH_INTERVAL
                                                 )
                                 )
                                 .addChild(
@@ -198,7 +205,9 @@ public class UndertowSubsystemParser_2_0 extends PersistentResourceXMLParser {
                                                         ReverseProxyHandler.MAX_REQUEST_TIME,
                                                         ReverseProxyHandler.REQUEST_QUEUE_SIZE,
                                                         ReverseProxyHandler.CACHED_CONNECTIONS_PER_THREAD,
-                                                        ReverseProxyHandler.CONNECTION_IDLE_TIMEOUT)
+                                                        ReverseProxyHandler.CONNECTION_IDLE_TIMEOUT,
+                                                        ReverseProxyHandler.BALANCING_STRATEGY,
+                                                        ReverseProxyHandler.HASH_HEADER)
                                                 .addChild(builder(ReverseProxyHandlerHost.INSTANCE)
                                                         .setXmlElementName(Constants.HOST)
                                                         .addAttributes(ReverseProxyHandlerHost.INSTANCE_ID, ReverseProxyHandlerHost.PATH, ReverseProxyHandlerHost.SCHEME, ReverseProxyHandlerHost.OUTBOUND_SOCKET_BINDING))
@@ -242,6 +251,15 @@ public class UndertowSubsystemParser_2_0 extends PersistentResourceXMLParser {
                                         ModClusterDefinition.CACHED_CONNECTIONS_PER_THREAD,
                                         ModClusterDefinition.CONNECTION_IDLE_TIMEOUT,
                                         ModClusterDefinition.REQUEST_QUEUE_SIZE)
+                        ).addChild(
+                                builder(AdaptiveConcurrencyLimitDefinition.INSTANCE)
+                                .addAttributes(AdaptiveConcurrencyLimitDefinition.INITIAL_LIMIT,
+                                        AdaptiveConcurrencyLimitDefinition.MIN_LIMIT,
+                                        AdaptiveConcurrencyLimitDefinition.MAX_LIMIT,
+                                        AdaptiveConcurrencyLimitDefinition.QUEUE_SIZE,
+                                        AdaptiveConcurrencyLimitDefinition.QUEUE_TIMEOUT,
+                                        AdaptiveConcurrencyLimitDefinition.PRIORITY_PATHS,
+                                        AdaptiveConcurrencyLimitDefinition.PRIORITY_RESERVE)
                         ).addChild(
                                 builder(CustomFilterDefinition.INSTANCE)
                                         .addAttributes(CustomFilterDefinition.CLASS_NAME, CustomFilterDefinition.MODULE, CustomFilterDefinition.PARAMETERS)
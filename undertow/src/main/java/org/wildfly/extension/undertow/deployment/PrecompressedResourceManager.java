@@ -0,0 +1,687 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import io.undertow.io.IoCallback;
+import io.undertow.io.Sender;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.cache.DirectBufferCache;
+import io.undertow.server.handlers.cache.LimitedBufferSlicePool;
+import io.undertow.server.handlers.resource.Resource;
+import io.undertow.server.handlers.resource.ResourceChangeEvent;
+import io.undertow.server.handlers.resource.ResourceChangeListener;
+import io.undertow.server.handlers.resource.ResourceManager;
+import io.undertow.util.ETag;
+import io.undertow.util.ETagUtils;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import io.undertow.util.MimeMappings;
+import io.undertow.util.StatusCodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+
+/**
+ * Resource manager that serves the static resources of a deployment precompressed, if the client accepts a supported content encoding.
+ * Each resource is compressed at most once per encoding, and the compressed bytes are retained in the shared {@link DirectBufferCache},
+ * from which they are sent without further copying. For gzip, a prebuilt {@code .gz} sibling of a resource is preferred, if present and not older than the resource.
+ * If the compressed variant cannot be retained in the cache, e.g. since the cache is full, the compressed bytes are sent directly.
+ * The compressed variants of a resource are invalidated whenever the underlying resource manager reports a change to that resource.
+ * Each compressed variant is served with its own entity tag, i.e. that of the resource suffixed by the encoding, and responses for compressible
+ * resources vary by Accept-Encoding, such that caches neither serve nor validate one encoding for a request that accepts another.
+ *
+ * Precompression is enabled via the precompressed-resource-encodings attribute of the servlet container, which lists the supported encodings
+ * (i.e. {@code gzip} and/or {@code deflate}) in order of preference.
+ */
+public class PrecompressedResourceManager implements ResourceManager {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+    public static final List<String> SUPPORTED_ENCODINGS = Collections.unmodifiableList(Arrays.asList(GZIP, DEFLATE));
+    private static final String GZIP_EXTENSION = ".gz";
+
+    // Resources too small to benefit from compression, or too large to retain in the buffer cache, are served as is
+    private static final int MIN_SIZE = 1024;
+    private static final int MAX_SIZE = 1024 * 1024;
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = new HashSet<>(Arrays.asList("css", "csv", "htm", "html", "js", "json", "map", "svg", "txt", "xml"));
+
+    final ResourceManager delegate;
+    private final DirectBufferCache cache;
+    final List<String> encodings;
+    private final ConcurrentMap<String, ResourceState> states = new ConcurrentHashMap<>();
+    private final ResourceChangeListener listener = new ResourceChangeListener() {
+        @Override
+        public void handleChanges(Collection<ResourceChangeEvent> changes) {
+            for (ResourceChangeEvent change : changes) {
+                PrecompressedResourceManager.this.invalidate(change.getResource());
+            }
+        }
+    };
+
+    final AtomicLong hitCount = new AtomicLong();
+    final AtomicLong siblingHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    final AtomicLong uncachedCount = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+
+    /**
+     * Parses a comma separated list of encodings, in order of preference.
+     * @param value a comma separated list of encodings, or null
+     * @return the distinct encodings, in order of preference
+     * @throws IllegalArgumentException if the list contains an unsupported encoding
+     */
+    public static List<String> parseEncodings(String value) {
+        List<String> encodings = new ArrayList<>(2);
+        if (value != null) {
+            for (String encoding : value.split(",")) {
+                String name = encoding.trim().toLowerCase(Locale.ENGLISH);
+                if (SUPPORTED_ENCODINGS.contains(name)) {
+                    if (!encodings.contains(name)) {
+                        encodings.add(name);
+                    }
+                } else if (!name.isEmpty()) {
+                    throw new IllegalArgumentException(name);
+                }
+            }
+        }
+        return encodings;
+    }
+
+    public PrecompressedResourceManager(ResourceManager delegate, DirectBufferCache cache, List<String> encodings) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.encodings = Collections.unmodifiableList(new ArrayList<>(encodings));
+        if (delegate.isResourceChangeListenerSupported()) {
+            delegate.registerResourceChangeListener(this.listener);
+        }
+    }
+
+    @Override
+    public Resource getResource(String path) throws IOException {
+        Resource resource = this.delegate.getResource(path);
+        if ((resource == null) || resource.isDirectory() || !isCompressible(resource.getName())) {
+            return resource;
+        }
+        return new PrecompressedResource(resource);
+    }
+
+    @Override
+    public boolean isResourceChangeListenerSupported() {
+        return this.delegate.isResourceChangeListenerSupported();
+    }
+
+    @Override
+    public void registerResourceChangeListener(ResourceChangeListener listener) {
+        this.delegate.registerResourceChangeListener(listener);
+    }
+
+    @Override
+    public void removeResourceChangeListener(ResourceChangeListener listener) {
+        this.delegate.removeResourceChangeListener(listener);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.delegate.isResourceChangeListenerSupported()) {
+                this.delegate.removeResourceChangeListener(this.listener);
+            }
+            for (ResourceState state : this.states.values()) {
+                state.invalidated = true;
+                this.evict(state);
+            }
+            this.states.clear();
+        } finally {
+            this.delegate.close();
+        }
+    }
+
+    /**
+     * Returns the number of responses served from a compressed variant retained in the buffer cache.
+     */
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Returns the number of responses served from a prebuilt {@code .gz} sibling of the requested resource.
+     */
+    public long getSiblingHitCount() {
+        return this.siblingHitCount.get();
+    }
+
+    /**
+     * Returns the number of times a resource was compressed.
+     * Concurrent requests for the same variant compress the resource only once.
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * Returns the number of responses served from compressed bytes that could not be retained in the buffer cache.
+     */
+    public long getUncachedCount() {
+        return this.uncachedCount.get();
+    }
+
+    /**
+     * Returns the ratio of compressed to uncompressed bytes over all compressed resources, or 1 if no resource was compressed yet.
+     */
+    public double getCompressionRatio() {
+        long uncompressed = this.uncompressedBytes.get();
+        return (uncompressed > 0) ? (double) this.compressedBytes.get() / uncompressed : 1d;
+    }
+
+    static boolean isCompressible(String name) {
+        int index = name.lastIndexOf('.');
+        return (index >= 0) && COMPRESSIBLE_EXTENSIONS.contains(name.substring(index + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Selects the first of the specified encodings that is acceptable according to the specified Accept-Encoding header values.
+     * @return an encoding, or null, if none of the specified encodings is acceptable
+     */
+    static String selectEncoding(List<String> encodings, Iterable<String> acceptEncodings) {
+        Set<String> accepted = new HashSet<>();
+        for (String value : acceptEncodings) {
+            for (String element : value.split(",")) {
+                String[] parts = element.split(";");
+                String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+                if (!name.isEmpty() && (getQuality(parts) > 0)) {
+                    accepted.add(name);
+                }
+            }
+        }
+        for (String encoding : encodings) {
+            if (accepted.contains(encoding)) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    private static float getQuality(String[] parts) {
+        for (int i = 1; i < parts.length; ++i) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the entity tag of the variant of a resource in the specified encoding.
+     * @param etag the entity tag of the resource, or null
+     * @return the entity tag of the compressed variant, or null, if the resource has no entity tag
+     */
+    static ETag getETag(ETag etag, String encoding) {
+        return (etag != null) ? new ETag(etag.isWeak(), etag.getTag() + "-" + encoding) : null;
+    }
+
+    static byte[] compress(InputStream input, String encoding) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream output = encoding.equals(GZIP) ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            byte[] buffer = new byte[8192];
+            int read = input.read(buffer);
+            while (read >= 0) {
+                output.write(buffer, 0, read);
+                read = input.read(buffer);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Indicates whether the specified .gz sibling predates the last modification of the resource that it compresses.
+     */
+    static boolean isStale(Resource sibling, Resource resource) {
+        Date siblingModified = sibling.getLastModified();
+        Date modified = resource.getLastModified();
+        return (siblingModified != null) && (modified != null) && siblingModified.before(modified);
+    }
+
+    private static String normalize(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    ResourceState getState(String path) {
+        String key = normalize(path);
+        ResourceState state = this.states.get(key);
+        if (state == null) {
+            state = new ResourceState(key, 0);
+            ResourceState existing = this.states.putIfAbsent(key, state);
+            if (existing != null) {
+                state = existing;
+            }
+        }
+        return state;
+    }
+
+    void invalidate(String path) {
+        String key = normalize(path);
+        ResourceState state = this.states.get(key);
+        if (state != null) {
+            // Requests still compressing the previous version will not retain it in the cache
+            state.invalidated = true;
+            // Subsequent requests will use the cache keys of the next version
+            this.states.replace(key, state, new ResourceState(key, state.version + 1));
+            this.evict(state);
+        }
+        // A change to a .gz sibling also invalidates the resource that it compresses
+        if (key.endsWith(GZIP_EXTENSION)) {
+            this.invalidate(key.substring(0, key.length() - GZIP_EXTENSION.length()));
+        }
+    }
+
+    private void evict(ResourceState state) {
+        for (String encoding : this.encodings) {
+            this.cache.remove(new CacheKey(this, state.path, state.version, encoding));
+        }
+    }
+
+    /**
+     * Returns the specified resource in the specified encoding, compressing the resource if necessary.
+     * Only one request compresses a given variant at a time; concurrent requests for that variant back off.
+     * @return the compressed variant, or null, if the resource could not be compressed, or is being compressed by another request
+     */
+    CompressedVariant getCompressedVariant(Resource resource, ResourceState state, String encoding) {
+        CacheKey key = new CacheKey(this, state.path, state.version, encoding);
+        DirectBufferCache.CacheEntry entry = this.getReferencedEntry(key);
+        if (entry != null) {
+            return new CompressedVariant(entry);
+        }
+        if (!state.compressing.add(encoding)) {
+            return null;
+        }
+        try {
+            // Another request may have populated the cache in the meantime
+            entry = this.getReferencedEntry(key);
+            if (entry != null) {
+                return new CompressedVariant(entry);
+            }
+            byte[] compressed;
+            try (InputStream input = resource.getUrl().openStream()) {
+                compressed = compress(input, encoding);
+            } catch (IOException e) {
+                UndertowLogger.ROOT_LOGGER.debugf(e, "Failed to compress %s", resource.getPath());
+                return null;
+            }
+            this.missCount.incrementAndGet();
+            this.uncompressedBytes.addAndGet(resource.getContentLength());
+            this.compressedBytes.addAndGet(compressed.length);
+            entry = this.cache.add(key, compressed.length);
+            if ((entry != null) && entry.claimEnable()) {
+                int offset = 0;
+                for (LimitedBufferSlicePool.PooledByteBuffer pooled : entry.buffers()) {
+                    ByteBuffer buffer = pooled.getResource();
+                    buffer.clear();
+                    int length = Math.min(buffer.remaining(), compressed.length - offset);
+                    buffer.put(compressed, offset, length);
+                    buffer.flip();
+                    offset += length;
+                }
+                entry.enable();
+                boolean referenced = entry.reference();
+                // If the resource changed while it was compressed, its eviction may have preceded our addition
+                if (state.invalidated) {
+                    this.cache.remove(key);
+                }
+                if (referenced) {
+                    return new CompressedVariant(entry);
+                }
+            }
+            // No room in the cache, or the entry was evicted already
+            return new CompressedVariant(compressed);
+        } finally {
+            state.compressing.remove(encoding);
+        }
+    }
+
+    private DirectBufferCache.CacheEntry getReferencedEntry(CacheKey key) {
+        DirectBufferCache.CacheEntry entry = this.cache.get(key);
+        return ((entry != null) && entry.enabled() && entry.reference()) ? entry : null;
+    }
+
+    /**
+     * The compressed bytes of a resource, either referenced from the buffer cache, or not retained in the cache.
+     */
+    static class CompressedVariant {
+        private final DirectBufferCache.CacheEntry entry;
+        private final ByteBuffer[] buffers;
+        private final long size;
+
+        CompressedVariant(DirectBufferCache.CacheEntry entry) {
+            this.entry = entry;
+            boolean success = false;
+            try {
+                LimitedBufferSlicePool.PooledByteBuffer[] pooled = entry.buffers();
+                this.buffers = new ByteBuffer[pooled.length];
+                for (int i = 0; i < pooled.length; ++i) {
+                    this.buffers[i] = pooled[i].getResource().duplicate();
+                }
+                success = true;
+            } finally {
+                if (!success) {
+                    entry.dereference();
+                }
+            }
+            this.size = entry.size();
+        }
+
+        CompressedVariant(byte[] compressed) {
+            this.entry = null;
+            this.buffers = new ByteBuffer[] { ByteBuffer.wrap(compressed) };
+            this.size = compressed.length;
+        }
+
+        boolean isCached() {
+            return this.entry != null;
+        }
+
+        ByteBuffer[] getBuffers() {
+            return this.buffers;
+        }
+
+        long getSize() {
+            return this.size;
+        }
+
+        /**
+         * Returns a callback that releases the referenced cache entry, if any, before invoking the specified callback.
+         */
+        IoCallback getCallback(IoCallback callback) {
+            return (this.entry != null) ? new DereferenceCallback(this.entry, callback) : callback;
+        }
+    }
+
+    static class ResourceState {
+        final String path;
+        final int version;
+        // Lazily resolved prebuilt .gz sibling, if any
+        volatile Resource sibling = null;
+        volatile boolean siblingResolved = false;
+        // Encodings currently being compressed
+        final Set<String> compressing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        volatile boolean invalidated = false;
+
+        ResourceState(String path, int version) {
+            this.path = path;
+            this.version = version;
+        }
+    }
+
+    private static class CacheKey {
+        private final PrecompressedResourceManager manager;
+        private final String path;
+        private final int version;
+        private final String encoding;
+
+        CacheKey(PrecompressedResourceManager manager, String path, int version, String encoding) {
+            this.manager = manager;
+            this.path = path;
+            this.version = version;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) return true;
+            if (!(object instanceof CacheKey)) return false;
+            CacheKey key = (CacheKey) object;
+            return (this.manager == key.manager) && (this.version == key.version) && this.path.equals(key.path) && this.encoding.equals(key.encoding);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(this.manager);
+            result = 31 * result + this.path.hashCode();
+            result = 31 * result + this.version;
+            result = 31 * result + this.encoding.hashCode();
+            return result;
+        }
+    }
+
+    private static class DereferenceCallback implements IoCallback {
+        private final DirectBufferCache.CacheEntry entry;
+        private final IoCallback callback;
+
+        DereferenceCallback(DirectBufferCache.CacheEntry entry, IoCallback callback) {
+            this.entry = entry;
+            this.callback = callback;
+        }
+
+        @Override
+        public void onComplete(HttpServerExchange exchange, Sender sender) {
+            try {
+                this.entry.dereference();
+            } finally {
+                this.callback.onComplete(exchange, sender);
+            }
+        }
+
+        @Override
+        public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
+            try {
+                this.entry.dereference();
+            } finally {
+                this.callback.onException(exchange, sender, exception);
+            }
+        }
+    }
+
+    /**
+     * Resource that serves a compressed variant of the underlying resource, if the client accepts one.
+     */
+    private class PrecompressedResource implements Resource {
+
+        private final Resource underlying;
+
+        PrecompressedResource(Resource underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public void serve(Sender sender, HttpServerExchange exchange, IoCallback completionCallback) {
+            if (!this.serveCompressed(sender, exchange, completionCallback)) {
+                this.underlying.serve(sender, exchange, completionCallback);
+            }
+        }
+
+        private boolean serveCompressed(Sender sender, HttpServerExchange exchange, IoCallback completionCallback) {
+            Long length = this.underlying.getContentLength();
+            if ((length == null) || (length < MIN_SIZE) || (length > MAX_SIZE) || !exchange.getRequestMethod().equals(Methods.GET)) {
+                return false;
+            }
+            // The response may already be encoded, e.g. by a filter
+            if (exchange.getResponseHeaders().contains(Headers.CONTENT_ENCODING)) {
+                return false;
+            }
+            // Whether or not we compress, the response depends on the accepted encodings
+            exchange.getResponseHeaders().add(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+            HeaderValues acceptEncodings = exchange.getRequestHeaders().get(Headers.ACCEPT_ENCODING);
+            String encoding = (acceptEncodings != null) ? selectEncoding(PrecompressedResourceManager.this.encodings, acceptEncodings) : null;
+            if (encoding == null) {
+                return false;
+            }
+            // The resource handler validated the entity tag of the identity encoding, so validate that of the compressed variant
+            ETag etag = getETag(this.underlying.getETag(), encoding);
+            if (etag != null) {
+                if (!ETagUtils.handleIfNoneMatch(exchange, etag, true)) {
+                    exchange.setResponseCode(StatusCodes.NOT_MODIFIED);
+                    exchange.getResponseHeaders().remove(Headers.CONTENT_LENGTH);
+                    exchange.getResponseHeaders().put(Headers.ETAG, etag.toString());
+                    sender.close(completionCallback);
+                    return true;
+                }
+            }
+            ResourceState state = PrecompressedResourceManager.this.getState(this.underlying.getPath());
+            if (encoding.equals(GZIP)) {
+                Resource sibling = this.getSibling(state);
+                if (sibling != null) {
+                    Long siblingLength = sibling.getContentLength();
+                    if (siblingLength != null) {
+                        this.setHeaders(exchange, encoding, etag, siblingLength);
+                        PrecompressedResourceManager.this.siblingHitCount.incrementAndGet();
+                        sibling.serve(sender, exchange, completionCallback);
+                        return true;
+                    }
+                }
+            }
+            CompressedVariant variant = PrecompressedResourceManager.this.getCompressedVariant(this.underlying, state, encoding);
+            if (variant == null) {
+                return false;
+            }
+            this.setHeaders(exchange, encoding, etag, variant.getSize());
+            if (variant.isCached()) {
+                PrecompressedResourceManager.this.hitCount.incrementAndGet();
+            } else {
+                PrecompressedResourceManager.this.uncachedCount.incrementAndGet();
+            }
+            sender.send(variant.getBuffers(), variant.getCallback(completionCallback));
+            return true;
+        }
+
+        private Resource getSibling(ResourceState state) {
+            if (!state.siblingResolved) {
+                Resource sibling = null;
+                try {
+                    sibling = PrecompressedResourceManager.this.delegate.getResource(this.underlying.getPath() + GZIP_EXTENSION);
+                } catch (IOException e) {
+                    UndertowLogger.ROOT_LOGGER.tracef(e, "Failed to locate %s sibling of %s", GZIP_EXTENSION, this.underlying.getPath());
+                }
+                if ((sibling != null) && (sibling.isDirectory() || isStale(sibling, this.underlying))) {
+                    UndertowLogger.ROOT_LOGGER.tracef("Ignoring %s, since it is not a current compression of %s", sibling.getPath(), this.underlying.getPath());
+                    sibling = null;
+                }
+                state.sibling = sibling;
+                state.siblingResolved = true;
+            }
+            return state.sibling;
+        }
+
+        private void setHeaders(HttpServerExchange exchange, String encoding, ETag etag, long length) {
+            exchange.getResponseHeaders().put(Headers.CONTENT_ENCODING, encoding);
+            exchange.getResponseHeaders().put(Headers.CONTENT_LENGTH, length);
+            if (etag != null) {
+                exchange.getResponseHeaders().put(Headers.ETAG, etag.toString());
+            }
+        }
+
+        @Override
+        public String getPath() {
+            return this.underlying.getPath();
+        }
+
+        @Override
+        public Date getLastModified() {
+            return this.underlying.getLastModified();
+        }
+
+        @Override
+        public String getLastModifiedString() {
+            return this.underlying.getLastModifiedString();
+        }
+
+        /**
+         * Returns the entity tag of the identity encoding, since the encoding is only selected when serving a request.
+         * Compressed responses replace it by the entity tag of their variant.
+         */
+        @Override
+        public ETag getETag() {
+            return this.underlying.getETag();
+        }
+
+        @Override
+        public String getName() {
+            return this.underlying.getName();
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return this.underlying.isDirectory();
+        }
+
+        @Override
+        public List<Resource> list() {
+            return this.underlying.list();
+        }
+
+        @Override
+        public String getContentType(MimeMappings mimeMappings) {
+            return this.underlying.getContentType(mimeMappings);
+        }
+
+        @Override
+        public Long getContentLength() {
+            return this.underlying.getContentLength();
+        }
+
+        @Override
+        public String getCacheKey() {
+            return this.underlying.getCacheKey();
+        }
+
+        @Override
+        public File getFile() {
+            return this.underlying.getFile();
+        }
+
+        @Override
+        public File getResourceManagerRoot() {
+            return this.underlying.getResourceManagerRoot();
+        }
+
+        @Override
+        public URL getUrl() {
+            return this.underlying.getUrl();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.ee.metrics.LatencyHistogram;
+
+/**
+ * Thread-safe request statistics of a servlet or host, i.e. a latency histogram, bytes received and sent, and error counts.
+ * The histogram reflects either all requests, or only those requests completed within a rolling window of a given duration.
+ */
+public class RequestMetrics {
+
+    private static final int WINDOW_SLICES = 6;
+
+    private final LatencyHistogram histogram;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * @param window the duration of the rolling window of the histogram, or 0, if the histogram should reflect all requests
+     * @param unit the time unit of the window
+     */
+    public RequestMetrics(long window, TimeUnit unit) {
+        this.histogram = new LatencyHistogram(window, unit, WINDOW_SLICES);
+    }
+
+    /**
+     * Records a completed request.
+     * @param duration the processing time of the request
+     * @param unit the time unit of the processing time
+     * @param received the number of bytes received with the request
+     * @param sent the number of bytes sent with the response
+     * @param error indicates whether the request failed with a server error
+     */
+    public void record(long duration, TimeUnit unit, long received, long sent, boolean error) {
+        // Record with microsecond resolution
+        this.histogram.record(unit.toMicros(duration));
+        this.requestCount.incrementAndGet();
+        if (error) {
+            this.errorCount.incrementAndGet();
+        }
+        if (received > 0) {
+            this.bytesReceived.addAndGet(received);
+        }
+        if (sent > 0) {
+            this.bytesSent.addAndGet(sent);
+        }
+    }
+
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    public long getErrorCount() {
+        return this.errorCount.get();
+    }
+
+    public long getBytesReceived() {
+        return this.bytesReceived.get();
+    }
+
+    public long getBytesSent() {
+        return this.bytesSent.get();
+    }
+
+    /**
+     * Returns the specified percentile of request processing time.
+     * @param percentile a percentile, between 0 and 100
+     * @param unit the time unit of the result
+     */
+    public long getRequestTimePercentile(double percentile, TimeUnit unit) {
+        return unit.convert(this.histogram.getValuesAtPercentiles(percentile)[0], TimeUnit.MICROSECONDS);
+    }
+}
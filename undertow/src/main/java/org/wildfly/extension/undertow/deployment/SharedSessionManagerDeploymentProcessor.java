@@ -36,6 +36,8 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.service.ValueService;
 import org.jboss.msc.service.ServiceController.Mode;
 import org.jboss.msc.value.ImmediateValue;
+import org.wildfly.extension.undertow.ServletContainerService;
+import org.wildfly.extension.undertow.UndertowService;
 import org.wildfly.extension.undertow.session.DistributableSessionIdentifierCodecBuilder;
 import org.wildfly.extension.undertow.session.DistributableSessionIdentifierCodecBuilderValue;
 import org.wildfly.extension.undertow.session.DistributableSessionManagerFactoryBuilder;
@@ -48,6 +50,13 @@ import org.wildfly.extension.undertow.session.SimpleSessionIdentifierCodecServic
  * @author Stuart Douglas
  */
 public class SharedSessionManagerDeploymentProcessor implements DeploymentUnitProcessor {
+
+    private final String defaultContainer;
+
+    public SharedSessionManagerDeploymentProcessor(String defaultContainer) {
+        this.defaultContainer = defaultContainer;
+    }
+
     @Override
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
@@ -61,7 +70,9 @@ public class SharedSessionManagerDeploymentProcessor implements DeploymentUnitPr
         DistributableSessionManagerFactoryBuilder builder = new DistributableSessionManagerFactoryBuilderValue().getValue();
         if (builder != null) {
             Module module = deploymentUnit.getAttachment(Attachments.MODULE);
-            builder.build(target, managerServiceName, new SimpleDistributableSessionManagerConfiguration(sharedConfig, deploymentUnit.getName(), module))
+            SimpleDistributableSessionManagerConfiguration configuration = new SimpleDistributableSessionManagerConfiguration(sharedConfig, deploymentUnit.getName(), module);
+            builder.build(target, managerServiceName, configuration)
+                    .addDependency(UndertowService.SERVLET_CONTAINER.append(this.defaultContainer), ServletContainerService.class, configuration.getServletContainerInjector())
                     .setInitialMode(Mode.ON_DEMAND)
                     .install();
         } else {
@@ -126,6 +126,7 @@ import org.jboss.security.config.AuthorizationInfo;
 import org.jboss.security.config.SecurityConfiguration;
 import org.jboss.vfs.VirtualFile;
 import org.wildfly.extension.requestcontroller.ControlPoint;
+import org.wildfly.extension.undertow.DiskBasedModularPersistentSessionManager;
 import org.wildfly.extension.undertow.Host;
 import org.wildfly.extension.undertow.JSPConfig;
 import org.wildfly.extension.undertow.ServletContainerService;
@@ -381,7 +382,9 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
             }
             deploymentInfo.setServerName("WildFly " + Version.AS_VERSION);
             if (undertowService.getValue().isStatisticsEnabled()) {
-                deploymentInfo.setMetricsCollector(new UndertowMetricsCollector());
+                UndertowMetricsCollector metricsCollector = new UndertowMetricsCollector(host.getValue().getRequestMetrics(), undertowService.getValue().getStatisticsHistogramWindow());
+                deploymentInfo.setMetricsCollector(metricsCollector);
+                deploymentInfo.addOuterHandlerChainWrapper(metricsCollector.getHandlerWrapper());
             }
 
             ControlPoint controlPoint = controlPointInjectedValue.getOptionalValue();
@@ -538,6 +541,10 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
                 ResourceManager resourceManager = new ServletResourceManager(deploymentRoot, overlays, explodedDeployment, mergedMetaData.isSymbolicLinkingEnabled());
 
                 resourceManager = new CachingResourceManager(100, 10 * 1024 * 1024, servletContainer.getBufferCache(), resourceManager, explodedDeployment ? 2000 : -1);
+                List<String> precompressedEncodings = servletContainer.getPrecompressedResourceEncodings();
+                if (!precompressedEncodings.isEmpty() && (servletContainer.getBufferCache() != null)) {
+                    resourceManager = new PrecompressedResourceManager(resourceManager, servletContainer.getBufferCache(), precompressedEncodings);
+                }
                 d.setResourceManager(resourceManager);
             } catch (IOException e) {
                 throw new StartException(e);
@@ -567,6 +574,12 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
 
             if (servletContainer.getSessionPersistenceManager() != null) {
                 d.setSessionPersistenceManager(servletContainer.getSessionPersistenceManager());
+                if (servletContainer.getSessionPersistenceManager() instanceof DiskBasedModularPersistentSessionManager) {
+                    EventListener listener = ((DiskBasedModularPersistentSessionManager) servletContainer.getSessionPersistenceManager()).createSessionListener(deploymentName);
+                    if (listener != null) {
+                        d.addListener(Servlets.listener(listener.getClass(), new ImmediateInstanceFactory<EventListener>(listener)));
+                    }
+                }
             }
 
             //for 2.2 apps we do not require a leading / in path mappings
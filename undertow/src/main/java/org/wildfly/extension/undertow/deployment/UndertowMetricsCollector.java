@@ -24,27 +24,108 @@
 
 package org.wildfly.extension.undertow.deployment;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HandlerWrapper;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.MetricsHandler;
 import io.undertow.servlet.api.MetricsCollector;
+import io.undertow.servlet.handlers.ServletChain;
+import io.undertow.servlet.handlers.ServletRequestContext;
 
 /**
+ * Collects the metrics of the servlets of a deployment.
+ * In addition to Undertow's own per-servlet totals, this records {@link RequestMetrics} per servlet, which are also aggregated per host,
+ * via the handler provided by {@link #getHandlerWrapper()}.
  * @author Tomaz Cerar (c) 2014 Red Hat Inc.
  */
 public class UndertowMetricsCollector implements MetricsCollector {
-    private final Map<String, MetricsHandler> metrics = new HashMap<>();
+    private final Map<String, MetricsHandler> metrics = new ConcurrentHashMap<>();
+    private final Map<String, RequestMetrics> requestMetrics = new ConcurrentHashMap<>();
+    private final RequestMetrics hostMetrics;
+    private final int histogramWindow;
+
+    public UndertowMetricsCollector() {
+        this(null, 0);
+    }
+
+    /**
+     * @param hostMetrics the request metrics of the host, into which those of each servlet are aggregated, or null
+     * @param histogramWindow the duration, in seconds, of the rolling window of the request time histograms, or 0, for all requests
+     */
+    public UndertowMetricsCollector(RequestMetrics hostMetrics, int histogramWindow) {
+        this.hostMetrics = hostMetrics;
+        this.histogramWindow = histogramWindow;
+    }
 
     @Override
     public void registerMetric(String name, MetricsHandler handler) {
         metrics.put(name, handler);
+        requestMetrics.put(name, new RequestMetrics(histogramWindow, TimeUnit.SECONDS));
     }
 
     public MetricsHandler.MetricResult getMetrics(String name) {
-        if (metrics.containsKey(name)) {
-            return metrics.get(name).getMetrics();
+        MetricsHandler handler = metrics.get(name);
+        return (handler != null) ? handler.getMetrics() : null;
+    }
+
+    public RequestMetrics getRequestMetrics(String name) {
+        return requestMetrics.get(name);
+    }
+
+    /**
+     * Returns a wrapper for the outer handler chain of the deployment, which records the request metrics of each servlet.
+     */
+    public HandlerWrapper getHandlerWrapper() {
+        return new HandlerWrapper() {
+            @Override
+            public HttpHandler wrap(HttpHandler handler) {
+                return new RequestMetricsHandler(handler);
+            }
+        };
+    }
+
+    void record(String servletName, HttpServerExchange exchange, long duration) {
+        long received = exchange.getRequestContentLength();
+        long sent = exchange.getResponseBytesSent();
+        boolean error = exchange.getResponseCode() >= 500;
+        RequestMetrics metrics = (servletName != null) ? requestMetrics.get(servletName) : null;
+        if (metrics != null) {
+            metrics.record(duration, TimeUnit.NANOSECONDS, received, sent, error);
+        }
+        if (hostMetrics != null) {
+            hostMetrics.record(duration, TimeUnit.NANOSECONDS, received, sent, error);
+        }
+    }
+
+    private class RequestMetricsHandler implements HttpHandler {
+        private final HttpHandler next;
+
+        RequestMetricsHandler(HttpHandler next) {
+            this.next = next;
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            final long start = System.nanoTime();
+            ServletRequestContext context = exchange.getAttachment(ServletRequestContext.ATTACHMENT_KEY);
+            ServletChain chain = (context != null) ? context.getCurrentServlet() : null;
+            final String servletName = (chain != null) ? chain.getManagedServlet().getServletInfo().getName() : null;
+            exchange.addExchangeCompleteListener(new ExchangeCompletionListener() {
+                @Override
+                public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+                    try {
+                        record(servletName, exchange, System.nanoTime() - start);
+                    } finally {
+                        nextListener.proceed();
+                    }
+                }
+            });
+            next.handleRequest(exchange);
         }
-        return null;
     }
 }
@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.filters;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import io.undertow.predicate.Predicate;
+import io.undertow.server.HttpHandler;
+import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.ServiceRemoveStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+import org.wildfly.extension.undertow.AbstractHandlerDefinition;
+import org.wildfly.extension.undertow.Constants;
+import org.wildfly.extension.undertow.UndertowService;
+
+/**
+ * Filter limiting the number of concurrent requests, where the limit adapts to the measured request latency.
+ * Like mod_cluster, this does not re-use the generic filter code, as all of its handlers share a single limiter.
+ */
+public class AdaptiveConcurrencyLimitDefinition extends AbstractHandlerDefinition {
+
+    public static final AttributeDefinition INITIAL_LIMIT = new SimpleAttributeDefinitionBuilder(Constants.INITIAL_LIMIT, ModelType.INT)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setDefaultValue(new ModelNode(20))
+            .build();
+
+    public static final AttributeDefinition MIN_LIMIT = new SimpleAttributeDefinitionBuilder(Constants.MIN_LIMIT, ModelType.INT)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setDefaultValue(new ModelNode(1))
+            .build();
+
+    public static final AttributeDefinition MAX_LIMIT = new SimpleAttributeDefinitionBuilder(Constants.MAX_LIMIT, ModelType.INT)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setDefaultValue(new ModelNode(1000))
+            .build();
+
+    public static final AttributeDefinition QUEUE_SIZE = new SimpleAttributeDefinitionBuilder(Constants.QUEUE_SIZE, ModelType.INT)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setValidator(new IntRangeValidator(0, true, true))
+            .setDefaultValue(new ModelNode(100))
+            .build();
+
+    public static final AttributeDefinition QUEUE_TIMEOUT = new SimpleAttributeDefinitionBuilder(Constants.QUEUE_TIMEOUT, ModelType.LONG)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setDefaultValue(new ModelNode(100L))
+            .build();
+
+    public static final AttributeDefinition PRIORITY_PATHS = new SimpleAttributeDefinitionBuilder(Constants.PRIORITY_PATHS, ModelType.STRING)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .build();
+
+    public static final AttributeDefinition PRIORITY_RESERVE = new SimpleAttributeDefinitionBuilder(Constants.PRIORITY_RESERVE, ModelType.INT)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setValidator(new IntRangeValidator(0, 100, true, true))
+            .setMeasurementUnit(MeasurementUnit.PERCENTAGE)
+            .setDefaultValue(new ModelNode(20))
+            .build();
+
+    static final AttributeDefinition LIMIT = new SimpleAttributeDefinitionBuilder("limit", ModelType.INT, true).setStorageRuntime().build();
+    static final AttributeDefinition IN_FLIGHT_REQUESTS = new SimpleAttributeDefinitionBuilder("in-flight-requests", ModelType.INT, true).setStorageRuntime().build();
+    static final AttributeDefinition QUEUED_REQUESTS = new SimpleAttributeDefinitionBuilder("queued-requests", ModelType.INT, true).setStorageRuntime().build();
+    static final AttributeDefinition REJECTED_REQUESTS = new SimpleAttributeDefinitionBuilder("rejected-requests", ModelType.LONG, true).setStorageRuntime().build();
+
+    public static final Collection<AttributeDefinition> ATTRIBUTES = Collections.unmodifiableCollection(Arrays.asList(INITIAL_LIMIT, MIN_LIMIT, MAX_LIMIT,
+            QUEUE_SIZE, QUEUE_TIMEOUT, PRIORITY_PATHS, PRIORITY_RESERVE));
+    public static final AdaptiveConcurrencyLimitDefinition INSTANCE = new AdaptiveConcurrencyLimitDefinition();
+
+    private AdaptiveConcurrencyLimitDefinition() {
+        super(Constants.ADAPTIVE_CONCURRENCY_LIMIT, Constants.FILTER, new AdaptiveConcurrencyLimitAdd(), new ServiceRemoveStepHandler(UndertowService.FILTER, new AdaptiveConcurrencyLimitAdd()));
+    }
+
+    @Override
+    public Collection<AttributeDefinition> getAttributes() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        for (AttributeDefinition metric : Arrays.asList(LIMIT, IN_FLIGHT_REQUESTS, QUEUED_REQUESTS, REJECTED_REQUESTS)) {
+            resourceRegistration.registerMetric(metric, ReadMetricHandler.INSTANCE);
+        }
+    }
+
+    @Override
+    public HttpHandler createHttpHandler(Predicate predicate, ModelNode model, HttpHandler next) {
+        throw new IllegalStateException(); //not used, as all handlers of this filter share the limiter of its service
+    }
+
+    static class AdaptiveConcurrencyLimitAdd extends AbstractAddStepHandler {
+
+        AdaptiveConcurrencyLimitAdd() {
+            super(ATTRIBUTES);
+        }
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+            final String name = address.getLastElement().getValue();
+            AdaptiveConcurrencyLimitService.install(name, context.getServiceTarget(), model, context);
+        }
+    }
+
+    private static class ReadMetricHandler implements OperationStepHandler {
+
+        static final ReadMetricHandler INSTANCE = new ReadMetricHandler();
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final PathAddress address = PathAddress.pathAddress(operation.require(OP_ADDR));
+            final String name = address.getLastElement().getValue();
+            final String metric = operation.require(NAME).asString();
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.FILTER.append(name));
+            AdaptiveConcurrencyLimiter limiter = ((controller != null) && (controller.getState() == ServiceController.State.UP)) ? ((AdaptiveConcurrencyLimitService) controller.getValue()).getLimiter() : null;
+            if (limiter == null) {
+                context.getResult().set(0);
+            } else if (metric.equals(LIMIT.getName())) {
+                context.getResult().set(limiter.getLimit());
+            } else if (metric.equals(IN_FLIGHT_REQUESTS.getName())) {
+                context.getResult().set(limiter.getInflight());
+            } else if (metric.equals(QUEUED_REQUESTS.getName())) {
+                context.getResult().set(limiter.getQueued());
+            } else if (metric.equals(REJECTED_REQUESTS.getName())) {
+                context.getResult().set(limiter.getRejectedCount());
+            }
+            context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
+        }
+    }
+}
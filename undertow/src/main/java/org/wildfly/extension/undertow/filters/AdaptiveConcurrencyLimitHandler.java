@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.filters;
+
+import java.util.concurrent.TimeUnit;
+
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.SameThreadExecutor;
+import io.undertow.util.StatusCodes;
+import org.xnio.XnioExecutor;
+
+/**
+ * Handler that admits requests according to an {@link AdaptiveConcurrencyLimiter}.
+ * Requests exceeding the limit are suspended in the queue of the limiter, and rejected with a 503 response
+ * if the queue is full, or if they are not admitted within the queue timeout.
+ */
+class AdaptiveConcurrencyLimitHandler implements HttpHandler {
+
+    private static final HttpHandler REJECT_HANDLER = new HttpHandler() {
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            exchange.setResponseCode(StatusCodes.SERVICE_UNAVAILABLE);
+            exchange.endExchange();
+        }
+    };
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final String[] priorityPaths;
+    private final long queueTimeout;
+    private final HttpHandler next;
+
+    AdaptiveConcurrencyLimitHandler(AdaptiveConcurrencyLimiter limiter, String[] priorityPaths, long queueTimeout, HttpHandler next) {
+        this.limiter = limiter;
+        this.priorityPaths = priorityPaths;
+        this.queueTimeout = queueTimeout;
+        this.next = next;
+    }
+
+    private boolean isPriority(String path) {
+        for (String priorityPath : this.priorityPaths) {
+            if (path.startsWith(priorityPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void handleRequest(final HttpServerExchange exchange) throws Exception {
+        final boolean priority = this.isPriority(exchange.getRequestPath());
+        if (this.limiter.tryAcquire(priority)) {
+            exchange.addExchangeCompleteListener(new ReleaseListener(System.nanoTime()));
+            this.next.handleRequest(exchange);
+        } else if (this.queueTimeout > 0) {
+            exchange.dispatch(SameThreadExecutor.INSTANCE, new Runnable() {
+                @Override
+                public void run() {
+                    QueuedRequest request = new QueuedRequest(exchange, priority);
+                    if (AdaptiveConcurrencyLimitHandler.this.limiter.enqueue(request)) {
+                        request.schedule();
+                    } else {
+                        exchange.dispatch(SameThreadExecutor.INSTANCE, REJECT_HANDLER);
+                    }
+                }
+            });
+        } else {
+            this.limiter.reject();
+            REJECT_HANDLER.handleRequest(exchange);
+        }
+    }
+
+    private class ReleaseListener implements ExchangeCompletionListener {
+        private final long start;
+
+        ReleaseListener(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+            try {
+                AdaptiveConcurrencyLimitHandler.this.limiter.release(System.nanoTime() - this.start, TimeUnit.NANOSECONDS);
+            } finally {
+                nextListener.proceed();
+            }
+        }
+    }
+
+    private class QueuedRequest extends AdaptiveConcurrencyLimiter.Waiter implements Runnable {
+        private final HttpServerExchange exchange;
+        private volatile XnioExecutor.Key timeoutKey;
+
+        QueuedRequest(HttpServerExchange exchange, boolean priority) {
+            super(priority);
+            this.exchange = exchange;
+        }
+
+        void schedule() {
+            this.timeoutKey = this.exchange.getIoThread().executeAfter(this, AdaptiveConcurrencyLimitHandler.this.queueTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        // Invoked on queue timeout
+        @Override
+        public void run() {
+            if (AdaptiveConcurrencyLimitHandler.this.limiter.expire(this)) {
+                this.reject();
+            }
+        }
+
+        @Override
+        protected void resume() {
+            XnioExecutor.Key key = this.timeoutKey;
+            if (key != null) {
+                key.remove();
+            }
+            this.exchange.addExchangeCompleteListener(new ReleaseListener(System.nanoTime()));
+            this.exchange.dispatch(AdaptiveConcurrencyLimitHandler.this.next);
+        }
+
+        @Override
+        protected void reject() {
+            this.exchange.dispatch(SameThreadExecutor.INSTANCE, REJECT_HANDLER);
+        }
+    }
+}
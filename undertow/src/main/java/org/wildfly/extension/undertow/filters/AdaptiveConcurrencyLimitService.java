@@ -0,0 +1,115 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.filters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.undertow.predicate.Predicate;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.handlers.PredicateHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.wildfly.extension.undertow.UndertowService;
+
+/**
+ * Adaptive concurrency limit filter. Unlike most filters, all handlers created by this filter share a single {@link AdaptiveConcurrencyLimiter},
+ * regardless of how many filter refs use it.
+ */
+public class AdaptiveConcurrencyLimitService extends FilterService {
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long queueTimeout;
+    private final String[] priorityPaths;
+    private final int priorityReserve;
+
+    private volatile AdaptiveConcurrencyLimiter limiter;
+
+    AdaptiveConcurrencyLimitService(ModelNode model, int initialLimit, int minLimit, int maxLimit, int queueSize, long queueTimeout, String[] priorityPaths, int priorityReserve) {
+        super(AdaptiveConcurrencyLimitDefinition.INSTANCE, model);
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.queueTimeout = queueTimeout;
+        this.priorityPaths = priorityPaths;
+        this.priorityReserve = priorityReserve;
+    }
+
+    @Override
+    public synchronized void start(StartContext context) throws StartException {
+        super.start(context);
+        limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, queueSize, priorityReserve);
+    }
+
+    @Override
+    public synchronized void stop(StopContext context) {
+        super.stop(context);
+        limiter.close();
+        limiter = null;
+    }
+
+    /**
+     * Returns the limiter shared by the handlers of this filter, or null, if this filter is not started.
+     */
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public HttpHandler createHttpHandler(Predicate predicate, HttpHandler next) {
+        HttpHandler handler = new AdaptiveConcurrencyLimitHandler(limiter, priorityPaths, (queueSize > 0) ? queueTimeout : 0L, next);
+        return (predicate != null) ? new PredicateHandler(predicate, handler, next) : handler;
+    }
+
+    static ServiceController<FilterService> install(String name, ServiceTarget serviceTarget, ModelNode model, OperationContext operationContext) throws OperationFailedException {
+        List<String> priorityPaths = new ArrayList<>();
+        ModelNode priorityPathsNode = AdaptiveConcurrencyLimitDefinition.PRIORITY_PATHS.resolveModelAttribute(operationContext, model);
+        if (priorityPathsNode.isDefined()) {
+            for (String path : priorityPathsNode.asString().split(",")) {
+                if (!path.trim().isEmpty()) {
+                    priorityPaths.add(path.trim());
+                }
+            }
+        }
+        AdaptiveConcurrencyLimitService service = new AdaptiveConcurrencyLimitService(model,
+                AdaptiveConcurrencyLimitDefinition.INITIAL_LIMIT.resolveModelAttribute(operationContext, model).asInt(),
+                AdaptiveConcurrencyLimitDefinition.MIN_LIMIT.resolveModelAttribute(operationContext, model).asInt(),
+                AdaptiveConcurrencyLimitDefinition.MAX_LIMIT.resolveModelAttribute(operationContext, model).asInt(),
+                AdaptiveConcurrencyLimitDefinition.QUEUE_SIZE.resolveModelAttribute(operationContext, model).asInt(),
+                AdaptiveConcurrencyLimitDefinition.QUEUE_TIMEOUT.resolveModelAttribute(operationContext, model).asLong(),
+                priorityPaths.toArray(new String[priorityPaths.size()]),
+                AdaptiveConcurrencyLimitDefinition.PRIORITY_RESERVE.resolveModelAttribute(operationContext, model).asInt());
+        return serviceTarget.addService(UndertowService.FILTER.append(name), service)
+                .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                .install();
+    }
+}
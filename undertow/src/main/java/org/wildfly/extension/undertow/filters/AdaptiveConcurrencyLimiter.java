@@ -0,0 +1,286 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.filters;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of concurrent requests, adapting the limit to the measured request latency.
+ * The limit is recalculated once per sample window, using a gradient between the long-term and short-term average latency:
+ * while latency is stable, the limit grows by roughly its square root per window, whereas rising latency, i.e. queuing within the server,
+ * shrinks the limit proportionally, by at most half per window.
+ * A share of the limit may be reserved for priority requests.
+ * Requests exceeding the limit may wait in a bounded queue, from which priority requests are admitted first.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long SAMPLE_WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    // Number of sample windows averaged by the long-term latency
+    private static final double LONG_WINDOW = 60d;
+    // Ratio of short-term to long-term latency tolerated before the limit shrinks
+    private static final double TOLERANCE = 1.5d;
+    private static final double SMOOTHING = 0.2d;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final int priorityReserve;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger maxInflight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> priorityQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Waiter> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicLong sampleSum = new AtomicLong();
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private volatile long nextUpdate;
+    // Guarded by updating
+    private double estimatedLimit;
+    private double longLatency = 0d;
+    private volatile int limit;
+
+    /**
+     * @param initialLimit the initial concurrency limit
+     * @param minLimit the minimum concurrency limit
+     * @param maxLimit the maximum concurrency limit
+     * @param queueSize the maximum number of requests waiting for admission
+     * @param priorityReserve the percentage of the limit reserved for priority requests
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize, int priorityReserve) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.queueSize = Math.max(queueSize, 0);
+        this.priorityReserve = Math.min(Math.max(priorityReserve, 0), 100);
+        this.estimatedLimit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+        this.limit = (int) this.estimatedLimit;
+        this.nextUpdate = System.nanoTime() + SAMPLE_WINDOW;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+
+    public int getInflight() {
+        return this.inflight.get();
+    }
+
+    public int getQueued() {
+        return this.queued.get();
+    }
+
+    /**
+     * Returns the number of requests rejected, since the queue was full or since they waited too long for admission.
+     */
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    private int getLimit(boolean priority) {
+        int limit = this.limit;
+        return priority ? limit : Math.max(limit - (limit * this.priorityReserve / 100), 1);
+    }
+
+    /**
+     * Attempts to admit a request.
+     * If successful, the caller must {@link #release(long, TimeUnit)} once the request completes.
+     * @param priority whether the request is a priority request
+     * @return true, if the request was admitted, false otherwise
+     */
+    public boolean tryAcquire(boolean priority) {
+        int limit = this.getLimit(priority);
+        while (true) {
+            int current = this.inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (this.inflight.compareAndSet(current, current + 1)) {
+                int max = this.maxInflight.get();
+                while ((current + 1 > max) && !this.maxInflight.compareAndSet(max, current + 1)) {
+                    max = this.maxInflight.get();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request, and admits waiting requests, if the limit permits.
+     * @param latency the latency of the completed request
+     * @param unit the unit of the latency
+     */
+    public void release(long latency, TimeUnit unit) {
+        this.inflight.decrementAndGet();
+        this.sample(unit.toNanos(latency));
+        this.drain();
+    }
+
+    /**
+     * Queues a request that was not admitted.
+     * @return true, if the request was queued, false if the queue is full, in which case the request is counted as rejected
+     */
+    public boolean enqueue(Waiter waiter) {
+        if (this.queued.incrementAndGet() > this.queueSize) {
+            this.queued.decrementAndGet();
+            this.rejectedCount.incrementAndGet();
+            return false;
+        }
+        (waiter.priority ? this.priorityQueue : this.queue).add(waiter);
+        // Capacity may have become available after the request was denied admission
+        this.drain();
+        return true;
+    }
+
+    /**
+     * Removes a queued request that waited too long for admission, if it was not admitted concurrently.
+     * @return true, if the request was removed, and should be rejected, false if it was already admitted
+     */
+    public boolean expire(Waiter waiter) {
+        if (!waiter.claim()) {
+            return false;
+        }
+        (waiter.priority ? this.priorityQueue : this.queue).remove(waiter);
+        this.queued.decrementAndGet();
+        this.rejectedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Counts a request that was rejected without being queued.
+     */
+    public void reject() {
+        this.rejectedCount.incrementAndGet();
+    }
+
+    private void drain() {
+        while (true) {
+            boolean priority = !this.priorityQueue.isEmpty();
+            if (!priority && this.queue.isEmpty()) {
+                return;
+            }
+            if (!this.tryAcquire(priority)) {
+                return;
+            }
+            Waiter waiter = (priority ? this.priorityQueue : this.queue).poll();
+            if ((waiter != null) && waiter.claim()) {
+                this.queued.decrementAndGet();
+                waiter.resume();
+            } else {
+                // Queue was drained concurrently, or the request expired
+                this.inflight.decrementAndGet();
+            }
+        }
+    }
+
+    private void sample(long latency) {
+        this.sampleSum.addAndGet(latency);
+        this.sampleCount.incrementAndGet();
+        long now = System.nanoTime();
+        if ((now - this.nextUpdate >= 0) && this.updating.compareAndSet(false, true)) {
+            try {
+                this.nextUpdate = now + SAMPLE_WINDOW;
+                this.update(this.sampleSum.getAndSet(0L), this.sampleCount.getAndSet(0L), this.maxInflight.getAndSet(this.inflight.get()));
+            } finally {
+                this.updating.set(false);
+            }
+        }
+    }
+
+    // Must only be called while updating
+    void update(long latencySum, long count, int maxInflight) {
+        if (count == 0) {
+            return;
+        }
+        double shortLatency = (double) latencySum / count;
+        if (this.longLatency == 0d) {
+            this.longLatency = shortLatency;
+        } else {
+            this.longLatency += (shortLatency - this.longLatency) / LONG_WINDOW;
+        }
+        // Let the long-term latency recover quickly once latency drops well below it, e.g. after a load spike
+        if (this.longLatency > 2 * shortLatency) {
+            this.longLatency *= 0.95d;
+        }
+        // Do not grow the limit, if the current limit is not even nearly used
+        if (maxInflight < this.estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5d, Math.min(1d, TOLERANCE * this.longLatency / Math.max(shortLatency, 1d)));
+        double newLimit = this.estimatedLimit * gradient + Math.sqrt(this.estimatedLimit);
+        newLimit = this.estimatedLimit * (1d - SMOOTHING) + newLimit * SMOOTHING;
+        this.estimatedLimit = Math.min(Math.max(newLimit, this.minLimit), this.maxLimit);
+        this.limit = (int) this.estimatedLimit;
+    }
+
+    /**
+     * Rejects all queued requests.
+     */
+    public void close() {
+        this.close(this.priorityQueue);
+        this.close(this.queue);
+    }
+
+    private void close(Queue<Waiter> queue) {
+        Waiter waiter = queue.poll();
+        while (waiter != null) {
+            if (waiter.claim()) {
+                this.queued.decrementAndGet();
+                this.rejectedCount.incrementAndGet();
+                waiter.reject();
+            }
+            waiter = queue.poll();
+        }
+    }
+
+    /**
+     * A request waiting for admission.
+     */
+    public abstract static class Waiter {
+        final boolean priority;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        protected Waiter(boolean priority) {
+            this.priority = priority;
+        }
+
+        boolean claim() {
+            return this.claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * Invoked once the request was admitted.
+         */
+        protected abstract void resume();
+
+        /**
+         * Invoked if the request was rejected while queued.
+         */
+        protected abstract void reject();
+    }
+}
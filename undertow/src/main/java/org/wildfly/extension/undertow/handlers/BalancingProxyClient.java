@@ -0,0 +1,484 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.handlers;
+
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.Cookie;
+import io.undertow.server.handlers.proxy.ExclusivityChecker;
+import io.undertow.server.handlers.proxy.LoadBalancingProxyClient;
+import io.undertow.server.handlers.proxy.ProxyCallback;
+import io.undertow.server.handlers.proxy.ProxyClient;
+import io.undertow.server.handlers.proxy.ProxyConnection;
+import io.undertow.util.AttachmentKey;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proxy client that selects the backend of every request by a {@link BalancingStrategy}, and tracks the outstanding
+ * requests and response times of every backend.
+ * <p/>
+ * Requests carrying a session cookie whose route matches the instance id of an available backend are sent to that
+ * backend. Connections to each backend are managed by a {@link LoadBalancingProxyClient} holding only that backend,
+ * and a backend whose connection failed is not selected for the problem server retry interval.
+ */
+public class BalancingProxyClient implements ProxyClient {
+
+    private static final ProxyTarget PROXY_TARGET = new ProxyTarget() {
+    };
+    private static final AttachmentKey<Request> REQUEST = AttachmentKey.create(Request.class);
+    private static final int VIRTUAL_NODES = 160;
+    private static final double LATENCY_WEIGHT = 0.1d;
+
+    private final ExclusivityChecker exclusivityChecker;
+    private final List<String> sessionCookieNames = new CopyOnWriteArrayList<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private BalancingStrategy strategy = BalancingStrategy.ROUND_ROBIN;
+    private String hashHeader;
+    private int connectionsPerThread = 10;
+    private int maxQueueSize = 0;
+    private int problemServerRetry = 30;
+
+    private volatile Backend[] backends = {};
+    private volatile Ring ring = new Ring(new long[0], new Backend[0]);
+
+    public BalancingProxyClient(ExclusivityChecker exclusivityChecker) {
+        this.exclusivityChecker = exclusivityChecker;
+    }
+
+    public BalancingProxyClient setStrategy(BalancingStrategy strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+
+    /**
+     * Sets the request header whose value is hashed by the {@link BalancingStrategy#CONSISTENT_HASH} strategy.
+     * If null, or if a request does not carry the header, the request path is hashed.
+     */
+    public BalancingProxyClient setHashHeader(String hashHeader) {
+        this.hashHeader = hashHeader;
+        return this;
+    }
+
+    public BalancingProxyClient setConnectionsPerThread(int connectionsPerThread) {
+        this.connectionsPerThread = connectionsPerThread;
+        return this;
+    }
+
+    public BalancingProxyClient setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    public BalancingProxyClient setProblemServerRetry(int problemServerRetry) {
+        this.problemServerRetry = problemServerRetry;
+        return this;
+    }
+
+    public BalancingProxyClient addSessionCookieName(String sessionCookieName) {
+        this.sessionCookieNames.add(sessionCookieName);
+        return this;
+    }
+
+    public synchronized Backend addHost(URI uri, String instanceId) {
+        LoadBalancingProxyClient client = new LoadBalancingProxyClient(this.exclusivityChecker)
+                .setConnectionsPerThread(this.connectionsPerThread)
+                .setMaxQueueSize(this.maxQueueSize)
+                .setProblemServerRetry(this.problemServerRetry);
+        client.addHost(uri, instanceId);
+        Backend backend = new Backend(uri, instanceId, client);
+        Backend[] backends = Arrays.copyOf(this.backends, this.backends.length + 1);
+        backends[backends.length - 1] = backend;
+        this.update(backends);
+        return backend;
+    }
+
+    public synchronized void removeHost(URI uri) {
+        List<Backend> backends = new ArrayList<>(this.backends.length);
+        for (Backend backend : this.backends) {
+            if (backend.uri.equals(uri)) {
+                backend.client.removeHost(uri);
+            } else {
+                backends.add(backend);
+            }
+        }
+        this.update(backends.toArray(new Backend[backends.size()]));
+    }
+
+    private void update(Backend[] backends) {
+        // Build the ring before publishing the backends, so that both always cover the same backends
+        long[] hashes = new long[backends.length * VIRTUAL_NODES];
+        Backend[] owners = new Backend[hashes.length];
+        long[][] nodes = new long[hashes.length][];
+        int index = 0;
+        for (int i = 0; i < backends.length; ++i) {
+            for (int j = 0; j < VIRTUAL_NODES; ++j) {
+                nodes[index++] = new long[] { hash(backends[i].uri.toString() + '#' + j), i };
+            }
+        }
+        Arrays.sort(nodes, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] node1, long[] node2) {
+                return Long.compare(node1[0], node2[0]);
+            }
+        });
+        for (int i = 0; i < nodes.length; ++i) {
+            hashes[i] = nodes[i][0];
+            owners[i] = backends[(int) nodes[i][1]];
+        }
+        this.ring = new Ring(hashes, owners);
+        this.backends = backends;
+    }
+
+    @Override
+    public ProxyTarget findTarget(HttpServerExchange exchange) {
+        return PROXY_TARGET;
+    }
+
+    @Override
+    public void getConnection(ProxyTarget target, HttpServerExchange exchange, ProxyCallback<ProxyConnection> callback, long timeout, TimeUnit timeUnit) {
+        Backend backend = this.selectBackend(exchange);
+        if (backend == null) {
+            callback.couldNotResolveBackend(exchange);
+            return;
+        }
+        Request request = exchange.getAttachment(REQUEST);
+        if (request == null) {
+            request = new Request();
+            exchange.putAttachment(REQUEST, request);
+            exchange.addExchangeCompleteListener(request);
+        }
+        request.start(backend);
+        backend.client.getConnection(backend.client.findTarget(exchange), exchange, new BackendCallback(backend, request, callback), timeout, timeUnit);
+    }
+
+    Backend selectBackend(HttpServerExchange exchange) {
+        Backend[] backends = this.backends;
+        if (backends.length == 0) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Backend sticky = this.findStickyBackend(exchange, backends, now);
+        if (sticky != null) {
+            return sticky;
+        }
+        switch (this.strategy) {
+            case LEAST_OUTSTANDING: {
+                return this.selectLeast(backends, now, false);
+            }
+            case LEAST_LATENCY: {
+                return this.selectLeast(backends, now, true);
+            }
+            case CONSISTENT_HASH: {
+                return this.selectHashed(exchange, now);
+            }
+            default: {
+                return this.selectRoundRobin(backends, now);
+            }
+        }
+    }
+
+    private Backend findStickyBackend(HttpServerExchange exchange, Backend[] backends, long now) {
+        for (String name : this.sessionCookieNames) {
+            Cookie cookie = exchange.getRequestCookies().get(name);
+            if (cookie != null) {
+                String value = cookie.getValue();
+                int index = value.indexOf('.');
+                if (index >= 0) {
+                    String route = value.substring(index + 1);
+                    for (Backend backend : backends) {
+                        if (route.equals(backend.instanceId) && backend.isAvailable(now)) {
+                            return backend;
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Backend selectRoundRobin(Backend[] backends, long now) {
+        int start = (this.counter.getAndIncrement() & Integer.MAX_VALUE) % backends.length;
+        for (int i = 0; i < backends.length; ++i) {
+            Backend backend = backends[(start + i) % backends.length];
+            if (backend.isAvailable(now)) {
+                return backend;
+            }
+        }
+        return null;
+    }
+
+    private Backend selectLeast(Backend[] backends, long now, boolean latency) {
+        // Backends without a response time yet, e.g. those just added, are assumed to respond as fast as the others on average
+        double defaultLatency = latency ? getMeanLatency(backends) : 0d;
+        // Start at a different backend each time, so that ties are spread evenly
+        int start = (this.counter.getAndIncrement() & Integer.MAX_VALUE) % backends.length;
+        Backend result = null;
+        double best = Double.MAX_VALUE;
+        int bestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < backends.length; ++i) {
+            Backend backend = backends[(start + i) % backends.length];
+            if (backend.isAvailable(now)) {
+                int outstanding = backend.outstanding.get();
+                double score = outstanding;
+                if (latency) {
+                    double backendLatency = backend.getLatency();
+                    score = ((backendLatency > 0d) ? backendLatency : defaultLatency) * (outstanding + 1);
+                }
+                // Break ties, e.g. if no backend has a response time yet, by outstanding requests
+                if ((score < best) || ((score == best) && (outstanding < bestOutstanding))) {
+                    best = score;
+                    bestOutstanding = outstanding;
+                    result = backend;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static double getMeanLatency(Backend[] backends) {
+        double total = 0d;
+        int count = 0;
+        for (Backend backend : backends) {
+            double latency = backend.getLatency();
+            if (latency > 0d) {
+                total += latency;
+                count += 1;
+            }
+        }
+        return (count > 0) ? total / count : 0d;
+    }
+
+    private Backend selectHashed(HttpServerExchange exchange, long now) {
+        String key = (this.hashHeader != null) ? exchange.getRequestHeaders().getFirst(this.hashHeader) : null;
+        if (key == null) {
+            key = exchange.getRelativePath();
+        }
+        return this.selectHashed(key, now);
+    }
+
+    /**
+     * Selects the backend owning the specified key on the ring, or, if that backend is unavailable, the next available backend.
+     */
+    Backend selectHashed(String key, long now) {
+        Ring ring = this.ring;
+        if (ring.hashes.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(ring.hashes, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // Fall through to the next available backend on the ring
+        for (int i = 0; i < ring.hashes.length; ++i) {
+            Backend backend = ring.owners[(index + i) % ring.hashes.length];
+            if (backend.isAvailable(now)) {
+                return backend;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 64-bit FNV-1a hash, followed by the MurmurHash3 finalizer to spread similar keys across the ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); ++i) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * A backend of this client, and its statistics.
+     */
+    public final class Backend {
+        final URI uri;
+        final String instanceId;
+        final LoadBalancingProxyClient client;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicLong requestCount = new AtomicLong();
+        final AtomicLong errorCount = new AtomicLong();
+        // Exponentially weighted moving average of the response time in nanoseconds, as double bits
+        final AtomicLong latency = new AtomicLong(Double.doubleToLongBits(0d));
+        volatile long problemUntil;
+
+        Backend(URI uri, String instanceId, LoadBalancingProxyClient client) {
+            this.uri = uri;
+            this.instanceId = instanceId;
+            this.client = client;
+        }
+
+        boolean isAvailable(long now) {
+            return (this.problemUntil == 0L) || (this.problemUntil - now <= 0L);
+        }
+
+        void markProblem() {
+            this.problemUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(BalancingProxyClient.this.problemServerRetry);
+        }
+
+        void recordLatency(long nanos) {
+            long current = this.latency.get();
+            double value = Double.longBitsToDouble(current);
+            double updated = (value == 0d) ? nanos : value + LATENCY_WEIGHT * (nanos - value);
+            while (!this.latency.compareAndSet(current, Double.doubleToLongBits(updated))) {
+                current = this.latency.get();
+                value = Double.longBitsToDouble(current);
+                updated = (value == 0d) ? nanos : value + LATENCY_WEIGHT * (nanos - value);
+            }
+        }
+
+        double getLatency() {
+            return Double.longBitsToDouble(this.latency.get());
+        }
+
+        public URI getUri() {
+            return this.uri;
+        }
+
+        public int getOutstandingRequests() {
+            return this.outstanding.get();
+        }
+
+        public long getRequestCount() {
+            return this.requestCount.get();
+        }
+
+        public long getErrorCount() {
+            return this.errorCount.get();
+        }
+
+        /**
+         * @return the moving average of the response time
+         */
+        public long getAverageLatency(TimeUnit unit) {
+            return unit.convert((long) this.getLatency(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static class Ring {
+        final long[] hashes;
+        final Backend[] owners;
+
+        Ring(long[] hashes, Backend[] owners) {
+            this.hashes = hashes;
+            this.owners = owners;
+        }
+    }
+
+    /**
+     * Tracks the backend currently serving a request, which changes if the proxy handler retries a failed request.
+     */
+    private static class Request implements ExchangeCompletionListener {
+        private Backend backend;
+        private long start;
+        private boolean failed;
+
+        synchronized void start(Backend backend) {
+            this.finish(false);
+            this.backend = backend;
+            this.start = System.nanoTime();
+            this.failed = false;
+            backend.outstanding.incrementAndGet();
+            backend.requestCount.incrementAndGet();
+        }
+
+        synchronized void fail(Backend backend) {
+            if (this.backend == backend) {
+                this.failed = true;
+            }
+        }
+
+        private void finish(boolean error) {
+            Backend backend = this.backend;
+            if (backend != null) {
+                this.backend = null;
+                backend.outstanding.decrementAndGet();
+                if (this.failed || error) {
+                    backend.errorCount.incrementAndGet();
+                }
+                // Failed requests do not reflect the response time of the backend
+                if (!this.failed) {
+                    backend.recordLatency(System.nanoTime() - this.start);
+                }
+            }
+        }
+
+        @Override
+        public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+            try {
+                synchronized (this) {
+                    this.finish(exchange.getResponseCode() >= 500);
+                }
+            } finally {
+                nextListener.proceed();
+            }
+        }
+    }
+
+    private static class BackendCallback implements ProxyCallback<ProxyConnection> {
+        private final Backend backend;
+        private final Request request;
+        private final ProxyCallback<ProxyConnection> callback;
+
+        BackendCallback(Backend backend, Request request, ProxyCallback<ProxyConnection> callback) {
+            this.backend = backend;
+            this.request = request;
+            this.callback = callback;
+        }
+
+        @Override
+        public void completed(HttpServerExchange exchange, ProxyConnection result) {
+            this.callback.completed(exchange, result);
+        }
+
+        @Override
+        public void failed(HttpServerExchange exchange) {
+            this.backend.markProblem();
+            this.request.fail(this.backend);
+            this.callback.failed(exchange);
+        }
+
+        @Override
+        public void couldNotResolveBackend(HttpServerExchange exchange) {
+            this.backend.markProblem();
+            this.request.fail(this.backend);
+            this.callback.couldNotResolveBackend(exchange);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.handlers;
+
+/**
+ * Strategies by which a {@link BalancingProxyClient} selects the backend of a request without session affinity.
+ */
+public enum BalancingStrategy {
+    /**
+     * Selects backends in turn.
+     */
+    ROUND_ROBIN,
+    /**
+     * Selects the backend with the fewest outstanding requests.
+     */
+    LEAST_OUTSTANDING,
+    /**
+     * Selects the backend with the lowest exponentially weighted moving average of its response times,
+     * weighted by its outstanding requests. A backend without response times yet is assumed to respond in the mean
+     * response time of the other backends, and ties are broken by outstanding requests.
+     */
+    LEAST_LATENCY,
+    /**
+     * Selects the backend by consistent hashing of a request header, or of the request path, so that
+     * requests for the same resource reach the same backend as long as it is available.
+     */
+    CONSISTENT_HASH
+}
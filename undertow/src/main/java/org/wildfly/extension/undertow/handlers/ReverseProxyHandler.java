@@ -26,7 +26,6 @@ import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.ResponseCodeHandler;
 import io.undertow.server.handlers.proxy.ExclusivityChecker;
-import io.undertow.server.handlers.proxy.LoadBalancingProxyClient;
 import io.undertow.server.handlers.proxy.ProxyHandler;
 import io.undertow.util.Headers;
 import org.jboss.as.controller.AttributeDefinition;
@@ -34,6 +33,7 @@ import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.wildfly.extension.undertow.Constants;
@@ -91,6 +91,18 @@ public class ReverseProxyHandler extends Handler {
             .setDefaultValue(new ModelNode(60L))
             .build();
 
+    public static final AttributeDefinition BALANCING_STRATEGY = new SimpleAttributeDefinitionBuilder(Constants.BALANCING_STRATEGY, ModelType.STRING)
+            .setAllowNull(true)
+            .setAllowExpression(true)
+            .setValidator(new EnumValidator<BalancingStrategy>(BalancingStrategy.class, true, true))
+            .setDefaultValue(new ModelNode(BalancingStrategy.ROUND_ROBIN.name()))
+            .build();
+
+    public static final AttributeDefinition HASH_HEADER = new SimpleAttributeDefinitionBuilder(Constants.HASH_HEADER, ModelType.STRING)
+            .setAllowNull(true)
+            .setAllowExpression(true)
+            .build();
+
 
 
     public static final ReverseProxyHandler INSTANCE = new ReverseProxyHandler();
@@ -101,7 +113,7 @@ public class ReverseProxyHandler extends Handler {
 
     @Override
     public Collection<AttributeDefinition> getAttributes() {
-        return Arrays.asList(CONNECTIONS_PER_THREAD, SESSION_COOKIE_NAMES, PROBLEM_SERVER_RETRY, REQUEST_QUEUE_SIZE, MAX_REQUEST_TIME, CACHED_CONNECTIONS_PER_THREAD, CONNECTION_IDLE_TIMEOUT);
+        return Arrays.asList(CONNECTIONS_PER_THREAD, SESSION_COOKIE_NAMES, PROBLEM_SERVER_RETRY, REQUEST_QUEUE_SIZE, MAX_REQUEST_TIME, CACHED_CONNECTIONS_PER_THREAD, CONNECTION_IDLE_TIMEOUT, BALANCING_STRATEGY, HASH_HEADER);
     }
 
     @Override
@@ -120,9 +132,10 @@ public class ReverseProxyHandler extends Handler {
         //TODO: these need a new version of Undertow to actually be wired up
         int cachedConnectionsPerThread = CACHED_CONNECTIONS_PER_THREAD.resolveModelAttribute(context, model).asInt();
         int connectionIdleTimeout = CONNECTION_IDLE_TIMEOUT.resolveModelAttribute(context, model).asInt();
+        BalancingStrategy strategy = BalancingStrategy.valueOf(BALANCING_STRATEGY.resolveModelAttribute(context, model).asString());
+        ModelNode hashHeader = HASH_HEADER.resolveModelAttribute(context, model);
 
-
-        final LoadBalancingProxyClient lb = new LoadBalancingProxyClient(new ExclusivityChecker() {
+        final BalancingProxyClient lb = new BalancingProxyClient(new ExclusivityChecker() {
             @Override
             public boolean isExclusivityRequired(HttpServerExchange exchange) {
                 //we always create a new connection for upgrade requests
@@ -131,7 +144,9 @@ public class ReverseProxyHandler extends Handler {
         })
                 .setConnectionsPerThread(connectionsPerThread)
                 .setMaxQueueSize(requestQueueSize)
-                .setProblemServerRetry(problemServerRetry);
+                .setProblemServerRetry(problemServerRetry)
+                .setStrategy(strategy)
+                .setHashHeader(hashHeader.isDefined() ? hashHeader.asString() : null);
         String[] sessionIds = sessionCookieNames.split(",");
         for (String id : sessionIds) {
             lb.addSessionCookieName(id);
@@ -26,13 +26,14 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
-import io.undertow.server.handlers.proxy.LoadBalancingProxyClient;
 import io.undertow.server.handlers.proxy.ProxyHandler;
 import org.jboss.as.controller.AbstractAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.PersistentResourceDefinition;
@@ -40,6 +41,7 @@ import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraintDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -48,6 +50,7 @@ import org.jboss.as.network.OutboundSocketBinding;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
@@ -91,6 +94,14 @@ public class ReverseProxyHandlerHost extends PersistentResourceDefinition {
             .setAllowExpression(true)
             .build();
 
+    static final AttributeDefinition OUTSTANDING_REQUESTS = new SimpleAttributeDefinitionBuilder("outstanding-requests", ModelType.INT, true).setStorageRuntime().build();
+    static final AttributeDefinition REQUEST_COUNT = new SimpleAttributeDefinitionBuilder("request-count", ModelType.LONG, true).setStorageRuntime().build();
+    static final AttributeDefinition ERROR_COUNT = new SimpleAttributeDefinitionBuilder("error-count", ModelType.LONG, true).setStorageRuntime().build();
+    static final AttributeDefinition AVERAGE_LATENCY = new SimpleAttributeDefinitionBuilder("average-latency", ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+            .setStorageRuntime()
+            .build();
+
 
     private ReverseProxyHandlerHost() {
         super(PathElement.pathElement(Constants.HOST), UndertowExtension.getResolver(Constants.HANDLER, Constants.REVERSE_PROXY, Constants.HOST));
@@ -101,6 +112,14 @@ public class ReverseProxyHandlerHost extends PersistentResourceDefinition {
         return Arrays.asList(OUTBOUND_SOCKET_BINDING, SCHEME, INSTANCE_ID, PATH);
     }
 
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        for (AttributeDefinition metric : Arrays.asList(OUTSTANDING_REQUESTS, REQUEST_COUNT, ERROR_COUNT, AVERAGE_LATENCY)) {
+            resourceRegistration.registerMetric(metric, ReadMetricHandler.INSTANCE);
+        }
+    }
+
 
     @Override
     public void registerOperations(ManagementResourceRegistration resourceRegistration) {
@@ -158,6 +177,7 @@ public class ReverseProxyHandlerHost extends PersistentResourceDefinition {
         private final String instanceId;
         private final String scheme;
         private final String path;
+        private volatile BalancingProxyClient.Backend backend;
 
         private ReverseProxyHostService(String scheme, String instanceId, String path) {
             this.instanceId = instanceId;
@@ -171,10 +191,10 @@ public class ReverseProxyHandlerHost extends PersistentResourceDefinition {
 
         @Override
         public void start(StartContext startContext) throws StartException {
-            final LoadBalancingProxyClient client = (LoadBalancingProxyClient) proxyHandler.getValue().getProxyClient();
+            final BalancingProxyClient client = (BalancingProxyClient) proxyHandler.getValue().getProxyClient();
 
             try {
-                client.addHost(getUri(), instanceId);
+                backend = client.addHost(getUri(), instanceId);
             } catch (URISyntaxException e) {
                 throw new StartException(e);
             }
@@ -182,7 +202,8 @@ public class ReverseProxyHandlerHost extends PersistentResourceDefinition {
 
         @Override
         public void stop(StopContext stopContext) {
-            final LoadBalancingProxyClient client = (LoadBalancingProxyClient) proxyHandler.getValue().getProxyClient();
+            final BalancingProxyClient client = (BalancingProxyClient) proxyHandler.getValue().getProxyClient();
+            backend = null;
             try {
                 client.removeHost(getUri());
             } catch (URISyntaxException e) {
@@ -196,4 +217,31 @@ public class ReverseProxyHandlerHost extends PersistentResourceDefinition {
         }
     }
 
+    private static class ReadMetricHandler implements OperationStepHandler {
+
+        static final ReadMetricHandler INSTANCE = new ReadMetricHandler();
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final PathAddress address = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR));
+            final String name = address.getLastElement().getValue();
+            final String proxyName = address.getElement(address.size() - 2).getValue();
+            final String metric = operation.require(ModelDescriptionConstants.NAME).asString();
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(SERVICE_NAME.append(proxyName).append(name));
+            BalancingProxyClient.Backend backend = ((controller != null) && (controller.getState() == ServiceController.State.UP)) ? ((ReverseProxyHostService) controller.getValue()).backend : null;
+            if (backend == null) {
+                context.getResult().set(0);
+            } else if (metric.equals(OUTSTANDING_REQUESTS.getName())) {
+                context.getResult().set(backend.getOutstandingRequests());
+            } else if (metric.equals(REQUEST_COUNT.getName())) {
+                context.getResult().set(backend.getRequestCount());
+            } else if (metric.equals(ERROR_COUNT.getName())) {
+                context.getResult().set(backend.getErrorCount());
+            } else if (metric.equals(AVERAGE_LATENCY.getName())) {
+                context.getResult().set(backend.getAverageLatency(TimeUnit.MICROSECONDS));
+            }
+            context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
+        }
+    }
+
 }
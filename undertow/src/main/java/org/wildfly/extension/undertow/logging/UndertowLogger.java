@@ -29,6 +29,7 @@ import static org.jboss.logging.Logger.Level.WARN;
 import java.io.File;
 import java.net.InetSocketAddress;
 
+import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.dmr.ModelNode;
@@ -309,4 +310,30 @@ public interface UndertowLogger extends BasicLogger {
     @LogMessage(level = ERROR)
     @Message(id = 71, value = "Jetty ALPN not found. HTTP2 and SPDY are not available. Please make sure Jetty ALPN is on the boot class path.")
     void alpnNotFound();
+
+    @LogMessage(level = ERROR)
+    @Message(id = 72, value = "Failed to write access log %s")
+    void failedToWriteAccessLog(File file, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 73, value = "Dropped %d access log entries for %s, since the access log buffer was full, or the access log could not be written")
+    void droppedAccessLogEntries(long count, File file);
+
+    @LogMessage(level = WARN)
+    @Message(id = 74, value = "Truncated %d bytes of incomplete records from persistent session journal %s")
+    void persistentSessionJournalTruncated(long bytes, File file);
+
+    @LogMessage(level = WARN)
+    @Message(id = 75, value = "Failed to load persistent session %s")
+    void failedToLoadPersistentSession(String sessionId, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 76, value = "Failed to write persistent sessions of deployment %s")
+    void failedToWritePersistentSessions(String deploymentName, @Cause Throwable cause);
+
+    @Message(id = 77, value = "Invalid value %s for %s, must be between %s and %s")
+    OperationFailedException valueOutOfRange(double value, String name, double min, double max);
+
+    @Message(id = 78, value = "Unsupported encoding %s for %s, the supported encodings are %s")
+    OperationFailedException unsupportedEncoding(String encoding, String name, String supported);
 }
@@ -25,6 +25,8 @@ import org.jboss.metadata.web.jboss.ReplicationGranularity;
 import org.jboss.modules.Module;
 
 public interface DistributableSessionManagerConfiguration {
+    enum ExpirationSchedulerType { EXECUTOR, TIMING_WHEEL }
+
     int getMaxActiveSessions();
 
     ReplicationGranularity getGranularity();
@@ -34,4 +36,10 @@ public interface DistributableSessionManagerConfiguration {
     Module getModule();
 
     String getCacheName();
+
+    ExpirationSchedulerType getExpirationSchedulerType();
+
+    boolean isDeltaReplication();
+
+    double getLastAccessedTimeThreshold();
 }
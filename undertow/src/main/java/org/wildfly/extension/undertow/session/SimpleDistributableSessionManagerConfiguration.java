@@ -25,9 +25,13 @@ import org.jboss.metadata.web.jboss.JBossWebMetaData;
 import org.jboss.metadata.web.jboss.ReplicationConfig;
 import org.jboss.metadata.web.jboss.ReplicationGranularity;
 import org.jboss.modules.Module;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.value.InjectedValue;
+import org.wildfly.extension.undertow.ServletContainerService;
 
 /**
- * Simple {@link DistributableSessionManagerConfiguration} implementation that delegates to {@link JBossWebMetaData}.
+ * Simple {@link DistributableSessionManagerConfiguration} implementation that delegates to {@link JBossWebMetaData},
+ * and to the servlet container of the deployment.
  * @author Paul Ferraro
  */
 public class SimpleDistributableSessionManagerConfiguration implements DistributableSessionManagerConfiguration {
@@ -36,6 +40,7 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
     private final ReplicationConfig replicationConfig;
     private final String deploymentName;
     private final Module module;
+    private final InjectedValue<ServletContainerService> container = new InjectedValue<>();
 
     public SimpleDistributableSessionManagerConfiguration(JBossWebMetaData metaData, String deploymentName, Module module) {
         this(metaData.getMaxActiveSessions(), metaData.getReplicationConfig(), deploymentName, module);
@@ -52,6 +57,10 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
         this.module = module;
     }
 
+    public Injector<ServletContainerService> getServletContainerInjector() {
+        return this.container;
+    }
+
     @Override
     public int getMaxActiveSessions() {
         return (this.maxActiveSessions != null) ? this.maxActiveSessions.intValue() : -1;
@@ -76,4 +85,19 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
     public String getCacheName() {
         return (this.replicationConfig != null) ? this.replicationConfig.getCacheName() : null;
     }
+
+    @Override
+    public ExpirationSchedulerType getExpirationSchedulerType() {
+        return this.container.getValue().getSessionExpirationSchedulerType();
+    }
+
+    @Override
+    public boolean isDeltaReplication() {
+        return this.container.getValue().isSessionDeltaReplication();
+    }
+
+    @Override
+    public double getLastAccessedTimeThreshold() {
+        return this.container.getValue().getSessionLastAccessedTimeThreshold();
+    }
 }
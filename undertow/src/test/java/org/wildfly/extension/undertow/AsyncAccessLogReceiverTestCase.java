@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncAccessLogReceiverTestCase {
+
+    private File directory;
+
+    @Before
+    public void init() throws IOException {
+        this.directory = Files.createTempDirectory("access-log").toFile();
+    }
+
+    @After
+    public void destroy() {
+        for (File file : this.directory.listFiles()) {
+            file.delete();
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void text() throws IOException {
+        AsyncAccessLogReceiver receiver = new AsyncAccessLogReceiver(this.directory, "access_log.", "log", AccessLogFormat.TEXT, 16, 0, true);
+        receiver.start();
+        for (int i = 0; i < 1000; ++i) {
+            receiver.logMessage("message " + i);
+        }
+        receiver.close();
+        List<String> lines = Files.readAllLines(new File(this.directory, "access_log.log").toPath(), StandardCharsets.UTF_8);
+        assertEquals(1000, lines.size());
+        assertEquals("message 999", lines.get(999));
+        assertEquals(1000L, receiver.getWrittenCount());
+        assertEquals(0L, receiver.getDroppedCount());
+    }
+
+    @Test
+    public void json() throws IOException {
+        AsyncAccessLogReceiver receiver = new AsyncAccessLogReceiver(this.directory, "access_log.", "log", AccessLogFormat.JSON, 16, 0, true);
+        receiver.start();
+        receiver.logMessage("\"quoted\"");
+        receiver.close();
+        List<String> lines = Files.readAllLines(new File(this.directory, "access_log.log").toPath(), StandardCharsets.UTF_8);
+        assertEquals("{\"message\":\"\\\"quoted\\\"\"}", lines.get(0));
+    }
+
+    @Test
+    public void binary() throws IOException {
+        AsyncAccessLogReceiver receiver = new AsyncAccessLogReceiver(this.directory, "access_log.", "log", AccessLogFormat.BINARY, 16, 0, true);
+        receiver.start();
+        receiver.logMessage("message");
+        receiver.close();
+        try (DataInputStream input = new DataInputStream(new FileInputStream(new File(this.directory, "access_log.log")))) {
+            assertEquals(2 + 2 + 7, input.readInt());
+            assertEquals(AccessLogFormat.BINARY_VERSION, input.readByte());
+            assertEquals(1, input.readByte());
+            assertEquals("message", input.readUTF());
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void sizeRotation() throws IOException {
+        AsyncAccessLogReceiver receiver = new AsyncAccessLogReceiver(this.directory, "access_log.", "log", AccessLogFormat.TEXT, 16, 1000, true);
+        receiver.start();
+        for (int i = 0; i < 1000; ++i) {
+            receiver.logMessage("message " + i);
+        }
+        receiver.close();
+        File[] files = this.directory.listFiles();
+        assertTrue(files.length > 1);
+        int lines = 0;
+        for (File file : files) {
+            assertTrue(file.length() <= 1000 + 65536);
+            lines += Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size();
+        }
+        assertEquals(1000, lines);
+    }
+
+    @Test
+    public void drop() {
+        AsyncAccessLogReceiver receiver = new AsyncAccessLogReceiver(this.directory, "access_log.", "log", AccessLogFormat.TEXT, 4, 0, false);
+        // Writer thread not started, so the ring buffer fills up
+        for (int i = 0; i < 10; ++i) {
+            receiver.logMessage("message " + i);
+        }
+        assertEquals(6L, receiver.getDroppedCount());
+    }
+
+    @Test
+    public void backOff() throws Exception {
+        File missing = new File(this.directory, "missing");
+        AsyncAccessLogReceiver receiver = new AsyncAccessLogReceiver(missing, "access_log.", "log", AccessLogFormat.TEXT, 16, 0, true);
+        receiver.start();
+        // The log file cannot be opened, so the writer backs off, discarding subsequent records
+        for (int i = 0; i < 10; ++i) {
+            receiver.logMessage("message " + i);
+        }
+        long timeout = System.currentTimeMillis() + 10000;
+        while ((receiver.getDroppedCount() == 0L) && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+        }
+        assertTrue(receiver.getDroppedCount() > 0L);
+        assertEquals(0L, receiver.getWrittenCount());
+
+        // The writer reopens the log file once the retry delay elapsed
+        assertTrue(missing.mkdir());
+        Thread.sleep(500);
+        receiver.logMessage("recovered");
+        receiver.close();
+        List<String> lines = Files.readAllLines(new File(missing, "access_log.log").toPath(), StandardCharsets.UTF_8);
+        assertEquals("recovered", lines.get(lines.size() - 1));
+        assertTrue(receiver.getWrittenCount() >= 1L);
+        assertTrue(receiver.getWrittenBytes() > 0L);
+
+        new File(missing, "access_log.log").delete();
+        missing.delete();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionJournalTestCase {
+
+    private File file;
+
+    @Before
+    public void init() throws IOException {
+        this.file = File.createTempFile("sessions", ".journal");
+        this.file.delete();
+    }
+
+    @After
+    public void destroy() {
+        this.file.delete();
+        new File(this.file.getPath() + ".compact").delete();
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            journal.write("a", 100L, attributes("x", "1"));
+            journal.write("b", 200L, attributes("y", "2"));
+            journal.write("a", 300L, attributes("x", "3"));
+            journal.write("c", 400L, attributes("z", "4"));
+            journal.remove("c");
+            journal.sync();
+        }
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            Map<String, Long> expirations = journal.getExpirations();
+            assertEquals(2, expirations.size());
+            assertEquals(300L, expirations.get("a").longValue());
+            assertEquals(200L, expirations.get("b").longValue());
+            assertFalse(journal.contains("c"));
+            assertNull(journal.read("c"));
+            assertArrayEquals(bytes("3"), journal.read("a").get("x"));
+            assertArrayEquals(bytes("2"), journal.read("b").get("y"));
+        }
+    }
+
+    @Test
+    public void unchangedSessions() throws IOException {
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            journal.write("a", 100L, attributes("x", "1"));
+            journal.sync();
+            long length = this.file.length();
+            journal.write("a", 100L, attributes("x", "1"));
+            journal.sync();
+            assertEquals(length, this.file.length());
+            // Only the expiration time changed
+            journal.write("a", 200L, attributes("x", "1"));
+            journal.sync();
+            assertTrue(this.file.length() - length < 32);
+        }
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            assertEquals(200L, journal.getExpirations().get("a").longValue());
+            assertArrayEquals(bytes("1"), journal.read("a").get("x"));
+        }
+    }
+
+    @Test
+    public void truncatedTail() throws IOException {
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            journal.write("a", 100L, attributes("x", "1"));
+            journal.write("b", 200L, attributes("y", "2"));
+            journal.sync();
+        }
+        // Simulate a torn write of the last record
+        try (RandomAccessFile raf = new RandomAccessFile(this.file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            assertEquals(Collections.singleton("a"), journal.getExpirations().keySet());
+            journal.write("c", 300L, attributes("z", "3"));
+            journal.sync();
+        }
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            assertEquals(2, journal.getExpirations().size());
+            assertArrayEquals(bytes("3"), journal.read("c").get("z"));
+        }
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            for (int i = 0; i < 5000; ++i) {
+                journal.write(String.valueOf(i % 10), i, attributes("value", String.valueOf(i)));
+            }
+            journal.sync();
+            // Written after compaction
+            journal.write("0", 10000L, attributes("value", "0"));
+            journal.sync();
+        }
+        assertTrue(this.file.length() < 1000);
+        try (SessionJournal journal = new SessionJournal(this.file)) {
+            Map<String, Long> expirations = journal.getExpirations();
+            assertEquals(10, expirations.size());
+            assertEquals(10000L, expirations.get("0").longValue());
+            assertArrayEquals(bytes("0"), journal.read("0").get("value"));
+            for (int i = 1; i < 10; ++i) {
+                assertEquals(4990L + i, expirations.get(String.valueOf(i)).longValue());
+                assertArrayEquals(bytes(String.valueOf(4990 + i)), journal.read(String.valueOf(i)).get("value"));
+            }
+        }
+    }
+
+    private static Map<String, byte[]> attributes(String name, String value) {
+        Map<String, byte[]> attributes = new HashMap<>();
+        attributes.put(name, bytes(value));
+        return attributes;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
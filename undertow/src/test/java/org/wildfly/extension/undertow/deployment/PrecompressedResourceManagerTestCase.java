@@ -0,0 +1,268 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.undertow.io.IoCallback;
+import io.undertow.io.Sender;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.cache.DirectBufferCache;
+import io.undertow.server.handlers.resource.FileResourceManager;
+import io.undertow.server.handlers.resource.Resource;
+import io.undertow.server.handlers.resource.ResourceChangeListener;
+import io.undertow.server.handlers.resource.ResourceManager;
+import io.undertow.util.ETag;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrecompressedResourceManagerTestCase {
+
+    private static final String PATH = "test.js";
+    private static final IoCallback NOOP_CALLBACK = new IoCallback() {
+        @Override
+        public void onComplete(HttpServerExchange exchange, Sender sender) {
+        }
+
+        @Override
+        public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
+        }
+    };
+
+    private File root;
+    private byte[] content;
+    private ResourceManager delegate;
+
+    @Before
+    public void init() throws IOException {
+        this.root = Files.createTempDirectory("precompressed").toFile();
+        // Pseudo-random content, such that its compressed size exceeds a single buffer
+        StringBuilder builder = new StringBuilder();
+        Random random = new Random(0);
+        for (int i = 0; i < 4096; ++i) {
+            builder.append(Integer.toHexString(random.nextInt()));
+        }
+        this.content = builder.toString().getBytes(StandardCharsets.US_ASCII);
+        try (OutputStream output = new FileOutputStream(new File(this.root, PATH))) {
+            output.write(this.content);
+        }
+        final FileResourceManager files = new FileResourceManager(this.root, 1024 * 1024);
+        this.delegate = new ResourceManager() {
+            @Override
+            public Resource getResource(String path) throws IOException {
+                return files.getResource(path);
+            }
+
+            @Override
+            public boolean isResourceChangeListenerSupported() {
+                return false;
+            }
+
+            @Override
+            public void registerResourceChangeListener(ResourceChangeListener listener) {
+            }
+
+            @Override
+            public void removeResourceChangeListener(ResourceChangeListener listener) {
+            }
+
+            @Override
+            public void close() throws IOException {
+                files.close();
+            }
+        };
+    }
+
+    @After
+    public void destroy() {
+        new File(this.root, PATH).delete();
+        this.root.delete();
+    }
+
+    @Test
+    public void parseEncodings() {
+        assertEquals(Arrays.asList("gzip", "deflate"), PrecompressedResourceManager.parseEncodings(" gzip, DEFLATE,gzip,"));
+        assertEquals(Collections.emptyList(), PrecompressedResourceManager.parseEncodings(null));
+        try {
+            PrecompressedResourceManager.parseEncodings("gzip,br");
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertEquals("br", e.getMessage());
+        }
+    }
+
+    @Test
+    public void selectEncoding() {
+        assertEquals("gzip", PrecompressedResourceManager.selectEncoding(Arrays.asList("gzip", "deflate"), Arrays.asList("deflate, gzip")));
+        assertEquals("deflate", PrecompressedResourceManager.selectEncoding(Arrays.asList("gzip", "deflate"), Arrays.asList("gzip;q=0, deflate;q=0.5")));
+        assertNull(PrecompressedResourceManager.selectEncoding(Arrays.asList("gzip"), Arrays.asList("identity")));
+    }
+
+    @Test
+    public void etag() {
+        assertEquals(new ETag(false, "abc-gzip").toString(), PrecompressedResourceManager.getETag(new ETag(false, "abc"), "gzip").toString());
+        assertEquals(new ETag(true, "abc-deflate").toString(), PrecompressedResourceManager.getETag(new ETag(true, "abc"), "deflate").toString());
+        assertNull(PrecompressedResourceManager.getETag(null, "gzip"));
+    }
+
+    @Test
+    public void staleSibling() throws IOException {
+        File file = new File(this.root, PATH);
+        File sibling = new File(this.root, PATH + ".gz");
+        try {
+            try (OutputStream output = new FileOutputStream(sibling)) {
+                output.write(this.content);
+            }
+            long now = System.currentTimeMillis();
+            assertTrue(file.setLastModified(now - 60000));
+            assertTrue(sibling.setLastModified(now));
+            assertFalse(PrecompressedResourceManager.isStale(this.delegate.getResource(PATH + ".gz"), this.delegate.getResource(PATH)));
+
+            assertTrue(file.setLastModified(now + 60000));
+            assertTrue(PrecompressedResourceManager.isStale(this.delegate.getResource(PATH + ".gz"), this.delegate.getResource(PATH)));
+        } finally {
+            sibling.delete();
+        }
+    }
+
+    @Test
+    public void cached() throws IOException {
+        PrecompressedResourceManager manager = new PrecompressedResourceManager(this.delegate, new DirectBufferCache(1024, 16, 1024 * 1024), Arrays.asList("gzip"));
+        Resource resource = this.delegate.getResource(PATH);
+
+        PrecompressedResourceManager.CompressedVariant variant = manager.getCompressedVariant(resource, manager.getState(PATH), "gzip");
+        assertTrue(variant.isCached());
+        assertArrayEquals(this.content, decompress(variant));
+        variant.getCallback(NOOP_CALLBACK).onComplete(null, null);
+
+        variant = manager.getCompressedVariant(resource, manager.getState(PATH), "gzip");
+        assertTrue(variant.isCached());
+        assertArrayEquals(this.content, decompress(variant));
+        variant.getCallback(NOOP_CALLBACK).onComplete(null, null);
+
+        assertEquals(1, manager.getMissCount());
+        assertTrue(manager.getCompressionRatio() < 1d);
+        manager.close();
+    }
+
+    @Test
+    public void uncached() throws IOException {
+        // Cache too small to retain the compressed resource
+        PrecompressedResourceManager manager = new PrecompressedResourceManager(this.delegate, new DirectBufferCache(1024, 1, 1024), Arrays.asList("gzip"));
+        Resource resource = this.delegate.getResource(PATH);
+
+        PrecompressedResourceManager.CompressedVariant variant = manager.getCompressedVariant(resource, manager.getState(PATH), "gzip");
+        assertFalse(variant.isCached());
+        assertEquals(variant.getSize(), variant.getBuffers()[0].remaining());
+        assertArrayEquals(this.content, decompress(variant));
+        assertEquals(1, manager.getMissCount());
+        manager.close();
+    }
+
+    @Test
+    public void backOff() throws IOException {
+        PrecompressedResourceManager manager = new PrecompressedResourceManager(this.delegate, new DirectBufferCache(1024, 16, 1024 * 1024), Arrays.asList("gzip"));
+        Resource resource = this.delegate.getResource(PATH);
+        PrecompressedResourceManager.ResourceState state = manager.getState(PATH);
+
+        // Simulate a concurrent request compressing the same variant
+        state.compressing.add("gzip");
+        assertNull(manager.getCompressedVariant(resource, state, "gzip"));
+        assertEquals(0, manager.getMissCount());
+
+        state.compressing.remove("gzip");
+        PrecompressedResourceManager.CompressedVariant variant = manager.getCompressedVariant(resource, state, "gzip");
+        assertTrue(variant.isCached());
+        variant.getCallback(NOOP_CALLBACK).onComplete(null, null);
+        assertEquals(1, manager.getMissCount());
+        manager.close();
+    }
+
+    @Test
+    public void invalidate() throws IOException {
+        PrecompressedResourceManager manager = new PrecompressedResourceManager(this.delegate, new DirectBufferCache(1024, 16, 1024 * 1024), Arrays.asList("gzip"));
+        Resource resource = this.delegate.getResource(PATH);
+        PrecompressedResourceManager.ResourceState state = manager.getState(PATH);
+
+        // Simulate a change to the resource while a request is compressing it
+        manager.invalidate(PATH);
+        PrecompressedResourceManager.CompressedVariant variant = manager.getCompressedVariant(resource, state, "gzip");
+        assertArrayEquals(this.content, decompress(variant));
+        variant.getCallback(NOOP_CALLBACK).onComplete(null, null);
+        assertEquals(1, manager.getMissCount());
+
+        // The variant of the stale version was not retained
+        variant = manager.getCompressedVariant(resource, state, "gzip");
+        variant.getCallback(NOOP_CALLBACK).onComplete(null, null);
+        assertEquals(2, manager.getMissCount());
+
+        // The current version is compressed once
+        for (int i = 0; i < 2; ++i) {
+            variant = manager.getCompressedVariant(resource, manager.getState(PATH), "gzip");
+            assertTrue(variant.isCached());
+            variant.getCallback(NOOP_CALLBACK).onComplete(null, null);
+        }
+        assertEquals(3, manager.getMissCount());
+        manager.close();
+    }
+
+    private static byte[] decompress(PrecompressedResourceManager.CompressedVariant variant) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : variant.getBuffers()) {
+            ByteBuffer duplicate = buffer.duplicate();
+            byte[] bytes = new byte[duplicate.remaining()];
+            duplicate.get(bytes);
+            compressed.write(bytes);
+        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            byte[] buffer = new byte[8192];
+            int read = input.read(buffer);
+            while (read >= 0) {
+                result.write(buffer, 0, read);
+                read = input.read(buffer);
+            }
+        }
+        return result.toByteArray();
+    }
+}
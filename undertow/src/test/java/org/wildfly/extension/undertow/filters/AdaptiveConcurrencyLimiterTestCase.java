@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimiterTestCase {
+
+    @Test
+    public void admission() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0, 20);
+        for (int i = 0; i < 8; ++i) {
+            assertTrue(limiter.tryAcquire(false));
+        }
+        // Remaining share of the limit is reserved for priority requests
+        assertFalse(limiter.tryAcquire(false));
+        assertTrue(limiter.tryAcquire(true));
+        assertTrue(limiter.tryAcquire(true));
+        assertFalse(limiter.tryAcquire(true));
+        assertEquals(10, limiter.getInflight());
+    }
+
+    @Test
+    public void queue() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2, 0);
+        assertTrue(limiter.tryAcquire(false));
+        TestWaiter normal = new TestWaiter(false);
+        TestWaiter priority = new TestWaiter(true);
+        TestWaiter rejected = new TestWaiter(false);
+        assertTrue(limiter.enqueue(normal));
+        assertTrue(limiter.enqueue(priority));
+        assertFalse(limiter.enqueue(rejected));
+        assertEquals(2, limiter.getQueued());
+        assertEquals(1L, limiter.getRejectedCount());
+
+        // Priority requests are admitted first
+        limiter.release(1, TimeUnit.MILLISECONDS);
+        assertEquals(1, priority.resumed.get());
+        assertEquals(0, normal.resumed.get());
+        assertEquals(1, limiter.getInflight());
+
+        assertTrue(limiter.expire(normal));
+        assertEquals(0, limiter.getQueued());
+        assertEquals(2L, limiter.getRejectedCount());
+        limiter.release(1, TimeUnit.MILLISECONDS);
+        assertEquals(0, normal.resumed.get());
+        assertEquals(0, limiter.getInflight());
+        // Admitted requests can no longer expire
+        assertFalse(limiter.expire(priority));
+    }
+
+    @Test
+    public void close() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 0);
+        assertTrue(limiter.tryAcquire(false));
+        TestWaiter waiter = new TestWaiter(false);
+        assertTrue(limiter.enqueue(waiter));
+        limiter.close();
+        assertEquals(1, waiter.rejected.get());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    public void adaptation() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 0, 0);
+        long latency = TimeUnit.MILLISECONDS.toNanos(10);
+        // Stable latency with a fully used limit grows the limit
+        for (int i = 0; i < 10; ++i) {
+            limiter.update(latency * 100, 100, limiter.getLimit());
+        }
+        int grown = limiter.getLimit();
+        assertTrue(String.valueOf(grown), grown > 100);
+        // Rising latency shrinks the limit
+        for (int i = 0; i < 10; ++i) {
+            limiter.update(latency * 100 * 5, 100, limiter.getLimit());
+        }
+        int shrunk = limiter.getLimit();
+        assertTrue(String.valueOf(shrunk), shrunk < grown);
+        // An unused limit does not grow
+        limiter.update(latency * 100, 100, 1);
+        assertEquals(shrunk, limiter.getLimit());
+        // Limit never drops below its minimum
+        AdaptiveConcurrencyLimiter bounded = new AdaptiveConcurrencyLimiter(20, 20, 1000, 0, 0);
+        bounded.update(latency * 100, 100, bounded.getLimit());
+        bounded.update(latency * 100 * 1000, 100, bounded.getLimit());
+        assertEquals(20, bounded.getLimit());
+    }
+
+    private static class TestWaiter extends AdaptiveConcurrencyLimiter.Waiter {
+        final AtomicInteger resumed = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+
+        TestWaiter(boolean priority) {
+            super(priority);
+        }
+
+        @Override
+        protected void resume() {
+            this.resumed.incrementAndGet();
+        }
+
+        @Override
+        protected void reject() {
+            this.rejected.incrementAndGet();
+        }
+    }
+}
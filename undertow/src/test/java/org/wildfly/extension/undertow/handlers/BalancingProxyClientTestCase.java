@@ -0,0 +1,177 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BalancingProxyClientTestCase {
+
+    private static final int KEYS = 3000;
+
+    @Test
+    public void noBackends() {
+        for (BalancingStrategy strategy : BalancingStrategy.values()) {
+            assertNull(new BalancingProxyClient(null).setStrategy(strategy).selectBackend(null));
+        }
+    }
+
+    @Test
+    public void roundRobin() {
+        BalancingProxyClient client = new BalancingProxyClient(null);
+        BalancingProxyClient.Backend[] backends = addHosts(client, 3);
+        Map<BalancingProxyClient.Backend, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30; ++i) {
+            increment(counts, client.selectBackend(null));
+        }
+        for (BalancingProxyClient.Backend backend : backends) {
+            assertEquals(10, counts.get(backend).intValue());
+        }
+    }
+
+    @Test
+    public void unavailable() {
+        BalancingProxyClient client = new BalancingProxyClient(null);
+        BalancingProxyClient.Backend[] backends = addHosts(client, 2);
+        backends[0].markProblem();
+        for (BalancingStrategy strategy : new BalancingStrategy[] { BalancingStrategy.ROUND_ROBIN, BalancingStrategy.LEAST_OUTSTANDING, BalancingStrategy.LEAST_LATENCY }) {
+            client.setStrategy(strategy);
+            for (int i = 0; i < 10; ++i) {
+                assertSame(backends[1], client.selectBackend(null));
+            }
+        }
+        for (int i = 0; i < 10; ++i) {
+            assertSame(backends[1], client.selectHashed("/path/" + i, System.nanoTime()));
+        }
+        backends[1].markProblem();
+        assertNull(client.selectBackend(null));
+        assertNull(client.selectHashed("/path", System.nanoTime()));
+    }
+
+    @Test
+    public void leastOutstanding() {
+        BalancingProxyClient client = new BalancingProxyClient(null).setStrategy(BalancingStrategy.LEAST_OUTSTANDING);
+        BalancingProxyClient.Backend[] backends = addHosts(client, 3);
+        backends[0].outstanding.set(2);
+        backends[1].outstanding.set(1);
+        backends[2].outstanding.set(3);
+        for (int i = 0; i < 10; ++i) {
+            assertSame(backends[1], client.selectBackend(null));
+        }
+    }
+
+    @Test
+    public void leastLatency() {
+        BalancingProxyClient client = new BalancingProxyClient(null).setStrategy(BalancingStrategy.LEAST_LATENCY);
+        BalancingProxyClient.Backend[] backends = addHosts(client, 2);
+
+        // Without response times, the backend with the fewest outstanding requests is selected
+        backends[0].outstanding.set(1);
+        for (int i = 0; i < 10; ++i) {
+            assertSame(backends[1], client.selectBackend(null));
+        }
+
+        backends[0].recordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+        backends[1].recordLatency(TimeUnit.MILLISECONDS.toNanos(30));
+        backends[0].outstanding.set(0);
+        assertSame(backends[0], client.selectBackend(null));
+
+        // A new backend is assumed to respond in the mean response time of the others, i.e. 20ms
+        BalancingProxyClient.Backend added = client.addHost(URI.create("http://localhost:8083"), "node3");
+        for (int i = 0; i < 10; ++i) {
+            assertSame(backends[0], client.selectBackend(null));
+        }
+        // 10ms * 3 outstanding requests exceeds 20ms * 1
+        backends[0].outstanding.set(2);
+        for (int i = 0; i < 10; ++i) {
+            assertSame(added, client.selectBackend(null));
+        }
+        // 20ms * 2 outstanding requests exceeds 30ms * 1
+        added.outstanding.set(1);
+        for (int i = 0; i < 10; ++i) {
+            assertSame(backends[1], client.selectBackend(null));
+        }
+    }
+
+    @Test
+    public void consistentHash() {
+        BalancingProxyClient client = new BalancingProxyClient(null).setStrategy(BalancingStrategy.CONSISTENT_HASH);
+        BalancingProxyClient.Backend[] backends = addHosts(client, 3);
+        long now = System.nanoTime();
+
+        Map<String, BalancingProxyClient.Backend> owners = new HashMap<>();
+        Map<BalancingProxyClient.Backend, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; ++i) {
+            String key = "/path/" + i;
+            BalancingProxyClient.Backend backend = client.selectHashed(key, now);
+            assertSame(backend, client.selectHashed(key, now));
+            owners.put(key, backend);
+            increment(counts, backend);
+        }
+        // Virtual nodes spread the keys roughly evenly
+        for (BalancingProxyClient.Backend backend : backends) {
+            int count = counts.get(backend);
+            assertTrue(String.valueOf(count), (count > KEYS / 5) && (count < KEYS / 2));
+        }
+
+        // Keys of an unavailable backend move to other backends, all other keys stay put
+        backends[0].markProblem();
+        for (Map.Entry<String, BalancingProxyClient.Backend> entry : owners.entrySet()) {
+            BalancingProxyClient.Backend backend = client.selectHashed(entry.getKey(), System.nanoTime());
+            if (entry.getValue() == backends[0]) {
+                assertTrue(backend != backends[0]);
+            } else {
+                assertSame(entry.getValue(), backend);
+            }
+        }
+
+        // Removing a backend only remaps its own keys
+        client.removeHost(backends[0].getUri());
+        for (Map.Entry<String, BalancingProxyClient.Backend> entry : owners.entrySet()) {
+            if (entry.getValue() != backends[0]) {
+                assertSame(entry.getValue(), client.selectHashed(entry.getKey(), System.nanoTime()));
+            }
+        }
+    }
+
+    private static BalancingProxyClient.Backend[] addHosts(BalancingProxyClient client, int count) {
+        BalancingProxyClient.Backend[] backends = new BalancingProxyClient.Backend[count];
+        for (int i = 0; i < count; ++i) {
+            backends[i] = client.addHost(URI.create("http://localhost:" + (8080 + i)), "node" + i);
+        }
+        return backends;
+    }
+
+    private static void increment(Map<BalancingProxyClient.Backend, Integer> counts, BalancingProxyClient.Backend backend) {
+        Integer count = counts.get(backend);
+        counts.put(backend, (count != null) ? count + 1 : 1);
+    }
+}